@@ -26,41 +26,122 @@
 
 package onyx;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
+import com.google.common.primitives.Ints;
 import curacao.servlet.jakarta.JakartaServletContext;
 import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.AssetManager;
 import onyx.components.storage.CacheManager;
+import onyx.components.storage.CacheTransfer;
+import onyx.components.storage.ResourceManager;
 import onyx.components.storage.cache.CachedResourceSigner;
+import onyx.components.storage.cache.LocalCacheIndex;
+import onyx.components.storage.cache.LocalCacheMemoryTier;
+import onyx.entities.storage.aws.dynamodb.Resource;
 import onyx.entities.storage.cache.CachedResourceToken;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
+import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.servlet.DefaultServlet;
-import org.eclipse.jetty.util.resource.PathResource;
-import org.eclipse.jetty.util.resource.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import jakarta.servlet.ServletContext;
-import java.nio.file.Path;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static curacao.core.CuracaoCoreObjectMap.getComponentFromContext;
 
+/**
+ * Serves static resources as the stock {@link DefaultServlet} does, except for files in the
+ * local cache, which are served directly off the cache index:
+ *
+ * - the response body is copied from the cached file channel to the response through a
+ *   small, bounded buffer, without mapping the file, nor reading it whole onto the heap
+ *   (this is not zero-copy: every chunk goes through the heap on its way to Jetty);
+ * - every response carries a strong {@code ETag} derived from the S3 ETag of the cached
+ *   object and the last modified time of the cached file, and a {@code Last-Modified};
+ * - {@code If-None-Match} and {@code If-Modified-Since} are answered with a 304, and single
+ *   byte ranges (honoring {@code If-Range}) with partial content.
+ *
+ * A cached file is pinned for as long as it is being streamed, so that it is never evicted
+ * from underneath a response. Small, hot cached files may also be held off-heap by the
+ * {@link LocalCacheMemoryTier}, in which case they are served straight from memory.
+ * Files still being downloaded into the cache are streamed as they arrive (read-through).
+ * Whenever a file cannot be served from the cache (e.g., its download failed), and nothing
+ * of the response has been committed yet, the client is redirected to the file in S3.
+ */
 public final class LocalCacheAwareDefaultServlet extends DefaultServlet {
 
     private static final Logger LOG = LoggerFactory.getLogger(LocalCacheAwareDefaultServlet.class);
 
     private static final Splitter SLASH_SPLITTER = Splitter.on("/").trimResults().omitEmptyStrings();
+    private static final Splitter COMMA_SPLITTER = Splitter.on(",").trimResults().omitEmptyStrings();
 
     private static final String LOCAL_CACHE_URI_PATH_PREFIX = "/static/cache/";
 
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private static final String BYTES_RANGE_UNIT_PREFIX = "bytes=";
+
     @Override
-    public Resource getResource(
-            final String pathInContext) {
-        if (!pathInContext.startsWith(LOCAL_CACHE_URI_PATH_PREFIX)) {
-            return super.getResource(pathInContext);
+    protected void doGet(
+            final HttpServletRequest request,
+            final HttpServletResponse response) throws ServletException, IOException {
+        if (!isCachedResourceRequest(request)) {
+            super.doGet(request, response);
+            return;
         }
 
+        serveCachedResource(request, response, true);
+    }
+
+    @Override
+    protected void doHead(
+            final HttpServletRequest request,
+            final HttpServletResponse response) throws ServletException, IOException {
+        if (!isCachedResourceRequest(request)) {
+            super.doHead(request, response);
+            return;
+        }
+
+        serveCachedResource(request, response, false);
+    }
+
+    private static boolean isCachedResourceRequest(
+            final HttpServletRequest request) {
+        return getPathInContext(request).startsWith(LOCAL_CACHE_URI_PATH_PREFIX);
+    }
+
+    private static String getPathInContext(
+            final HttpServletRequest request) {
+        return StringUtils.defaultString(request.getServletPath())
+                + StringUtils.defaultString(request.getPathInfo());
+    }
+
+    private void serveCachedResource(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final boolean includeBody) throws IOException {
         final ServletContext context = getServletContext();
         final curacao.core.servlet.ServletContext curacaoServletContext =
                 new JakartaServletContext(context);
@@ -72,14 +153,17 @@ public final class LocalCacheAwareDefaultServlet extends DefaultServlet {
         final boolean localCacheEnabled = localCacheConfig.localCacheEnabled();
         if (!localCacheEnabled) {
             LOG.debug("Local resource cache not enabled; bye.");
-            return null;
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
         // Remove the cache prefix & extract the resource token from the path.
-        final String resourceWithToken = Strings.CS.removeStart(pathInContext, LOCAL_CACHE_URI_PATH_PREFIX);
+        final String resourceWithToken = Strings.CS.removeStart(getPathInContext(request),
+                LOCAL_CACHE_URI_PATH_PREFIX);
         final List<String> tokens = SLASH_SPLITTER.splitToList(resourceWithToken);
         if (tokens.size() != 2) {
-            return null;
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
         // Validate the signed cache token.
@@ -91,22 +175,435 @@ public final class LocalCacheAwareDefaultServlet extends DefaultServlet {
                 cachedResourceSigner.extractSignedCachedResourceToken(token);
         if (cachedResourceToken == null) {
             LOG.warn("Failed to validate signed cache token: {}", token);
-            return null;
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
-        // Locate the cached asset/file for the resource token.
         final CacheManager cacheManager =
                 getComponentFromContext(curacaoServletContext, CacheManager.class);
         checkNotNull(cacheManager, "Cache manager cannot be null; context not initialized?");
-        final boolean hasResourceInCache = cacheManager.hasResourceInCache(cachedResourceToken.getPath());
-        if (!hasResourceInCache) {
-            LOG.warn("Got valid token, but found no asset/file in cache for path: {}",
-                    cachedResourceToken.getPath());
+        final String resourcePath = cachedResourceToken.getPath();
+
+        final String contentType = context.getMimeType(tokens.get(1));
+
+        // Locate the cached asset/file for the resource token; a pure in-memory lookup.
+        final LocalCacheIndex localCacheIndex =
+                getComponentFromContext(curacaoServletContext, LocalCacheIndex.class);
+        checkNotNull(localCacheIndex, "Local cache index cannot be null; context not initialized?");
+        final String cacheKey = cachedResourceToken.getCacheKey();
+        if (localCacheIndex.get(cacheKey) == null) {
+            // Not cached yet; if the file is being downloaded into the cache, read it through.
+            final CompletableFuture<CacheTransfer> inFlight = cacheManager.getInFlightDownload(resourcePath);
+            if (inFlight != null) {
+                serveInFlightDownload(curacaoServletContext, resourcePath, response, includeBody,
+                        (contentType != null) ? contentType : DEFAULT_CONTENT_TYPE, inFlight,
+                        localCacheConfig.getLocalCacheDownloaderReadTimeout(TimeUnit.MILLISECONDS));
+                return;
+            }
+        }
+
+        // Pin the cached file first, and only then look it up (again; the download may also
+        // have completed in the meantime) and open it: a pinned file is never evicted, so one
+        // found in the index once pinned stays readable for as long as it is being streamed.
+        // One evicted in between is served from S3 instead, before any header is written.
+        try (Closeable pin = cacheManager.pinCachedFile(resourcePath)) {
+            final LocalCacheIndex.CachedFile cachedFile = localCacheIndex.get(cacheKey);
+            if (cachedFile == null) {
+                LOG.warn("Got valid token, but found no asset/file in cache for path: {}",
+                        resourcePath);
+                redirectToS3(curacaoServletContext, resourcePath, response);
+                return;
+            }
+
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(localCacheIndex.resolve(cacheKey), StandardOpenOption.READ);
+            } catch (final NoSuchFileException e) {
+                LOG.warn("Found asset/file in cache index, but not on disk for path: {}",
+                        resourcePath);
+                redirectToS3(curacaoServletContext, resourcePath, response);
+                return;
+            }
+
+            // Mark the cached file as most recently used, so it is the last to be evicted.
+            cacheManager.recordCacheHit(resourcePath);
+
+            try (channel) {
+                serveCachedFile(curacaoServletContext, request, response, includeBody, contentType,
+                        cachedFile, channel);
+            }
+        }
+    }
+
+    /**
+     * Serves a pinned, and opened, cached file: answers conditional requests and ranges off
+     * its validators, and writes the body from memory if the {@link LocalCacheMemoryTier}
+     * holds the file, otherwise from the given channel.
+     */
+    private void serveCachedFile(
+            final curacao.core.servlet.ServletContext curacaoServletContext,
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final boolean includeBody,
+            @Nullable final String contentType,
+            final LocalCacheIndex.CachedFile cachedFile,
+            final FileChannel channel) throws IOException {
+        final ByteRange region = writeCachedFileHeaders(request, response,
+                (contentType != null) ? contentType : DEFAULT_CONTENT_TYPE,
+                getInitParameter("cacheControl"),
+                getStrongETag(cachedFile),
+                cachedFile.getLastModified().toEpochMilli(),
+                cachedFile.getSize());
+        if (region == null || !includeBody || region.getLength() == 0L) {
+            return;
+        }
+
+        final long start = region.getStart();
+        final long length = region.getLength();
+
+        final LocalCacheMemoryTier localCacheMemoryTier =
+                getComponentFromContext(curacaoServletContext, LocalCacheMemoryTier.class);
+        checkNotNull(localCacheMemoryTier, "Local cache memory tier cannot be null; context not initialized?");
+        if (localCacheMemoryTier.isCandidate(cachedFile)) {
+            try (LocalCacheMemoryTier.CachedContent content = localCacheMemoryTier.acquire(cachedFile)) {
+                if (content != null) {
+                    writeRegion(content.getContent(), start, length, response.getOutputStream());
+                    return;
+                }
+            }
+        }
+
+        writeRegion(channel, start, length, response.getOutputStream());
+    }
+
+    /**
+     * Writes the status and headers of the response for a cached file with the given
+     * validators and size: a 304 if the client's copy is fresh, a 416 if the range requested
+     * lies beyond the end of the file, a 206 for a range, or a 200. Returns the region of the
+     * file to write as the body, or {@code null} if the response is complete without one.
+     */
+    @VisibleForTesting
+    @Nullable
+    static ByteRange writeCachedFileHeaders(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final String contentType,
+            @Nullable final String cacheControl,
+            final String eTag,
+            final long lastModified,
+            final long size) throws IOException {
+        response.setHeader("ETag", eTag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Accept-Ranges", "bytes");
+        if (cacheControl != null) {
+            response.setHeader("Cache-Control", cacheControl);
+        }
+
+        if (isNotModified(request, eTag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return null;
         }
 
-        final Path cachedResource = cacheManager.getCachedFileForResource(cachedResourceToken.getPath());
-        return new PathResource(cachedResource);
+        response.setContentType(contentType);
+
+        final ByteRange range = getRequestedRange(request, eTag, lastModified, size);
+        final ByteRange region;
+        if (range == null) {
+            region = new ByteRange(0L, size);
+            response.setStatus(HttpServletResponse.SC_OK);
+        } else if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader("Content-Range", "bytes */" + size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return null;
+        } else {
+            region = range;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", String.format("bytes %d-%d/%d",
+                    range.getStart(), range.getStart() + range.getLength() - 1L, size));
+        }
+        response.setContentLengthLong(region.getLength());
+
+        return region;
+    }
+
+    /**
+     * Streams a file that is still being downloaded into the cache, from the partially
+     * written cache file, as its bytes arrive. A slow client never holds up the download
+     * (nor is the file buffered on the heap); the cache file absorbs the difference. If the
+     * client goes away, the download carries on regardless, so the next request is a hit.
+     * Until the file is cached, it has no validators, and ranges are not served.
+     */
+    private void serveInFlightDownload(
+            final curacao.core.servlet.ServletContext curacaoServletContext,
+            final String resourcePath,
+            final HttpServletResponse response,
+            final boolean includeBody,
+            final String contentType,
+            final CompletableFuture<CacheTransfer> inFlight,
+            final long readTimeoutMs) throws IOException {
+        final CacheTransfer transfer = awaitTransfer(inFlight, readTimeoutMs);
+        if (transfer == null) {
+            redirectToS3(curacaoServletContext, resourcePath, response);
+            return;
+        }
+
+        final long size = transfer.getSize();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(contentType);
+        response.setContentLengthLong(size);
+        final String cacheControl = getInitParameter("cacheControl");
+        if (cacheControl != null) {
+            response.setHeader("Cache-Control", cacheControl);
+        }
+
+        if (!includeBody || size == 0L) {
+            return;
+        }
+
+        // The channel stays readable once the file is moved into place, or even evicted.
+        try (FileChannel channel = transfer.open()) {
+            final ServletOutputStream out = response.getOutputStream();
+            long position = 0L;
+            while (position < size) {
+                final long available = transfer.awaitAvailable(position, readTimeoutMs, TimeUnit.MILLISECONDS);
+                writeRegion(channel, position, available - position, out);
+                position = available;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while streaming cache file download.");
+        } catch (final IOException e) {
+            // The download failed (or stalled) before anything was sent; the client can
+            // still be sent to S3 instead.
+            if (response.isCommitted()) {
+                throw e;
+            }
+            LOG.warn("Failed to read through cache file download: {}", resourcePath, e);
+            response.reset();
+            redirectToS3(curacaoServletContext, resourcePath, response);
+        }
+    }
+
+    /**
+     * Redirects the client to a presigned S3 download URL of the resource at the given path,
+     * for when the file cannot be served from the cache; responds with a 404 if there is no
+     * longer any such resource.
+     */
+    private static void redirectToS3(
+            final curacao.core.servlet.ServletContext curacaoServletContext,
+            final String resourcePath,
+            final HttpServletResponse response) throws IOException {
+        final ResourceManager resourceManager =
+                getComponentFromContext(curacaoServletContext, ResourceManager.class);
+        checkNotNull(resourceManager, "Resource manager cannot be null; context not initialized?");
+        final Resource resource = resourceManager.getResourceAtPath(resourcePath);
+        if (resource == null || !Resource.Type.FILE.equals(resource.getType())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final AssetManager assetManager =
+                getComponentFromContext(curacaoServletContext, AssetManager.class);
+        checkNotNull(assetManager, "Asset manager cannot be null; context not initialized?");
+        response.sendRedirect(assetManager.getPresignedDownloadUrlForResource(resource).toString());
+    }
+
+    /**
+     * Waits for the download in flight to start; returns {@code null} if it failed to.
+     */
+    @Nullable
+    private static CacheTransfer awaitTransfer(
+            final CompletableFuture<CacheTransfer> inFlight,
+            final long readTimeoutMs) throws IOException {
+        try {
+            return inFlight.get(readTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for cache file download.");
+        } catch (final ExecutionException | TimeoutException e) {
+            LOG.warn("Failed to start download of file to cache.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given region of an in-memory (off-heap) file to the response; Jetty writes
+     * direct buffers straight to the connection, without copying them through the heap.
+     */
+    private static void writeRegion(
+            final ByteBuffer content,
+            final long start,
+            final long length,
+            final ServletOutputStream out) throws IOException {
+        final ByteBuffer region = content.slice(Ints.checkedCast(start), Ints.checkedCast(length));
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).write(region);
+        } else {
+            final WritableByteChannel target = Channels.newChannel(out);
+            while (region.hasRemaining()) {
+                target.write(region);
+            }
+        }
+    }
+
+    /**
+     * Writes the given region of the channel to the response, with {@link FileChannel#transferTo}.
+     * The target is not a socket, so this is no {@code sendfile}: the JDK reads each chunk into
+     * a small, bounded buffer, which the stream adapter copies onto the heap and Jetty copies
+     * again into its own buffers. The trade-off is deliberate: unlike mapping the region, no
+     * native memory is held per request, however large the file or many the requests.
+     */
+    private static void writeRegion(
+            final FileChannel channel,
+            final long start,
+            final long length,
+            final ServletOutputStream out) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(out);
+
+        long position = start;
+        long remaining = length;
+        while (remaining > 0L) {
+            final long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0L) {
+                throw new IOException("Cached file shorter than expected: " + channel.size());
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    /**
+     * A strong validator for the cached file: the cached file is only ever replaced as a
+     * whole, so its content is fully determined by the version of the S3 object it was
+     * downloaded from (its ETag, when known, otherwise its size) and when it was written.
+     */
+    private static String getStrongETag(
+            final LocalCacheIndex.CachedFile cachedFile) {
+        final String s3ETag = StringUtils.strip(cachedFile.getETag(), "\"");
+        final String version = (s3ETag != null) ? s3ETag : Long.toHexString(cachedFile.getSize());
+        return String.format("\"%s-%s\"", version,
+                Long.toHexString(cachedFile.getLastModified().toEpochMilli()));
+    }
+
+    @VisibleForTesting
+    static boolean isNotModified(
+            final HttpServletRequest request,
+            final String eTag,
+            final long lastModified) {
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match uses the weak comparison, and takes precedence over If-Modified-Since.
+            for (final String candidate : COMMA_SPLITTER.split(ifNoneMatch)) {
+                if ("*".equals(candidate) || eTag.equals(Strings.CS.removeStart(candidate, "W/"))) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        final long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+        // HTTP dates have a resolution of one second.
+        return ifModifiedSince >= 0L && (lastModified / 1000L) <= (ifModifiedSince / 1000L);
+    }
+
+    /**
+     * Returns the single byte range to serve, {@link ByteRange#UNSATISFIABLE} if the range
+     * requested lies entirely beyond the end of the file, or {@code null} if the entire file
+     * is to be served: no range was requested, the {@code If-Range} validator no longer
+     * matches, or the range is one this servlet does not serve partially (e.g., multiple
+     * ranges, which the server is free to ignore).
+     */
+    @VisibleForTesting
+    @Nullable
+    static ByteRange getRequestedRange(
+            final HttpServletRequest request,
+            final String eTag,
+            final long lastModified,
+            final long size) {
+        final String rangeHeader = request.getHeader("Range");
+        if (rangeHeader == null || !rangeHeader.startsWith(BYTES_RANGE_UNIT_PREFIX)) {
+            return null;
+        }
+
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // If-Range uses the strong comparison; a weak validator never matches.
+                if (!eTag.equals(ifRange)) {
+                    return null;
+                }
+            } else if ((getDateHeader(request, "If-Range") / 1000L) != (lastModified / 1000L)) {
+                return null;
+            }
+        }
+
+        final String spec = rangeHeader.substring(BYTES_RANGE_UNIT_PREFIX.length()).trim();
+        final int dash = spec.indexOf('-');
+        if (spec.contains(",") || dash < 0) {
+            return null;
+        }
+
+        try {
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // A suffix range: the last N bytes of the file.
+                final long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0L || size == 0L) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                final long length = Math.min(suffixLength, size);
+                return new ByteRange(size - length, length);
+            }
+
+            final long start = Long.parseLong(first);
+            final long end = last.isEmpty() ? (size - 1L) : Long.parseLong(last);
+            if (end < start) {
+                return null;
+            } else if (start >= size) {
+                return ByteRange.UNSATISFIABLE;
+            }
+
+            return new ByteRange(start, Math.min(end, size - 1L) - start + 1L);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long getDateHeader(
+            final HttpServletRequest request,
+            final String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (final IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
+    @VisibleForTesting
+    static final class ByteRange {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1L, -1L);
+
+        private final long start_;
+        private final long length_;
+
+        private ByteRange(
+                final long start,
+                final long length) {
+            start_ = start;
+            length_ = length;
+        }
+
+        long getStart() {
+            return start_;
+        }
+
+        long getLength() {
+            return length_;
+        }
+
     }
 
 }
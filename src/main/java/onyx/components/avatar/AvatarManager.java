@@ -37,4 +37,11 @@ public interface AvatarManager {
     URL getPresignedAvatarUrlForUsername(
             String username);
 
+    /**
+     * Drops any memoized presigned URL for the user's avatar; to be called whenever the
+     * avatar is uploaded, replaced or deleted.
+     */
+    void invalidatePresignedAvatarUrlForUsername(
+            String username);
+
 }
@@ -29,6 +29,7 @@ package onyx.components.avatar;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
 import onyx.components.aws.s3.OnyxS3Client;
+import onyx.components.aws.s3.PresignedUrlCache;
 import onyx.components.config.aws.AwsConfig;
 import onyx.components.storage.AssetManager;
 import org.slf4j.Logger;
@@ -56,6 +57,8 @@ public final class OnyxS3AvatarManager implements AvatarManager {
     private final S3Client s3_;
     private final S3Presigner presigner_;
 
+    private final PresignedUrlCache presignedUrlCache_;
+
     @Injectable
     public OnyxS3AvatarManager(
             final AwsConfig awsConfig,
@@ -63,40 +66,59 @@ public final class OnyxS3AvatarManager implements AvatarManager {
         awsConfig_ = awsConfig;
         s3_ = onyxS3Client.getS3Client();
         presigner_ = onyxS3Client.getPresigner();
+        presignedUrlCache_ = new PresignedUrlCache(awsConfig.getAwsS3PresignedUrlCacheEnabled(),
+                awsConfig.getAwsS3PresignedUrlCacheMaxSize(),
+                awsConfig.getAwsS3PresignedUrlCacheMinRemainingValidity());
     }
 
     @Override
     public URL getPresignedAvatarUrlForUsername(
             final String username) {
         final String bucketName = awsConfig_.getAwsS3BucketName();
-        final String key = ONYX_AVATAR_PATH_PREFIX + "/" + username + ".jpg";
+        final String key = getAvatarKey(username);
+
+        final long validitySeconds =
+                awsConfig_.getAwsS3PresignedAssetUrlValidityDuration(TimeUnit.SECONDS);
+        final Duration validity = Duration.ofSeconds(validitySeconds);
+
+        // Both the existence check and the presign are skipped while a memoized URL is
+        // still good; a missing avatar is never memoized, so a new one shows up right away.
+        return presignedUrlCache_.get(PresignedUrlCache.PresignKey.of("GET", bucketName, key), validity, () -> {
+            try {
+                s3_.headObject(HeadObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .build());
+            } catch (final NoSuchKeyException e) {
+                return null;
+            } catch (final Exception e) {
+                LOG.info("Failed to check avatar in S3 for username: {}", username, e);
+                return null;
+            }
 
-        try {
-            s3_.headObject(HeadObjectRequest.builder()
+            final GetObjectRequest getRequest = GetObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
-                    .build());
-        } catch (final NoSuchKeyException e) {
-            return null;
-        } catch (final Exception e) {
-            LOG.info("Failed to check avatar in S3 for username: {}", username, e);
-            return null;
-        }
+                    .build();
 
-        final long validitySeconds =
-                awsConfig_.getAwsS3PresignedAssetUrlValidityDuration(TimeUnit.SECONDS);
+            final GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                    .signatureDuration(validity)
+                    .getObjectRequest(getRequest)
+                    .build();
 
-        final GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .build();
+            return presigner_.presignGetObject(presignRequest);
+        });
+    }
 
-        final GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofSeconds(validitySeconds))
-                .getObjectRequest(getRequest)
-                .build();
+    @Override
+    public void invalidatePresignedAvatarUrlForUsername(
+            final String username) {
+        presignedUrlCache_.invalidate(getAvatarKey(username));
+    }
 
-        return presigner_.presignGetObject(presignRequest).url();
+    private static String getAvatarKey(
+            final String username) {
+        return ONYX_AVATAR_PATH_PREFIX + "/" + username + ".jpg";
     }
 
 }
@@ -26,34 +26,156 @@
 
 package onyx.components.aws;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
+import curacao.components.ComponentDestroyable;
 import onyx.BuildVersion;
 import onyx.components.config.OnyxConfig;
+import onyx.components.config.aws.AwsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.client.config.SdkAdvancedClientOption;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The HTTP transport shared by every AWS SDK client: one pooled, keep-alive tuned HTTP
+ * client (and one async counterpart) that all clients borrow connections from, default
+ * API call and attempt deadlines, and pre-warming of connections at startup.
+ *
+ * The SDK never closes an HTTP client it was handed, so the shared clients are closed
+ * here, on destroy.
+ */
 @Component
-public final class AwsClientConfig {
+public final class AwsClientConfig implements ComponentDestroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AwsClientConfig.class);
 
     private static final String USER_AGENT_PREFIX_FORMAT = "Onyx/%s (+%s)";
 
+    private static final ThreadFactory PREWARM_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-aws-prewarm-%d")
+            .build();
+
+    private final String userAgentPrefix_;
+
     private final ClientOverrideConfiguration clientOverrideConfiguration_;
 
+    private final SdkHttpClient httpClient_;
+    private final SdkAsyncHttpClient asyncHttpClient_;
+
+    private final int prewarmConnections_;
+    private final ExecutorService prewarmExecutorService_;
+
     @Injectable
     public AwsClientConfig(
-            final OnyxConfig onyxConfig) {
+            final OnyxConfig onyxConfig,
+            final AwsConfig awsConfig) {
         final BuildVersion buildVersion = BuildVersion.getInstance();
 
-        final String userAgentPrefix = String.format(USER_AGENT_PREFIX_FORMAT,
+        userAgentPrefix_ = String.format(USER_AGENT_PREFIX_FORMAT,
                 buildVersion.getBuildNumber(), onyxConfig.getViewSafeFullUri());
-        clientOverrideConfiguration_ = ClientOverrideConfiguration.builder()
-                .putAdvancedOption(SdkAdvancedClientOption.USER_AGENT_PREFIX, userAgentPrefix)
+        clientOverrideConfiguration_ = getClientOverrideConfiguration(
+                awsConfig.getAwsClientApiCallTimeout(),
+                awsConfig.getAwsClientApiCallAttemptTimeout());
+
+        final int maxConnections = awsConfig.getAwsClientMaxConnections();
+        final Duration connectionTimeout = awsConfig.getAwsClientConnectionTimeout();
+        final Duration socketTimeout = awsConfig.getAwsClientSocketTimeout();
+        final Duration connectionMaxIdleTime = awsConfig.getAwsClientConnectionMaxIdleTime();
+        final Duration connectionTimeToLive = awsConfig.getAwsClientConnectionTimeToLive();
+        final boolean tcpKeepAlive = awsConfig.getAwsClientTcpKeepAlive();
+
+        httpClient_ = ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(connectionTimeout)
+                .socketTimeout(socketTimeout)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .connectionTimeToLive(connectionTimeToLive)
+                .tcpKeepAlive(tcpKeepAlive)
+                .useIdleConnectionReaper(true)
+                .build();
+
+        asyncHttpClient_ = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConnections)
+                .connectionTimeout(connectionTimeout)
+                .readTimeout(socketTimeout)
+                .writeTimeout(socketTimeout)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .connectionTimeToLive(connectionTimeToLive)
+                .tcpKeepAlive(tcpKeepAlive)
+                .useIdleConnectionReaper(true)
                 .build();
+
+        prewarmConnections_ = awsConfig.getAwsClientPrewarmConnections();
+        prewarmExecutorService_ = Executors.newFixedThreadPool(Math.max(1, prewarmConnections_),
+                PREWARM_THREAD_FACTORY);
     }
 
+    /**
+     * The default override configuration, for clients without deadlines of their own.
+     */
     public ClientOverrideConfiguration getClientOverrideConfiguration() {
         return clientOverrideConfiguration_;
     }
 
+    /**
+     * An override configuration with the given deadlines of an entire API call (across
+     * all of its retries) and of each individual attempt.
+     */
+    public ClientOverrideConfiguration getClientOverrideConfiguration(
+            final Duration apiCallTimeout,
+            final Duration apiCallAttemptTimeout) {
+        return ClientOverrideConfiguration.builder()
+                .putAdvancedOption(SdkAdvancedClientOption.USER_AGENT_PREFIX, userAgentPrefix_)
+                .apiCallTimeout(apiCallTimeout)
+                .apiCallAttemptTimeout(apiCallAttemptTimeout)
+                .build();
+    }
+
+    public SdkHttpClient getHttpClient() {
+        return httpClient_;
+    }
+
+    public SdkAsyncHttpClient getAsyncHttpClient() {
+        return asyncHttpClient_;
+    }
+
+    /**
+     * Opens connections to a service ahead of the first real request by issuing the given
+     * cheap call concurrently, once per connection to warm, in the background. Any response
+     * at all, even an error (e.g., for lack of permission), leaves a warm pooled connection
+     * behind, so failures are only logged.
+     */
+    public void prewarm(
+            final String service,
+            final Runnable call) {
+        for (int i = 0; i < prewarmConnections_; i++) {
+            prewarmExecutorService_.execute(() -> {
+                try {
+                    call.run();
+                } catch (final Exception e) {
+                    LOG.debug("Connection pre-warming call to {} failed (ignored).", service, e);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        prewarmExecutorService_.shutdownNow();
+        httpClient_.close();
+        asyncHttpClient_.close();
+    }
+
 }
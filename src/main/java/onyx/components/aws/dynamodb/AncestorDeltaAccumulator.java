@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A write-behind accumulator of ancestor size and cost deltas. Deltas are summed in
+ * memory per ancestor, and one consolidated delta per ancestor is handed to the flusher
+ * on a fixed interval, as soon as the number of accumulated deltas crosses a threshold,
+ * and once more on shutdown. Thousands of uploads into the same directory collapse
+ * into a handful of writes against each of its ancestors. A flush issues its writes
+ * concurrently, with at most the given number of them in flight at once.
+ */
+public final class AncestorDeltaAccumulator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AncestorDeltaAccumulator.class);
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-ancestor-delta-flusher-%d")
+            .build();
+
+    private final int flushThreshold_;
+    private final int flushParallelism_;
+
+    private final Function<AncestorDelta, CompletableFuture<?>> flusher_;
+
+    private final Map<String, AncestorDelta> pending_;
+    private final AtomicInteger pendingCount_;
+    private final AtomicBoolean flushScheduled_;
+
+    private final ScheduledExecutorService scheduledExecutorService_;
+
+    public AncestorDeltaAccumulator(
+            final Duration flushInterval,
+            final int flushThreshold,
+            final int flushParallelism,
+            final Function<AncestorDelta, CompletableFuture<?>> flusher) {
+        checkNotNull(flushInterval, "Ancestor delta flush interval cannot be null.");
+        checkArgument(flushThreshold > 0, "Ancestor delta flush threshold must be > 0.");
+        checkArgument(flushParallelism > 0, "Ancestor delta flush parallelism must be > 0.");
+        flushThreshold_ = flushThreshold;
+        flushParallelism_ = flushParallelism;
+        flusher_ = checkNotNull(flusher, "Ancestor delta flusher cannot be null.");
+
+        pending_ = new ConcurrentHashMap<>();
+        pendingCount_ = new AtomicInteger();
+        flushScheduled_ = new AtomicBoolean();
+
+        scheduledExecutorService_ = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        final long flushIntervalMs = flushInterval.toMillis();
+        scheduledExecutorService_.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(
+            final String path,
+            final String parent,
+            final long sizeDelta,
+            final BigDecimal costDelta) {
+        checkNotNull(path, "Ancestor path cannot be null.");
+        checkNotNull(parent, "Ancestor parent cannot be null.");
+        checkNotNull(costDelta, "Ancestor cost delta cannot be null.");
+
+        // ConcurrentHashMap#merge is atomic per key, so concurrent deltas against the
+        // same ancestor are never lost.
+        pending_.merge(path, new AncestorDelta(path, parent, sizeDelta, costDelta),
+                AncestorDelta::plus);
+
+        if (pendingCount_.incrementAndGet() >= flushThreshold_
+                && flushScheduled_.compareAndSet(false, true)) {
+            try {
+                scheduledExecutorService_.execute(() -> {
+                    flushScheduled_.set(false);
+                    flushQuietly();
+                });
+            } catch (final Exception e) {
+                // Shutting down; the final flush on shutdown picks it up.
+                flushScheduled_.set(false);
+            }
+        }
+    }
+
+    /**
+     * Hands every pending delta to the flusher, and returns once all of the resulting
+     * writes have completed. Deltas that failed to flush are put back for the next flush.
+     */
+    public synchronized void flush() {
+        pendingCount_.set(0);
+
+        final Semaphore inFlight = new Semaphore(flushParallelism_);
+        final List<AncestorDelta> deltas = new ArrayList<>();
+        final List<CompletableFuture<?>> writes = new ArrayList<>();
+        for (final String path : pending_.keySet()) {
+            final AncestorDelta delta = pending_.remove(path);
+            if (delta == null || delta.isZero()) {
+                continue;
+            }
+
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<?> write;
+            try {
+                write = flusher_.apply(delta);
+            } catch (final Exception e) {
+                write = CompletableFuture.failedFuture(e);
+            }
+            write.whenComplete((result, t) -> inFlight.release());
+
+            deltas.add(delta);
+            writes.add(write);
+        }
+
+        int flushed = 0;
+        for (int i = 0; i < deltas.size(); i++) {
+            final AncestorDelta delta = deltas.get(i);
+            try {
+                writes.get(i).join();
+                flushed++;
+            } catch (final Exception e) {
+                LOG.warn("Failed to flush ancestor delta, will retry on next flush: {}",
+                        delta.getPath(), e);
+                // Put the delta back so it isn't lost.
+                pending_.merge(delta.getPath(), delta, AncestorDelta::plus);
+            }
+        }
+
+        if (flushed > 0) {
+            LOG.debug("Flushed {} consolidated ancestor deltas.", flushed);
+        }
+    }
+
+    /**
+     * Removes, and returns, the pending delta against the given path, and discards the
+     * pending deltas against every path under it. Called when the resource at the path is
+     * deleted: deltas against its subtree have nowhere left to go, while its own delta is
+     * size and cost its surviving ancestors still need to give back. Waits for a flush in
+     * progress to complete first, so no delta against the subtree is left half-applied.
+     */
+    public synchronized AncestorDelta drainSubtree(
+            final String path,
+            final String parent) {
+        checkNotNull(path, "Ancestor path cannot be null.");
+        checkNotNull(parent, "Ancestor parent cannot be null.");
+
+        final String prefix = path.endsWith("/") ? path : path + "/";
+        pending_.keySet().removeIf(p -> p.startsWith(prefix));
+
+        final AncestorDelta drained = pending_.remove(path);
+        return (drained != null) ? drained : new AncestorDelta(path, parent, 0L, BigDecimal.ZERO);
+    }
+
+    public void shutdown() {
+        scheduledExecutorService_.shutdown();
+        try {
+            scheduledExecutorService_.awaitTermination(10L, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Flush whatever is still pending so no deltas are lost.
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            LOG.warn("Failed to flush ancestor deltas.", e);
+        }
+    }
+
+    /**
+     * A consolidated size and cost delta against a single ancestor resource.
+     */
+    public static final class AncestorDelta {
+
+        private final String path_;
+        private final String parent_;
+        private final long sizeDelta_;
+        private final BigDecimal costDelta_;
+
+        private AncestorDelta(
+                final String path,
+                final String parent,
+                final long sizeDelta,
+                final BigDecimal costDelta) {
+            path_ = path;
+            parent_ = parent;
+            sizeDelta_ = sizeDelta;
+            costDelta_ = costDelta;
+        }
+
+        public String getPath() {
+            return path_;
+        }
+
+        public String getParent() {
+            return parent_;
+        }
+
+        public long getSizeDelta() {
+            return sizeDelta_;
+        }
+
+        public BigDecimal getCostDelta() {
+            return costDelta_;
+        }
+
+        public boolean isZero() {
+            return sizeDelta_ == 0L && costDelta_.signum() == 0;
+        }
+
+        public AncestorDelta plus(
+                final AncestorDelta other) {
+            return new AncestorDelta(path_, parent_,
+                    sizeDelta_ + other.sizeDelta_,
+                    costDelta_.add(other.costDelta_));
+        }
+
+    }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import onyx.components.storage.ResourceManager;
+import onyx.entities.storage.ResourcePage;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An in-process, size-bounded cache of directory listings keyed by directory path,
+ * child visibility set and sort order (or page limit and cursor, for paged listings).
+ * Entries are expected to be invalidated by the {@link DynamoDbManager} whenever a
+ * child of the listed directory is created, updated or deleted; in steady state a
+ * listing is served without any reads against DynamoDB.
+ *
+ * Entries older than the configured refresh interval are served stale, while a single
+ * background refresh of the listing is kicked off on the given executor. Entries older
+ * than the configured expiry are never served, and are loaded again synchronously.
+ * Concurrent loads of the same uncached listing are single-flighted.
+ *
+ * Every cached or loading listing key is tracked under its directory path, so that
+ * invalidating a directory only touches the keys of that directory. Invalidation also
+ * discards loads in flight, whose result is handed to its callers but never cached, so
+ * a write is never shadowed by a listing that was read before it.
+ *
+ * Like the {@link DynamoDbResourceCache}, callers are handed copies of the cached
+ * resources so that mutating a listed resource never leaks back into the cache.
+ */
+public final class DynamoDbListingCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DynamoDbListingCache.class);
+
+    private final boolean enabled_;
+
+    private final long refreshAfterNanos_;
+
+    private final Cache<ListingKey, Listing> cache_;
+
+    private final Set<ListingKey> refreshing_;
+
+    /**
+     * Loads in flight, keyed by listing, so concurrent lookups of the same uncached listing
+     * share one load. An invalidation removes the pending loads of the directory, which is
+     * how a load learns at store time that its result may predate a write.
+     */
+    private final ConcurrentMap<ListingKey, CompletableFuture<Listing>> pending_;
+
+    /**
+     * The keys of every cached or loading listing, by directory path. The sets are only
+     * ever mutated inside a compute of their own mapping, or after being removed from it.
+     */
+    private final ConcurrentMap<String, Set<ListingKey>> keysByDirectory_;
+
+    private final ExecutorService executorService_;
+
+    public DynamoDbListingCache(
+            final boolean enabled,
+            final long maxSize,
+            final Duration refreshAfter,
+            final Duration expireAfter,
+            final ExecutorService executorService) {
+        checkArgument(maxSize >= 0L, "Listing cache max size must be >= 0.");
+        checkNotNull(refreshAfter, "Listing cache refresh interval cannot be null.");
+        checkNotNull(expireAfter, "Listing cache expiry cannot be null.");
+
+        enabled_ = enabled;
+        refreshAfterNanos_ = refreshAfter.toNanos();
+        cache_ = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfter)
+                .<ListingKey, Listing>removalListener(this::onListingRemoved)
+                .build();
+        refreshing_ = ConcurrentHashMap.newKeySet();
+        pending_ = new ConcurrentHashMap<>();
+        keysByDirectory_ = new ConcurrentHashMap<>();
+        executorService_ = executorService;
+    }
+
+    public static DynamoDbListingCache disabled() {
+        return new DynamoDbListingCache(false, 0L, Duration.ZERO, Duration.ZERO, null);
+    }
+
+    public List<Resource> get(
+            final ListingKey key,
+            final Supplier<List<Resource>> loader) {
+        checkNotNull(loader, "Listing loader cannot be null.");
+
+        return getPage(key, () -> new ResourcePage.Builder(loader.get()).build()).getResources();
+    }
+
+    public ResourcePage getPage(
+            final ListingKey key,
+            final Supplier<ResourcePage> loader) {
+        checkNotNull(key, "Listing key cannot be null.");
+        checkNotNull(loader, "Listing loader cannot be null.");
+
+        if (!enabled_) {
+            return loader.get();
+        }
+
+        final Listing cached = cache_.getIfPresent(key);
+        final Listing listing = (cached != null) ? cached : load(key, loader);
+
+        if (listing.isStale(refreshAfterNanos_)) {
+            refreshAsync(key, listing, loader);
+        }
+
+        return new ResourcePage.Builder(listing.getResources().stream()
+                .map(DynamoDbResourceCache::copyOf)
+                .collect(ImmutableList.toImmutableList()))
+                .setCursor(listing.getCursor())
+                .build();
+    }
+
+    /**
+     * Invalidates every cached listing of the given directory, regardless of the
+     * visibility set or sort order the listing was requested with.
+     */
+    public void invalidate(
+            final String directoryPath) {
+        checkNotNull(directoryPath, "Directory path cannot be null.");
+
+        if (!enabled_) {
+            return;
+        }
+
+        final Set<ListingKey> keys = keysByDirectory_.remove(directoryPath);
+        if (keys == null) {
+            return;
+        }
+
+        for (final ListingKey key : keys) {
+            // Order matters: see storeIfNotInvalidated().
+            pending_.remove(key);
+            cache_.invalidate(key);
+        }
+        LOG.trace("Invalidated {} cached listings of directory: {}", keys.size(), directoryPath);
+    }
+
+    public void invalidateAll() {
+        pending_.clear();
+        keysByDirectory_.clear();
+        cache_.invalidateAll();
+    }
+
+    public long size() {
+        return cache_.size();
+    }
+
+    private Listing load(
+            final ListingKey key,
+            final Supplier<ResourcePage> loader) {
+        final CompletableFuture<Listing> load = new CompletableFuture<>();
+        final CompletableFuture<Listing> existing = pending_.putIfAbsent(key, load);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (final CompletionException e) {
+                final Throwable cause = e.getCause();
+                Throwables.throwIfUnchecked(cause);
+                throw new OnyxException("Failed to load directory listing: " + key, (Exception) cause);
+            }
+        }
+
+        // The key is tracked before the listing is read, so any write that lands from
+        // here on finds, and discards, this load when it invalidates the directory.
+        track(key);
+
+        final Listing listing;
+        try {
+            listing = new Listing(loader.get());
+        } catch (final Throwable t) {
+            pending_.remove(key, load);
+            untrackIfUnused(key);
+            load.completeExceptionally(t);
+            throw t;
+        }
+
+        storeIfNotInvalidated(key, load, listing);
+        untrackIfUnused(key);
+        load.complete(listing);
+        return listing;
+    }
+
+    /**
+     * Caches the given loaded listing, but only if the given load is still the pending load
+     * of its key; i.e., the directory wasn't invalidated while loading. The check and the
+     * store are atomic with respect to the removal of the pending load in {@link #invalidate},
+     * which happens before the cache entry is invalidated: either the invalidation removes
+     * the pending load first and nothing is stored, or the store happens first and the
+     * invalidation then evicts it.
+     */
+    private void storeIfNotInvalidated(
+            final ListingKey key,
+            final CompletableFuture<Listing> load,
+            final Listing listing) {
+        pending_.computeIfPresent(key, (k, current) -> {
+            if (current != load) {
+                return current;
+            }
+            cache_.put(key, listing);
+            return null;
+        });
+    }
+
+    private void track(
+            final ListingKey key) {
+        keysByDirectory_.compute(key.getPath(), (path, keys) -> {
+            final Set<ListingKey> tracked = (keys != null) ? keys : new HashSet<>();
+            tracked.add(key);
+            return tracked;
+        });
+    }
+
+    /**
+     * Stops tracking the given key, unless it's still loading or cached. Pending is checked
+     * before the cache, since a load stores into the cache before it stops pending.
+     */
+    private void untrackIfUnused(
+            final ListingKey key) {
+        keysByDirectory_.computeIfPresent(key.getPath(), (path, keys) -> {
+            if (!pending_.containsKey(key) && !cache_.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void onListingRemoved(
+            final RemovalNotification<ListingKey, Listing> notification) {
+        // A replaced listing is still cached, under the very same key.
+        if (notification.getCause() != RemovalCause.REPLACED) {
+            untrackIfUnused(notification.getKey());
+        }
+    }
+
+    private void refreshAsync(
+            final ListingKey key,
+            final Listing stale,
+            final Supplier<ResourcePage> loader) {
+        // Only one in-flight refresh per listing; everyone else keeps getting the stale copy.
+        if (!refreshing_.add(key)) {
+            return;
+        }
+
+        try {
+            executorService_.submit(() -> {
+                try {
+                    final Listing fresh = new Listing(loader.get());
+                    // Only replace the exact entry that went stale; if the listing was
+                    // invalidated by a write while this refresh was in flight, the refreshed
+                    // result may already be out of date so it's discarded.
+                    cache_.asMap().replace(key, stale, fresh);
+                } catch (final Exception e) {
+                    LOG.warn("Failed to refresh stale directory listing: {}", key, e);
+                } finally {
+                    refreshing_.remove(key);
+                }
+            });
+        } catch (final Exception e) {
+            refreshing_.remove(key);
+            LOG.warn("Failed to schedule refresh of stale directory listing: {}", key, e);
+        }
+    }
+
+    public static final class ListingKey {
+
+        private final String path_;
+        private final Set<Resource.Visibility> visibility_;
+        private final ResourceManager.Extensions.Sort sort_;
+        private final int limit_;
+        private final String cursor_;
+        private final boolean homeDirectories_;
+
+        private ListingKey(
+                final String path,
+                final Set<Resource.Visibility> visibility,
+                @Nullable final ResourceManager.Extensions.Sort sort,
+                final int limit,
+                @Nullable final String cursor,
+                final boolean homeDirectories) {
+            path_ = checkNotNull(path, "Listing path cannot be null.");
+            visibility_ = ImmutableSet.copyOf(checkNotNull(visibility, "Listing visibility cannot be null."));
+            sort_ = sort;
+            limit_ = limit;
+            cursor_ = cursor;
+            homeDirectories_ = homeDirectories;
+        }
+
+        public static ListingKey ofDirectory(
+                final String path,
+                final Set<Resource.Visibility> visibility,
+                @Nullable final ResourceManager.Extensions.Sort sort) {
+            return new ListingKey(path, visibility, sort, 0, null, false);
+        }
+
+        public static ListingKey ofDirectoryPage(
+                final String path,
+                final Set<Resource.Visibility> visibility,
+                final int limit,
+                @Nullable final String cursor) {
+            return new ListingKey(path, visibility, null, limit, cursor, false);
+        }
+
+        public static ListingKey ofHomeDirectories() {
+            return new ListingKey(ResourceManager.ROOT_PATH, ImmutableSet.of(), null, 0, null, true);
+        }
+
+        public String getPath() {
+            return path_;
+        }
+
+        @Override
+        public boolean equals(
+                final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ListingKey other)) {
+                return false;
+            }
+
+            return homeDirectories_ == other.homeDirectories_
+                    && limit_ == other.limit_
+                    && path_.equals(other.path_)
+                    && visibility_.equals(other.visibility_)
+                    && sort_ == other.sort_
+                    && Objects.equals(cursor_, other.cursor_);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path_, visibility_, sort_, limit_, cursor_, homeDirectories_);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ListingKey(path=%s, visibility=%s, sort=%s, limit=%s, cursor=%s, "
+                    + "homeDirectories=%s)", path_, visibility_, sort_, limit_, cursor_, homeDirectories_);
+        }
+
+    }
+
+    private static final class Listing {
+
+        private final List<Resource> resources_;
+        private final String cursor_;
+        private final long loadedAtNanos_;
+
+        private Listing(
+                final ResourcePage page) {
+            resources_ = page.getResources().stream()
+                    .map(DynamoDbResourceCache::copyOf)
+                    .collect(ImmutableList.toImmutableList());
+            cursor_ = page.getCursor();
+            loadedAtNanos_ = System.nanoTime();
+        }
+
+        public List<Resource> getResources() {
+            return resources_;
+        }
+
+        @Nullable
+        public String getCursor() {
+            return cursor_;
+        }
+
+        public boolean isStale(
+                final long refreshAfterNanos) {
+            return System.nanoTime() - loadedAtNanos_ >= refreshAfterNanos;
+        }
+
+    }
+
+}
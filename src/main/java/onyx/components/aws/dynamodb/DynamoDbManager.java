@@ -28,77 +28,230 @@ package onyx.components.aws.dynamodb;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
+import curacao.components.ComponentDestroyable;
 import onyx.components.aws.dynamodb.queries.*;
+import onyx.components.config.aws.AwsConfig;
+import onyx.components.search.DeferredResourceIndexer;
+import onyx.components.search.SearchConfig;
 import onyx.components.search.SearchManager;
+import onyx.components.storage.AsyncResourceManager;
 import onyx.components.storage.ResourceManager;
 import onyx.components.storage.async.AsyncResourceThreadPool;
+import onyx.entities.storage.ResourcePage;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import onyx.exceptions.OnyxException;
+import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.util.PathUtils.splitNormalizedPathToElements;
 
 @Component
-public final class DynamoDbManager implements ResourceManager {
+public final class DynamoDbManager implements ResourceManager, AsyncResourceManager, ComponentDestroyable {
 
     public static final String PARENT_INDEX_NAME = "parent-index";
     public static final String FAVORITE_INDEX_NAME = "favorite-index";
-
+    public static final String LISTING_INDEX_NAME = "listing-index";
+
+    private static final Logger LOG = LoggerFactory.getLogger(DynamoDbManager.class);
+
+    private static final ThreadFactory SUBTREE_DELETE_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-subtree-delete-%d")
+            .build();
+
+    private static final ThreadFactory LISTING_INDEX_BACKFILL_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-listing-index-backfill-%d")
+            .build();
+
+    /**
+     * Resource attributes that feed the search index; an update that touches none of
+     * these (e.g., only {@code lastAccessedAt} or {@code cost}) skips the re-index.
+     */
+    private static final Set<String> INDEXED_ATTRIBUTES = ImmutableSet.of(
+            Resource.ATTRIBUTE_PATH,
+            Resource.ATTRIBUTE_DESCRIPTION,
+            Resource.ATTRIBUTE_VISIBILITY,
+            Resource.ATTRIBUTE_FAVORITE,
+            Resource.ATTRIBUTE_SIZE);
+
+    private final DynamoDbClient dbClient_;
+    private final DynamoDbAsyncClient dbAsyncClient_;
     private final DynamoDbEnhancedClient enhancedClient_;
     private final DynamoDbTable<Resource> resourceTable_;
+    private final DynamoDbAsyncTable<Resource> resourceAsyncTable_;
+
+    private final DynamoDbResourceCache resourceCache_;
+    private final DynamoDbListingCache listingCache_;
 
     private final SearchManager searchManager_;
+    private final DeferredResourceIndexer deferredIndexer_;
+
+    private final AncestorDeltaAccumulator ancestorDeltas_;
+    private final ResourceAccessTracker resourceAccesses_;
 
     private final ExecutorService asyncResourceExecutorService_;
+    private final ExecutorService subtreeDeleteExecutorService_;
+    private final ExecutorService listingIndexBackfillExecutorService_;
+
+    /**
+     * Whether every resource is known to carry the {@code listing-index} sort key; until
+     * then, paged directory listings go through the {@code parent-index} instead.
+     */
+    private volatile boolean listingIndexBackfilled_;
 
     @Injectable
     public DynamoDbManager(
+            final AwsConfig awsConfig,
+            final SearchConfig searchConfig,
             final DynamoDbMapper dynamoDbMapper,
             final SearchManager searchManager,
             final AsyncResourceThreadPool asyncResourceThreadPool) {
-        this(dynamoDbMapper.getEnhancedClient(), dynamoDbMapper.getResourceTable(),
-                searchManager, asyncResourceThreadPool.getExecutorService());
+        this(dynamoDbMapper.getDbClient(), dynamoDbMapper.getDbAsyncClient(), dynamoDbMapper.getEnhancedClient(),
+                dynamoDbMapper.getResourceTable(), dynamoDbMapper.getResourceAsyncTable(),
+                new DynamoDbResourceCache(awsConfig.getAwsDynamoDbResourceCacheEnabled(),
+                        awsConfig.getAwsDynamoDbResourceCacheMaxSize(),
+                        awsConfig.getAwsDynamoDbResourceCacheTtl()),
+                new DynamoDbListingCache(awsConfig.getAwsDynamoDbListingCacheEnabled(),
+                        awsConfig.getAwsDynamoDbListingCacheMaxSize(),
+                        awsConfig.getAwsDynamoDbListingCacheRefreshAfter(),
+                        awsConfig.getAwsDynamoDbListingCacheExpireAfter(),
+                        asyncResourceThreadPool.getExecutorService()),
+                searchManager,
+                new DeferredResourceIndexer(searchManager, searchConfig.getIndexerDeferredFlushInterval()),
+                awsConfig.getAwsDynamoDbAncestorDeltasFlushInterval(),
+                awsConfig.getAwsDynamoDbAncestorDeltasFlushThreshold(),
+                awsConfig.getAwsDynamoDbAncestorDeltasFlushParallelism(),
+                awsConfig.getAwsDynamoDbAccessTrackerGranularity(),
+                awsConfig.getAwsDynamoDbAccessTrackerFlushInterval(),
+                awsConfig.getAwsDynamoDbAccessTrackerBatchSize(),
+                asyncResourceThreadPool.getExecutorService(),
+                Executors.newFixedThreadPool(awsConfig.getAwsDynamoDbSubtreeDeleteParallelism(),
+                        SUBTREE_DELETE_THREAD_FACTORY),
+                awsConfig.getAwsDynamoDbListingIndexBackfillOnAppStartup());
     }
 
     @VisibleForTesting
     public DynamoDbManager(
+            final DynamoDbClient dbClient,
+            final DynamoDbAsyncClient dbAsyncClient,
             final DynamoDbEnhancedClient enhancedClient,
             final DynamoDbTable<Resource> resourceTable,
+            final DynamoDbAsyncTable<Resource> resourceAsyncTable,
+            final DynamoDbResourceCache resourceCache,
+            final DynamoDbListingCache listingCache,
             final SearchManager searchManager,
-            final ExecutorService executorService) {
+            final DeferredResourceIndexer deferredIndexer,
+            final Duration ancestorDeltasFlushInterval,
+            final int ancestorDeltasFlushThreshold,
+            final int ancestorDeltasFlushParallelism,
+            final Duration accessTrackerGranularity,
+            final Duration accessTrackerFlushInterval,
+            final int accessTrackerBatchSize,
+            final ExecutorService executorService,
+            final ExecutorService subtreeDeleteExecutorService,
+            final boolean listingIndexBackfillOnStartup) {
+        dbClient_ = dbClient;
+        dbAsyncClient_ = dbAsyncClient;
         enhancedClient_ = enhancedClient;
         resourceTable_ = resourceTable;
+        resourceAsyncTable_ = resourceAsyncTable;
+        resourceCache_ = resourceCache;
+        listingCache_ = listingCache;
         searchManager_ = searchManager;
+        deferredIndexer_ = deferredIndexer;
+        ancestorDeltas_ = new AncestorDeltaAccumulator(ancestorDeltasFlushInterval,
+                ancestorDeltasFlushThreshold, ancestorDeltasFlushParallelism, this::applyAncestorDelta);
+        resourceAccesses_ = new ResourceAccessTracker(accessTrackerGranularity,
+                accessTrackerFlushInterval, accessTrackerBatchSize, this::applyResourceAccesses);
         asyncResourceExecutorService_ = executorService;
+        subtreeDeleteExecutorService_ = subtreeDeleteExecutorService;
+        listingIndexBackfillExecutorService_ =
+                Executors.newSingleThreadExecutor(LISTING_INDEX_BACKFILL_THREAD_FACTORY);
+
+        if (listingIndexBackfillOnStartup) {
+            listingIndexBackfillExecutorService_.submit(this::backfillListingKeys);
+        } else {
+            listingIndexBackfilled_ = true;
+        }
+        // Nothing else is ever submitted; the thread goes away once the backfill is done.
+        listingIndexBackfillExecutorService_.shutdown();
     }
 
     @Nullable
     @Override
     public Resource getResourceAtPath(
             final String path) {
-        return new GetResource(path).run(resourceTable_);
+        return resourceCache_.get(path, p -> loadResourceAtPath(p, false));
+    }
+
+    @Nullable
+    @Override
+    public Resource getResourceAtPath(
+            final String path,
+            final boolean consistentRead) {
+        if (!consistentRead) {
+            return getResourceAtPath(path);
+        }
+
+        return loadResourceAtPath(path, true);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Resource> getResourceAtPathAsync(
+            final String path) {
+        return resourceCache_.getAsync(path, p -> new GetResource(p).runAsync(resourceAsyncTable_));
+    }
+
+    @Nonnull
+    @Override
+    public Map<String, Resource> getResourcesAtPaths(
+            final Collection<String> paths) {
+        return resourceCache_.getAll(paths, p -> new GetResources(p).run(enhancedClient_, resourceTable_));
     }
 
     @Override
     public void createResource(
             final Resource resource) {
-        new CreateResource(resource).run(resourceTable_, r -> {
-            // Index the addition of the resource asynchronously.
-            searchManager_.addResourceToIndexAsync(r, asyncResourceExecutorService_);
+        new CreateResource(resource).run(resourceTable_, this::onResourceCreated);
+    }
 
-            // Update the parent resource size, cost, and all of its ancestors.
-            updateParentResourcesAsync(r, Extensions.Op.ADD);
-        });
+    @Override
+    public void createResources(
+            final List<Resource> resources) {
+        new CreateResources(resources).run(enhancedClient_, resourceTable_, null);
+        onResourcesCreated(resources);
     }
 
     @Override
@@ -110,9 +263,20 @@ public final class DynamoDbManager implements ResourceManager {
     @Override
     public void updateResource(
             final Resource resource) {
-        new UpdateResource(resource).run(resourceTable_, r -> {
-            // Index the update of the resource asynchronously.
-            searchManager_.addResourceToIndexAsync(r, asyncResourceExecutorService_);
+        // Snapshot what changed before the update marks the resource clean; an untracked
+        // resource (null) is conservatively assumed to have changed everything.
+        final Set<String> dirtyAttributes = resource.getDirtyAttributes();
+        final boolean reindex = dirtyAttributes == null
+                || !Collections.disjoint(dirtyAttributes, INDEXED_ATTRIBUTES);
+
+        new UpdateResource(resource).run(dbClient_, resourceTable_, r -> {
+            resourceCache_.invalidate(r.getPath());
+            listingCache_.invalidate(r.getParent());
+
+            if (reindex) {
+                // Index the update of the resource asynchronously.
+                searchManager_.addResourceToIndexAsync(r, asyncResourceExecutorService_);
+            }
         });
     }
 
@@ -125,12 +289,57 @@ public final class DynamoDbManager implements ResourceManager {
     @Override
     public void deleteResource(
             final Resource resource) {
-        new DeleteResource(resource).run(enhancedClient_, resourceTable_, r -> {
-            // Index the deletion of the resource asynchronously.
-            searchManager_.deleteResourceFromIndexAsync(r, asyncResourceExecutorService_);
+        deleteResource(resource, r -> {});
+    }
+
+    @Override
+    public void deleteResource(
+            final Resource resource,
+            final Consumer<Resource> onDeleted) {
+        checkNotNull(onDeleted, "Resource deleted callback cannot be null.");
 
-            // Update the parent resource size, cost, and all of its ancestors.
-            updateParentResourcesAsync(r, Extensions.Op.SUBTRACT);
+        final String path = resource.getPath();
+
+        // Take over whatever has been added to the resource, and to its subtree, but not
+        // flushed yet. Flushed, it would land on deleted resources, and on ancestors that
+        // would never give it back.
+        final AncestorDeltaAccumulator.AncestorDelta unflushed =
+                ancestorDeltas_.drainSubtree(path, resource.getParent());
+
+        new DeleteResource(resource, subtreeDeleteExecutorService_).run(enhancedClient_, resourceTable_, r -> {
+            resourceCache_.invalidate(r.getPath());
+            listingCache_.invalidate(r.getParent());
+            listingCache_.invalidate(r.getPath());
+
+            // Any deferred re-index or pending access of the resource is moot now.
+            deferredIndexer_.discard(r.getPath());
+            resourceAccesses_.discard(r.getPath());
+
+            onDeleted.accept(r);
+
+            // The rest only happens once per tree, for the resource at the top of it,
+            // which is always deleted (and called back) first.
+            if (!path.equals(r.getPath())) {
+                return;
+            }
+
+            // Index the deletion of the resource, and of its entire subtree in one go,
+            // asynchronously.
+            if (Resource.Type.DIRECTORY.equals(r.getType())) {
+                searchManager_.deleteResourceTreeFromIndexAsync(path, asyncResourceExecutorService_);
+            } else {
+                searchManager_.deleteResourceFromIndexAsync(r, asyncResourceExecutorService_);
+            }
+
+            // Update the parent resource size, cost, and all of its ancestors. The size
+            // and cost of a directory, as persisted when it was deleted, include its entire
+            // subtree but for the deltas not flushed yet; adding those (and any that were
+            // added meanwhile) makes for the one net decrement the surviving ancestors need.
+            final AncestorDeltaAccumulator.AncestorDelta total =
+                    unflushed.plus(ancestorDeltas_.drainSubtree(path, r.getParent()));
+            addToParentResourcesAsync(r.getParent(),
+                    -(r.getSize() + total.getSizeDelta()),
+                    r.getCost().add(total.getCostDelta()).negate());
         });
     }
 
@@ -140,12 +349,82 @@ public final class DynamoDbManager implements ResourceManager {
         asyncResourceExecutorService_.submit(() -> deleteResource(resource));
     }
 
+    @Override
+    public void recordResourceAccess(
+            final Resource resource,
+            final Instant accessedAt,
+            final BigDecimal cost) {
+        resourceAccesses_.record(resource, accessedAt, cost);
+    }
+
     @Nonnull
     @Override
     public List<Resource> listDirectory(
             final Resource directory,
             final Set<Resource.Visibility> visibility,
             @Nullable final Extensions.Sort sort) {
+        final DynamoDbListingCache.ListingKey key =
+                DynamoDbListingCache.ListingKey.ofDirectory(directory.getPath(), visibility, sort);
+        return listingCache_.get(key, () -> loadDirectory(directory, visibility, sort));
+    }
+
+    @Nonnull
+    @Override
+    public ResourcePage listDirectory(
+            final Resource directory,
+            final Set<Resource.Visibility> visibility,
+            final int limit,
+            @Nullable final String cursor) {
+        final int cappedLimit = Math.min(limit, MAX_LISTING_PAGE_LIMIT);
+        final DynamoDbListingCache.ListingKey key = DynamoDbListingCache.ListingKey.ofDirectoryPage(
+                directory.getPath(), visibility, cappedLimit, cursor);
+        return listingCache_.getPage(key, () -> {
+            final ListDirectoryPage listDirectoryPage =
+                    new ListDirectoryPage(directory, visibility, cappedLimit, cursor);
+            // The sparse listing-index may be missing resources that predate it until
+            // they have all been backfilled; the pages, and cursors, are the same either way.
+            return listingIndexBackfilled_
+                    ? listDirectoryPage.run(resourceTable_)
+                    : listDirectoryPage.runWithParentIndex(resourceTable_);
+        });
+    }
+
+    @Nonnull
+    @Override
+    public List<Resource> listHomeDirectories() {
+        return listingCache_.get(DynamoDbListingCache.ListingKey.ofHomeDirectories(),
+                () -> new ListHomeDirectories().run(resourceTable_));
+    }
+
+    @Nonnull
+    @Override
+    public List<Resource> listFavorites(
+            final Resource directory,
+            final Set<Resource.Type> types) {
+        return new ListFavorites(directory, types).run(resourceTable_);
+    }
+
+    // Helpers
+
+    /**
+     * Loads the resource at the given path directly from DynamoDB, bypassing the
+     * resource cache entirely.
+     */
+    @Nullable
+    private Resource loadResourceAtPath(
+            final String path,
+            final boolean consistentRead) {
+        return new GetResource(path, consistentRead).run(resourceTable_);
+    }
+
+    /**
+     * Loads, and sorts, the listing of the given directory directly from DynamoDB
+     * bypassing the listing cache entirely.
+     */
+    private List<Resource> loadDirectory(
+            final Resource directory,
+            final Set<Resource.Visibility> visibility,
+            @Nullable final Extensions.Sort sort) {
         final List<Resource> resources = new ListDirectory(directory, visibility).run(resourceTable_);
 
         final List<Resource> sorted;
@@ -175,22 +454,11 @@ public final class DynamoDbManager implements ResourceManager {
         return sorted;
     }
 
-    @Nonnull
-    @Override
-    public List<Resource> listHomeDirectories() {
-        return new ListHomeDirectories().run(resourceTable_);
-    }
-
-    @Nonnull
-    @Override
-    public List<Resource> listFavorites(
-            final Resource directory,
-            final Set<Resource.Type> types) {
-        return new ListFavorites(directory, types).run(resourceTable_);
-    }
-
-    // Helpers
-
+    /**
+     * Records the size and cost delta of the given child against every one of its
+     * ancestors. Deltas are accumulated write-behind and flushed as one consolidated,
+     * atomic {@code UpdateItem ... ADD} per ancestor; see {@link #applyAncestorDelta}.
+     */
     private void updateParentResourcesAsync(
             final Resource child,
             final Extensions.Op op) {
@@ -202,28 +470,172 @@ public final class DynamoDbManager implements ResourceManager {
             return;
         }
 
-        asyncResourceExecutorService_.submit(() -> {
-            Resource parent = getResourceAtPath(child.getParent());
-            while (parent != null && !ResourceManager.ROOT_PATH.equals(parent.getPath())) {
-                if (Extensions.Op.ADD.equals(op)) {
-                    final long newParentSize = parent.getSize() + child.getSize();
-                    parent.setSize(newParentSize);
-                    final BigDecimal newParentCost = parent.getCost().add(child.getCost());
-                    parent.setCost(newParentCost);
-                } else if (Extensions.Op.SUBTRACT.equals(op)) {
-                    final long newParentSize = parent.getSize() - child.getSize();
-                    parent.setSize(Math.max(0L, newParentSize));
-                    final BigDecimal newParentCost = parent.getCost().subtract(child.getCost()).max(BigDecimal.ZERO);
-                    parent.setCost(newParentCost);
-                } else {
-                    throw new OnyxException("Unknown/unsupported resource operation: " + op);
-                }
+        final long sizeDelta;
+        final BigDecimal costDelta;
+        if (Extensions.Op.ADD.equals(op)) {
+            sizeDelta = child.getSize();
+            costDelta = child.getCost();
+        } else if (Extensions.Op.SUBTRACT.equals(op)) {
+            sizeDelta = -child.getSize();
+            costDelta = child.getCost().negate();
+        } else {
+            throw new OnyxException("Unknown/unsupported resource operation: " + op);
+        }
+
+        addToParentResourcesAsync(child.getParent(), sizeDelta, costDelta);
+    }
 
-                updateResource(parent);
+    /**
+     * Records the given size and cost delta against every element of the given parent
+     * path, that is, against the parent and all of its ancestors.
+     */
+    private void addToParentResourcesAsync(
+            final String parent,
+            final long sizeDelta,
+            final BigDecimal costDelta) {
+        if (sizeDelta == 0L && costDelta.signum() == 0) {
+            return;
+        }
+
+        // Every element of the parent path is an ancestor of the child: the left of each
+        // triple is the ancestor's parent, the middle is the ancestor's path. The root "/"
+        // is never an element.
+        final List<Triple<String, String, String>> ancestors =
+                splitNormalizedPathToElements(parent);
+        for (final Triple<String, String, String> ancestor : ancestors) {
+            ancestorDeltas_.add(ancestor.getMiddle(), ancestor.getLeft(), sizeDelta, costDelta);
+        }
+    }
+
+    /**
+     * Invalidates the caches affected by a newly created resource, indexes it, and
+     * propagates its size and cost to all of its ancestors.
+     */
+    private void onResourceCreated(
+            final Resource resource) {
+        // Drop any cached lookup for the newly created resource, and any cached
+        // listing of its parent.
+        resourceCache_.invalidate(resource.getPath());
+        listingCache_.invalidate(resource.getParent());
+
+        // Index the addition of the resource asynchronously.
+        searchManager_.addResourceToIndexAsync(resource, asyncResourceExecutorService_);
 
-                parent = getResourceAtPath(parent.getParent());
+        // Update the parent resource size, cost, and all of its ancestors.
+        updateParentResourcesAsync(resource, Extensions.Op.ADD);
+    }
+
+    /**
+     * The batch counterpart of {@link #onResourceCreated}. Caches are still invalidated per
+     * resource, but the whole batch is indexed in one request, and the sizes and costs of
+     * all created resources are summed per ancestor up front, so an ancestor shared by the
+     * entire batch receives one consolidated delta instead of one per resource.
+     */
+    private void onResourcesCreated(
+            final List<Resource> resources) {
+        final Map<String, String> ancestorParents = new LinkedHashMap<>();
+        final Map<String, Long> sizeDeltas = new HashMap<>();
+        final Map<String, BigDecimal> costDeltas = new HashMap<>();
+
+        for (final Resource resource : resources) {
+            resourceCache_.invalidate(resource.getPath());
+            listingCache_.invalidate(resource.getParent());
+
+            if (resource.getSize() <= 0L) {
+                // Nothing to add to the ancestors if the resource is empty.
+                continue;
             }
-        });
+
+            for (final Triple<String, String, String> ancestor
+                    : splitNormalizedPathToElements(resource.getParent())) {
+                final String ancestorPath = ancestor.getMiddle();
+                ancestorParents.putIfAbsent(ancestorPath, ancestor.getLeft());
+                sizeDeltas.merge(ancestorPath, resource.getSize(), Long::sum);
+                costDeltas.merge(ancestorPath, resource.getCost(), BigDecimal::add);
+            }
+        }
+
+        // Index the addition of every resource asynchronously, in one go.
+        searchManager_.addResourcesToIndexAsync(resources, asyncResourceExecutorService_);
+
+        ancestorParents.forEach((ancestorPath, ancestorParent) ->
+                ancestorDeltas_.add(ancestorPath, ancestorParent,
+                        sizeDeltas.get(ancestorPath), costDeltas.get(ancestorPath)));
+    }
+
+    /**
+     * Atomically applies a consolidated size and cost delta to a single ancestor with
+     * one {@code UpdateItem ... ADD}, so there's no read-modify-write cycle and concurrent
+     * writes never lose updates. The re-index of the ancestor is deferred and batched.
+     */
+    private CompletableFuture<Resource> applyAncestorDelta(
+            final AncestorDeltaAccumulator.AncestorDelta delta) {
+        return new AdjustResourceSizeAndCost(delta.getPath(), delta.getParent(),
+                delta.getSizeDelta(), delta.getCostDelta()).runAsync(dbAsyncClient_, resourceAsyncTable_)
+                .thenApply(adjusted -> {
+                    resourceCache_.invalidate(delta.getPath());
+                    listingCache_.invalidate(delta.getParent());
+
+                    if (adjusted != null) {
+                        deferredIndexer_.enqueue(adjusted);
+                    }
+                    return adjusted;
+                });
+    }
+
+    private void backfillListingKeys() {
+        try {
+            final long start = System.currentTimeMillis();
+            final long backfilled = new BackfillListingKeys().run(dbClient_, resourceTable_);
+            listingIndexBackfilled_ = true;
+            LOG.info("Backfilled listing-index keys onto {} resources in {}ms", backfilled,
+                    System.currentTimeMillis() - start);
+        } catch (final Exception e) {
+            LOG.error("Failed to backfill listing-index keys; paged directory listings "
+                    + "will keep going through the parent-index.", e);
+        }
+    }
+
+    /**
+     * Applies a batch of coalesced accesses with one {@code UpdateItem} per resource, all
+     * in flight at once, so a batch takes about as long as its slowest update. The batch
+     * fails as a whole if any update failed, but only once all of them have completed.
+     */
+    private void applyResourceAccesses(
+            final List<ResourceAccessTracker.ResourceAccess> accesses) {
+        final List<CompletableFuture<Boolean>> updates = accesses.stream()
+                .map(access -> new UpdateResourceLastAccessed(access.getPath(), access.getParent(),
+                        access.getAccessedAt(), access.getCost()).runAsync(dbAsyncClient_, resourceAsyncTable_))
+                .collect(ImmutableList.toImmutableList());
+
+        CompletionException failure = null;
+        for (int i = 0; i < accesses.size(); i++) {
+            final ResourceAccessTracker.ResourceAccess access = accesses.get(i);
+            try {
+                if (updates.get(i).join()) {
+                    // Neither the last accessed time nor the cost are indexed, so there is
+                    // no re-index; just make sure the next read observes the update.
+                    resourceCache_.invalidate(access.getPath());
+                    listingCache_.invalidate(access.getParent());
+                }
+            } catch (final CompletionException e) {
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        listingIndexBackfillExecutorService_.shutdownNow();
+        subtreeDeleteExecutorService_.shutdown();
+        resourceAccesses_.shutdown();
+        // Order matters: flushing the ancestor deltas enqueues deferred re-indexes.
+        ancestorDeltas_.shutdown();
+        deferredIndexer_.shutdown();
     }
 
 }
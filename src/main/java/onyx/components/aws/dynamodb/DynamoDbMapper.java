@@ -30,27 +30,54 @@ import curacao.annotations.Component;
 import curacao.annotations.Injectable;
 import onyx.components.config.aws.AwsConfig;
 import onyx.entities.storage.aws.dynamodb.Resource;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 @Component
 public final class DynamoDbMapper {
 
+    private final DynamoDbClient dbClient_;
     private final DynamoDbEnhancedClient enhancedClient_;
     private final DynamoDbTable<Resource> resourceTable_;
 
+    private final DynamoDbAsyncClient dbAsyncClient_;
+    private final DynamoDbEnhancedAsyncClient enhancedAsyncClient_;
+    private final DynamoDbAsyncTable<Resource> resourceAsyncTable_;
+
     @Injectable
     public DynamoDbMapper(
             final AwsConfig awsConfig,
             final OnyxDynamoDbClient dynamoDbClient) {
+        dbClient_ = dynamoDbClient.getDbClient();
         enhancedClient_ = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient.getDbClient())
+                .dynamoDbClient(dbClient_)
                 .build();
 
+        final TableSchema<Resource> resourceSchema = TableSchema.fromBean(Resource.class);
         resourceTable_ = enhancedClient_.table(
                 awsConfig.getAwsDynamoDbTableName(),
-                TableSchema.fromBean(Resource.class));
+                resourceSchema);
+
+        dbAsyncClient_ = dynamoDbClient.getDbAsyncClient();
+        enhancedAsyncClient_ = DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dbAsyncClient_)
+                .build();
+        resourceAsyncTable_ = enhancedAsyncClient_.table(
+                awsConfig.getAwsDynamoDbTableName(),
+                resourceSchema);
+    }
+
+    /**
+     * The low-level client, for the few operations (e.g., {@code ADD} update expressions)
+     * that the enhanced client doesn't support.
+     */
+    public DynamoDbClient getDbClient() {
+        return dbClient_;
     }
 
     public DynamoDbEnhancedClient getEnhancedClient() {
@@ -61,4 +88,23 @@ public final class DynamoDbMapper {
         return resourceTable_;
     }
 
+    /**
+     * The non-blocking counterpart of {@link #getDbClient()}.
+     */
+    public DynamoDbAsyncClient getDbAsyncClient() {
+        return dbAsyncClient_;
+    }
+
+    public DynamoDbEnhancedAsyncClient getEnhancedAsyncClient() {
+        return enhancedAsyncClient_;
+    }
+
+    /**
+     * The resource table on top of the non-blocking client; every operation on it
+     * returns a future (or a publisher) instead of blocking the calling thread.
+     */
+    public DynamoDbAsyncTable<Resource> getResourceAsyncTable() {
+        return resourceAsyncTable_;
+    }
+
 }
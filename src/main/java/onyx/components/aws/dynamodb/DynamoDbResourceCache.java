@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An in-process, size-bounded, read-through cache of {@link Resource} metadata keyed
+ * by resource path. Entries expire after a fixed TTL as a backstop, but are expected
+ * to be invalidated precisely by the {@link DynamoDbManager} on every write.
+ *
+ * Concurrent lookups of the same uncached path are single-flighted: only one caller
+ * loads the resource from DynamoDB, and all others block on and share that result.
+ * A load that races with an invalidation of its path is handed to its callers, but
+ * never cached, so a write is never shadowed by a read that started before it.
+ * Misses (no resource at path) are never cached: lookups go through eventually
+ * consistent reads, and a miss read right after the resource was created would
+ * otherwise hide it for the entire TTL.
+ *
+ * The {@link Resource} bean is mutable and callers routinely modify what they are
+ * handed, so this cache only ever stores and returns defensive copies.
+ */
+public final class DynamoDbResourceCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DynamoDbResourceCache.class);
+
+    private final boolean enabled_;
+
+    private final Cache<String, Resource> cache_;
+
+    /**
+     * Loads in flight, keyed by path, so concurrent lookups of the same uncached path
+     * share one load. An invalidation removes the path's pending load, which is how a
+     * load learns at store time that its result may predate a write.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Optional<Resource>>> pending_;
+
+    public DynamoDbResourceCache(
+            final boolean enabled,
+            final long maxSize,
+            final Duration ttl) {
+        checkArgument(maxSize >= 0L, "Resource cache max size must be >= 0.");
+        checkNotNull(ttl, "Resource cache TTL cannot be null.");
+
+        enabled_ = enabled;
+        cache_ = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        pending_ = new ConcurrentHashMap<>();
+    }
+
+    public static DynamoDbResourceCache disabled() {
+        return new DynamoDbResourceCache(false, 0L, Duration.ZERO);
+    }
+
+    @Nullable
+    public Resource get(
+            final String path,
+            final Function<String, Resource> loader) {
+        checkNotNull(path, "Resource path cannot be null.");
+        checkNotNull(loader, "Resource loader cannot be null.");
+
+        if (!enabled_) {
+            return loader.apply(path);
+        }
+
+        final Resource cached = cache_.getIfPresent(path);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        final CompletableFuture<Optional<Resource>> load = new CompletableFuture<>();
+        final CompletableFuture<Optional<Resource>> existing = pending_.putIfAbsent(path, load);
+        if (existing != null) {
+            try {
+                return existing.join().map(DynamoDbResourceCache::copyOf).orElse(null);
+            } catch (final CompletionException e) {
+                final Throwable cause = e.getCause();
+                Throwables.throwIfUnchecked(cause);
+                throw new OnyxException("Failed to load resource at path: " + path, (Exception) cause);
+            }
+        }
+
+        final Optional<Resource> loaded;
+        try {
+            loaded = Optional.ofNullable(loader.apply(path)).map(DynamoDbResourceCache::copyOf);
+        } catch (final Throwable t) {
+            pending_.remove(path, load);
+            load.completeExceptionally(t);
+            throw t;
+        }
+
+        storeIfNotInvalidated(path, load, loaded);
+        load.complete(loaded);
+        return loaded.map(DynamoDbResourceCache::copyOf).orElse(null);
+    }
+
+    /**
+     * Non-blocking variant of {@link #get(String, Function)}: a cached resource is returned
+     * as an already completed future, and concurrent lookups of the same uncached path are
+     * single-flighted onto one invocation of the given async loader. A load that races with
+     * an invalidation of its path is handed to its callers, but never cached.
+     */
+    public CompletableFuture<Resource> getAsync(
+            final String path,
+            final Function<String, CompletableFuture<Resource>> loader) {
+        checkNotNull(path, "Resource path cannot be null.");
+        checkNotNull(loader, "Resource loader cannot be null.");
+
+        if (!enabled_) {
+            return loader.apply(path);
+        }
+
+        final Resource cached = cache_.getIfPresent(path);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(copyOf(cached));
+        }
+
+        final CompletableFuture<Optional<Resource>> load = new CompletableFuture<>();
+        final CompletableFuture<Optional<Resource>> existing = pending_.putIfAbsent(path, load);
+        if (existing == null) {
+            loader.apply(path).whenComplete((resource, t) -> {
+                if (t != null) {
+                    pending_.remove(path, load);
+                    load.completeExceptionally(t);
+                    return;
+                }
+
+                final Optional<Resource> loaded = Optional.ofNullable(resource)
+                        .map(DynamoDbResourceCache::copyOf);
+                storeIfNotInvalidated(path, load, loaded);
+                load.complete(loaded);
+            });
+        }
+
+        return (existing != null ? existing : load)
+                .thenApply(loaded -> loaded.map(DynamoDbResourceCache::copyOf).orElse(null));
+    }
+
+    /**
+     * Bulk variant of {@link #get(String, Function)}: the given loader is invoked at most
+     * once, with all of the paths not already cached, and is expected to return the found
+     * resources keyed by path. Unlike single lookups, bulk loads are not single-flighted,
+     * but concurrent single lookups of a path being bulk loaded wait on and share its result.
+     */
+    public Map<String, Resource> getAll(
+            final Collection<String> paths,
+            final Function<Set<String>, Map<String, Resource>> loader) {
+        checkNotNull(paths, "Resource paths cannot be null.");
+        checkNotNull(loader, "Resource loader cannot be null.");
+
+        if (!enabled_) {
+            return loader.apply(ImmutableSet.copyOf(paths));
+        }
+
+        final Map<String, Resource> cached = cache_.getAllPresent(paths);
+
+        final ImmutableMap.Builder<String, Resource> builder = ImmutableMap.builder();
+        cached.forEach((path, resource) -> builder.put(path, copyOf(resource)));
+
+        final Set<String> missing = paths.stream()
+                .filter(path -> !cached.containsKey(path))
+                .collect(ImmutableSet.toImmutableSet());
+        if (!missing.isEmpty()) {
+            // Only the paths not already being loaded by someone else are stored.
+            final Map<String, CompletableFuture<Optional<Resource>>> loads = new HashMap<>();
+            for (final String path : missing) {
+                final CompletableFuture<Optional<Resource>> load = new CompletableFuture<>();
+                if (pending_.putIfAbsent(path, load) == null) {
+                    loads.put(path, load);
+                }
+            }
+
+            final Map<String, Resource> loaded;
+            try {
+                loaded = loader.apply(missing);
+            } catch (final Throwable t) {
+                loads.forEach((path, load) -> {
+                    pending_.remove(path, load);
+                    load.completeExceptionally(t);
+                });
+                throw t;
+            }
+
+            for (final String path : missing) {
+                final Resource resource = loaded.get(path);
+                final CompletableFuture<Optional<Resource>> load = loads.get(path);
+                if (load != null) {
+                    final Optional<Resource> result = Optional.ofNullable(resource)
+                            .map(DynamoDbResourceCache::copyOf);
+                    storeIfNotInvalidated(path, load, result);
+                    load.complete(result);
+                }
+                if (resource != null) {
+                    builder.put(path, copyOf(resource));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    public void invalidate(
+            final String path) {
+        checkNotNull(path, "Resource path cannot be null.");
+
+        if (!enabled_) {
+            return;
+        }
+
+        // Order matters: see storeIfNotInvalidated().
+        pending_.remove(path);
+        cache_.invalidate(path);
+        LOG.trace("Invalidated cached resource at path: {}", path);
+    }
+
+    public void invalidateAll() {
+        pending_.clear();
+        cache_.invalidateAll();
+    }
+
+    /**
+     * Caches the given loaded resource, if any, but only if the given load is still the
+     * pending load of its path; i.e., the path wasn't invalidated while loading. The check and the store
+     * are atomic with respect to the removal of the pending load in {@link #invalidate},
+     * which happens before the cache entry is invalidated: either the invalidation removes
+     * the pending load first and nothing is stored, or the store happens first and the
+     * invalidation then evicts it.
+     */
+    private void storeIfNotInvalidated(
+            final String path,
+            final CompletableFuture<Optional<Resource>> load,
+            final Optional<Resource> loaded) {
+        pending_.computeIfPresent(path, (p, current) -> {
+            if (current != load) {
+                return current;
+            }
+            loaded.ifPresent(resource -> cache_.put(path, resource));
+            return null;
+        });
+    }
+
+    public long size() {
+        return cache_.size();
+    }
+
+    /**
+     * Returns a shallow, clean copy of the given resource. Every field on a {@link Resource}
+     * is either immutable or a primitive, so a shallow copy is sufficient.
+     */
+    static Resource copyOf(
+            final Resource resource) {
+        return new Resource()
+                .setPath(resource.getPath())
+                .setParent(resource.getParent())
+                .setSize(resource.getSize())
+                .setDescription(resource.getDescription())
+                .setType(resource.getType())
+                .setVisibility(resource.getVisibility())
+                .setOwner(resource.getOwner())
+                .setCreatedAt(resource.getCreatedAt())
+                .setLastAccessedAt(resource.getLastAccessedAt())
+                .setFavorite(resource.getFavorite())
+                .setCost(resource.getCost())
+                .markClean();
+    }
+
+}
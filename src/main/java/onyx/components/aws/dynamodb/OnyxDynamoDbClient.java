@@ -32,33 +32,61 @@ import curacao.components.ComponentDestroyable;
 import onyx.components.aws.AwsClientConfig;
 import onyx.components.aws.AwsCredentials;
 import onyx.components.config.aws.AwsConfig;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
 
 @Component
 public final class OnyxDynamoDbClient implements ComponentDestroyable {
 
     private final DynamoDbClient dynamoDb_;
+    private final DynamoDbAsyncClient dynamoDbAsync_;
 
     @Injectable
     public OnyxDynamoDbClient(
             final AwsConfig awsConfig,
             final AwsCredentials awsCredentials,
             final AwsClientConfig awsClientConfig) {
+        final ClientOverrideConfiguration overrideConfiguration = awsClientConfig.getClientOverrideConfiguration(
+                awsConfig.getAwsDynamoDbApiCallTimeout(), awsConfig.getAwsDynamoDbApiCallAttemptTimeout());
+
         dynamoDb_ = DynamoDbClient.builder()
                 .credentialsProvider(awsCredentials.getCredentialsProvider())
-                .overrideConfiguration(awsClientConfig.getClientOverrideConfiguration())
+                .httpClient(awsClientConfig.getHttpClient())
+                .overrideConfiguration(overrideConfiguration)
+                .region(Region.of(awsConfig.getAwsDynamoDbRegion()))
+                .build();
+        dynamoDbAsync_ = DynamoDbAsyncClient.builder()
+                .credentialsProvider(awsCredentials.getCredentialsProvider())
+                .httpClient(awsClientConfig.getAsyncHttpClient())
+                .overrideConfiguration(overrideConfiguration)
                 .region(Region.of(awsConfig.getAwsDynamoDbRegion()))
                 .build();
+
+        final DescribeTableRequest describeTableRequest = DescribeTableRequest.builder()
+                .tableName(awsConfig.getAwsDynamoDbTableName())
+                .build();
+        awsClientConfig.prewarm("DynamoDB", () -> dynamoDb_.describeTable(describeTableRequest));
+        awsClientConfig.prewarm("DynamoDB (async)", () -> dynamoDbAsync_.describeTable(describeTableRequest).join());
     }
 
     public DynamoDbClient getDbClient() {
         return dynamoDb_;
     }
 
+    /**
+     * The non-blocking client, for request paths that must not park a thread on DynamoDB I/O.
+     */
+    public DynamoDbAsyncClient getDbAsyncClient() {
+        return dynamoDbAsync_;
+    }
+
     @Override
     public void destroy() throws Exception {
         dynamoDb_.close();
+        dynamoDbAsync_.close();
     }
 
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A write-behind tracker of resource accesses. Accesses are coalesced in memory per
+ * resource, keeping only the latest, and handed to the flusher in batches on a fixed
+ * interval and once more on shutdown. An access within the configured granularity of
+ * the last persisted access of a resource is dropped outright, so a popular resource
+ * is written at most once per granularity no matter how often it's downloaded.
+ * Batches are handed to the flusher one after another, and are expected to be written
+ * as a whole, e.g. with all of their updates in flight at once.
+ */
+public final class ResourceAccessTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResourceAccessTracker.class);
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-resource-access-flusher-%d")
+            .build();
+
+    private final Duration granularity_;
+    private final int batchSize_;
+
+    private final Consumer<List<ResourceAccess>> flusher_;
+
+    private final Map<String, ResourceAccess> pending_;
+
+    private final ScheduledExecutorService scheduledExecutorService_;
+
+    public ResourceAccessTracker(
+            final Duration granularity,
+            final Duration flushInterval,
+            final int batchSize,
+            final Consumer<List<ResourceAccess>> flusher) {
+        granularity_ = checkNotNull(granularity, "Resource access granularity cannot be null.");
+        checkNotNull(flushInterval, "Resource access flush interval cannot be null.");
+        checkArgument(batchSize > 0, "Resource access batch size must be > 0.");
+        batchSize_ = batchSize;
+        flusher_ = checkNotNull(flusher, "Resource access flusher cannot be null.");
+
+        pending_ = new ConcurrentHashMap<>();
+
+        scheduledExecutorService_ = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        final long flushIntervalMs = flushInterval.toMillis();
+        scheduledExecutorService_.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records an access of the given resource at the given instant, along with its cost
+     * recomputed as of that access. Returns {@code false} if the access was dropped
+     * because it falls within the granularity of the last persisted access.
+     */
+    public boolean record(
+            final Resource resource,
+            final Instant accessedAt,
+            final BigDecimal cost) {
+        checkNotNull(resource, "Resource cannot be null.");
+        checkNotNull(accessedAt, "Resource accessed at cannot be null.");
+        checkNotNull(cost, "Resource cost cannot be null.");
+
+        final Instant lastAccessedAt = resource.getLastAccessedAt();
+        if (lastAccessedAt != null && accessedAt.isBefore(lastAccessedAt.plus(granularity_))) {
+            return false;
+        }
+
+        // ConcurrentHashMap#merge is atomic per key; the latest access always wins.
+        pending_.merge(resource.getPath(), new ResourceAccess(resource.getPath(),
+                resource.getParent(), accessedAt, cost), ResourceAccess::latest);
+
+        return true;
+    }
+
+    /**
+     * Drops any pending access of the resource at the given path, e.g., because
+     * the resource was deleted.
+     */
+    public void discard(
+            final String path) {
+        checkNotNull(path, "Resource path cannot be null.");
+
+        pending_.remove(path);
+    }
+
+    public void flush() {
+        final ImmutableList.Builder<ResourceAccess> drained = ImmutableList.builder();
+        for (final String path : pending_.keySet()) {
+            final ResourceAccess access = pending_.remove(path);
+            if (access != null) {
+                drained.add(access);
+            }
+        }
+
+        int flushed = 0;
+        for (final List<ResourceAccess> batch : Lists.partition(drained.build(), batchSize_)) {
+            try {
+                flusher_.accept(batch);
+                flushed += batch.size();
+            } catch (final Exception e) {
+                LOG.warn("Failed to flush batch of {} resource accesses, will retry on next flush.",
+                        batch.size(), e);
+                // Put the accesses back so they aren't lost, unless a newer one came in.
+                for (final ResourceAccess access : batch) {
+                    pending_.merge(access.getPath(), access, ResourceAccess::latest);
+                }
+            }
+        }
+
+        if (flushed > 0) {
+            LOG.debug("Flushed {} coalesced resource accesses.", flushed);
+        }
+    }
+
+    public void shutdown() {
+        scheduledExecutorService_.shutdown();
+        try {
+            scheduledExecutorService_.awaitTermination(10L, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Flush whatever is still pending so no accesses are lost.
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            LOG.warn("Failed to flush resource accesses.", e);
+        }
+    }
+
+    /**
+     * The latest access of a single resource, and its cost as of that access.
+     */
+    public static final class ResourceAccess {
+
+        private final String path_;
+        private final String parent_;
+        private final Instant accessedAt_;
+        private final BigDecimal cost_;
+
+        private ResourceAccess(
+                final String path,
+                final String parent,
+                final Instant accessedAt,
+                final BigDecimal cost) {
+            path_ = path;
+            parent_ = parent;
+            accessedAt_ = accessedAt;
+            cost_ = cost;
+        }
+
+        public String getPath() {
+            return path_;
+        }
+
+        public String getParent() {
+            return parent_;
+        }
+
+        public Instant getAccessedAt() {
+            return accessedAt_;
+        }
+
+        public BigDecimal getCost() {
+            return cost_;
+        }
+
+        private ResourceAccess latest(
+                final ResourceAccess other) {
+            return other.accessedAt_.isAfter(accessedAt_) ? other : this;
+        }
+
+    }
+
+}
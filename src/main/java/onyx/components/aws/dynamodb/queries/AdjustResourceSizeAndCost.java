@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableMap;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Atomically adds the given (possibly negative) deltas to the {@code size} and {@code cost}
+ * of an existing resource with a single {@code UpdateItem ... ADD} expression. Unlike a
+ * read-modify-write through {@link UpdateResource}, concurrent adjustments of the same
+ * resource never lose updates.
+ */
+public final class AdjustResourceSizeAndCost {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdjustResourceSizeAndCost.class);
+
+    private final String path_;
+    private final String parent_;
+    private final long sizeDelta_;
+    private final BigDecimal costDelta_;
+
+    public AdjustResourceSizeAndCost(
+            final String path,
+            final String parent,
+            final long sizeDelta,
+            final BigDecimal costDelta) {
+        path_ = checkNotNull(path, "Resource path cannot be null.");
+        parent_ = checkNotNull(parent, "Resource parent cannot be null.");
+        sizeDelta_ = sizeDelta;
+        costDelta_ = checkNotNull(costDelta, "Resource cost delta cannot be null.");
+    }
+
+    /**
+     * Returns the resource as it is after the adjustment, or {@code null} if there
+     * was no resource at the path to adjust.
+     */
+    @Nullable
+    public Resource run(
+            final DynamoDbClient dbClient,
+            final DynamoDbTable<Resource> resourceTable) {
+        try {
+            final UpdateItemResponse response = dbClient.updateItem(request(resourceTable.tableName()));
+            return resourceTable.tableSchema().mapToItem(response.attributes()).markClean();
+        } catch (final ConditionalCheckFailedException e) {
+            LOG.debug("Found no resource to adjust at path: {}", path_);
+            return null;
+        }
+    }
+
+    /**
+     * Completes with the resource as it is after the adjustment, or with {@code null} if
+     * there was no resource at the path to adjust.
+     */
+    public CompletableFuture<Resource> runAsync(
+            final DynamoDbAsyncClient dbAsyncClient,
+            final DynamoDbAsyncTable<Resource> resourceTable) {
+        return dbAsyncClient.updateItem(request(resourceTable.tableName()))
+                .handle((response, t) -> {
+                    if (t == null) {
+                        return resourceTable.tableSchema().mapToItem(response.attributes()).markClean();
+                    }
+
+                    final Throwable cause = (t instanceof CompletionException) ? t.getCause() : t;
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        LOG.debug("Found no resource to adjust at path: {}", path_);
+                        return null;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    private UpdateItemRequest request(
+            final String tableName) {
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(ImmutableMap.of(
+                        "path", AttributeValue.builder().s(path_).build(),
+                        "parent", AttributeValue.builder().s(parent_).build()))
+                // Never let an ADD conjure up a new, partial item out of thin air.
+                .conditionExpression("attribute_exists(#path)")
+                .updateExpression("ADD #size :size, #cost :cost")
+                .expressionAttributeNames(ImmutableMap.of(
+                        "#path", "path",
+                        "#size", "size",
+                        "#cost", "cost"))
+                .expressionAttributeValues(ImmutableMap.of(
+                        ":size", AttributeValue.builder().n(Long.toString(sizeDelta_)).build(),
+                        ":cost", AttributeValue.builder().n(costDelta_.toPlainString()).build()))
+                .returnValues(ReturnValue.ALL_NEW)
+                .build();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableMap;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Map;
+
+/**
+ * Writes the derived {@code listingKey} attribute onto every resource that predates the
+ * {@code listing-index} GSI, and so lacks it. The index is sparse: a resource without the
+ * attribute is missing from the index, and so from every paged listing of its directory.
+ *
+ * The table is scanned a page at a time, projecting only the attributes the listing key is
+ * derived from. Each key is set with a conditional {@code UpdateItem} that never resurrects
+ * a resource deleted since the scan, nor overwrites a listing key written since.
+ */
+public final class BackfillListingKeys {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackfillListingKeys.class);
+
+    /**
+     * Returns the number of resources the listing key was written onto.
+     */
+    public long run(
+            final DynamoDbClient dbClient,
+            final DynamoDbTable<Resource> resourceTable) {
+        final Map<String, String> expressionAttributeNames = ImmutableMap.of(
+                "#path", Resource.ATTRIBUTE_PATH,
+                "#parent", Resource.ATTRIBUTE_PARENT,
+                "#type", Resource.ATTRIBUTE_TYPE,
+                "#listingKey", Resource.ATTRIBUTE_LISTING_KEY);
+
+        final ScanRequest scanRequest = ScanRequest.builder()
+                .tableName(resourceTable.tableName())
+                .projectionExpression("#path, #parent, #type")
+                .filterExpression("attribute_not_exists(#listingKey)")
+                .expressionAttributeNames(expressionAttributeNames)
+                .build();
+
+        long backfilled = 0L;
+        for (final Map<String, AttributeValue> item : dbClient.scanPaginator(scanRequest).items()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new OnyxException("Interrupted while backfilling listing keys.");
+            }
+
+            final AttributeValue path = item.get(Resource.ATTRIBUTE_PATH);
+            final AttributeValue parent = item.get(Resource.ATTRIBUTE_PARENT);
+            final AttributeValue type = item.get(Resource.ATTRIBUTE_TYPE);
+            if (type == null) {
+                LOG.warn("Skipping listing key backfill of resource without a type: {}", path.s());
+                continue;
+            }
+
+            final String listingKey = new Resource()
+                    .setPath(path.s())
+                    .setType(Resource.Type.valueOf(type.s()))
+                    .getListingKey();
+
+            final UpdateItemRequest updateRequest = UpdateItemRequest.builder()
+                    .tableName(resourceTable.tableName())
+                    .key(ImmutableMap.of(
+                            Resource.ATTRIBUTE_PATH, path,
+                            Resource.ATTRIBUTE_PARENT, parent))
+                    .conditionExpression("attribute_exists(#path) AND attribute_not_exists(#listingKey)")
+                    .updateExpression("SET #listingKey = :listingKey")
+                    .expressionAttributeNames(ImmutableMap.of(
+                            "#path", Resource.ATTRIBUTE_PATH,
+                            "#listingKey", Resource.ATTRIBUTE_LISTING_KEY))
+                    .expressionAttributeValues(ImmutableMap.of(
+                            ":listingKey", AttributeValue.builder().s(listingKey).build()))
+                    .build();
+
+            try {
+                dbClient.updateItem(updateRequest);
+                backfilled++;
+            } catch (final ConditionalCheckFailedException e) {
+                LOG.debug("Resource was deleted, or rewritten, before its listing key was backfilled: {}",
+                        path.s());
+            }
+        }
+
+        return backfilled;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates many resources with {@code BatchWriteItem}, up to 25 puts per request, instead
+ * of one {@code PutItem} round trip per resource. Unprocessed puts (e.g., throttled ones)
+ * are retried with a short exponential backoff.
+ */
+public final class CreateResources {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CreateResources.class);
+
+    /**
+     * The maximum number of puts DynamoDB accepts in a single {@code BatchWriteItem}.
+     */
+    private static final int MAX_PUTS_PER_BATCH = 25;
+
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final long UNPROCESSED_BACKOFF_BASE_MS = 50L;
+
+    private final List<Resource> resources_;
+
+    public CreateResources(
+            final List<Resource> resources) {
+        resources_ = ImmutableList.copyOf(checkNotNull(resources, "Resources cannot be null."));
+    }
+
+    public void run(
+            final DynamoDbEnhancedClient enhancedClient,
+            final DynamoDbTable<Resource> resourceTable,
+            @Nullable final Consumer<Resource> callback) {
+        for (final List<Resource> batch : Iterables.partition(resources_, MAX_PUTS_PER_BATCH)) {
+            List<Resource> pending = batch;
+            for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                if (attempt > MAX_UNPROCESSED_RETRIES) {
+                    throw new OnyxException("Failed to create " + pending.size()
+                            + " unprocessed resources after " + MAX_UNPROCESSED_RETRIES + " retries.");
+                } else if (attempt > 0) {
+                    LOG.debug("Retrying {} unprocessed resource puts (attempt {}).",
+                            pending.size(), attempt);
+                    backoff(attempt);
+                }
+
+                final WriteBatch.Builder<Resource> writeBatch = WriteBatch.builder(Resource.class)
+                        .mappedTableResource(resourceTable);
+                pending.forEach(writeBatch::addPutItem);
+
+                final BatchWriteResult result = enhancedClient.batchWriteItem(
+                        BatchWriteItemEnhancedRequest.builder()
+                                .writeBatches(writeBatch.build())
+                                .build());
+                pending = result.unprocessedPutItemsForTable(resourceTable);
+            }
+        }
+
+        if (callback != null) {
+            resources_.forEach(callback);
+        }
+    }
+
+    private static void backoff(
+            final int attempt) {
+        try {
+            Thread.sleep(UNPROCESSED_BACKOFF_BASE_MS << (attempt - 1));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnyxException("Interrupted while retrying unprocessed resource puts.", e);
+        }
+    }
+
+}
@@ -26,8 +26,12 @@
 
 package onyx.components.aws.dynamodb.queries;
 
-import com.google.common.collect.*;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
 import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,100 +43,144 @@ import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 
 import javax.annotation.Nullable;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static onyx.components.aws.dynamodb.DynamoDbManager.PARENT_INDEX_NAME;
 import static onyx.components.storage.ResourceManager.ROOT_PATH;
 
+/**
+ * Deletes a resource and, if it's a directory, its entire subtree. The tree is walked
+ * level by level: the children of every directory on a level are queried concurrently,
+ * then deleted concurrently in {@code BatchWriteItem} batches, before moving on to the
+ * next level. Parallelism is bounded by the given executor; tasks never wait on other
+ * tasks, so a bounded executor can't deadlock. Unprocessed deletes are retried with a
+ * short exponential backoff.
+ */
 public final class DeleteResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(DeleteResource.class);
 
     private static final int BATCH_WRITE_MAX_SIZE = 25;
 
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final long UNPROCESSED_BACKOFF_BASE_MS = 50L;
+
     private final Resource resource_;
 
+    private final ExecutorService executorService_;
+
     public DeleteResource(
             final Resource resource) {
+        this(resource, MoreExecutors.newDirectExecutorService());
+    }
+
+    public DeleteResource(
+            final Resource resource,
+            final ExecutorService executorService) {
         resource_ = checkNotNull(resource, "Resource cannot be null.");
+        executorService_ = checkNotNull(executorService, "Executor service cannot be null.");
     }
 
+    /**
+     * Deletes the resource and its subtree. The callback, if any, is invoked once for
+     * every deleted resource, starting with the resource itself which is deleted first.
+     * The resource itself is called back as it was persisted the moment it was deleted,
+     * so its size and cost reflect any adjustment made since it was read.
+     */
     public void run(
             final DynamoDbEnhancedClient enhancedClient,
             final DynamoDbTable<Resource> resourceTable,
             @Nullable final Consumer<Resource> callback) {
-        deleteResource(resource_, callback, enhancedClient, resourceTable);
-    }
-
-    private void deleteResource(
-            final Resource resource,
-            final Consumer<Resource> callback,
-            final DynamoDbEnhancedClient enhancedClient,
-            final DynamoDbTable<Resource> resourceTable) {
-        final Resource.Type resourceType = resource.getType();
-        if (Resource.Type.FILE.equals(resourceType)) {
-            resourceTable.deleteItem(resource);
-            if (callback != null) {
-                callback.accept(resource);
-            }
-        } else if (Resource.Type.DIRECTORY.equals(resourceType)) {
-            // First, delete the parent directory itself.
-            resourceTable.deleteItem(resource);
-            if (callback != null) {
-                callback.accept(resource);
-            }
-
-            final DynamoDbIndex<Resource> parentIndex = resourceTable.index(PARENT_INDEX_NAME);
+        // First, delete the resource itself.
+        final Resource deleted = resourceTable.deleteItem(resource_);
+        if (callback != null) {
+            callback.accept((deleted != null) ? deleted.markClean() : resource_);
+        }
 
-            final QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                    Key.builder().partitionValue(resource.getPath()).build());
+        if (!Resource.Type.DIRECTORY.equals(resource_.getType())) {
+            return;
+        }
 
-            final QueryEnhancedRequest request = QueryEnhancedRequest.builder()
-                    .queryConditional(queryConditional)
-                    .build();
+        final DynamoDbIndex<Resource> parentIndex = resourceTable.index(PARENT_INDEX_NAME);
 
-            final ListMultimap<Resource.Type, Resource> resources = parentIndex.query(request)
+        int deleted = 1;
+        List<Resource> directories = ImmutableList.of(resource_);
+        while (!directories.isEmpty()) {
+            // Fan out the listing of every directory on this level.
+            final List<Resource> children = invokeAll(directories.stream()
+                    .map(directory -> (Callable<List<Resource>>) () -> listChildren(directory, parentIndex))
+                    .toList())
                     .stream()
-                    .flatMap(page -> page.items().stream())
-                    // Intentionally always skip the root "/" directory.
-                    .filter(r -> !ROOT_PATH.equals(r.getPath()))
-                    // Sort the results alphabetically based on path.
-                    .sorted(Comparator.comparing(Resource::getPath))
-                    .collect(Multimaps.toMultimap(Resource::getType, r -> r,
-                    MultimapBuilder.ListMultimapBuilder.treeKeys().arrayListValues()::build));
-
-            // Then, batch delete any files.
-            final List<Resource> files = resources.get(Resource.Type.FILE);
-            if (CollectionUtils.isNotEmpty(files)) {
-                batchDeleteResources(files, enhancedClient, resourceTable);
-                if (callback != null) {
-                    files.forEach(callback);
-                }
+                    .flatMap(List::stream)
+                    .toList();
+            if (children.isEmpty()) {
+                break;
             }
 
-            // Lastly, recursively delete any directories.
-            final List<Resource> directories = resources.get(Resource.Type.DIRECTORY);
-            if (CollectionUtils.isNotEmpty(directories)) {
-                for (final Resource directory : directories) {
-                    deleteResource(directory, callback, enhancedClient, resourceTable);
-                }
+            // Then, batch delete all of the children on this level, files and directories alike.
+            invokeAll(Lists.partition(children, BATCH_WRITE_MAX_SIZE).stream()
+                    .map(batch -> (Callable<Integer>) () -> batchDeleteResources(batch, enhancedClient, resourceTable))
+                    .toList());
+            if (callback != null) {
+                children.forEach(callback);
             }
+            deleted += children.size();
+
+            // Lastly, descend into the directories among them.
+            directories = children.stream()
+                    .filter(r -> Resource.Type.DIRECTORY.equals(r.getType()))
+                    .toList();
         }
+
+        LOG.debug("Deleted {} resources in tree: {}", deleted, resource_.getPath());
+    }
+
+    private static List<Resource> listChildren(
+            final Resource directory,
+            final DynamoDbIndex<Resource> parentIndex) {
+        final QueryConditional queryConditional = QueryConditional.keyEqualTo(
+                Key.builder().partitionValue(directory.getPath()).build());
+
+        final QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(queryConditional)
+                .build();
+
+        return parentIndex.query(request)
+                .stream()
+                .flatMap(page -> page.items().stream())
+                // Intentionally always skip the root "/" directory.
+                .filter(r -> !ROOT_PATH.equals(r.getPath()))
+                .toList();
     }
 
-    private void batchDeleteResources(
-            final List<Resource> resources,
+    private int batchDeleteResources(
+            final List<Resource> batch,
             final DynamoDbEnhancedClient enhancedClient,
             final DynamoDbTable<Resource> resourceTable) {
-        final List<List<Resource>> batches = Lists.partition(resources, BATCH_WRITE_MAX_SIZE);
-        for (final List<Resource> batch : batches) {
+        List<Key> pending = batch.stream()
+                .map(resourceTable::keyFrom)
+                .toList();
+        for (int attempt = 0; CollectionUtils.isNotEmpty(pending); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new OnyxException("Failed to delete " + pending.size()
+                        + " unprocessed resources after " + MAX_UNPROCESSED_RETRIES + " retries.");
+            } else if (attempt > 0) {
+                LOG.debug("Retrying {} unprocessed resource deletes (attempt {}).",
+                        pending.size(), attempt);
+                backoff(attempt);
+            }
+
             final WriteBatch.Builder<Resource> writeBatchBuilder = WriteBatch.builder(Resource.class)
                     .mappedTableResource(resourceTable);
-            for (final Resource resource : batch) {
-                writeBatchBuilder.addDeleteItem(resource);
+            for (final Key key : pending) {
+                writeBatchBuilder.addDeleteItem(key);
             }
 
             final BatchWriteItemEnhancedRequest batchRequest = BatchWriteItemEnhancedRequest.builder()
@@ -140,11 +188,39 @@ public final class DeleteResource {
                     .build();
 
             final BatchWriteResult result = enhancedClient.batchWriteItem(batchRequest);
-            final List<Key> unprocessedItems = result.unprocessedDeleteItemsForTable(resourceTable);
-            if (CollectionUtils.isNotEmpty(unprocessedItems)) {
-                LOG.error("Failed to delete {} resources in batch delete operation.",
-                        unprocessedItems.size());
+            pending = result.unprocessedDeleteItemsForTable(resourceTable);
+        }
+
+        return batch.size();
+    }
+
+    private <T> List<T> invokeAll(
+            final List<Callable<T>> tasks) {
+        try {
+            final List<T> results = new ArrayList<>(tasks.size());
+            for (final Future<T> future : executorService_.invokeAll(tasks)) {
+                results.add(future.get());
             }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnyxException("Interrupted while deleting resource tree: "
+                    + resource_.getPath(), e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            Throwables.throwIfUnchecked(cause);
+            throw new OnyxException("Failed to delete resource tree: "
+                    + resource_.getPath(), (Exception) cause);
+        }
+    }
+
+    private static void backoff(
+            final int attempt) {
+        try {
+            Thread.sleep(UNPROCESSED_BACKOFF_BASE_MS << (attempt - 1));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnyxException("Interrupted while retrying unprocessed resource deletes.", e);
         }
     }
 
@@ -30,35 +30,126 @@ import com.google.common.collect.ImmutableList;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.components.storage.ResourceManager.ROOT_PATH;
+import static onyx.util.PathUtils.getParentPath;
 
+/**
+ * Fetches a single resource by path. The table's sort key {@code parent} is always
+ * derivable from the path, so this is a single {@code GetItem} on the full primary key
+ * rather than a {@code Query} on the partition key. The only exception is the root "/"
+ * whose parent isn't derivable, and is looked up with a {@code Query} instead.
+ */
 public final class GetResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(GetResource.class);
 
     private final String path_;
+    private final boolean consistentRead_;
 
     public GetResource(
             final String path) {
+        this(path, false);
+    }
+
+    public GetResource(
+            final String path,
+            final boolean consistentRead) {
         path_ = checkNotNull(path, "Resource path cannot be null.");
+        consistentRead_ = consistentRead;
     }
 
     public Resource run(
             final DynamoDbTable<Resource> resourceTable) {
-        final QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(path_).build());
+        if (ROOT_PATH.equals(path_)) {
+            return query(resourceTable);
+        }
+
+        return onItem(resourceTable.getItem(getItemRequest()));
+    }
+
+    /**
+     * The non-blocking counterpart of {@link #run(DynamoDbTable)}; the returned future
+     * completes with {@code null} if there is no resource at the path.
+     */
+    public CompletableFuture<Resource> runAsync(
+            final DynamoDbAsyncTable<Resource> resourceTable) {
+        if (ROOT_PATH.equals(path_)) {
+            final List<Resource> resources = Collections.synchronizedList(new ArrayList<>());
+            return resourceTable.query(queryRequest())
+                    .items()
+                    .subscribe(resources::add)
+                    .thenApply(ignored -> onQueryItems(resources));
+        }
+
+        return resourceTable.getItem(getItemRequest())
+                .thenApply(this::onItem);
+    }
+
+    private GetItemEnhancedRequest getItemRequest() {
+        final Key key = Key.builder()
+                .partitionValue(path_)
+                .sortValue(getParentPath(path_))
+                .build();
+
+        return GetItemEnhancedRequest.builder()
+                .key(key)
+                .consistentRead(consistentRead_)
+                .build();
+    }
+
+    @Nullable
+    private Resource onItem(
+            @Nullable final Resource resource) {
+        if (resource == null) {
+            LOG.debug("Found no resource at path: {}", path_);
+            return null;
+        }
+
+        // Loaded straight from DynamoDB, so it's clean by definition.
+        return resource.markClean();
+    }
 
-        final List<Resource> resources = resourceTable.query(queryConditional)
+    /**
+     * Looks up the resource with a {@code Query} on the partition key alone; only used
+     * when the sort key cannot be derived from the path.
+     */
+    Resource query(
+            final DynamoDbTable<Resource> resourceTable) {
+        final List<Resource> resources = resourceTable.query(queryRequest())
                 .items()
                 .stream()
                 .collect(ImmutableList.toImmutableList());
 
+        return onQueryItems(resources);
+    }
+
+    private QueryEnhancedRequest queryRequest() {
+        final QueryConditional queryConditional = QueryConditional.keyEqualTo(
+                Key.builder().partitionValue(path_).build());
+
+        return QueryEnhancedRequest.builder()
+                .queryConditional(queryConditional)
+                .consistentRead(consistentRead_)
+                .build();
+    }
+
+    @Nullable
+    private Resource onQueryItems(
+            final List<Resource> resources) {
         if (resources.isEmpty()) {
             LOG.debug("Found no resource at path: {}", path_);
             return null;
@@ -67,7 +158,7 @@ public final class GetResource {
             return null;
         }
 
-        return resources.iterator().next();
+        return resources.iterator().next().markClean();
     }
 
 }
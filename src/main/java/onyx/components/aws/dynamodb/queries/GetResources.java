@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.components.storage.ResourceManager.ROOT_PATH;
+import static onyx.util.PathUtils.getParentPath;
+
+/**
+ * Fetches many resources by path with {@code BatchGetItem}, up to 100 keys per request,
+ * instead of one {@code GetItem} round trip per path. Like {@link GetResource}, the sort
+ * key of each item is derived from its path; the root "/" falls back to a {@code Query}.
+ * Unprocessed keys are transparently retried by the paginated batch result.
+ */
+public final class GetResources {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GetResources.class);
+
+    /**
+     * The maximum number of keys DynamoDB accepts in a single {@code BatchGetItem}.
+     */
+    private static final int MAX_KEYS_PER_BATCH = 100;
+
+    private final Set<String> paths_;
+
+    public GetResources(
+            final Collection<String> paths) {
+        checkNotNull(paths, "Resource paths cannot be null.");
+        paths_ = paths.stream().distinct().collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Returns the found resources keyed by path; paths with no resource are absent
+     * from the returned map.
+     */
+    public Map<String, Resource> run(
+            final DynamoDbEnhancedClient enhancedClient,
+            final DynamoDbTable<Resource> resourceTable) {
+        final ImmutableMap.Builder<String, Resource> builder = ImmutableMap.builder();
+
+        final List<String> paths = paths_.stream()
+                .filter(path -> !ROOT_PATH.equals(path))
+                .toList();
+        for (final List<String> batch : Iterables.partition(paths, MAX_KEYS_PER_BATCH)) {
+            final ReadBatch.Builder<Resource> readBatch = ReadBatch.builder(Resource.class)
+                    .mappedTableResource(resourceTable);
+            for (final String path : batch) {
+                readBatch.addGetItem(Key.builder()
+                        .partitionValue(path)
+                        .sortValue(getParentPath(path))
+                        .build());
+            }
+
+            final BatchGetItemEnhancedRequest request = BatchGetItemEnhancedRequest.builder()
+                    .readBatches(readBatch.build())
+                    .build();
+
+            enhancedClient.batchGetItem(request)
+                    .resultsForTable(resourceTable)
+                    .forEach(resource -> builder.put(resource.getPath(), resource.markClean()));
+        }
+
+        if (paths_.contains(ROOT_PATH)) {
+            final Resource root = new GetResource(ROOT_PATH).run(resourceTable);
+            if (root != null) {
+                builder.put(ROOT_PATH, root);
+            }
+        }
+
+        final Map<String, Resource> resources = builder.build();
+        LOG.debug("Found {} of {} requested resources.", resources.size(), paths_.size());
+
+        return resources;
+    }
+
+}
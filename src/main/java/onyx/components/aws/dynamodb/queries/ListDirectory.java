@@ -75,6 +75,7 @@ public final class ListDirectory {
         final ListMultimap<Resource.Type, Resource> resources = parentIndex.query(request)
                 .stream()
                 .flatMap(page -> page.items().stream())
+                .map(Resource::markClean)
                 // Intentionally keep the root "/" out of the listing.
                 .filter(resource -> !ROOT_PATH.equals(resource.getPath()))
                 // Sort the results alphabetically based on path, prior to partitioning by type.
@@ -89,7 +90,7 @@ public final class ListDirectory {
         return ImmutableList.copyOf(Iterables.concat(directories, files));
     }
 
-    private static Expression buildFilterExpression(
+    static Expression buildFilterExpression(
             final Set<Resource.Visibility> visibility) {
         final ImmutableMap.Builder<String, String> nameBuilder = ImmutableMap.builder();
         final ImmutableMap.Builder<String, AttributeValue> valueBuilder = ImmutableMap.builder();
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import onyx.entities.storage.ResourcePage;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.components.aws.dynamodb.DynamoDbManager.LISTING_INDEX_NAME;
+import static onyx.components.aws.dynamodb.queries.ListDirectory.buildFilterExpression;
+import static onyx.components.storage.ResourceManager.ROOT_PATH;
+
+/**
+ * Lists a single page of the children of a directory using the {@code listing-index}
+ * GSI, whose sort key returns children already in listing order (directories first,
+ * then files, each sorted alphabetically). Unlike {@link ListDirectory}, this query
+ * never drains the entire directory into memory.
+ *
+ * Resources that predate the index lack its sort key, and are missing from it until
+ * backfilled; see {@link BackfillListingKeys}. Until then, pages are listed with
+ * {@link #runWithParentIndex}, which yields the very same pages and cursors.
+ */
+public final class ListDirectoryPage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ListDirectoryPage.class);
+
+    private static final char CURSOR_SEPARATOR = '\u0000';
+
+    /**
+     * The order of the {@code listing-index}: by sort key, then by table partition key.
+     */
+    private static final Comparator<Resource> LISTING_ORDER =
+            Comparator.comparing(Resource::getListingKey).thenComparing(Resource::getPath);
+
+    private final Resource directory_;
+    private final Set<Resource.Visibility> visibility_;
+    private final int limit_;
+    private final String cursor_;
+
+    public ListDirectoryPage(
+            final Resource directory,
+            final Set<Resource.Visibility> visibility,
+            final int limit,
+            @Nullable final String cursor) {
+        directory_ = checkNotNull(directory, "Resource directory cannot be null.");
+        visibility_ = checkNotNull(visibility, "Resource directory child visibility cannot be null.");
+        checkArgument(limit > 0, "Resource directory page limit must be > 0.");
+        limit_ = limit;
+        cursor_ = cursor;
+    }
+
+    public ResourcePage run(
+            final DynamoDbTable<Resource> resourceTable) {
+        final DynamoDbIndex<Resource> listingIndex = resourceTable.index(LISTING_INDEX_NAME);
+
+        final QueryConditional queryConditional = QueryConditional.keyEqualTo(
+                Key.builder().partitionValue(directory_.getPath()).build());
+
+        final QueryEnhancedRequest.Builder requestBuilder = QueryEnhancedRequest.builder()
+                .queryConditional(queryConditional)
+                .filterExpression(buildFilterExpression(visibility_))
+                // Ask for one more than the limit, so that a single round trip is usually
+                // enough to know whether there's a next page.
+                .limit(limit_ + 1);
+        if (cursor_ != null) {
+            final Pair<String, String> last = decodeCursor(cursor_);
+            requestBuilder.exclusiveStartKey(ImmutableMap.of(
+                    "parent", AttributeValue.builder().s(directory_.getPath()).build(),
+                    "listingKey", AttributeValue.builder().s(last.getLeft()).build(),
+                    "path", AttributeValue.builder().s(last.getRight()).build()));
+        }
+
+        final SdkIterable<Page<Resource>> pages = listingIndex.query(requestBuilder.build());
+
+        final List<Resource> resources = new ArrayList<>(limit_);
+        boolean hasMore = false;
+        for (final Page<Resource> page : pages) {
+            for (final Resource resource : page.items()) {
+                // Intentionally keep the root "/" out of the listing.
+                if (ROOT_PATH.equals(resource.getPath())) {
+                    continue;
+                } else if (resources.size() == limit_) {
+                    hasMore = true;
+                    break;
+                }
+                resources.add(resource.markClean());
+            }
+
+            if (hasMore) {
+                break;
+            }
+        }
+
+        final String nextCursor;
+        if (hasMore) {
+            final Resource last = resources.get(resources.size() - 1);
+            nextCursor = encodeCursor(last.getListingKey(), last.getPath());
+        } else {
+            nextCursor = null;
+        }
+
+        return new ResourcePage.Builder(ImmutableList.copyOf(resources))
+                .setCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Lists the same page as {@link #run}, with the same cursors, but by querying the entire
+     * directory through the {@code parent-index} and paging it in memory; for when the
+     * {@code listing-index} may still be missing resources that predate it.
+     */
+    public ResourcePage runWithParentIndex(
+            final DynamoDbTable<Resource> resourceTable) {
+        final List<Resource> children = new ListDirectory(directory_, visibility_).run(resourceTable)
+                .stream()
+                .sorted(LISTING_ORDER)
+                .collect(ImmutableList.toImmutableList());
+
+        int from = 0;
+        if (cursor_ != null) {
+            // Skip everything up to, and including, the last resource on the previous page.
+            final Pair<String, String> last = decodeCursor(cursor_);
+            while (from < children.size()
+                    && Pair.of(children.get(from).getListingKey(), children.get(from).getPath()).compareTo(last) <= 0) {
+                from++;
+            }
+        }
+
+        final int to = Math.min(from + limit_, children.size());
+        final List<Resource> resources = children.subList(from, to);
+
+        final String nextCursor;
+        if (to < children.size()) {
+            final Resource last = resources.get(resources.size() - 1);
+            nextCursor = encodeCursor(last.getListingKey(), last.getPath());
+        } else {
+            nextCursor = null;
+        }
+
+        return new ResourcePage.Builder(resources)
+                .setCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * The cursor is an opaque, URL-safe token that encodes the {@code listing-index}
+     * sort key and table partition key of the last resource on the previous page;
+     * together with the directory path, that's enough to rebuild the exclusive start key.
+     */
+    private static String encodeCursor(
+            final String listingKey,
+            final String path) {
+        final String raw = listingKey + CURSOR_SEPARATOR + path;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the {@code listing-index} sort key (left) and table partition key (right) of
+     * the last resource on the previous page.
+     */
+    private static Pair<String, String> decodeCursor(
+            final String cursor) {
+        final String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed resource directory cursor: " + cursor, e);
+        }
+
+        final int separator = raw.indexOf(CURSOR_SEPARATOR);
+        checkArgument(separator > 0 && separator < raw.length() - 1,
+                "Malformed resource directory cursor: %s", cursor);
+
+        return Pair.of(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+
+}
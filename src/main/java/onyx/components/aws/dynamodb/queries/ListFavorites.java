@@ -85,6 +85,7 @@ public final class ListFavorites {
         return favoriteIndex.query(request)
                 .stream()
                 .flatMap(page -> page.items().stream())
+                .map(Resource::markClean)
                 .collect(ImmutableList.toImmutableList());
     }
 
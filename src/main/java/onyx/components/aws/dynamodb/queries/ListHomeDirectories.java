@@ -71,6 +71,7 @@ public final class ListHomeDirectories {
         return parentIndex.query(request)
                 .stream()
                 .flatMap(page -> page.items().stream())
+                .map(Resource::markClean)
                 // Sort the results alphabetically based on path.
                 .sorted(Comparator.comparing(Resource::getPath))
                 .collect(ImmutableList.toImmutableList());
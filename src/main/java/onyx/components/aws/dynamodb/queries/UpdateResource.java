@@ -26,16 +26,33 @@
 
 package onyx.components.aws.dynamodb.queries;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.entities.storage.aws.dynamodb.Resource.*;
 
+/**
+ * Updates an existing resource. If the resource is tracking its dirty attributes (see
+ * {@link Resource#markClean()}) only the modified attributes are written with a minimal
+ * {@code UpdateItem}, and a resource with no modified attributes isn't written at all.
+ * An untracked resource falls back to a full {@code PutItem} of the entire bean.
+ */
 public final class UpdateResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(UpdateResource.class);
@@ -48,12 +65,99 @@ public final class UpdateResource {
     }
 
     public void run(
+            final DynamoDbClient dbClient,
             final DynamoDbTable<Resource> resourceTable,
             @Nullable final Consumer<Resource> callback) {
-        resourceTable.putItem(resource_);
+        final Set<String> dirtyAttributes = resource_.getDirtyAttributes();
+        if (dirtyAttributes == null) {
+            resourceTable.putItem(resource_);
+        } else if (dirtyAttributes.isEmpty()) {
+            LOG.debug("Resource unchanged, nothing to update: {}", resource_.getPath());
+            return;
+        } else if (!updateAttributes(dbClient, resourceTable, dirtyAttributes)) {
+            LOG.warn("Found no resource to update at path: {}", resource_.getPath());
+            return;
+        }
+
+        resource_.markClean();
+
         if (callback != null) {
             callback.accept(resource_);
         }
     }
 
+    private boolean updateAttributes(
+            final DynamoDbClient dbClient,
+            final DynamoDbTable<Resource> resourceTable,
+            final Set<String> dirtyAttributes) {
+        final ImmutableSet.Builder<String> attributesBuilder = ImmutableSet.builder();
+        attributesBuilder.addAll(dirtyAttributes);
+        // Derived attributes that back GSI keys must follow the attributes they derive from.
+        if (dirtyAttributes.contains(ATTRIBUTE_FAVORITE) || dirtyAttributes.contains(ATTRIBUTE_OWNER)) {
+            attributesBuilder.add(ATTRIBUTE_FAVORITE_OWNER);
+        }
+        if (dirtyAttributes.contains(ATTRIBUTE_TYPE)) {
+            attributesBuilder.add(ATTRIBUTE_LISTING_KEY);
+        }
+        final Set<String> attributes = attributesBuilder.build();
+
+        // Null attributes are left out of the map entirely; those are removed instead.
+        final Map<String, AttributeValue> values = resourceTable.tableSchema().itemToMap(resource_, attributes);
+
+        final ImmutableMap.Builder<String, String> names = ImmutableMap.builder();
+        final ImmutableMap.Builder<String, AttributeValue> expressionValues = ImmutableMap.builder();
+        final List<String> sets = new ArrayList<>();
+        final List<String> removes = new ArrayList<>();
+
+        names.put("#path", ATTRIBUTE_PATH);
+
+        int idx = 0;
+        for (final String attribute : attributes) {
+            final String namePlaceholder = "#a" + idx;
+            names.put(namePlaceholder, attribute);
+
+            final AttributeValue value = values.get(attribute);
+            if (value != null) {
+                final String valuePlaceholder = ":a" + idx;
+                expressionValues.put(valuePlaceholder, value);
+                sets.add(namePlaceholder + " = " + valuePlaceholder);
+            } else {
+                removes.add(namePlaceholder);
+            }
+            idx++;
+        }
+
+        final StringBuilder updateExpression = new StringBuilder();
+        if (!sets.isEmpty()) {
+            updateExpression.append("SET ").append(String.join(", ", sets));
+        }
+        if (!removes.isEmpty()) {
+            if (!updateExpression.isEmpty()) {
+                updateExpression.append(' ');
+            }
+            updateExpression.append("REMOVE ").append(String.join(", ", removes));
+        }
+
+        final Map<String, AttributeValue> builtValues = expressionValues.build();
+        final UpdateItemRequest.Builder request = UpdateItemRequest.builder()
+                .tableName(resourceTable.tableName())
+                .key(ImmutableMap.of(
+                        ATTRIBUTE_PATH, AttributeValue.builder().s(resource_.getPath()).build(),
+                        ATTRIBUTE_PARENT, AttributeValue.builder().s(resource_.getParent()).build()))
+                // Never let a partial update conjure up a new, partial item out of thin air.
+                .conditionExpression("attribute_exists(#path)")
+                .updateExpression(updateExpression.toString())
+                .expressionAttributeNames(names.build());
+        if (!builtValues.isEmpty()) {
+            request.expressionAttributeValues(builtValues);
+        }
+
+        try {
+            dbClient.updateItem(request.build());
+            return true;
+        } catch (final ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
 }
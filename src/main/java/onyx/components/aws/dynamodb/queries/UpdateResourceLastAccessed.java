@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableMap;
+import onyx.components.aws.dynamodb.converters.InstantToStringTypeConverter;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Sets the {@code lastAccessedAt} and {@code cost} of an existing resource, and nothing
+ * else, with a single {@code UpdateItem}. Concurrent changes to any other attribute of
+ * the resource are left untouched.
+ */
+public final class UpdateResourceLastAccessed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpdateResourceLastAccessed.class);
+
+    private static final InstantToStringTypeConverter INSTANT_CONVERTER =
+            new InstantToStringTypeConverter();
+
+    private final String path_;
+    private final String parent_;
+    private final Instant lastAccessedAt_;
+    private final BigDecimal cost_;
+
+    public UpdateResourceLastAccessed(
+            final String path,
+            final String parent,
+            final Instant lastAccessedAt,
+            final BigDecimal cost) {
+        path_ = checkNotNull(path, "Resource path cannot be null.");
+        parent_ = checkNotNull(parent, "Resource parent cannot be null.");
+        lastAccessedAt_ = checkNotNull(lastAccessedAt, "Resource last accessed at cannot be null.");
+        cost_ = checkNotNull(cost, "Resource cost cannot be null.");
+    }
+
+    /**
+     * Completes with {@code true} if the resource was updated, or {@code false} if there
+     * was no resource at the path to update.
+     */
+    public CompletableFuture<Boolean> runAsync(
+            final DynamoDbAsyncClient dbAsyncClient,
+            final DynamoDbAsyncTable<Resource> resourceTable) {
+        return dbAsyncClient.updateItem(request(resourceTable.tableName()))
+                .handle((response, t) -> {
+                    if (t == null) {
+                        return true;
+                    }
+
+                    final Throwable cause = (t instanceof CompletionException) ? t.getCause() : t;
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        LOG.debug("Found no resource to update last accessed at path: {}", path_);
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    private UpdateItemRequest request(
+            final String tableName) {
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(ImmutableMap.of(
+                        Resource.ATTRIBUTE_PATH, AttributeValue.builder().s(path_).build(),
+                        Resource.ATTRIBUTE_PARENT, AttributeValue.builder().s(parent_).build()))
+                // Never resurrect a resource that was deleted since it was accessed.
+                .conditionExpression("attribute_exists(#path)")
+                .updateExpression("SET #lastAccessedAt = :lastAccessedAt, #cost = :cost")
+                .expressionAttributeNames(ImmutableMap.of(
+                        "#path", Resource.ATTRIBUTE_PATH,
+                        "#lastAccessedAt", Resource.ATTRIBUTE_LAST_ACCESSED_AT,
+                        "#cost", Resource.ATTRIBUTE_COST))
+                .expressionAttributeValues(ImmutableMap.of(
+                        ":lastAccessedAt", INSTANT_CONVERTER.transformFrom(lastAccessedAt_),
+                        ":cost", AttributeValue.builder().n(cost_.toPlainString()).build()))
+                .build();
+    }
+
+}
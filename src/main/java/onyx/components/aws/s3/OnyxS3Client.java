@@ -32,14 +32,18 @@ import curacao.components.ComponentDestroyable;
 import onyx.components.aws.AwsClientConfig;
 import onyx.components.aws.AwsCredentials;
 import onyx.components.config.aws.AwsConfig;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Component
 public final class OnyxS3Client implements ComponentDestroyable {
 
     private final S3Client s3_;
+    private final S3AsyncClient s3Async_;
     private final S3Presigner presigner_;
 
     @Injectable
@@ -49,9 +53,20 @@ public final class OnyxS3Client implements ComponentDestroyable {
             final AwsClientConfig awsClientConfig) {
         final Region region = Region.of(awsConfig.getAwsS3Region());
 
+        final ClientOverrideConfiguration overrideConfiguration = awsClientConfig.getClientOverrideConfiguration(
+                awsConfig.getAwsS3ApiCallTimeout(), awsConfig.getAwsS3ApiCallAttemptTimeout());
+
         s3_ = S3Client.builder()
                 .credentialsProvider(awsCredentials.getCredentialsProvider())
-                .overrideConfiguration(awsClientConfig.getClientOverrideConfiguration())
+                .httpClient(awsClientConfig.getHttpClient())
+                .overrideConfiguration(overrideConfiguration)
+                .region(region)
+                .build();
+
+        s3Async_ = S3AsyncClient.builder()
+                .credentialsProvider(awsCredentials.getCredentialsProvider())
+                .httpClient(awsClientConfig.getAsyncHttpClient())
+                .overrideConfiguration(overrideConfiguration)
                 .region(region)
                 .build();
 
@@ -59,12 +74,25 @@ public final class OnyxS3Client implements ComponentDestroyable {
                 .credentialsProvider(awsCredentials.getCredentialsProvider())
                 .region(region)
                 .build();
+
+        final HeadBucketRequest headBucketRequest = HeadBucketRequest.builder()
+                .bucket(awsConfig.getAwsS3BucketName())
+                .build();
+        awsClientConfig.prewarm("S3", () -> s3_.headBucket(headBucketRequest));
+        awsClientConfig.prewarm("S3 (async)", () -> s3Async_.headBucket(headBucketRequest).join());
     }
 
     public S3Client getS3Client() {
         return s3_;
     }
 
+    /**
+     * The non-blocking client, for request paths that must not park a thread on S3 I/O.
+     */
+    public S3AsyncClient getS3AsyncClient() {
+        return s3Async_;
+    }
+
     public S3Presigner getPresigner() {
         return presigner_;
     }
@@ -72,6 +100,7 @@ public final class OnyxS3Client implements ComponentDestroyable {
     @Override
     public void destroy() throws Exception {
         s3_.close();
+        s3Async_.close();
         presigner_.close();
     }
 
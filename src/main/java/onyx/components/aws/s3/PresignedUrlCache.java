@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.s3;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.presigner.PresignedRequest;
+
+import javax.annotation.Nullable;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An in-process, size-bounded memo of presigned S3 URLs, keyed by the presigned operation,
+ * bucket, object key and any response overrides baked into the signature. A memoized URL
+ * is handed out again for as long as at least the configured fraction of its validity
+ * window is left, so the caller always gets a URL with a useful lifetime ahead of it, and
+ * is re-signed once it's past that point.
+ *
+ * Entries are expected to be invalidated whenever the object behind them is deleted or
+ * overwritten. The memoized keys are indexed by object key, sorted, so that invalidating
+ * an object, or every object under a prefix, only touches the entries of those objects.
+ */
+public final class PresignedUrlCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PresignedUrlCache.class);
+
+    private final boolean enabled_;
+
+    private final double minRemainingValidity_;
+
+    private final Cache<PresignKey, PresignedUrl> cache_;
+
+    /**
+     * The memoized keys, by object key. Guarded by itself; every change to the memo that
+     * the index has to follow is made while holding it, so the two never disagree.
+     */
+    private final NavigableMap<String, Set<PresignKey>> keysByObjectKey_;
+
+    public PresignedUrlCache(
+            final boolean enabled,
+            final long maxSize,
+            final double minRemainingValidity) {
+        checkArgument(maxSize >= 0L, "Presigned URL cache max size must be >= 0.");
+        checkArgument(minRemainingValidity >= 0.0d && minRemainingValidity <= 1.0d,
+                "Presigned URL cache min remaining validity must be between 0.0 and 1.0.");
+
+        enabled_ = enabled;
+        minRemainingValidity_ = minRemainingValidity;
+        keysByObjectKey_ = new TreeMap<>();
+        cache_ = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    public static PresignedUrlCache disabled() {
+        return new PresignedUrlCache(false, 0L, 1.0d);
+    }
+
+    /**
+     * Returns a memoized URL for the given key if it still has enough of the given
+     * validity window left, otherwise presigns (and memoizes) a fresh one. The presigner
+     * may return {@code null} (e.g., the object doesn't exist) which is never memoized.
+     */
+    @Nullable
+    public URL get(
+            final PresignKey key,
+            final Duration validity,
+            final Supplier<? extends PresignedRequest> presigner) {
+        checkNotNull(key, "Presign key cannot be null.");
+        checkNotNull(validity, "Presigned URL validity cannot be null.");
+        checkNotNull(presigner, "Presigner cannot be null.");
+
+        if (!enabled_) {
+            final PresignedRequest presigned = presigner.get();
+            return (presigned != null) ? presigned.url() : null;
+        }
+
+        final Duration minRemaining = Duration.ofMillis((long) (validity.toMillis() * minRemainingValidity_));
+
+        final PresignedUrl cached = cache_.getIfPresent(key);
+        if (cached != null && cached.getExpiration().minus(minRemaining).isAfter(Instant.now())) {
+            return cached.getUrl();
+        }
+
+        // Concurrent misses of the same key may both presign; the URLs are equivalent,
+        // and the last one in wins.
+        final PresignedRequest presigned = presigner.get();
+        if (presigned == null) {
+            return null;
+        }
+        synchronized (keysByObjectKey_) {
+            keysByObjectKey_.computeIfAbsent(key.objectKey_, k -> new HashSet<>()).add(key);
+            cache_.put(key, new PresignedUrl(presigned.url(), presigned.expiration()));
+        }
+
+        return presigned.url();
+    }
+
+    /**
+     * Drops every memoized URL for the object at the given key.
+     */
+    public void invalidate(
+            final String objectKey) {
+        checkNotNull(objectKey, "Object key cannot be null.");
+
+        if (!enabled_) {
+            return;
+        }
+
+        synchronized (keysByObjectKey_) {
+            final Set<PresignKey> keys = keysByObjectKey_.remove(objectKey);
+            if (keys != null) {
+                cache_.invalidateAll(keys);
+            }
+        }
+        LOG.trace("Invalidated presigned URLs for key: {}", objectKey);
+    }
+
+    /**
+     * Drops every memoized URL for any object whose key starts with the given prefix.
+     */
+    public void invalidatePrefix(
+            final String objectKeyPrefix) {
+        checkNotNull(objectKeyPrefix, "Object key prefix cannot be null.");
+
+        if (!enabled_) {
+            return;
+        }
+
+        synchronized (keysByObjectKey_) {
+            // Keys sharing the prefix are contiguous in the sorted index.
+            final NavigableMap<String, Set<PresignKey>> matching =
+                    keysByObjectKey_.tailMap(objectKeyPrefix, true);
+            final Iterator<Map.Entry<String, Set<PresignKey>>> it = matching.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, Set<PresignKey>> entry = it.next();
+                if (!entry.getKey().startsWith(objectKeyPrefix)) {
+                    break;
+                }
+                cache_.invalidateAll(entry.getValue());
+                it.remove();
+            }
+        }
+        LOG.trace("Invalidated presigned URLs for key prefix: {}", objectKeyPrefix);
+    }
+
+    public void invalidateAll() {
+        synchronized (keysByObjectKey_) {
+            keysByObjectKey_.clear();
+            cache_.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache_.size();
+    }
+
+    /**
+     * Keeps the index in step with entries evicted by the memo itself, to honor its max size.
+     * Explicit removals are made through the index to begin with, and replaced entries keep
+     * their key.
+     */
+    private void onRemoval(
+            final RemovalNotification<PresignKey, PresignedUrl> notification) {
+        final PresignKey key = notification.getKey();
+        if (key == null || !notification.wasEvicted()) {
+            return;
+        }
+
+        synchronized (keysByObjectKey_) {
+            final Set<PresignKey> keys = keysByObjectKey_.get(key.objectKey_);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByObjectKey_.remove(key.objectKey_);
+            }
+        }
+    }
+
+    /**
+     * Identifies a presigned URL: the operation, the bucket and key of the object, and the
+     * inputs of any response overrides (e.g., content type or disposition) it carries.
+     */
+    public static final class PresignKey {
+
+        private final String operation_;
+        private final String bucketName_;
+        private final String objectKey_;
+        private final List<String> overrides_;
+
+        private PresignKey(
+                final String operation,
+                final String bucketName,
+                final String objectKey,
+                final List<String> overrides) {
+            operation_ = checkNotNull(operation, "Presign operation cannot be null.");
+            bucketName_ = checkNotNull(bucketName, "Bucket name cannot be null.");
+            objectKey_ = checkNotNull(objectKey, "Object key cannot be null.");
+            overrides_ = overrides;
+        }
+
+        public static PresignKey of(
+                final String operation,
+                final String bucketName,
+                final String objectKey,
+                final String... overrides) {
+            return new PresignKey(operation, bucketName, objectKey, ImmutableList.copyOf(overrides));
+        }
+
+        @Override
+        public boolean equals(
+                final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PresignKey other)) {
+                return false;
+            }
+
+            return operation_.equals(other.operation_)
+                    && bucketName_.equals(other.bucketName_)
+                    && objectKey_.equals(other.objectKey_)
+                    && overrides_.equals(other.overrides_);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation_, bucketName_, objectKey_, overrides_);
+        }
+
+    }
+
+    private static final class PresignedUrl {
+
+        private final URL url_;
+        private final Instant expiration_;
+
+        private PresignedUrl(
+                final URL url,
+                final Instant expiration) {
+            url_ = url;
+            expiration_ = expiration;
+        }
+
+        public URL getUrl() {
+            return url_;
+        }
+
+        public Instant getExpiration() {
+            return expiration_;
+        }
+
+    }
+
+}
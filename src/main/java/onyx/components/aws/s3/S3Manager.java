@@ -26,16 +26,22 @@
 
 package onyx.components.aws.s3;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
+import curacao.components.ComponentDestroyable;
 import curacao.util.http.ContentTypes;
 import onyx.components.config.aws.AwsConfig;
 import onyx.components.storage.AssetManager;
 import onyx.components.storage.async.AsyncAssetThreadPool;
 import onyx.entities.api.request.v1.CompleteMultipartUploadRequest;
 import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.OnyxException;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,14 +54,27 @@ import software.amazon.awssdk.services.s3.presigner.model.HeadObjectPresignReque
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
+import javax.annotation.Nullable;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Component
-public final class S3Manager implements AssetManager {
+public final class S3Manager implements AssetManager, ComponentDestroyable {
 
     private static final Logger LOG = LoggerFactory.getLogger(S3Manager.class);
 
@@ -65,13 +84,41 @@ public final class S3Manager implements AssetManager {
 
     private static final String SLASH_STRING = "/";
 
+    private static final String PRESIGN_GET = "GET";
+    private static final String PRESIGN_HEAD = "HEAD";
+
+    /**
+     * The maximum number of keys S3 returns per list request, and accepts per
+     * multi-object {@code DeleteObjects} request.
+     */
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private static final int MAX_DELETE_RETRIES = 3;
+    private static final long DELETE_RETRY_BACKOFF_BASE_MS = 100L;
+
+    private static final ThreadFactory DELETE_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-s3-delete-%d")
+            .build();
+
     private final AwsConfig awsConfig_;
 
     private final S3Client s3_;
     private final S3Presigner presigner_;
 
+    private final PresignedUrlCache presignedUrlCache_;
+
+    /**
+     * Per-request deadline of the operations whose duration scales with their input, which
+     * would routinely outlive the client-wide API call and attempt timeouts.
+     */
+    private final AwsRequestOverrideConfiguration longApiCallOverride_;
+
     private final ExecutorService asyncAssetExecutorService_;
 
+    private final int deleteParallelism_;
+    private final ExecutorService deleteExecutorService_;
+
     @Injectable
     public S3Manager(
             final AwsConfig awsConfig,
@@ -80,7 +127,16 @@ public final class S3Manager implements AssetManager {
         awsConfig_ = awsConfig;
         s3_ = onyxS3Client.getS3Client();
         presigner_ = onyxS3Client.getPresigner();
+        presignedUrlCache_ = new PresignedUrlCache(awsConfig.getAwsS3PresignedUrlCacheEnabled(),
+                awsConfig.getAwsS3PresignedUrlCacheMaxSize(),
+                awsConfig.getAwsS3PresignedUrlCacheMinRemainingValidity());
+        longApiCallOverride_ = AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(awsConfig.getAwsS3LongApiCallTimeout())
+                .apiCallAttemptTimeout(awsConfig.getAwsS3LongApiCallTimeout())
+                .build();
         asyncAssetExecutorService_ = asyncAssetThreadPool.getExecutorService();
+        deleteParallelism_ = awsConfig.getAwsS3DeleteParallelism();
+        deleteExecutorService_ = Executors.newFixedThreadPool(deleteParallelism_, DELETE_THREAD_FACTORY);
     }
 
     @Override
@@ -92,17 +148,23 @@ public final class S3Manager implements AssetManager {
         final String bucketName = awsConfig_.getAwsS3BucketName();
         final String key = resource.getS3Key();
 
-        final HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .build();
+        final Duration validity = Duration.ofSeconds(linkValidityDurationInSeconds);
+        final PresignedUrlCache.PresignKey presignKey =
+                PresignedUrlCache.PresignKey.of(PRESIGN_HEAD, bucketName, key);
 
-        final HeadObjectPresignRequest presignRequest = HeadObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofSeconds(linkValidityDurationInSeconds))
-                .headObjectRequest(headObjectRequest)
-                .build();
+        return presignedUrlCache_.get(presignKey, validity, () -> {
+            final HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            final HeadObjectPresignRequest presignRequest = HeadObjectPresignRequest.builder()
+                    .signatureDuration(validity)
+                    .headObjectRequest(headObjectRequest)
+                    .build();
 
-        return presigner_.presignHeadObject(presignRequest).url();
+            return presigner_.presignHeadObject(presignRequest);
+        });
     }
 
     @Override
@@ -115,23 +177,32 @@ public final class S3Manager implements AssetManager {
         final String key = resource.getS3Key();
 
         final String name = resource.getName();
-        final String extension = FilenameUtils.getExtension(key).toLowerCase();
-        final String contentType = ContentTypes.getContentTypeForExtension(extension,
-                DEFAULT_CONTENT_TYPE);
 
-        final GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .responseContentType(contentType)
-                .responseContentDisposition(String.format("inline; filename=\"%s\"", name))
-                .build();
+        // The response content type and disposition overrides are derived entirely from
+        // the key and the name, so those make up the memo key.
+        final Duration validity = Duration.ofSeconds(linkValidityDurationInSeconds);
+        final PresignedUrlCache.PresignKey presignKey =
+                PresignedUrlCache.PresignKey.of(PRESIGN_GET, bucketName, key, name);
 
-        final GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofSeconds(linkValidityDurationInSeconds))
-                .getObjectRequest(getObjectRequest)
-                .build();
+        return presignedUrlCache_.get(presignKey, validity, () -> {
+            final String extension = FilenameUtils.getExtension(key).toLowerCase();
+            final String contentType = ContentTypes.getContentTypeForExtension(extension,
+                    DEFAULT_CONTENT_TYPE);
 
-        return presigner_.presignGetObject(presignRequest).url();
+            final GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .responseContentType(contentType)
+                    .responseContentDisposition(String.format("inline; filename=\"%s\"", name))
+                    .build();
+
+            final GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                    .signatureDuration(validity)
+                    .getObjectRequest(getObjectRequest)
+                    .build();
+
+            return presigner_.presignGetObject(presignRequest);
+        });
     }
 
     @Override
@@ -145,6 +216,9 @@ public final class S3Manager implements AssetManager {
 
         final String defaultStorageClass = awsConfig_.getAwsS3DefaultStorageClass();
 
+        // The object is about to be (over)written; forget any URLs presigned for the old one.
+        presignedUrlCache_.invalidate(key);
+
         // https://github.com/aws/aws-sdk-java-v2/issues/1849#issuecomment-642919219
         final AwsRequestOverrideConfiguration overrideConfig = AwsRequestOverrideConfiguration.builder()
                 .putRawQueryParameter(X_AMZ_STORAGE_CLASS, defaultStorageClass)
@@ -192,18 +266,34 @@ public final class S3Manager implements AssetManager {
         final String key = resource.getS3Key();
         final Resource.Type resourceType = resource.getType();
 
+        // Permanent deletion of an object in a versioning enabled S3 bucket requires us to
+        // fetch each version of the object (and each delete marker) and then explicitly delete
+        // each version. This is the only way to permanently delete objects in a versioning
+        // enabled S3 bucket. Otherwise, if done in a versioning enabled bucket, a standard
+        // delete creates a delete marker in S3 and the object appears as it has been deleted.
+        final boolean deleteVersions = awsConfig_.getAwsS3VersioningEnabled() && permanent;
+
         if (Resource.Type.FILE.equals(resourceType)) {
-            deleteObject(bucketName, key, permanent);
+            presignedUrlCache_.invalidate(key);
+            if (deleteVersions) {
+                // The listing is by prefix, so only keep the versions of this exact key.
+                deleteObjects(bucketName, listObjectVersionPages(bucketName, key, key::equals));
+            } else {
+                s3_.deleteObject(DeleteObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .build());
+            }
         } else if (Resource.Type.DIRECTORY.equals(resourceType)) {
             // IMPORTANT: note the trailing slash on the key, which is to catch all "children"
             // of the directory (including the directory itself).
-            final ListObjectsV2Response listResponse = s3_.listObjectsV2(ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .prefix(key + SLASH_STRING)
-                    .build());
-            listResponse.contents().stream()
-                    .map(S3Object::key)
-                    .forEach(objKey -> deleteObject(bucketName, objKey, permanent));
+            final String prefix = key + SLASH_STRING;
+            presignedUrlCache_.invalidatePrefix(prefix);
+            if (deleteVersions) {
+                deleteObjects(bucketName, listObjectVersionPages(bucketName, prefix, k -> true));
+            } else {
+                deleteObjects(bucketName, listObjectPages(bucketName, prefix));
+            }
         }
     }
 
@@ -221,6 +311,9 @@ public final class S3Manager implements AssetManager {
         final String key = resource.getS3Key();
         final String defaultStorageClass = awsConfig_.getAwsS3DefaultStorageClass();
 
+        // The object is about to be (over)written; forget any URLs presigned for the old one.
+        presignedUrlCache_.invalidate(key);
+
         final CreateMultipartUploadRequest req = CreateMultipartUploadRequest.builder()
                 .bucket(bucketName)
                 .key(key)
@@ -266,6 +359,37 @@ public final class S3Manager implements AssetManager {
         return presigner_.presignUploadPart(presignRequest).url();
     }
 
+    @Nullable
+    @Override
+    public List<CompleteMultipartUploadRequest.Part> listUploadedParts(
+            final Resource resource,
+            final String uploadId,
+            final int partNumberMarker,
+            final int maxParts) {
+        final String bucketName = awsConfig_.getAwsS3BucketName();
+        final String key = resource.getS3Key();
+
+        final ListPartsRequest listPartsRequest = ListPartsRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumberMarker(partNumberMarker)
+                .maxParts(maxParts)
+                .build();
+
+        try {
+            return s3_.listParts(listPartsRequest).parts().stream()
+                    .map(part -> new CompleteMultipartUploadRequest.Part.Builder()
+                            .setPartNumber(part.partNumber())
+                            .setETag(part.eTag())
+                            .build())
+                    .toList();
+        } catch (final NoSuchUploadException e) {
+            LOG.debug("Found no multipart upload {} for key: {}", uploadId, key);
+            return null;
+        }
+    }
+
     @Override
     public void completeMultipartUpload(
             final Resource resource,
@@ -295,9 +419,11 @@ public final class S3Manager implements AssetManager {
                 .key(key)
                 .uploadId(uploadId)
                 .multipartUpload(completedMultipartUpload)
+                .overrideConfiguration(longApiCallOverride_)
                 .build();
 
         s3_.completeMultipartUpload(completeRequest);
+        presignedUrlCache_.invalidate(key);
     }
 
     @Override
@@ -316,70 +442,167 @@ public final class S3Manager implements AssetManager {
         s3_.abortMultipartUpload(abortRequest);
     }
 
-    private void deleteObject(
-            final String bucketName,
-            final String key,
-            final boolean permanent) {
-        final boolean versioningEnabled = awsConfig_.getAwsS3VersioningEnabled();
-
-        if (versioningEnabled && permanent) {
-            // Permanent deletion of an object in a versioning enabled S3 bucket requires us to
-            // fetch each version of the object at the given key and then explicitly delete each version.
-            // This is the only way to permanently delete objects in a versioning enabled S3 bucket.
-            final List<ObjectVersion> versions = getAllVersionsForObject(bucketName, key);
-            for (final ObjectVersion version : versions) {
-                final DeleteObjectRequest dor = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(version.key())
-                        .versionId(version.versionId())
-                        .build();
+    @Override
+    public void destroy() throws Exception {
+        deleteExecutorService_.shutdown();
+    }
 
-                s3_.deleteObject(dor);
-            }
-        } else {
-            // Standard deletion; if done in a versioning enabled bucket this operation
-            // creates a delete marker in S3 and the object appears as it has been deleted.
-            final DeleteObjectRequest dor = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
+    /**
+     * Lazily lists every object under the given prefix, a page of up to 1000 keys at a time.
+     */
+    private Iterator<List<ObjectIdentifier>> listObjectPages(
+            final String bucketName,
+            final String prefix) {
+        final ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .maxKeys(MAX_KEYS_PER_REQUEST)
+                .build();
 
-            s3_.deleteObject(dor);
-        }
+        return s3_.listObjectsV2Paginator(request).stream()
+                .map(page -> page.contents().stream()
+                        .map(object -> ObjectIdentifier.builder()
+                                .key(object.key())
+                                .build())
+                        .toList())
+                .iterator();
     }
 
     /**
-     * Fetches a complete list of all object versions for the given key,
-     * iterating over the fetched object versions in batches as needed.
+     * Lazily lists every version and delete marker of every object under the given prefix
+     * whose key matches the given filter, a page of up to 1000 versions at a time.
      */
-    private List<ObjectVersion> getAllVersionsForObject(
+    private Iterator<List<ObjectIdentifier>> listObjectVersionPages(
             final String bucketName,
-            final String key) {
-        final ImmutableList.Builder<ObjectVersion> builder = ImmutableList.builder();
-
-        ListObjectVersionsRequest request = ListObjectVersionsRequest.builder()
+            final String prefix,
+            final Predicate<String> keyFilter) {
+        final ListObjectVersionsRequest request = ListObjectVersionsRequest.builder()
                 .bucket(bucketName)
-                .prefix(key)
-                .maxKeys(5)
+                .prefix(prefix)
+                .maxKeys(MAX_KEYS_PER_REQUEST)
                 .build();
 
-        ListObjectVersionsResponse response = s3_.listObjectVersions(request);
-        builder.addAll(response.versions());
+        return s3_.listObjectVersionsPaginator(request).stream()
+                .map(page -> Stream.concat(
+                        page.versions().stream()
+                                .map(version -> toObjectIdentifier(version.key(), version.versionId())),
+                        page.deleteMarkers().stream()
+                                .map(marker -> toObjectIdentifier(marker.key(), marker.versionId())))
+                        .filter(identifier -> keyFilter.test(identifier.key()))
+                        .toList())
+                .iterator();
+    }
+
+    /**
+     * Deletes every listed object with multi-object {@code DeleteObjects} requests of up
+     * to 1000 keys each. Listing continues while earlier pages are being deleted, with at
+     * most the configured number of delete requests in flight at once.
+     */
+    private void deleteObjects(
+            final String bucketName,
+            final Iterator<List<ObjectIdentifier>> pages) {
+        final Semaphore inFlight = new Semaphore(deleteParallelism_);
+        final List<Future<?>> futures = new ArrayList<>();
 
-        while (Boolean.TRUE.equals(response.isTruncated())) {
-            request = ListObjectVersionsRequest.builder()
+        try {
+            while (pages.hasNext()) {
+                for (final List<ObjectIdentifier> batch : Lists.partition(pages.next(), MAX_KEYS_PER_REQUEST)) {
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+
+                    inFlight.acquire();
+                    try {
+                        futures.add(deleteExecutorService_.submit(() -> {
+                            try {
+                                deleteObjectBatch(bucketName, batch);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }));
+                    } catch (final RejectedExecutionException e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                }
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnyxException("Interrupted while deleting objects from S3 bucket: "
+                    + bucketName, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            Throwables.throwIfUnchecked(cause);
+            throw new OnyxException("Failed to delete objects from S3 bucket: "
+                    + bucketName, (Exception) cause);
+        }
+    }
+
+    /**
+     * Deletes a single batch of objects, retrying only the keys S3 reported per-key
+     * errors for, with a short exponential backoff.
+     */
+    private void deleteObjectBatch(
+            final String bucketName,
+            final List<ObjectIdentifier> batch) {
+        List<ObjectIdentifier> pending = batch;
+        for (int attempt = 0; ; attempt++) {
+            final DeleteObjectsRequest request = DeleteObjectsRequest.builder()
                     .bucket(bucketName)
-                    .prefix(key)
-                    .maxKeys(5)
-                    .keyMarker(response.nextKeyMarker())
-                    .versionIdMarker(response.nextVersionIdMarker())
+                    .delete(Delete.builder()
+                            .objects(pending)
+                            .quiet(true) // only errors are returned
+                            .build())
+                    .overrideConfiguration(longApiCallOverride_)
                     .build();
 
-            response = s3_.listObjectVersions(request);
-            builder.addAll(response.versions());
+            final DeleteObjectsResponse response = s3_.deleteObjects(request);
+            if (!response.hasErrors() || response.errors().isEmpty()) {
+                return;
+            }
+
+            final List<S3Error> errors = response.errors();
+            if (attempt >= MAX_DELETE_RETRIES) {
+                final S3Error first = errors.get(0);
+                throw new OnyxException(String.format("Failed to delete %s objects from S3 bucket "
+                        + "%s after %s retries, first error: %s %s (%s)", errors.size(), bucketName,
+                        MAX_DELETE_RETRIES, first.code(), first.message(), first.key()));
+            }
+
+            final Set<String> failed = errors.stream()
+                    .map(error -> identifierKey(error.key(), error.versionId()))
+                    .collect(ImmutableSet.toImmutableSet());
+            pending = pending.stream()
+                    .filter(identifier -> failed.contains(identifierKey(identifier.key(), identifier.versionId())))
+                    .toList();
+
+            LOG.debug("Retrying {} failed object deletes (attempt {}).", pending.size(), attempt + 1);
+            try {
+                Thread.sleep(DELETE_RETRY_BACKOFF_BASE_MS << attempt);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OnyxException("Interrupted while retrying failed object deletes.", e);
+            }
         }
+    }
 
-        return builder.build();
+    private static ObjectIdentifier toObjectIdentifier(
+            final String key,
+            final String versionId) {
+        return ObjectIdentifier.builder()
+                .key(key)
+                .versionId(versionId)
+                .build();
+    }
+
+    private static String identifierKey(
+            final String key,
+            @Nullable final String versionId) {
+        return key + '\u0000' + Objects.toString(versionId, "");
     }
 
 }
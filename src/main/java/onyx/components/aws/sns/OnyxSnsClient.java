@@ -47,6 +47,7 @@ public final class OnyxSnsClient implements ComponentDestroyable {
             final AwsClientConfig awsClientConfig) {
         sns_ = SnsClient.builder()
                 .credentialsProvider(awsCredentials.getCredentialsProvider())
+                .httpClient(awsClientConfig.getHttpClient())
                 .overrideConfiguration(awsClientConfig.getClientOverrideConfiguration())
                 .region(Region.of(awsConfig.getAwsSnsRegion()))
                 .build();
@@ -26,6 +26,7 @@
 
 package onyx.components.config.aws;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 public interface AwsConfig {
@@ -35,9 +36,37 @@ public interface AwsConfig {
     String AWS_ACCESS_KEY_PROP = "access-key";
     String AWS_SECRET_KEY_PROP = "secret-key";
 
+    String AWS_CLIENT_MAX_CONNECTIONS_PROP = "client.max-connections";
+    String AWS_CLIENT_CONNECTION_TIMEOUT_PROP = "client.connection-timeout";
+    String AWS_CLIENT_SOCKET_TIMEOUT_PROP = "client.socket-timeout";
+    String AWS_CLIENT_CONNECTION_MAX_IDLE_TIME_PROP = "client.connection-max-idle-time";
+    String AWS_CLIENT_CONNECTION_TIME_TO_LIVE_PROP = "client.connection-time-to-live";
+    String AWS_CLIENT_TCP_KEEP_ALIVE_PROP = "client.tcp-keep-alive";
+    String AWS_CLIENT_API_CALL_TIMEOUT_PROP = "client.api-call-timeout";
+    String AWS_CLIENT_API_CALL_ATTEMPT_TIMEOUT_PROP = "client.api-call-attempt-timeout";
+    String AWS_CLIENT_PREWARM_CONNECTIONS_PROP = "client.prewarm-connections";
+
     String AWS_DYNAMO_DB_REGION_PROP = "dynamo-db.region";
     String AWS_DYNAMO_DB_TABLE_NAME_PROP = "dynamo-db.table-name";
     String AWS_DYNAMO_DB_PARENT_INDEX_NAME_PROP = "dynamo-db.parent-index-name";
+    String AWS_DYNAMO_DB_RESOURCE_CACHE_ENABLED_PROP = "dynamo-db.resource-cache.enabled";
+    String AWS_DYNAMO_DB_RESOURCE_CACHE_MAX_SIZE_PROP = "dynamo-db.resource-cache.max-size";
+    String AWS_DYNAMO_DB_RESOURCE_CACHE_TTL_PROP = "dynamo-db.resource-cache.ttl";
+    String AWS_DYNAMO_DB_LISTING_CACHE_ENABLED_PROP = "dynamo-db.listing-cache.enabled";
+    String AWS_DYNAMO_DB_LISTING_CACHE_MAX_SIZE_PROP = "dynamo-db.listing-cache.max-size";
+    String AWS_DYNAMO_DB_LISTING_CACHE_REFRESH_AFTER_PROP = "dynamo-db.listing-cache.refresh-after";
+    String AWS_DYNAMO_DB_LISTING_CACHE_EXPIRE_AFTER_PROP = "dynamo-db.listing-cache.expire-after";
+    String AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_INTERVAL_PROP = "dynamo-db.ancestor-deltas.flush-interval";
+    String AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_THRESHOLD_PROP = "dynamo-db.ancestor-deltas.flush-threshold";
+    String AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_PARALLELISM_PROP = "dynamo-db.ancestor-deltas.flush-parallelism";
+    String AWS_DYNAMO_DB_ACCESS_TRACKER_GRANULARITY_PROP = "dynamo-db.access-tracker.granularity";
+    String AWS_DYNAMO_DB_ACCESS_TRACKER_FLUSH_INTERVAL_PROP = "dynamo-db.access-tracker.flush-interval";
+    String AWS_DYNAMO_DB_ACCESS_TRACKER_BATCH_SIZE_PROP = "dynamo-db.access-tracker.batch-size";
+    String AWS_DYNAMO_DB_SUBTREE_DELETE_PARALLELISM_PROP = "dynamo-db.subtree-delete.parallelism";
+    String AWS_DYNAMO_DB_LISTING_INDEX_BACKFILL_ON_APP_STARTUP_PROP =
+            "dynamo-db.listing-index.backfill-on-app-startup";
+    String AWS_DYNAMO_DB_API_CALL_TIMEOUT_PROP = "dynamo-db.api-call-timeout";
+    String AWS_DYNAMO_DB_API_CALL_ATTEMPT_TIMEOUT_PROP = "dynamo-db.api-call-attempt-timeout";
 
     String AWS_S3_REGION_PROP = "s3.region";
     String AWS_S3_BUCKET_NAME_PROP = "s3.bucket-name";
@@ -47,6 +76,13 @@ public interface AwsConfig {
     String AWS_S3_MAX_UPLOAD_FILE_SIZE_PROP = "s3.max-upload-file-size";
     String AWS_S3_MULTIPART_UPLOAD_PART_SIZE_PROP = "s3.multipart-upload-part-size";
     String AWS_S3_MULTIPART_UPLOAD_MAX_FILE_SIZE_PROP = "s3.multipart-upload-max-file-size";
+    String AWS_S3_DELETE_PARALLELISM_PROP = "s3.delete-parallelism";
+    String AWS_S3_PRESIGNED_URL_CACHE_ENABLED_PROP = "s3.presigned-url-cache.enabled";
+    String AWS_S3_PRESIGNED_URL_CACHE_MAX_SIZE_PROP = "s3.presigned-url-cache.max-size";
+    String AWS_S3_PRESIGNED_URL_CACHE_MIN_REMAINING_VALIDITY_PROP = "s3.presigned-url-cache.min-remaining-validity";
+    String AWS_S3_API_CALL_TIMEOUT_PROP = "s3.api-call-timeout";
+    String AWS_S3_API_CALL_ATTEMPT_TIMEOUT_PROP = "s3.api-call-attempt-timeout";
+    String AWS_S3_LONG_API_CALL_TIMEOUT_PROP = "s3.long-api-call-timeout";
 
     String AWS_SNS_REGION_PROP = "sns.region";
 
@@ -54,6 +90,26 @@ public interface AwsConfig {
 
     String getAwsSecretKey();
 
+    // Client (HTTP transport) config
+
+    int getAwsClientMaxConnections();
+
+    Duration getAwsClientConnectionTimeout();
+
+    Duration getAwsClientSocketTimeout();
+
+    Duration getAwsClientConnectionMaxIdleTime();
+
+    Duration getAwsClientConnectionTimeToLive();
+
+    boolean getAwsClientTcpKeepAlive();
+
+    Duration getAwsClientApiCallTimeout();
+
+    Duration getAwsClientApiCallAttemptTimeout();
+
+    int getAwsClientPrewarmConnections();
+
     // DynamoDB config
 
     String getAwsDynamoDbRegion();
@@ -62,6 +118,40 @@ public interface AwsConfig {
 
     String getAwsDynamoDbParentIndexName();
 
+    boolean getAwsDynamoDbResourceCacheEnabled();
+
+    long getAwsDynamoDbResourceCacheMaxSize();
+
+    Duration getAwsDynamoDbResourceCacheTtl();
+
+    boolean getAwsDynamoDbListingCacheEnabled();
+
+    long getAwsDynamoDbListingCacheMaxSize();
+
+    Duration getAwsDynamoDbListingCacheRefreshAfter();
+
+    Duration getAwsDynamoDbListingCacheExpireAfter();
+
+    Duration getAwsDynamoDbAncestorDeltasFlushInterval();
+
+    int getAwsDynamoDbAncestorDeltasFlushThreshold();
+
+    int getAwsDynamoDbAncestorDeltasFlushParallelism();
+
+    Duration getAwsDynamoDbAccessTrackerGranularity();
+
+    Duration getAwsDynamoDbAccessTrackerFlushInterval();
+
+    int getAwsDynamoDbAccessTrackerBatchSize();
+
+    int getAwsDynamoDbSubtreeDeleteParallelism();
+
+    boolean getAwsDynamoDbListingIndexBackfillOnAppStartup();
+
+    Duration getAwsDynamoDbApiCallTimeout();
+
+    Duration getAwsDynamoDbApiCallAttemptTimeout();
+
     // S3 config
 
     String getAwsS3Region();
@@ -81,6 +171,20 @@ public interface AwsConfig {
 
     long getAwsS3MultipartUploadMaxFileSize();
 
+    int getAwsS3DeleteParallelism();
+
+    boolean getAwsS3PresignedUrlCacheEnabled();
+
+    long getAwsS3PresignedUrlCacheMaxSize();
+
+    double getAwsS3PresignedUrlCacheMinRemainingValidity();
+
+    Duration getAwsS3ApiCallTimeout();
+
+    Duration getAwsS3ApiCallAttemptTimeout();
+
+    Duration getAwsS3LongApiCallTimeout();
+
     // SNS config
 
     String getAwsSnsRegion();
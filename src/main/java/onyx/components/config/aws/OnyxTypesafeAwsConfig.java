@@ -31,6 +31,7 @@ import curacao.annotations.Component;
 import curacao.annotations.Injectable;
 import onyx.components.config.OnyxConfig;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -54,6 +55,53 @@ public final class OnyxTypesafeAwsConfig implements AwsConfig {
         return config_.getString(AWS_SECRET_KEY_PROP);
     }
 
+    // Client (HTTP transport) config
+
+    @Override
+    public int getAwsClientMaxConnections() {
+        return config_.getInt(AWS_CLIENT_MAX_CONNECTIONS_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientConnectionTimeout() {
+        return config_.getDuration(AWS_CLIENT_CONNECTION_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientSocketTimeout() {
+        return config_.getDuration(AWS_CLIENT_SOCKET_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientConnectionMaxIdleTime() {
+        return config_.getDuration(AWS_CLIENT_CONNECTION_MAX_IDLE_TIME_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientConnectionTimeToLive() {
+        return config_.getDuration(AWS_CLIENT_CONNECTION_TIME_TO_LIVE_PROP);
+    }
+
+    @Override
+    public boolean getAwsClientTcpKeepAlive() {
+        return config_.getBoolean(AWS_CLIENT_TCP_KEEP_ALIVE_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientApiCallTimeout() {
+        return config_.getDuration(AWS_CLIENT_API_CALL_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsClientApiCallAttemptTimeout() {
+        return config_.getDuration(AWS_CLIENT_API_CALL_ATTEMPT_TIMEOUT_PROP);
+    }
+
+    @Override
+    public int getAwsClientPrewarmConnections() {
+        return config_.getInt(AWS_CLIENT_PREWARM_CONNECTIONS_PROP);
+    }
+
     // DynamoDB config
 
     @Override
@@ -71,6 +119,91 @@ public final class OnyxTypesafeAwsConfig implements AwsConfig {
         return config_.getString(AWS_DYNAMO_DB_PARENT_INDEX_NAME_PROP);
     }
 
+    @Override
+    public boolean getAwsDynamoDbResourceCacheEnabled() {
+        return config_.getBoolean(AWS_DYNAMO_DB_RESOURCE_CACHE_ENABLED_PROP);
+    }
+
+    @Override
+    public long getAwsDynamoDbResourceCacheMaxSize() {
+        return config_.getLong(AWS_DYNAMO_DB_RESOURCE_CACHE_MAX_SIZE_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbResourceCacheTtl() {
+        return config_.getDuration(AWS_DYNAMO_DB_RESOURCE_CACHE_TTL_PROP);
+    }
+
+    @Override
+    public boolean getAwsDynamoDbListingCacheEnabled() {
+        return config_.getBoolean(AWS_DYNAMO_DB_LISTING_CACHE_ENABLED_PROP);
+    }
+
+    @Override
+    public long getAwsDynamoDbListingCacheMaxSize() {
+        return config_.getLong(AWS_DYNAMO_DB_LISTING_CACHE_MAX_SIZE_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbListingCacheRefreshAfter() {
+        return config_.getDuration(AWS_DYNAMO_DB_LISTING_CACHE_REFRESH_AFTER_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbListingCacheExpireAfter() {
+        return config_.getDuration(AWS_DYNAMO_DB_LISTING_CACHE_EXPIRE_AFTER_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbAncestorDeltasFlushInterval() {
+        return config_.getDuration(AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_INTERVAL_PROP);
+    }
+
+    @Override
+    public int getAwsDynamoDbAncestorDeltasFlushThreshold() {
+        return config_.getInt(AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_THRESHOLD_PROP);
+    }
+
+    @Override
+    public int getAwsDynamoDbAncestorDeltasFlushParallelism() {
+        return config_.getInt(AWS_DYNAMO_DB_ANCESTOR_DELTAS_FLUSH_PARALLELISM_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbAccessTrackerGranularity() {
+        return config_.getDuration(AWS_DYNAMO_DB_ACCESS_TRACKER_GRANULARITY_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbAccessTrackerFlushInterval() {
+        return config_.getDuration(AWS_DYNAMO_DB_ACCESS_TRACKER_FLUSH_INTERVAL_PROP);
+    }
+
+    @Override
+    public int getAwsDynamoDbAccessTrackerBatchSize() {
+        return config_.getInt(AWS_DYNAMO_DB_ACCESS_TRACKER_BATCH_SIZE_PROP);
+    }
+
+    @Override
+    public int getAwsDynamoDbSubtreeDeleteParallelism() {
+        return config_.getInt(AWS_DYNAMO_DB_SUBTREE_DELETE_PARALLELISM_PROP);
+    }
+
+    @Override
+    public boolean getAwsDynamoDbListingIndexBackfillOnAppStartup() {
+        return config_.getBoolean(AWS_DYNAMO_DB_LISTING_INDEX_BACKFILL_ON_APP_STARTUP_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbApiCallTimeout() {
+        return config_.getDuration(AWS_DYNAMO_DB_API_CALL_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsDynamoDbApiCallAttemptTimeout() {
+        return config_.getDuration(AWS_DYNAMO_DB_API_CALL_ATTEMPT_TIMEOUT_PROP);
+    }
+
     // S3 config
 
     @Override
@@ -114,6 +247,41 @@ public final class OnyxTypesafeAwsConfig implements AwsConfig {
         return config_.getBytes(AWS_S3_MULTIPART_UPLOAD_MAX_FILE_SIZE_PROP);
     }
 
+    @Override
+    public int getAwsS3DeleteParallelism() {
+        return config_.getInt(AWS_S3_DELETE_PARALLELISM_PROP);
+    }
+
+    @Override
+    public boolean getAwsS3PresignedUrlCacheEnabled() {
+        return config_.getBoolean(AWS_S3_PRESIGNED_URL_CACHE_ENABLED_PROP);
+    }
+
+    @Override
+    public long getAwsS3PresignedUrlCacheMaxSize() {
+        return config_.getLong(AWS_S3_PRESIGNED_URL_CACHE_MAX_SIZE_PROP);
+    }
+
+    @Override
+    public double getAwsS3PresignedUrlCacheMinRemainingValidity() {
+        return config_.getDouble(AWS_S3_PRESIGNED_URL_CACHE_MIN_REMAINING_VALIDITY_PROP);
+    }
+
+    @Override
+    public Duration getAwsS3ApiCallTimeout() {
+        return config_.getDuration(AWS_S3_API_CALL_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsS3ApiCallAttemptTimeout() {
+        return config_.getDuration(AWS_S3_API_CALL_ATTEMPT_TIMEOUT_PROP);
+    }
+
+    @Override
+    public Duration getAwsS3LongApiCallTimeout() {
+        return config_.getDuration(AWS_S3_LONG_API_CALL_TIMEOUT_PROP);
+    }
+
     // SNS config
 
     @Override
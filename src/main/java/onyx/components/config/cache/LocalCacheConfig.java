@@ -39,6 +39,30 @@ public interface LocalCacheConfig {
 
     String LOCAL_CACHE_DOWNLOADER_READ_TIMEOUT_DURATION_PROP = "cache-downloader-read-timeout-duration";
     String LOCAL_CACHE_DOWNLOADER_REQUEST_TIMEOUT_DURATION_PROP = "cache-downloader-request-timeout-duration";
+    String LOCAL_CACHE_DOWNLOADER_RANGE_THRESHOLD_PROP = "cache-downloader-range-threshold";
+    String LOCAL_CACHE_DOWNLOADER_RANGE_SIZE_PROP = "cache-downloader-range-size";
+    String LOCAL_CACHE_DOWNLOADER_MAX_CONCURRENT_REQUESTS_PROP = "cache-downloader-max-concurrent-requests";
+    String LOCAL_CACHE_DOWNLOADER_MAX_BYTES_PER_SECOND_PROP = "cache-downloader-max-bytes-per-second";
+
+    String LOCAL_CACHE_EVICTION_MAX_BYTES_PROP = "eviction.max-bytes";
+    String LOCAL_CACHE_EVICTION_MAX_ENTRIES_PROP = "eviction.max-entries";
+
+    String LOCAL_CACHE_ADMISSION_ENABLED_PROP = "admission.enabled";
+    String LOCAL_CACHE_ADMISSION_MIN_FREQUENCY_PROP = "admission.min-frequency";
+    String LOCAL_CACHE_ADMISSION_SKETCH_SIZE_PROP = "admission.sketch-size";
+
+    String LOCAL_CACHE_READ_THROUGH_ENABLED_PROP = "read-through.enabled";
+
+    String LOCAL_CACHE_MEMORY_TIER_ENABLED_PROP = "memory-tier.enabled";
+    String LOCAL_CACHE_MEMORY_TIER_MAX_BYTES_PROP = "memory-tier.max-bytes";
+    String LOCAL_CACHE_MEMORY_TIER_MAX_FILE_SIZE_PROP = "memory-tier.max-file-size";
+    String LOCAL_CACHE_MEMORY_TIER_SLAB_SIZE_PROP = "memory-tier.slab-size";
+    String LOCAL_CACHE_MEMORY_TIER_MIN_HITS_PROP = "memory-tier.min-hits";
+
+    String LOCAL_CACHE_WARM_UP_RUN_ON_APP_STARTUP_PROP = "warm-up.run-on-app-startup";
+    String LOCAL_CACHE_WARM_UP_RUN_ON_SCHEDULE_PROP = "warm-up.run-on-schedule";
+    String LOCAL_CACHE_WARM_UP_RUN_CRON_EXPRESSION_PROP = "warm-up.run-cron-expression";
+    String LOCAL_CACHE_WARM_UP_PARALLELISM_PROP = "warm-up.parallelism";
 
     boolean localCacheEnabled();
 
@@ -53,4 +77,42 @@ public interface LocalCacheConfig {
     long getLocalCacheDownloaderRequestTimeout(
             final TimeUnit timeUnit);
 
+    long getLocalCacheDownloaderRangeThreshold();
+
+    long getLocalCacheDownloaderRangeSize();
+
+    int getLocalCacheDownloaderMaxConcurrentRequests();
+
+    long getLocalCacheDownloaderMaxBytesPerSecond();
+
+    long getLocalCacheEvictionMaxBytes();
+
+    long getLocalCacheEvictionMaxEntries();
+
+    boolean localCacheAdmissionEnabled();
+
+    int getLocalCacheAdmissionMinFrequency();
+
+    int getLocalCacheAdmissionSketchSize();
+
+    boolean localCacheReadThroughEnabled();
+
+    boolean localCacheMemoryTierEnabled();
+
+    long getLocalCacheMemoryTierMaxBytes();
+
+    long getLocalCacheMemoryTierMaxFileSize();
+
+    long getLocalCacheMemoryTierSlabSize();
+
+    int getLocalCacheMemoryTierMinHits();
+
+    boolean getLocalCacheWarmUpRunOnAppStartup();
+
+    boolean getLocalCacheWarmUpRunOnSchedule();
+
+    String getLocalCacheWarmUpRunCronExpression();
+
+    int getLocalCacheWarmUpParallelism();
+
 }
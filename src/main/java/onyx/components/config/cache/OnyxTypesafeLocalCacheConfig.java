@@ -73,4 +73,99 @@ public final class OnyxTypesafeLocalCacheConfig implements LocalCacheConfig {
         return config_.getDuration(LOCAL_CACHE_DOWNLOADER_REQUEST_TIMEOUT_DURATION_PROP, timeUnit);
     }
 
+    @Override
+    public long getLocalCacheDownloaderRangeThreshold() {
+        return config_.getBytes(LOCAL_CACHE_DOWNLOADER_RANGE_THRESHOLD_PROP);
+    }
+
+    @Override
+    public long getLocalCacheDownloaderRangeSize() {
+        return config_.getBytes(LOCAL_CACHE_DOWNLOADER_RANGE_SIZE_PROP);
+    }
+
+    @Override
+    public int getLocalCacheDownloaderMaxConcurrentRequests() {
+        return config_.getInt(LOCAL_CACHE_DOWNLOADER_MAX_CONCURRENT_REQUESTS_PROP);
+    }
+
+    @Override
+    public long getLocalCacheDownloaderMaxBytesPerSecond() {
+        return config_.getBytes(LOCAL_CACHE_DOWNLOADER_MAX_BYTES_PER_SECOND_PROP);
+    }
+
+    @Override
+    public long getLocalCacheEvictionMaxBytes() {
+        return config_.getBytes(LOCAL_CACHE_EVICTION_MAX_BYTES_PROP);
+    }
+
+    @Override
+    public long getLocalCacheEvictionMaxEntries() {
+        return config_.getLong(LOCAL_CACHE_EVICTION_MAX_ENTRIES_PROP);
+    }
+
+    @Override
+    public boolean localCacheAdmissionEnabled() {
+        return config_.getBoolean(LOCAL_CACHE_ADMISSION_ENABLED_PROP);
+    }
+
+    @Override
+    public int getLocalCacheAdmissionMinFrequency() {
+        return config_.getInt(LOCAL_CACHE_ADMISSION_MIN_FREQUENCY_PROP);
+    }
+
+    @Override
+    public int getLocalCacheAdmissionSketchSize() {
+        return config_.getInt(LOCAL_CACHE_ADMISSION_SKETCH_SIZE_PROP);
+    }
+
+    @Override
+    public boolean localCacheReadThroughEnabled() {
+        return config_.getBoolean(LOCAL_CACHE_READ_THROUGH_ENABLED_PROP);
+    }
+
+    @Override
+    public boolean localCacheMemoryTierEnabled() {
+        return config_.getBoolean(LOCAL_CACHE_MEMORY_TIER_ENABLED_PROP);
+    }
+
+    @Override
+    public long getLocalCacheMemoryTierMaxBytes() {
+        return config_.getBytes(LOCAL_CACHE_MEMORY_TIER_MAX_BYTES_PROP);
+    }
+
+    @Override
+    public long getLocalCacheMemoryTierMaxFileSize() {
+        return config_.getBytes(LOCAL_CACHE_MEMORY_TIER_MAX_FILE_SIZE_PROP);
+    }
+
+    @Override
+    public long getLocalCacheMemoryTierSlabSize() {
+        return config_.getBytes(LOCAL_CACHE_MEMORY_TIER_SLAB_SIZE_PROP);
+    }
+
+    @Override
+    public int getLocalCacheMemoryTierMinHits() {
+        return config_.getInt(LOCAL_CACHE_MEMORY_TIER_MIN_HITS_PROP);
+    }
+
+    @Override
+    public boolean getLocalCacheWarmUpRunOnAppStartup() {
+        return config_.getBoolean(LOCAL_CACHE_WARM_UP_RUN_ON_APP_STARTUP_PROP);
+    }
+
+    @Override
+    public boolean getLocalCacheWarmUpRunOnSchedule() {
+        return config_.getBoolean(LOCAL_CACHE_WARM_UP_RUN_ON_SCHEDULE_PROP);
+    }
+
+    @Override
+    public String getLocalCacheWarmUpRunCronExpression() {
+        return config_.getString(LOCAL_CACHE_WARM_UP_RUN_CRON_EXPRESSION_PROP);
+    }
+
+    @Override
+    public int getLocalCacheWarmUpParallelism() {
+        return config_.getInt(LOCAL_CACHE_WARM_UP_PARALLELISM_PROP);
+    }
+
 }
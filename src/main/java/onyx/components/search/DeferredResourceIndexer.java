@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.search;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Coalesces resources that need to be (re-)indexed and adds them to the search index
+ * in a single batch on a fixed interval. Resources are coalesced by path, latest wins,
+ * so a directory touched by many writes in quick succession is only indexed once.
+ */
+public final class DeferredResourceIndexer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeferredResourceIndexer.class);
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-deferred-indexer-%d")
+            .build();
+
+    private final SearchManager searchManager_;
+
+    private final Map<String, Resource> pending_;
+
+    private final ScheduledExecutorService scheduledExecutorService_;
+
+    public DeferredResourceIndexer(
+            final SearchManager searchManager,
+            final Duration flushInterval) {
+        searchManager_ = checkNotNull(searchManager, "Search manager cannot be null.");
+        checkNotNull(flushInterval, "Deferred index flush interval cannot be null.");
+
+        pending_ = new ConcurrentHashMap<>();
+
+        scheduledExecutorService_ = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        final long flushIntervalMs = flushInterval.toMillis();
+        scheduledExecutorService_.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(
+            final Resource resource) {
+        checkNotNull(resource, "Resource to index cannot be null.");
+
+        pending_.put(resource.getPath(), resource);
+    }
+
+    /**
+     * Drops any pending re-index of the resource at the given path; used when the
+     * resource is deleted before the next flush.
+     */
+    public void discard(
+            final String path) {
+        checkNotNull(path, "Resource path cannot be null.");
+
+        pending_.remove(path);
+    }
+
+    public void flush() {
+        if (pending_.isEmpty()) {
+            return;
+        }
+
+        final ImmutableList.Builder<Resource> batchBuilder = ImmutableList.builder();
+        for (final String path : pending_.keySet()) {
+            final Resource resource = pending_.remove(path);
+            if (resource != null) {
+                batchBuilder.add(resource);
+            }
+        }
+
+        final List<Resource> batch = batchBuilder.build();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        searchManager_.addResourcesToIndex(batch);
+        LOG.debug("Flushed deferred index batch of {} resources.", batch.size());
+    }
+
+    public void shutdown() {
+        scheduledExecutorService_.shutdown();
+        // Flush anything still pending so it isn't lost.
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            LOG.warn("Failed to flush deferred index batch.", e);
+        }
+    }
+
+}
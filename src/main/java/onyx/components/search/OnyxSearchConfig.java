@@ -105,4 +105,9 @@ public final class OnyxSearchConfig implements SearchConfig {
         return config_.getDuration(INDEXER_BACKOFF_THROTTLE_DURATION_PROP);
     }
 
+    @Override
+    public Duration getIndexerDeferredFlushInterval() {
+        return config_.getDuration(INDEXER_DEFERRED_FLUSH_INTERVAL_PROP);
+    }
+
 }
@@ -45,6 +45,7 @@ public interface SearchConfig {
     String INDEXER_REBUILD_DELETE_INDEX_FIRST_PROP = "indexer.rebuild-delete-index-first";
     String INDEXER_BACKOFF_MAX_RETRIES_PROP = "indexer.backoff-max-retries";
     String INDEXER_BACKOFF_THROTTLE_DURATION_PROP = "indexer.backoff-throttle-duration";
+    String INDEXER_DEFERRED_FLUSH_INTERVAL_PROP = "indexer.deferred-flush-interval";
 
     // Solr config
 
@@ -72,4 +73,6 @@ public interface SearchConfig {
 
     Duration getIndexerBackoffThrottleDuration();
 
+    Duration getIndexerDeferredFlushInterval();
+
 }
@@ -36,9 +36,11 @@ public interface SearchManager {
 
     String INDEX_FIELD_PATH = "path";
     String INDEX_FIELD_PATH_LOWER = "pathLower";
+    String INDEX_FIELD_PATH_NGRAM = "pathNGram";
     String INDEX_FIELD_PARENT = "parent";
     String INDEX_FIELD_DESCRIPTION = "description";
     String INDEX_FIELD_DESCRIPTION_LOWER = "descriptionLower";
+    String INDEX_FIELD_DESCRIPTION_NGRAM = "descriptionNGram";
     String INDEX_FIELD_SIZE = "size";
     String INDEX_FIELD_TYPE = "type";
     String INDEX_FIELD_VISIBILITY = "visibility";
@@ -51,6 +53,7 @@ public interface SearchManager {
 
     String INDEX_FIELD_NAME = "name";
     String INDEX_FIELD_NAME_LOWER = "nameLower";
+    String INDEX_FIELD_NAME_NGRAM = "nameNGram";
 
     // Query fields
 
@@ -92,6 +95,19 @@ public interface SearchManager {
         executorService.submit(() -> deleteResourcesFromIndex(resources));
     }
 
+    /**
+     * Deletes the resource at the given path, and every resource under it, from the
+     * index in one operation regardless of how many descendants there are.
+     */
+    void deleteResourceTreeFromIndex(
+            final String path);
+
+    default void deleteResourceTreeFromIndexAsync(
+            final String path,
+            final ExecutorService executorService) {
+        executorService.submit(() -> deleteResourceTreeFromIndex(path));
+    }
+
     void deleteIndex();
 
     List<Resource> searchIndex(
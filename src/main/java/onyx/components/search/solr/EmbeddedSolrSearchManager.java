@@ -26,6 +26,7 @@
 
 package onyx.components.search.solr;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -60,6 +61,12 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
 
     private static final int DEFAULT_ROW_COUNT = 100;
 
+    /**
+     * The longest n-grams indexed into the n-gram companion fields; must match the
+     * {@code maxGramSize} of the {@code text_lower_ngram} field type in {@code schema.xml}.
+     */
+    private static final int MAX_NGRAM_SIZE = 16;
+
     private static final Splitter WHITESPACE_SPLITTER = Splitter.on(' ')
             .trimResults()
             .omitEmptyStrings();
@@ -136,6 +143,25 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
         }
     }
 
+    @Override
+    public void deleteResourceTreeFromIndex(
+            final String path) {
+        checkNotNull(path, "Resource path to delete from index cannot be null.");
+
+        // The path of every descendant starts with "<path>/", and the path field is a
+        // plain string field, so a prefix query matches exactly the whole tree.
+        final String descendantsQuery = INDEX_FIELD_PATH + ":"
+                + ClientUtils.escapeQueryChars(path + "/") + "*";
+
+        try {
+            solrClient_.deleteById(path);
+            solrClient_.deleteByQuery(descendantsQuery);
+        } catch (final Exception e) {
+            throw new SearchException("Failed to delete document tree from search index: "
+                    + path, e);
+        }
+    }
+
     @Override
     public void deleteIndex() {
         try {
@@ -174,9 +200,33 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
             final String owner,
             final String query,
             final boolean favorite) {
+        try {
+            final SolrQuery solrQuery = new SolrQuery(buildSearchQuery(owner, query, favorite))
+                    .addSort(SearchManager.QUERY_FIELD_SCORE, SolrQuery.ORDER.desc)
+                    .addSort(SearchManager.INDEX_FIELD_CREATED, SolrQuery.ORDER.desc)
+                    .setRows(searchConfig_.getMaxResultsPerSearch());
+
+            final QueryResponse response = solrClient_.query(solrQuery);
+            final SolrDocumentList documents = response.getResults();
+
+            return documents.stream()
+                    .map(EmbeddedSolrSearchManager::mapSolrDocumentToResource)
+                    .collect(ImmutableList.toImmutableList());
+        } catch (final Exception e) {
+            LOG.error("Failed to search index for query: {}", query, e);
+            return ImmutableList.of();
+        }
+    }
+
+    @VisibleForTesting
+    static String buildSearchQuery(
+            final String owner,
+            final String query,
+            final boolean favorite) {
         final StringBuilder sb = new StringBuilder();
         if (query.startsWith(":")) {
-            final String fieldQuery = buildFieldQuery(query.substring(1), "nameLower");
+            final String fieldQuery = buildFieldQuery(query.substring(1),
+                    INDEX_FIELD_NAME_LOWER, INDEX_FIELD_NAME_NGRAM);
             sb.append("type:").append(Resource.Type.FILE);
             sb.append(" AND ");
             sb.append("owner:").append(owner);
@@ -185,8 +235,10 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
             sb.append(" AND ")
                     .append(fieldQuery);
         } else if (query.startsWith("/")) {
-            final String nameQuery = buildFieldQuery(query.substring(1), "nameLower");
-            final String pathQuery = buildFieldQuery(query.substring(1), "pathLower");
+            final String nameQuery = buildFieldQuery(query.substring(1),
+                    INDEX_FIELD_NAME_LOWER, INDEX_FIELD_NAME_NGRAM);
+            final String pathQuery = buildFieldQuery(query.substring(1),
+                    INDEX_FIELD_PATH_LOWER, INDEX_FIELD_PATH_NGRAM);
             sb.append("type:").append(Resource.Type.DIRECTORY);
             sb.append(" AND ");
             sb.append("owner:").append(owner);
@@ -198,8 +250,10 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
             sb.append(pathQuery);
             sb.append(")");
         } else {
-            final String nameQuery = buildFieldQuery(query, "nameLower");
-            final String descQuery = buildFieldQuery(query, "descriptionLower");
+            final String nameQuery = buildFieldQuery(query,
+                    INDEX_FIELD_NAME_LOWER, INDEX_FIELD_NAME_NGRAM);
+            final String descQuery = buildFieldQuery(query,
+                    INDEX_FIELD_DESCRIPTION_LOWER, INDEX_FIELD_DESCRIPTION_NGRAM);
             sb.append("owner:").append(owner);
             sb.append(" AND ");
             sb.append("favorite:").append(favorite);
@@ -211,46 +265,39 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
                     .append(")");
         }
 
-        try {
-            final SolrQuery solrQuery = new SolrQuery(sb.toString())
-                    .addSort(SearchManager.QUERY_FIELD_SCORE, SolrQuery.ORDER.desc)
-                    .addSort(SearchManager.INDEX_FIELD_CREATED, SolrQuery.ORDER.desc)
-                    .setRows(searchConfig_.getMaxResultsPerSearch());
-
-            final QueryResponse response = solrClient_.query(solrQuery);
-            final SolrDocumentList documents = response.getResults();
-
-            return documents.stream()
-                    .map(EmbeddedSolrSearchManager::mapSolrDocumentToResource)
-                    .collect(ImmutableList.toImmutableList());
-        } catch (final Exception e) {
-            LOG.error("Failed to search index for query: {}", query, e);
-            return ImmutableList.of();
-        }
+        return sb.toString();
     }
 
     /**
      * Builds a field-specific query string for Solr searching with proper escaping to prevent
      * query injection.
      * - If query is wrapped in double quotes: strips quotes and returns phrase query for exact matching
-     * - Otherwise: tokenizes on whitespace and returns multi-term wildcard query for fuzzy matching
+     * - Otherwise: tokenizes on whitespace and returns multi-term substring query for fuzzy matching
+     *
+     * Each substring term is a plain term lookup against the n-gram companion of the field,
+     * which holds every substring (of up to {@link #MAX_NGRAM_SIZE} characters) of every token
+     * of the field; a match is scored as a constant, as a wildcard match would be. Terms too
+     * long to be an indexed n-gram fall back to a wildcard query on the field itself.
      *
      * All special Solr query characters are escaped to prevent injection attacks.
      *
      * Examples:
-     * - buildFieldQuery("foo", "nameLower") → "nameLower:*foo*"
-     * - buildFieldQuery("foo 2026", "nameLower") → "(nameLower:*foo* AND nameLower:*2026*)"
-     * - buildFieldQuery("\"foo-2026\"", "nameLower") → "nameLower:\"foo\-2026\""
+     * - buildFieldQuery("foo", "nameLower", "nameNGram") → "nameNGram:foo^=1"
+     * - buildFieldQuery("foo 2026", "nameLower", "nameNGram") → "(nameNGram:foo^=1 AND nameNGram:2026^=1)"
+     * - buildFieldQuery("\"foo-2026\"", "nameLower", "nameNGram") → "nameLower:\"foo\-2026\""
      *
      * @param query the raw search query
      * @param fieldName the Solr field name to search in
+     * @param ngramFieldName the n-gram companion of the field, for substring searching
      * @return the formatted Solr query string for the specified field
      */
     private static String buildFieldQuery(
             final String query,
-            final String fieldName) {
+            final String fieldName,
+            final String ngramFieldName) {
         checkNotNull(query, "Query string cannot be null.");
         checkNotNull(fieldName, "Field name cannot be null.");
+        checkNotNull(ngramFieldName, "N-gram field name cannot be null.");
 
         final String trimmed = StringUtils.trim(query);
 
@@ -266,25 +313,22 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
             // will process them appropriately
             return fieldName + ":\"" + escaped.toLowerCase() + "\"";
         } else {
-            // Fuzzy match: split on whitespace and create wildcard terms for each token
+            // Fuzzy match: split on whitespace and create substring terms for each token
             // This allows searching for "foo 2026" to match documents containing both terms
             final List<String> tokens = WHITESPACE_SPLITTER.splitToList(trimmed);
 
             if (tokens.size() == 1) {
-                // Single token - simple wildcard query
-                final String escaped = ClientUtils.escapeQueryChars(tokens.get(0));
-                return fieldName + ":*" + escaped.toLowerCase() + "*";
+                // Single token - simple substring query
+                return buildSubstringQuery(tokens.get(0), fieldName, ngramFieldName);
             } else {
-                // Multiple tokens - AND them together, each as a wildcard on the field
+                // Multiple tokens - AND them together, each as a substring of the field
                 final StringBuilder sb = new StringBuilder();
                 sb.append("(");
                 for (int i = 0, l = tokens.size(); i < l; i++) {
                     if (i > 0) {
                         sb.append(" AND ");
                     }
-                    // Escape each token to prevent injection
-                    final String escaped = ClientUtils.escapeQueryChars(tokens.get(i));
-                    sb.append(fieldName).append(":*").append(escaped.toLowerCase()).append("*");
+                    sb.append(buildSubstringQuery(tokens.get(i), fieldName, ngramFieldName));
                 }
                 sb.append(")");
                 return sb.toString();
@@ -292,6 +336,26 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
         }
     }
 
+    /**
+     * Matches documents with a token of the field containing the given term; equivalent to
+     * {@code field:*term*}, but looked up as a single term in the n-gram companion of the
+     * field whenever the term is short enough to have been indexed as an n-gram.
+     */
+    private static String buildSubstringQuery(
+            final String term,
+            final String fieldName,
+            final String ngramFieldName) {
+        final String lowerCased = term.toLowerCase();
+        // Escape each token to prevent injection
+        final String escaped = ClientUtils.escapeQueryChars(lowerCased);
+        if (lowerCased.codePointCount(0, lowerCased.length()) <= MAX_NGRAM_SIZE) {
+            // A constant score, so results rank exactly as they did with wildcard queries.
+            return ngramFieldName + ":" + escaped + "^=1";
+        }
+
+        return fieldName + ":*" + escaped + "*";
+    }
+
     private static SolrInputDocument mapResourceToSolrInputDocument(
             final Resource resource) {
         checkNotNull(resource, "Resource to map cannot be null.");
@@ -299,9 +363,11 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
         final SolrInputDocument doc = new SolrInputDocument();
         doc.addField(INDEX_FIELD_PATH, resource.getPath());
         doc.addField(INDEX_FIELD_PATH_LOWER, resource.getPath());
+        doc.addField(INDEX_FIELD_PATH_NGRAM, resource.getPath());
         doc.addField(INDEX_FIELD_PARENT, resource.getParent());
         doc.addField(INDEX_FIELD_DESCRIPTION, resource.getDescription());
         doc.addField(INDEX_FIELD_DESCRIPTION_LOWER, resource.getDescription());
+        doc.addField(INDEX_FIELD_DESCRIPTION_NGRAM, resource.getDescription());
         doc.addField(INDEX_FIELD_SIZE, resource.getSize());
         doc.addField(INDEX_FIELD_TYPE, resource.getType().toString());
         doc.addField(INDEX_FIELD_VISIBILITY, resource.getVisibility().toString());
@@ -313,6 +379,7 @@ public final class EmbeddedSolrSearchManager implements SearchManager {
         // Derived fields
         doc.addField(INDEX_FIELD_NAME, resource.getName());
         doc.addField(INDEX_FIELD_NAME_LOWER, resource.getName());
+        doc.addField(INDEX_FIELD_NAME_NGRAM, resource.getName());
 
         return doc;
     }
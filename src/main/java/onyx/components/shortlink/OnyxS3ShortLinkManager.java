@@ -40,7 +40,9 @@ import onyx.entities.storage.aws.dynamodb.Resource;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
@@ -49,6 +51,8 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import javax.annotation.Nullable;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -68,6 +72,7 @@ public final class OnyxS3ShortLinkManager implements ShortLinkManager {
     private final OnyxConfig onyxConfig_;
 
     private final S3Client s3_;
+    private final S3AsyncClient s3Async_;
     private final String bucketName_;
 
     private final ObjectMapper objectMapper_;
@@ -80,6 +85,7 @@ public final class OnyxS3ShortLinkManager implements ShortLinkManager {
             final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
         onyxConfig_ = onyxConfig;
         s3_ = onyxS3Client.getS3Client();
+        s3Async_ = onyxS3Client.getS3AsyncClient();
         bucketName_ = awsConfig.getAwsS3BucketName();
         objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
     }
@@ -117,6 +123,14 @@ public final class OnyxS3ShortLinkManager implements ShortLinkManager {
         return getJsonObject(SHORTLINKS_S3_PREFIX + code + JSON_EXTENSION, OnyxShortLink.class);
     }
 
+    @Override
+    public CompletableFuture<OnyxShortLink> getShortLinkForCodeAsync(
+            final String code) {
+        checkNotNull(code, "Short link code cannot be null.");
+
+        return getJsonObjectAsync(SHORTLINKS_S3_PREFIX + code + JSON_EXTENSION, OnyxShortLink.class);
+    }
+
     @Nullable
     private <T> T getJsonObject(
             final String key,
@@ -136,6 +150,37 @@ public final class OnyxS3ShortLinkManager implements ShortLinkManager {
         }
     }
 
+    /**
+     * The non-blocking counterpart of {@link #getJsonObject(String, Class)}, with the same
+     * semantics: the returned future never completes exceptionally, only with {@code null}.
+     */
+    private <T> CompletableFuture<T> getJsonObjectAsync(
+            final String key,
+            final Class<T> type) {
+        final GetObjectRequest gor = GetObjectRequest.builder()
+                .bucket(bucketName_)
+                .key(key)
+                .build();
+        return s3Async_.getObject(gor, AsyncResponseTransformer.toBytes())
+                .handle((bytes, t) -> {
+                    if (t != null) {
+                        final Throwable cause = (t instanceof CompletionException && t.getCause() != null)
+                                ? t.getCause() : t;
+                        if (!(cause instanceof NoSuchKeyException)) {
+                            LOG.warn("Failed to read short link S3 object: {}", key, cause);
+                        }
+                        return null;
+                    }
+
+                    try {
+                        return objectMapper_.readValue(bytes.asByteArray(), type);
+                    } catch (final Exception e) {
+                        LOG.warn("Failed to read short link S3 object: {}", key, e);
+                        return null;
+                    }
+                });
+    }
+
     private void putJsonObject(
             final String key,
             final String value) {
@@ -31,6 +31,7 @@ import onyx.entities.storage.aws.dynamodb.Resource;
 
 import javax.annotation.Nullable;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 public interface ShortLinkManager {
 
@@ -41,4 +42,11 @@ public interface ShortLinkManager {
     OnyxShortLink getShortLinkForCode(
             final String code);
 
+    /**
+     * The non-blocking counterpart of {@link #getShortLinkForCode(String)}; the returned
+     * future completes with {@code null} if there is no short link for the code.
+     */
+    CompletableFuture<OnyxShortLink> getShortLinkForCodeAsync(
+            final String code);
+
 }
@@ -29,6 +29,7 @@ package onyx.components.storage;
 import onyx.entities.api.request.v1.CompleteMultipartUploadRequest;
 import onyx.entities.storage.aws.dynamodb.Resource;
 
+import javax.annotation.Nullable;
 import java.net.URL;
 import java.util.List;
 
@@ -65,6 +66,18 @@ public interface AssetManager {
             final int partNumber,
             final long partSize);
 
+    /**
+     * Lists the parts of the given multipart upload that have already been uploaded,
+     * starting after the given part number marker, up to the given max number of parts.
+     * Returns {@code null} if there is no such multipart upload in progress.
+     */
+    @Nullable
+    List<CompleteMultipartUploadRequest.Part> listUploadedParts(
+            final Resource resource,
+            final String uploadId,
+            final int partNumberMarker,
+            final int maxParts);
+
     void completeMultipartUpload(
             final Resource resource,
             final String uploadId,
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage;
+
+import onyx.entities.storage.aws.dynamodb.Resource;
+
+/**
+ * Decides which resources are worth holding in the local cache managed by a
+ * {@link CacheManager}. Downloads are reported to the policy as they happen, and the
+ * policy admits a resource once it has proven itself popular enough, so that one-off
+ * downloads never displace the files that are fetched over and over.
+ */
+public interface CacheAdmissionPolicy {
+
+    /**
+     * Records one request to download the given resource, whether or not it ends up
+     * being served from the cache.
+     */
+    void recordAccess(
+            final Resource resource);
+
+    /**
+     * Returns the estimated number of recent requests to download the resource at the
+     * given path.
+     */
+    int getAccessFrequency(
+            final String resourcePath);
+
+    /**
+     * Returns true if the given resource should be admitted into the local cache.
+     */
+    boolean shouldAdmit(
+            final Resource resource);
+
+}
@@ -30,8 +30,10 @@ import onyx.entities.storage.aws.dynamodb.Resource;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 public interface CacheManager {
 
@@ -50,6 +52,16 @@ public interface CacheManager {
             final String resourcePath,
             final String resourceName) throws Exception;
 
+    /**
+     * Returns a URL to download the resource from the local cache, even if it isn't cached
+     * yet. If not, a download of the resource into the cache is started (unless in flight
+     * already), and the file is streamed to the client as it's being cached, a read-through.
+     * Returns {@code null} if the resource cannot be cached.
+     */
+    @Nullable
+    URL getReadThroughDownloadUrlForResource(
+            final Resource resource) throws Exception;
+
     @Nonnull
     Path getCachedFileForResource(
             final Resource resource);
@@ -58,12 +70,45 @@ public interface CacheManager {
     Path getCachedFileForResource(
             final String resourcePath);
 
+    /**
+     * Records a hit on the cached file of the resource at the given path, marking it as
+     * the most recently used file in the cache.
+     */
+    void recordCacheHit(
+            final String resourcePath);
+
+    /**
+     * Pins the cached file of the resource at the given path, so that it is not evicted
+     * from the cache (e.g., while it is being streamed) until the returned handle is closed.
+     */
+    @Nonnull
+    Closeable pinCachedFile(
+            final String resourcePath);
+
+    /**
+     * Returns the download of the resource at the given path into the cache, if one is in
+     * flight. The returned future completes once the download has started, or with
+     * {@code null} if it failed to.
+     */
+    @Nullable
+    CompletableFuture<CacheTransfer> getInFlightDownload(
+            final String resourcePath);
+
     void downloadResourceToCache(
             final Resource resource);
 
     void downloadResourceToCacheAsync(
             final Resource resource);
 
+    /**
+     * Prefetches the resource into the cache, unless its cached file is already on disk. The
+     * returned future completes with the cached file, or with {@code null} if the resource
+     * was not (or could not be) cached; it never completes exceptionally.
+     */
+    @Nonnull
+    CompletableFuture<Path> prefetchResourceToCache(
+            final Resource resource);
+
     void deleteResourceFromCache(
             final Resource resource);
 
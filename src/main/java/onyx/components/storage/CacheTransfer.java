@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A download of a resource into the cache that is still in flight. The bytes of the cached
+ * file that have arrived so far, from its start, can be read while the rest is still being
+ * downloaded (e.g., to stream the file to a client as it is being cached).
+ */
+public interface CacheTransfer {
+
+    /**
+     * The size of the file being downloaded, in bytes.
+     */
+    long getSize();
+
+    /**
+     * Opens the file being downloaded for reading; the channel stays valid once the
+     * download completes (or even if the file is later evicted).
+     */
+    FileChannel open() throws IOException;
+
+    /**
+     * Waits until bytes past the given position have arrived, and returns the number of
+     * bytes, from the start of the file, that can now be read. Throws if the download
+     * failed, or if no bytes past the position arrived within the given timeout.
+     */
+    long awaitAvailable(
+            final long position,
+            final long timeout,
+            final TimeUnit timeUnit) throws IOException, InterruptedException;
+
+}
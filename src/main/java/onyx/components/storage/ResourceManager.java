@@ -26,17 +26,26 @@
 
 package onyx.components.storage;
 
+import onyx.entities.storage.ResourcePage;
 import onyx.entities.storage.aws.dynamodb.Resource;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ResourceManager {
 
     String ROOT_PATH = "/";
 
+    int DEFAULT_LISTING_PAGE_LIMIT = 500;
+    int MAX_LISTING_PAGE_LIMIT = 1000;
+
     final class Extensions {
 
         public enum Sort {
@@ -53,9 +62,36 @@ public interface ResourceManager {
     Resource getResourceAtPath(
             final String path);
 
+    /**
+     * Fetches the resource at the given path, optionally with a strongly consistent
+     * read that bypasses any caching, for read-after-write flows that must observe
+     * a write that just happened.
+     */
+    @Nullable
+    Resource getResourceAtPath(
+            final String path,
+            final boolean consistentRead);
+
+    /**
+     * Fetches the resources at all of the given paths in as few round trips as possible.
+     * Returns the found resources keyed by path; paths with no resource are absent from
+     * the returned map.
+     */
+    @Nonnull
+    Map<String, Resource> getResourcesAtPaths(
+            final Collection<String> paths);
+
     void createResource(
             final Resource resource);
 
+    /**
+     * Creates all of the given resources in as few round trips as possible. Indexing and
+     * ancestor size and cost propagation happen once for the whole batch, after all of
+     * the resources have been created.
+     */
+    void createResources(
+            final List<Resource> resources);
+
     void createResourceAsync(
             final Resource resource);
 
@@ -68,15 +104,48 @@ public interface ResourceManager {
     void deleteResource(
             final Resource resource);
 
+    /**
+     * Deletes the resource and, if it's a directory, its entire subtree. The callback is
+     * invoked once for every deleted resource, starting with the resource itself.
+     */
+    void deleteResource(
+            final Resource resource,
+            final Consumer<Resource> onDeleted);
+
     void deleteResourceAsync(
             final Resource resource);
 
+    /**
+     * Records that the given resource was accessed at the given instant, along with its
+     * storage cost recomputed as of that access. The access is coalesced in memory and
+     * persisted lazily; the given resource itself is not modified.
+     */
+    void recordResourceAccess(
+            final Resource resource,
+            final Instant accessedAt,
+            final BigDecimal cost);
+
     @Nonnull
     List<Resource> listDirectory(
             final Resource directory,
             final Set<Resource.Visibility> visibility,
             @Nullable final Extensions.Sort sort);
 
+    /**
+     * Lists a single page of the children of the given directory, already sorted with
+     * directories first, then files. The returned page carries an opaque cursor that
+     * can be passed back in to fetch the next page; a {@code null} cursor fetches the
+     * first page. The limit is capped at {@link #MAX_LISTING_PAGE_LIMIT}.
+     *
+     * @throws IllegalArgumentException if the given cursor is malformed
+     */
+    @Nonnull
+    ResourcePage listDirectory(
+            final Resource directory,
+            final Set<Resource.Visibility> visibility,
+            final int limit,
+            @Nullable final String cursor);
+
     @Nonnull
     List<Resource> listHomeDirectories();
 
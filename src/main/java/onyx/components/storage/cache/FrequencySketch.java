@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.math.IntMath;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A compact, approximate count of how often each key has been seen recently: a count-min
+ * sketch of 4-bit counters, sixteen to a long, with TinyLFU style aging. Every key maps to
+ * one counter in each of four rows, and its estimated frequency is the smallest of those
+ * counters, so estimates may run high (on hash collisions) but never low.
+ *
+ * Counters saturate at 15. Once as many increments as the sample size have been recorded,
+ * every counter is halved, so keys that were popular long ago fade out and the sketch
+ * reflects recent popularity only. Memory use is fixed at eight bytes per expected entry.
+ */
+public final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int MAX_FREQUENCY = 15;
+
+    /**
+     * Masks off the high bit of every 4-bit counter in a long once the long has been
+     * shifted right by one, halving all sixteen counters at once.
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final long[] table_;
+    private final int counterMask_;
+
+    private final int sampleSize_;
+    private int additions_;
+
+    /**
+     * @param expectedEntries the number of distinct keys expected to be tracked at once
+     * @param sampleSize the number of increments after which all counters are halved
+     */
+    public FrequencySketch(
+            final int expectedEntries,
+            final int sampleSize) {
+        checkArgument(expectedEntries > 0, "Expected entries must be positive.");
+        checkArgument(sampleSize > 0, "Sample size must be positive.");
+
+        // Sixteen 4-bit counters per long; one long per expected entry gives each row of the
+        // sketch four counters per entry, which keeps collisions (and over-estimates) rare.
+        final int tableSize = IntMath.ceilingPowerOfTwo(Math.max(expectedEntries, 16));
+        table_ = new long[tableSize];
+        counterMask_ = (tableSize * 16) - 1;
+        sampleSize_ = sampleSize;
+    }
+
+    /**
+     * Records one occurrence of the given key.
+     */
+    public synchronized void increment(
+            final String key) {
+        checkNotNull(key, "Key cannot be null.");
+
+        final long hash = hash(key);
+
+        boolean incremented = false;
+        for (int i = 0; i < DEPTH; i++) {
+            incremented |= incrementAt(indexOf(hash, i));
+        }
+
+        if (incremented && ++additions_ >= sampleSize_) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of recent occurrences of the given key, at most 15.
+     */
+    public synchronized int frequency(
+            final String key) {
+        checkNotNull(key, "Key cannot be null.");
+
+        final long hash = hash(key);
+
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, counterAt(indexOf(hash, i)));
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Halves every counter in the sketch.
+     */
+    @VisibleForTesting
+    synchronized void reset() {
+        for (int i = 0; i < table_.length; i++) {
+            table_[i] = (table_[i] >>> 1) & RESET_MASK;
+        }
+
+        additions_ /= 2;
+    }
+
+    private static long hash(
+            final String key) {
+        return HASH_FUNCTION.hashUnencodedChars(key).asLong();
+    }
+
+    /**
+     * Derives the counter of the given row from a single 64-bit hash by double hashing
+     * with its two halves, as in Kirsch-Mitzenmacher.
+     */
+    private int indexOf(
+            final long hash,
+            final int row) {
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+        return (h1 + (row * h2)) & counterMask_;
+    }
+
+    private int counterAt(
+            final int index) {
+        final int shift = (index & 15) << 2;
+        return (int) ((table_[index >>> 4] >>> shift) & 0xFL);
+    }
+
+    private boolean incrementAt(
+            final int index) {
+        final int shift = (index & 15) << 2;
+        final long mask = 0xFL << shift;
+        if ((table_[index >>> 4] & mask) != mask) {
+            table_[index >>> 4] += 1L << shift;
+            return true;
+        }
+
+        return false;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.CacheAdmissionPolicy;
+import onyx.entities.storage.aws.dynamodb.Resource;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A TinyLFU style admission policy: downloads are counted, per resource path, in a
+ * {@link FrequencySketch} whose counters periodically age, and a resource is admitted once
+ * its estimated recent download frequency reaches the configured minimum. Hot files are
+ * cached automatically regardless of their visibility, while files downloaded only once
+ * or twice (or only long ago) stay out.
+ */
+@Component
+public final class FrequencySketchCacheAdmissionPolicy implements CacheAdmissionPolicy {
+
+    private final boolean admissionEnabled_;
+    private final int minFrequency_;
+
+    private final FrequencySketch frequencySketch_;
+
+    @Injectable
+    public FrequencySketchCacheAdmissionPolicy(
+            final LocalCacheConfig localCacheConfig) {
+        admissionEnabled_ = localCacheConfig.localCacheAdmissionEnabled();
+        minFrequency_ = localCacheConfig.getLocalCacheAdmissionMinFrequency();
+
+        final int sketchSize = localCacheConfig.getLocalCacheAdmissionSketchSize();
+        // Aging every ten increments per expected entry, as suggested by TinyLFU.
+        frequencySketch_ = new FrequencySketch(sketchSize, sketchSize * 10);
+    }
+
+    @Override
+    public void recordAccess(
+            final Resource resource) {
+        checkNotNull(resource, "Resource cannot be null.");
+
+        if (!admissionEnabled_) {
+            return;
+        }
+
+        frequencySketch_.increment(resource.getPath());
+    }
+
+    @Override
+    public int getAccessFrequency(
+            final String resourcePath) {
+        checkNotNull(resourcePath, "Resource path cannot be null.");
+
+        return frequencySketch_.frequency(resourcePath);
+    }
+
+    @Override
+    public boolean shouldAdmit(
+            final Resource resource) {
+        checkNotNull(resource, "Resource cannot be null.");
+
+        if (!admissionEnabled_) {
+            return false;
+        } else if (!Resource.Type.FILE.equals(resource.getType())) {
+            return false;
+        }
+
+        return frequencySketch_.frequency(resource.getPath()) >= minFrequency_;
+    }
+
+}
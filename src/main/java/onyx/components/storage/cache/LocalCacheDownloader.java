@@ -0,0 +1,708 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import curacao.components.ComponentDestroyable;
+import curacao.core.servlet.HttpStatus;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.CacheTransfer;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.asynchttpclient.Dsl.asyncHttpClient;
+
+/**
+ * Downloads objects into local cache files, without parking a thread per download.
+ *
+ * Small objects are fetched with a single GET. Objects of at least the configured range
+ * threshold are fetched as parallel HTTP Range requests, each written straight from the
+ * network buffers into its region of a preallocated temp file with positional
+ * {@link FileChannel} writes. Either way, no body part is ever copied into a byte array,
+ * and the temp file is atomically moved into place only once every byte has arrived.
+ * While in flight, the bytes of the file that have arrived so far can be read through its
+ * {@link Transfer}. The size of the file is the size of the object as S3 reports it, with the
+ * {@code Content-Length} of a plain GET or the {@code Content-Range} of a range response; the
+ * size the object was expected to be only decides whether it is fetched in ranges.
+ *
+ * Across all downloads, at most the configured number of requests are in flight at once,
+ * and, if a bandwidth cap is configured, requests are only started as fast as the cap
+ * allows. Waiting for bandwidth is the only thing that ever parks a thread, and only the
+ * one thread dedicated to starting requests when a cap is configured; never a thread of the
+ * shared {@link AsyncCacheThreadPool}.
+ */
+@Component
+public final class LocalCacheDownloader implements ComponentDestroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCacheDownloader.class);
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private static final ThreadFactory THROTTLE_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("onyx-cache-download-throttle-%d")
+            .build();
+
+    private final long rangeThreshold_;
+    private final long rangeSize_;
+
+    /**
+     * Caps the total download bandwidth, in bytes per second; {@code null} if uncapped.
+     */
+    @Nullable
+    private final RateLimiter rateLimiter_;
+
+    /**
+     * Starts requests, one at a time, as fast as the bandwidth cap allows; {@code null} if
+     * uncapped, in which case requests are started on the shared async cache pool.
+     */
+    @Nullable
+    private final ExecutorService throttleExecutorService_;
+
+    private final RequestLimiter requestLimiter_;
+
+    private final ExecutorService asyncCacheExecutorService_;
+
+    private final AsyncHttpClient asyncHttpClient_;
+
+    @Injectable
+    public LocalCacheDownloader(
+            final LocalCacheConfig localCacheConfig,
+            final AsyncCacheThreadPool asyncCacheThreadPool) {
+        rangeThreshold_ = localCacheConfig.getLocalCacheDownloaderRangeThreshold();
+        rangeSize_ = localCacheConfig.getLocalCacheDownloaderRangeSize();
+
+        final long maxBytesPerSecond = localCacheConfig.getLocalCacheDownloaderMaxBytesPerSecond();
+        rateLimiter_ = (maxBytesPerSecond > 0L) ? RateLimiter.create(maxBytesPerSecond) : null;
+
+        asyncCacheExecutorService_ = asyncCacheThreadPool.getExecutorService();
+        throttleExecutorService_ = (rateLimiter_ != null)
+                ? Executors.newSingleThreadExecutor(THROTTLE_THREAD_FACTORY)
+                : null;
+        requestLimiter_ = new RequestLimiter(localCacheConfig.getLocalCacheDownloaderMaxConcurrentRequests(),
+                (throttleExecutorService_ != null) ? throttleExecutorService_ : asyncCacheExecutorService_);
+
+        final long readTimeoutMs =
+                localCacheConfig.getLocalCacheDownloaderReadTimeout(TimeUnit.MILLISECONDS);
+        final long requestTimeoutMs =
+                localCacheConfig.getLocalCacheDownloaderRequestTimeout(TimeUnit.MILLISECONDS);
+        final DefaultAsyncHttpClientConfig clientConfig = new DefaultAsyncHttpClientConfig.Builder()
+                // Very long read & connect timeout; intentional.
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .setRequestTimeout(Duration.ofMillis(requestTimeoutMs))
+                .build();
+        asyncHttpClient_ = asyncHttpClient(clientConfig);
+    }
+
+    /**
+     * Starts a download of the object at the given URL, expected to be of the given size,
+     * into the given file. The future of the returned transfer completes with the file once
+     * it is in place, or exceptionally if the download failed, in which case nothing is left
+     * behind. A ranged download fails if S3 reports the object to be of any other size.
+     */
+    public Transfer download(
+            final URL url,
+            final long size,
+            final Path file) {
+        checkNotNull(url, "URL cannot be null.");
+        checkNotNull(file, "File cannot be null.");
+
+        final Path tempFile = file.resolveSibling(file.getFileName() + "-"
+                + UUID.randomUUID() + TEMP_FILE_SUFFIX);
+        final boolean ranged = size >= rangeThreshold_;
+        final Transfer transfer = new Transfer(file, tempFile, size, ranged ? rangeSize_ : size);
+
+        final FileChannel channel;
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (final Exception e) {
+            transfer.fail(e);
+            return transfer;
+        }
+
+        final List<CompletableFuture<String>> parts = new ArrayList<>();
+        try {
+            if (!ranged) {
+                parts.add(fetch(url, channel, transfer, 0, 0L, size, false));
+            } else {
+                // Preallocate the file by writing its last byte, so every range has a region
+                // of the file to be written into as soon as it starts arriving.
+                channel.write(ByteBuffer.allocate(1), size - 1L);
+                for (long start = 0L; start < size; start += rangeSize_) {
+                    parts.add(fetch(url, channel, transfer, parts.size(), start,
+                            Math.min(rangeSize_, size - start), true));
+                }
+            }
+        } catch (final Exception e) {
+            parts.forEach(part -> part.cancel(false));
+            closeAndDeleteQuietly(channel, tempFile);
+            transfer.fail(e);
+            return transfer;
+        }
+
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    // Every range must come from the same version of the object; if it was
+                    // overwritten mid-download, the file is a mix of both and is discarded.
+                    final List<String> eTags = parts.stream()
+                            .map(CompletableFuture::join)
+                            .filter(Objects::nonNull)
+                            .distinct()
+                            .toList();
+                    if (eTags.size() > 1) {
+                        throw new IllegalStateException("Object changed during ranged download: " + eTags);
+                    }
+
+                    try {
+                        // The file may be streamed to clients as it arrives, with the size S3
+                        // reported as its length; a body of any other size is discarded.
+                        final long downloadedSize = channel.size();
+                        if (downloadedSize != transfer.getSize()) {
+                            throw new IOException("Downloaded cache file of unexpected size: "
+                                    + downloadedSize + " != " + transfer.getSize());
+                        }
+
+                        channel.close();
+                        // Keep the ETag of the object with the file, so the index knows which
+                        // version it is.
+                        if (!eTags.isEmpty()) {
+                            LocalCacheIndex.writeETag(tempFile, eTags.get(0));
+                        }
+                        transfer.moveIntoPlace();
+                    } catch (final IOException e) {
+                        throw new IllegalStateException("Failed to move downloaded cache file into place: "
+                                + file, e);
+                    }
+
+                    return file;
+                })
+                .whenComplete((downloaded, t) -> {
+                    if (t != null) {
+                        closeAndDeleteQuietly(channel, tempFile);
+                        transfer.fail(t);
+                    } else {
+                        transfer.future_.complete(downloaded);
+                    }
+                });
+
+        return transfer;
+    }
+
+    /**
+     * Fetches the given number of bytes of the object at the given URL, starting at the
+     * given position, into the same position of the given channel. The returned future
+     * completes with the ETag of the object, if any.
+     */
+    private CompletableFuture<String> fetch(
+            final URL url,
+            final FileChannel channel,
+            final Transfer transfer,
+            final int part,
+            final long position,
+            final long length,
+            final boolean ranged) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        requestLimiter_.submit(() -> {
+            if (result.isDone()) {
+                // Cancelled while waiting for its turn.
+                requestLimiter_.release();
+                return;
+            }
+
+            // Only ever parks the throttle thread.
+            if (rateLimiter_ != null && length > 0L) {
+                rateLimiter_.acquire(Ints.saturatedCast(length));
+            }
+
+            try {
+                final BoundRequestBuilder request = asyncHttpClient_.prepareGet(url.toString());
+                if (ranged) {
+                    request.setHeader(HttpHeaderNames.RANGE, String.format("bytes=%d-%d",
+                            position, position + length - 1L));
+                }
+
+                request.execute(new ChannelWriteAsyncHandler(channel, transfer, part, position,
+                                ranged ? length : -1L))
+                        .toCompletableFuture()
+                        .whenComplete((eTag, t) -> {
+                            if (t != null) {
+                                result.completeExceptionally(t);
+                            } else {
+                                result.complete(eTag);
+                            }
+                            requestLimiter_.release();
+                        });
+            } catch (final Exception e) {
+                requestLimiter_.release();
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    private static void closeAndDeleteQuietly(
+            final FileChannel channel,
+            final Path tempFile) {
+        try {
+            channel.close();
+        } catch (final Exception e) {
+            LOG.warn("Failed to close channel of partial cache file: {}", tempFile, e);
+        }
+
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (final Exception e) {
+            LOG.warn("Failed to delete partial cache file: {}", tempFile, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (throttleExecutorService_ != null) {
+            throttleExecutorService_.shutdownNow();
+        }
+        asyncHttpClient_.close();
+    }
+
+    /**
+     * A download in flight into a cache file. The file is made of consecutive parts (the
+     * ranges of a ranged download, or the one body of a plain GET), and the bytes that can
+     * be read are those of every complete part, plus those that arrived so far of the first
+     * incomplete one. Mutable state is guarded by {@code this}; readers wait on it for bytes
+     * to arrive.
+     */
+    public static final class Transfer implements CacheTransfer {
+
+        private final Path file_;
+        private final Path tempFile_;
+        private final long expectedSize_;
+
+        /**
+         * The expected size of the file, and of each of its parts, until S3 reports the size
+         * of the object with the first response.
+         */
+        private long size_;
+        private long partSize_;
+        private boolean sized_;
+
+        private final CompletableFuture<Transfer> started_;
+        private final CompletableFuture<Path> future_;
+
+        /**
+         * The number of bytes that arrived so far of each part.
+         */
+        private final long[] arrived_;
+
+        private boolean inPlace_;
+        private Throwable failure_;
+
+        private Transfer(
+                final Path file,
+                final Path tempFile,
+                final long size,
+                final long partSize) {
+            file_ = file;
+            tempFile_ = tempFile;
+            expectedSize_ = size;
+            size_ = size;
+            partSize_ = Math.max(1L, partSize);
+            started_ = new CompletableFuture<>();
+            future_ = new CompletableFuture<>();
+            arrived_ = new long[Ints.checkedCast(Math.max(1L, (size + partSize_ - 1L) / partSize_))];
+        }
+
+        /**
+         * Completes with this transfer once S3 has reported the size of the object, or
+         * exceptionally if the download failed before then.
+         */
+        public CompletableFuture<Transfer> getStarted() {
+            return started_;
+        }
+
+        /**
+         * Completes with the file once it is in place, or exceptionally if the download failed.
+         */
+        public CompletableFuture<Path> getFuture() {
+            return future_;
+        }
+
+        @Override
+        public synchronized long getSize() {
+            return size_;
+        }
+
+        @Override
+        public synchronized FileChannel open() throws IOException {
+            if (failure_ != null) {
+                throw new IOException("Failed to download cache file: " + file_, failure_);
+            }
+
+            // Once moved into place, the temp file is no more.
+            return FileChannel.open(inPlace_ ? file_ : tempFile_, StandardOpenOption.READ);
+        }
+
+        @Override
+        public synchronized long awaitAvailable(
+                final long position,
+                final long timeout,
+                final TimeUnit timeUnit) throws IOException, InterruptedException {
+            final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+            long available = getAvailable();
+            while (available <= position && failure_ == null) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    throw new IOException("Timed out waiting for cache file download: " + file_);
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                available = getAvailable();
+            }
+
+            if (failure_ != null) {
+                throw new IOException("Failed to download cache file: " + file_, failure_);
+            }
+
+            return available;
+        }
+
+        private long getAvailable() {
+            if (inPlace_) {
+                return size_;
+            }
+
+            long available = 0L;
+            for (int part = 0; part < arrived_.length; part++) {
+                available += arrived_[part];
+                if (arrived_[part] < Math.min(partSize_, size_ - part * partSize_)) {
+                    break;
+                }
+            }
+
+            return Math.min(available, size_);
+        }
+
+        private synchronized void advance(
+                final int part,
+                final long bytes) {
+            arrived_[part] += bytes;
+            notifyAll();
+        }
+
+        /**
+         * Records the size of the object as reported by S3; only the first report counts.
+         * The one body of a plain GET is a single part of the entire file, whatever its size.
+         */
+        private void start(
+                final long size) {
+            synchronized (this) {
+                if (sized_) {
+                    return;
+                }
+                sized_ = true;
+                size_ = size;
+                if (arrived_.length == 1) {
+                    partSize_ = Math.max(1L, size);
+                }
+            }
+
+            started_.complete(this);
+        }
+
+        /**
+         * Moves the downloaded temp file into place; under the lock, so that a reader never
+         * opens the temp file after it was moved.
+         */
+        private synchronized void moveIntoPlace() throws IOException {
+            Files.move(tempFile_, file_, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            inPlace_ = true;
+            notifyAll();
+        }
+
+        private void fail(
+                final Throwable t) {
+            synchronized (this) {
+                failure_ = t;
+                notifyAll();
+            }
+
+            started_.completeExceptionally(t);
+            future_.completeExceptionally(t);
+        }
+
+    }
+
+    /**
+     * Bounds the number of requests in flight at once, without blocking: requests beyond
+     * the bound are queued, and started as earlier ones finish. Requests are always started
+     * on the given executor, never on the thread that released the permit (typically, an
+     * I/O thread of the HTTP client).
+     */
+    private static final class RequestLimiter {
+
+        private final ExecutorService executorService_;
+
+        private final Deque<Runnable> waiting_;
+        private int available_;
+
+        private RequestLimiter(
+                final int maxConcurrentRequests,
+                final ExecutorService executorService) {
+            executorService_ = executorService;
+            waiting_ = new ArrayDeque<>();
+            available_ = Math.max(1, maxConcurrentRequests);
+        }
+
+        private void submit(
+                final Runnable request) {
+            synchronized (this) {
+                if (available_ == 0) {
+                    waiting_.addLast(request);
+                    return;
+                }
+                available_--;
+            }
+
+            executorService_.execute(request);
+        }
+
+        private void release() {
+            final Runnable next;
+            synchronized (this) {
+                next = waiting_.pollFirst();
+                if (next == null) {
+                    available_++;
+                    return;
+                }
+            }
+
+            executorService_.execute(next);
+        }
+
+    }
+
+    /**
+     * An {@link AsyncHandler} that writes a response body straight into a region of a file
+     * channel, from the network buffers, with positional writes (so any number of handlers
+     * may write disjoint regions of the same channel concurrently). Reports the size of the
+     * object to the transfer once the headers arrive. Completes with the ETag of the response,
+     * if any.
+     */
+    private static final class ChannelWriteAsyncHandler implements AsyncHandler<String> {
+
+        private final FileChannel channel_;
+
+        /**
+         * The transfer, and the part of it, this response is the body of.
+         */
+        private final Transfer transfer_;
+        private final int part_;
+
+        private final long start_;
+
+        /**
+         * The exact number of bytes the response must carry for a range request, or -1 for
+         * a plain GET of the entire object.
+         */
+        private final long expectedLength_;
+
+        private long position_;
+
+        private volatile String eTag_;
+
+        private volatile Throwable failure_;
+
+        private ChannelWriteAsyncHandler(
+                final FileChannel channel,
+                final Transfer transfer,
+                final int part,
+                final long start,
+                final long expectedLength) {
+            channel_ = channel;
+            transfer_ = transfer;
+            part_ = part;
+            start_ = start;
+            expectedLength_ = expectedLength;
+            position_ = start;
+        }
+
+        @Override
+        public State onStatusReceived(
+                final HttpResponseStatus responseStatus) throws Exception {
+            final int expectedStatus = (expectedLength_ < 0L) ? HttpStatus.SC_OK : HttpStatus.SC_PARTIAL_CONTENT;
+            if (responseStatus.getStatusCode() != expectedStatus) {
+                failure_ = new IOException("Unexpected response status: " + responseStatus.getStatusCode());
+                return State.ABORT;
+            }
+
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onHeadersReceived(
+                final HttpHeaders headers) throws Exception {
+            eTag_ = headers.get(HttpHeaderNames.ETAG);
+
+            final Long size;
+            if (expectedLength_ < 0L) {
+                final String contentLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+                size = (contentLength != null) ? Longs.tryParse(contentLength) : null;
+                if (size == null || size < 0L) {
+                    failure_ = new IOException("Unexpected response Content-Length: " + contentLength);
+                    return State.ABORT;
+                }
+            } else {
+                final String contentRange = headers.get(HttpHeaderNames.CONTENT_RANGE);
+                size = getContentRangeSize(contentRange);
+                if (size == null) {
+                    failure_ = new IOException("Unexpected response Content-Range: " + contentRange);
+                    return State.ABORT;
+                } else if (size != transfer_.expectedSize_) {
+                    // The ranges were cut for an object of the expected size.
+                    failure_ = new IOException("Object of unexpected size: " + size + " != "
+                            + transfer_.expectedSize_);
+                    return State.ABORT;
+                }
+            }
+
+            transfer_.start(size);
+            return State.CONTINUE;
+        }
+
+        /**
+         * Returns the complete length of the object from a {@code Content-Range} of the
+         * form {@code bytes <first>-<last>/<complete-length>}, or {@code null} if it is not
+         * exactly the range requested.
+         */
+        @Nullable
+        private Long getContentRangeSize(
+                @Nullable final String contentRange) {
+            if (contentRange == null || !contentRange.startsWith("bytes ")) {
+                return null;
+            }
+
+            final String spec = contentRange.substring("bytes ".length()).trim();
+            final int dash = spec.indexOf('-');
+            final int slash = spec.indexOf('/');
+            if (dash < 0 || slash < dash) {
+                return null;
+            }
+
+            final Long first = Longs.tryParse(spec.substring(0, dash));
+            final Long last = Longs.tryParse(spec.substring(dash + 1, slash));
+            if (first == null || last == null || first != start_ || last != start_ + expectedLength_ - 1L) {
+                return null;
+            }
+
+            return Longs.tryParse(spec.substring(slash + 1));
+        }
+
+        @Override
+        public State onBodyPartReceived(
+                final HttpResponseBodyPart bodyPart) throws Exception {
+            if (failure_ != null) {
+                return State.ABORT;
+            }
+
+            // A view of the network buffer; written out before this method returns, as the
+            // buffer is released right after.
+            final ByteBuffer buffer = bodyPart.getBodyByteBuffer();
+            final long written = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                position_ += channel_.write(buffer, position_);
+            }
+
+            if (expectedLength_ >= 0L && position_ - start_ > expectedLength_) {
+                failure_ = new IOException("Range response longer than requested: " + expectedLength_);
+                return State.ABORT;
+            }
+
+            transfer_.advance(part_, written);
+
+            return State.CONTINUE;
+        }
+
+        @Override
+        public void onThrowable(
+                final Throwable t) {
+            failure_ = t;
+        }
+
+        @Override
+        public String onCompleted() throws Exception {
+            if (failure_ != null) {
+                throw new IOException("Failed to download cache file region at: " + start_, failure_);
+            } else if (expectedLength_ >= 0L && position_ - start_ != expectedLength_) {
+                throw new IOException("Range response shorter than requested: "
+                        + (position_ - start_) + " < " + expectedLength_);
+            }
+
+            return eTag_;
+        }
+
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the local cache directory within its configured budget of total bytes and number
+ * of files, by evicting the least recently used files first.
+ *
+ * Files are tracked by cache key in access order: writes to the cache and hits on cached
+ * files move a file to the most recently used end. Whenever the cache grows past its budget,
+ * an eviction pass is scheduled in the background on the {@link AsyncCacheThreadPool}; passes
+ * are coalesced, so a burst of writes triggers only one. A file that is pinned (e.g., while
+ * it is being streamed to a client) is skipped over and never evicted.
+ *
+ * At startup, the files already in the {@link LocalCacheIndex} are tracked in order of
+ * their last modified time, oldest first. Evicted files are removed from the index, and
+ * from the {@link LocalCacheMemoryTier}, too.
+ */
+@Component
+public final class LocalCacheEvictor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCacheEvictor.class);
+
+    private final LocalCacheIndex localCacheIndex_;
+    private final LocalCacheMemoryTier localCacheMemoryTier_;
+
+    private final long maxBytes_;
+    private final long maxEntries_;
+
+    private final ExecutorService asyncCacheExecutorService_;
+
+    /**
+     * The size in bytes of each cached file, by cache key, in access order from least to
+     * most recently used. Guarded by {@code this}, as are the total size and the pins.
+     */
+    private final LinkedHashMap<String, Long> entries_;
+    private long totalBytes_;
+
+    /**
+     * The number of outstanding pins on each pinned cached file, by cache key.
+     */
+    private final Map<String, Integer> pins_;
+
+    private final AtomicBoolean evictionScheduled_;
+
+    @Injectable
+    public LocalCacheEvictor(
+            final LocalCacheConfig localCacheConfig,
+            final LocalCacheIndex localCacheIndex,
+            final LocalCacheMemoryTier localCacheMemoryTier,
+            final AsyncCacheThreadPool asyncCacheThreadPool) {
+        localCacheIndex_ = localCacheIndex;
+        localCacheMemoryTier_ = localCacheMemoryTier;
+        maxBytes_ = localCacheConfig.getLocalCacheEvictionMaxBytes();
+        maxEntries_ = localCacheConfig.getLocalCacheEvictionMaxEntries();
+        asyncCacheExecutorService_ = asyncCacheThreadPool.getExecutorService();
+
+        entries_ = new LinkedHashMap<>(16, 0.75f, true);
+        pins_ = new HashMap<>();
+        evictionScheduled_ = new AtomicBoolean(false);
+
+        // Start tracking whatever is already in the cache, and trim it to fit the budget.
+        localCacheIndex.getEntries().stream()
+                .sorted(Comparator.comparing(LocalCacheIndex.CachedFile::getLastModified))
+                .forEach(cachedFile -> {
+                    entries_.put(cachedFile.getCacheKey(), cachedFile.getSize());
+                    totalBytes_ += cachedFile.getSize();
+                });
+        scheduleEvictionIfNeeded();
+    }
+
+    /**
+     * Returns true if a file of the given size can fit in the cache at all.
+     */
+    public boolean fitsInCache(
+            final long size) {
+        return size <= maxBytes_;
+    }
+
+    /**
+     * Records that the cached file with the given key was served, marking it as the most
+     * recently used file in the cache.
+     */
+    public synchronized void recordAccess(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        // A lookup in an access-ordered map moves the entry to the most recently used end.
+        entries_.get(cacheKey);
+    }
+
+    /**
+     * Records that a file of the given size was written to the cache under the given key,
+     * and schedules an eviction pass if the cache has outgrown its budget.
+     */
+    public void recordWrite(
+            final String cacheKey,
+            final long size) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        synchronized (this) {
+            final Long previousSize = entries_.put(cacheKey, size);
+            totalBytes_ += size - ((previousSize != null) ? previousSize : 0L);
+        }
+
+        scheduleEvictionIfNeeded();
+    }
+
+    /**
+     * Records that the cached file with the given key was deleted from the cache.
+     */
+    public synchronized void recordDelete(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        final Long size = entries_.remove(cacheKey);
+        if (size != null) {
+            totalBytes_ -= size;
+        }
+    }
+
+    /**
+     * Pins the cached file with the given key, so that it is not evicted until the returned
+     * handle is closed. Pins nest; the file is evictable again once every pin on it has been
+     * released. Closing the returned handle more than once has no further effect.
+     */
+    public Closeable pin(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        synchronized (this) {
+            pins_.merge(cacheKey, 1, Integer::sum);
+        }
+
+        final AtomicBoolean released = new AtomicBoolean(false);
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                synchronized (this) {
+                    pins_.computeIfPresent(cacheKey, (k, count) -> (count > 1) ? count - 1 : null);
+                }
+            }
+        };
+    }
+
+    private synchronized boolean isOverBudget() {
+        return totalBytes_ > maxBytes_ || entries_.size() > maxEntries_;
+    }
+
+    private void scheduleEvictionIfNeeded() {
+        if (!isOverBudget()) {
+            return;
+        }
+
+        // Only one eviction pass queued at a time; it evicts as much as is needed.
+        if (evictionScheduled_.compareAndSet(false, true)) {
+            asyncCacheExecutorService_.submit(() -> {
+                evictionScheduled_.set(false);
+                evict();
+            });
+        }
+    }
+
+    /**
+     * Evicts least recently used, unpinned files until the cache is back within its budget.
+     * Files are deleted while holding the lock, so that a file cannot be pinned between the
+     * moment it is picked for eviction and the moment it is deleted.
+     */
+    private synchronized void evict() {
+        int evictedFiles = 0;
+        long evictedBytes = 0L;
+
+        final Iterator<Map.Entry<String, Long>> it = entries_.entrySet().iterator();
+        while (isOverBudget() && it.hasNext()) {
+            final Map.Entry<String, Long> entry = it.next();
+            final String cacheKey = entry.getKey();
+            if (pins_.containsKey(cacheKey)) {
+                continue;
+            }
+
+            final Path cachedFile = localCacheIndex_.resolve(cacheKey);
+            try {
+                Files.deleteIfExists(cachedFile);
+            } catch (final Exception e) {
+                LOG.warn("Failed to evict cached file: {}", cachedFile, e);
+                continue;
+            }
+            localCacheIndex_.remove(cacheKey);
+            localCacheMemoryTier_.invalidate(cacheKey);
+
+            final long size = entry.getValue();
+            it.remove();
+            totalBytes_ -= size;
+
+            evictedFiles++;
+            evictedBytes += size;
+        }
+
+        if (evictedFiles > 0) {
+            LOG.info("Evicted {} files ({} bytes) from local cache; {} files ({} bytes) remain.",
+                    evictedFiles, evictedBytes, entries_.size(), totalBytes_);
+        }
+    }
+
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.collect.ImmutableList;
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An in-memory index of the files in the local cache, by cache key, so that checking
+ * whether a resource is cached (and how large, how old, and which version it is) never
+ * touches the filesystem.
+ *
+ * On disk, cached files are sharded into subdirectories named after the first two hex
+ * characters of their cache key, so no single directory ever holds more than a small
+ * fraction of the cache. The index is rebuilt at startup by scanning the shards in
+ * parallel; files still in the older, flat layout are moved into their shard on the way,
+ * and partial downloads left behind by a previous run are deleted.
+ *
+ * The S3 ETag of each cached file, when known, is kept alongside the file in a user-defined
+ * extended attribute, so it survives restarts on filesystems that support them.
+ */
+@Component
+public final class LocalCacheIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCacheIndex.class);
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private static final int SHARD_PREFIX_LENGTH = 2;
+
+    private static final String ETAG_ATTRIBUTE = "onyx.etag";
+
+    private static final Pattern CACHE_KEY_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final Pattern SHARD_NAME_PATTERN = Pattern.compile("^[0-9a-f]{2}$");
+
+    private final Path localCacheDir_;
+
+    private final ExecutorService asyncCacheExecutorService_;
+
+    private final ConcurrentMap<String, CachedFile> entries_;
+
+    @Injectable
+    public LocalCacheIndex(
+            final LocalCacheConfig localCacheConfig,
+            final AsyncCacheThreadPool asyncCacheThreadPool) {
+        localCacheDir_ = localCacheConfig.getLocalCacheDirectory();
+        asyncCacheExecutorService_ = asyncCacheThreadPool.getExecutorService();
+
+        entries_ = new ConcurrentHashMap<>();
+
+        rebuild();
+    }
+
+    /**
+     * Resolves a cache key into the path of its file in the sharded cache directory.
+     * This method does not check if the resulting {@link Path} exists.
+     */
+    public Path resolve(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        return localCacheDir_.resolve(cacheKey.substring(0, SHARD_PREFIX_LENGTH)).resolve(cacheKey);
+    }
+
+    public boolean contains(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        return entries_.containsKey(cacheKey);
+    }
+
+    @Nullable
+    public CachedFile get(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        return entries_.get(cacheKey);
+    }
+
+    /**
+     * Returns a snapshot of every entry in the index, in no particular order.
+     */
+    public List<CachedFile> getEntries() {
+        return ImmutableList.copyOf(entries_.values());
+    }
+
+    /**
+     * (Re-)indexes the file on disk with the given cache key, after it was written. Returns
+     * the new entry, or {@code null} if the file could not be read (in which case it is no
+     * longer indexed).
+     */
+    @Nullable
+    public CachedFile refresh(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        final CachedFile cachedFile = readCachedFile(cacheKey, resolve(cacheKey));
+        if (cachedFile != null) {
+            entries_.put(cacheKey, cachedFile);
+        } else {
+            entries_.remove(cacheKey);
+        }
+
+        return cachedFile;
+    }
+
+    public void remove(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        entries_.remove(cacheKey);
+    }
+
+    /**
+     * Attaches the given S3 ETag to the given file (typically, a cache file about to be moved
+     * into place). Best effort; if the filesystem does not support user-defined attributes,
+     * the file will simply have no known ETag.
+     */
+    public static void writeETag(
+            final Path file,
+            final String eTag) {
+        checkNotNull(file, "File cannot be null.");
+        checkNotNull(eTag, "ETag cannot be null.");
+
+        try {
+            final UserDefinedFileAttributeView view =
+                    Files.getFileAttributeView(file, UserDefinedFileAttributeView.class);
+            if (view != null) {
+                view.write(ETAG_ATTRIBUTE, UTF_8.encode(eTag));
+            }
+        } catch (final Exception e) {
+            LOG.debug("Failed to write ETag attribute of cache file: {}", file, e);
+        }
+    }
+
+    private void rebuild() {
+        if (Files.notExists(localCacheDir_)) {
+            return;
+        }
+
+        final List<Path> shardDirs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(localCacheDir_)) {
+            files.forEach(file -> {
+                final String name = file.getFileName().toString();
+                if (Files.isDirectory(file)) {
+                    if (SHARD_NAME_PATTERN.matcher(name).matches()) {
+                        shardDirs.add(file);
+                    }
+                } else if (name.endsWith(TEMP_FILE_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (CACHE_KEY_PATTERN.matcher(name).matches()) {
+                    moveIntoShard(name, file, shardDirs);
+                }
+            });
+        } catch (final Exception e) {
+            LOG.warn("Failed to list local cache directory: {}", localCacheDir_, e);
+            return;
+        }
+
+        // Scan every shard concurrently; each is a small directory of its own.
+        final List<CompletableFuture<List<CachedFile>>> scans = shardDirs.stream()
+                .distinct()
+                .map(shardDir -> CompletableFuture.supplyAsync(() -> scanShard(shardDir),
+                        asyncCacheExecutorService_))
+                .toList();
+        for (final CompletableFuture<List<CachedFile>> scan : scans) {
+            for (final CachedFile cachedFile : scan.join()) {
+                entries_.put(cachedFile.getCacheKey(), cachedFile);
+            }
+        }
+
+        LOG.info("Indexed {} files across {} shards in local cache: {}", entries_.size(),
+                scans.size(), localCacheDir_);
+    }
+
+    /**
+     * Moves a cache file in the older, flat layout into its shard directory.
+     */
+    private void moveIntoShard(
+            final String cacheKey,
+            final Path file,
+            final List<Path> shardDirs) {
+        final Path sharded = resolve(cacheKey);
+        try {
+            Files.createDirectories(sharded.getParent());
+            Files.move(file, sharded, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            shardDirs.add(sharded.getParent());
+        } catch (final Exception e) {
+            LOG.warn("Failed to move cache file into its shard: {} -> {}", file, sharded, e);
+        }
+    }
+
+    private List<CachedFile> scanShard(
+            final Path shardDir) {
+        final List<CachedFile> cachedFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(shardDir)) {
+            files.forEach(file -> {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_FILE_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (CACHE_KEY_PATTERN.matcher(name).matches()) {
+                    final CachedFile cachedFile = readCachedFile(name, file);
+                    if (cachedFile != null) {
+                        cachedFiles.add(cachedFile);
+                    }
+                }
+            });
+        } catch (final Exception e) {
+            LOG.warn("Failed to list local cache shard directory: {}", shardDir, e);
+        }
+
+        return cachedFiles;
+    }
+
+    @Nullable
+    private static CachedFile readCachedFile(
+            final String cacheKey,
+            final Path file) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+
+            return new CachedFile(cacheKey, attributes.size(),
+                    attributes.lastModifiedTime().toInstant(), readETag(file));
+        } catch (final Exception e) {
+            LOG.debug("Failed to read attributes of cache file: {}", file, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String readETag(
+            final Path file) {
+        try {
+            final UserDefinedFileAttributeView view =
+                    Files.getFileAttributeView(file, UserDefinedFileAttributeView.class);
+            if (view == null || !view.list().contains(ETAG_ATTRIBUTE)) {
+                return null;
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(view.size(ETAG_ATTRIBUTE));
+            view.read(ETAG_ATTRIBUTE, buffer);
+            buffer.flip();
+            return UTF_8.decode(buffer).toString();
+        } catch (final Exception e) {
+            LOG.debug("Failed to read ETag attribute of cache file: {}", file, e);
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(
+            final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final Exception e) {
+            LOG.warn("Failed to delete partial cache file: {}", file, e);
+        }
+    }
+
+    /**
+     * A file in the local cache, as of when it was last indexed.
+     */
+    public static final class CachedFile {
+
+        private final String cacheKey_;
+        private final long size_;
+        private final Instant lastModified_;
+        private final String eTag_;
+
+        private CachedFile(
+                final String cacheKey,
+                final long size,
+                final Instant lastModified,
+                @Nullable final String eTag) {
+            cacheKey_ = cacheKey;
+            size_ = size;
+            lastModified_ = lastModified;
+            eTag_ = eTag;
+        }
+
+        public String getCacheKey() {
+            return cacheKey_;
+        }
+
+        public long getSize() {
+            return size_;
+        }
+
+        public Instant getLastModified() {
+            return lastModified_;
+        }
+
+        /**
+         * The S3 ETag of the object the file was downloaded from, if known.
+         */
+        @Nullable
+        public String getETag() {
+            return eTag_;
+        }
+
+    }
+
+}
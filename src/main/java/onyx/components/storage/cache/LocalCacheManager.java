@@ -26,42 +26,42 @@
 
 package onyx.components.storage.cache;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
-import curacao.components.ComponentDestroyable;
-import curacao.core.servlet.HttpStatus;
-import io.netty.handler.codec.http.HttpHeaders;
 import onyx.components.config.OnyxConfig;
 import onyx.components.config.cache.LocalCacheConfig;
 import onyx.components.storage.AssetManager;
 import onyx.components.storage.CacheManager;
+import onyx.components.storage.CacheTransfer;
 import onyx.components.storage.async.AsyncCacheThreadPool;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import onyx.entities.storage.cache.CachedResourceToken;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.asynchttpclient.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.OutputStream;
+import java.io.Closeable;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.time.Duration;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.asynchttpclient.Dsl.asyncHttpClient;
 
 @Component
-public final class LocalCacheManager implements CacheManager, ComponentDestroyable {
+public final class LocalCacheManager implements CacheManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(LocalCacheManager.class);
 
@@ -72,9 +72,36 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
 
     private final CachedResourceSigner cachedResourceSigner_;
 
+    private final LocalCacheIndex localCacheIndex_;
+    private final LocalCacheEvictor localCacheEvictor_;
+    private final LocalCacheDownloader localCacheDownloader_;
+    private final LocalCacheMemoryTier localCacheMemoryTier_;
+
+    /**
+     * Memoized cache keys of recently looked up resource paths, so that hot lookups
+     * don't hash the path every time.
+     */
+    private final LoadingCache<String, String> cacheKeys_;
+
     private final ExecutorService asyncCacheExecutorService_;
 
-    private final AsyncHttpClient asyncHttpClient_;
+    /**
+     * Downloads into the cache that are in flight, by cache key. Concurrent requests to
+     * cache the same resource share the one download.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlightDownloads_;
+
+    /**
+     * The transfers of the downloads in flight, by cache key, so that files can be read
+     * through while they are being downloaded.
+     */
+    private final ConcurrentMap<String, CompletableFuture<CacheTransfer>> inFlightTransfers_;
+
+    /**
+     * The downloads in flight whose resource was deleted since they started. What they
+     * download may well be stale, so they're discarded instead of indexed on completion.
+     */
+    private final Set<CompletableFuture<Path>> fencedDownloads_;
 
     @Injectable
     public LocalCacheManager(
@@ -82,26 +109,29 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
             final LocalCacheConfig localCacheConfig,
             final AssetManager assetManager,
             final CachedResourceSigner cachedResourceSigner,
+            final LocalCacheIndex localCacheIndex,
+            final LocalCacheEvictor localCacheEvictor,
+            final LocalCacheDownloader localCacheDownloader,
+            final LocalCacheMemoryTier localCacheMemoryTier,
             final AsyncCacheThreadPool asyncCacheThreadPool) throws Exception {
         onyxConfig_ = onyxConfig;
         localCacheConfig_ = localCacheConfig;
         assetManager_ = assetManager;
         cachedResourceSigner_ = cachedResourceSigner;
+        localCacheIndex_ = localCacheIndex;
+        localCacheEvictor_ = localCacheEvictor;
+        localCacheDownloader_ = localCacheDownloader;
+        localCacheMemoryTier_ = localCacheMemoryTier;
+        cacheKeys_ = CacheBuilder.newBuilder()
+                .maximumSize(localCacheConfig_.getLocalCacheEvictionMaxEntries())
+                .build(CacheLoader.from(DigestUtils::sha256Hex));
         asyncCacheExecutorService_ = asyncCacheThreadPool.getExecutorService();
+        inFlightDownloads_ = new ConcurrentHashMap<>();
+        inFlightTransfers_ = new ConcurrentHashMap<>();
+        fencedDownloads_ = ConcurrentHashMap.newKeySet();
 
         // Create the local cache directory if it does not exist.
         createCacheDirectoryIfDoesNotExist();
-
-        final long readTimeoutMs =
-                localCacheConfig_.getLocalCacheDownloaderReadTimeout(TimeUnit.MILLISECONDS);
-        final long requestTimeoutMs =
-                localCacheConfig_.getLocalCacheDownloaderRequestTimeout(TimeUnit.MILLISECONDS);
-        final DefaultAsyncHttpClientConfig clientConfig = new DefaultAsyncHttpClientConfig.Builder()
-                // Very long read & connect timeout; intentional.
-                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
-                .setRequestTimeout(Duration.ofMillis(requestTimeoutMs))
-                .build();
-        asyncHttpClient_ = asyncHttpClient(clientConfig);
     }
 
     @Override
@@ -117,8 +147,8 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
             final String resourcePath) {
         checkNotNull(resourcePath, "Resource path cannot be null.");
 
-        final Path cachedResource = generateCachedResourcePath(resourcePath);
-        return Files.exists(cachedResource);
+        // A pure in-memory lookup; the index is kept in sync with the cache directory.
+        return localCacheIndex_.contains(getCacheKey(resourcePath));
     }
 
     @Nullable
@@ -143,6 +173,30 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
             return null;
         }
 
+        return signCachedDownloadUrl(resourcePath, resourceName);
+    }
+
+    @Nullable
+    @Override
+    public URL getReadThroughDownloadUrlForResource(
+            final Resource resource) throws Exception {
+        checkNotNull(resource, "Resource cannot be null.");
+
+        if (!hasResourceInCache(resource)) {
+            if (!localCacheEvictor_.fitsInCache(resource.getSize())) {
+                return null;
+            }
+
+            // Joins the download in flight, if any; the servlet streams the file as it arrives.
+            downloadResourceToCacheFuture(resource);
+        }
+
+        return signCachedDownloadUrl(resource.getPath(), resource.getName());
+    }
+
+    private URL signCachedDownloadUrl(
+            final String resourcePath,
+            final String resourceName) throws Exception {
         final long tokenValidityDurationInSeconds =
                 localCacheConfig_.getLocalCacheTokenValidityDuration(TimeUnit.SECONDS);
 
@@ -177,29 +231,38 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
         return generateCachedResourcePath(resourcePath);
     }
 
+    @Override
+    public void recordCacheHit(
+            final String resourcePath) {
+        checkNotNull(resourcePath, "Resource path cannot be null.");
+
+        localCacheEvictor_.recordAccess(getCacheKey(resourcePath));
+    }
+
+    @Nonnull
+    @Override
+    public Closeable pinCachedFile(
+            final String resourcePath) {
+        checkNotNull(resourcePath, "Resource path cannot be null.");
+
+        return localCacheEvictor_.pin(getCacheKey(resourcePath));
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<CacheTransfer> getInFlightDownload(
+            final String resourcePath) {
+        checkNotNull(resourcePath, "Resource path cannot be null.");
+
+        return inFlightTransfers_.get(getCacheKey(resourcePath));
+    }
+
     @Override
     public void downloadResourceToCache(
             final Resource resource) {
         checkNotNull(resource, "Resource cannot be null.");
 
-        final URL downloadUrl = assetManager_.getPresignedDownloadUrlForResource(resource);
-        final Path cachedResource = generateCachedResourcePath(resource.getPath());
-
-        try {
-            final ListenableFuture<Path> future = asyncHttpClient_.prepareGet(downloadUrl.toString())
-                    .execute(new StreamedFileDownloadAsyncHandler(cachedResource));
-            future.toCompletableFuture()
-                .exceptionally(t -> {
-                    LOG.error("Failed to download resource cache file: {}", cachedResource, t);
-                    return null;
-                }).join();
-
-            LOG.info("Successfully downloaded file to cache: {} -> {}", resource.getPath(),
-                    cachedResource);
-        } catch (final Exception e) {
-            LOG.error("Failed to download resource to cache from pre-signed "
-                    + "download URL: {}", downloadUrl, e);
-        }
+        downloadResourceToCacheFuture(resource).join();
     }
 
     @Override
@@ -207,7 +270,114 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
             final Resource resource) {
         checkNotNull(resource, "Resource cannot be null.");
 
-        asyncCacheExecutorService_.submit(() -> downloadResourceToCache(resource));
+        downloadResourceToCacheFuture(resource);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Path> prefetchResourceToCache(
+            final Resource resource) {
+        checkNotNull(resource, "Resource cannot be null.");
+
+        final String cacheKey = getCacheKey(resource.getPath());
+        final Path cachedResource = localCacheIndex_.resolve(cacheKey);
+        if (localCacheIndex_.contains(cacheKey)) {
+            if (Files.exists(cachedResource)) {
+                return CompletableFuture.completedFuture(cachedResource);
+            }
+
+            // The index says the file is cached but it's gone from disk; the cache directory
+            // was wiped (or lost) underneath us. Forget the file, then download it again.
+            LOG.warn("Cached file missing from disk, dropping from cache index: {} -> {}",
+                    resource.getPath(), cachedResource);
+            localCacheIndex_.remove(cacheKey);
+            localCacheEvictor_.recordDelete(cacheKey);
+        }
+
+        return downloadResourceToCacheFuture(resource);
+    }
+
+    /**
+     * Starts a download of the resource into the cache, unless one is already in flight,
+     * in which case the caller shares it. The returned future completes with the cached
+     * file, or with {@code null} if the resource was not (or could not be) cached; it never
+     * completes exceptionally.
+     */
+    private CompletableFuture<Path> downloadResourceToCacheFuture(
+            final Resource resource) {
+        // Never bother downloading a file that would blow the entire cache budget on its own.
+        if (!localCacheEvictor_.fitsInCache(resource.getSize())) {
+            LOG.debug("Resource too large for local cache, not caching: {} ({} bytes)",
+                    resource.getPath(), resource.getSize());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final String cacheKey = getCacheKey(resource.getPath());
+
+        final CompletableFuture<Path> download = new CompletableFuture<>();
+        final CompletableFuture<Path> inFlight = inFlightDownloads_.putIfAbsent(cacheKey, download);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        final CompletableFuture<CacheTransfer> transfer = new CompletableFuture<>();
+        inFlightTransfers_.put(cacheKey, transfer);
+
+        final Path cachedResource = localCacheIndex_.resolve(cacheKey);
+        CompletableFuture.supplyAsync(() -> assetManager_.getPresignedDownloadUrlForResource(resource),
+                        asyncCacheExecutorService_)
+                .thenCompose(downloadUrl -> {
+                    final LocalCacheDownloader.Transfer started = localCacheDownloader_.download(downloadUrl,
+                            resource.getSize(), cachedResource);
+                    // Readers need the size of the file, so are only let in once S3 reports it.
+                    started.getStarted().thenAccept(transfer::complete);
+                    return started.getFuture();
+                })
+                .thenApplyAsync(downloaded -> {
+                    if (fencedDownloads_.contains(download)) {
+                        // The resource was deleted while in flight; never index what may be stale.
+                        discardFencedDownload(resource, downloaded);
+                        return null;
+                    }
+
+                    final LocalCacheIndex.CachedFile cachedFile = localCacheIndex_.refresh(cacheKey);
+                    if (cachedFile != null) {
+                        localCacheEvictor_.recordWrite(cacheKey, cachedFile.getSize());
+                    }
+
+                    LOG.info("Successfully downloaded file to cache: {} -> {}", resource.getPath(),
+                            downloaded);
+                    return downloaded;
+                }, asyncCacheExecutorService_)
+                .whenComplete((downloaded, t) -> {
+                    // No longer in flight; later requests start a download of their own.
+                    inFlightDownloads_.remove(cacheKey, download);
+                    inFlightTransfers_.remove(cacheKey, transfer);
+                    fencedDownloads_.remove(download);
+                    transfer.complete(null);
+                    if (t != null) {
+                        LOG.error("Failed to download resource to cache: {} -> {}", resource.getPath(),
+                                cachedResource, t);
+                        download.complete(null);
+                    } else {
+                        download.complete(downloaded);
+                    }
+                });
+
+        return download;
+    }
+
+    private void discardFencedDownload(
+            final Resource resource,
+            final Path downloaded) {
+        try {
+            Files.deleteIfExists(downloaded);
+            LOG.info("Discarded download of resource deleted while in flight: {} -> {}",
+                    resource.getPath(), downloaded);
+        } catch (final Exception e) {
+            LOG.warn("Failed to discard download of resource deleted while in flight: {} -> {}",
+                    resource.getPath(), downloaded, e);
+        }
     }
 
     @Override
@@ -215,6 +385,21 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
             final Resource resource) {
         checkNotNull(resource, "Resource cannot be null.");
 
+        final String cacheKey = getCacheKey(resource.getPath());
+
+        // Fence off any download in flight: it's discarded instead of indexed on completion.
+        // Its entry stays in flight until then, so that no new download races it to the same
+        // file, but readers are no longer let in to read it through.
+        final CompletableFuture<Path> inFlight = inFlightDownloads_.get(cacheKey);
+        if (inFlight != null) {
+            fencedDownloads_.add(inFlight);
+            inFlightTransfers_.remove(cacheKey);
+            if (inFlight.isDone()) {
+                // Completed in the meantime, and possibly indexed; the delete below covers it.
+                fencedDownloads_.remove(inFlight);
+            }
+        }
+
         final Path cachedResource = generateCachedResourcePath(resource.getPath());
         try {
             // Delete the file in the cache if it exists.
@@ -224,6 +409,10 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
                 LOG.info("Successfully deleted file from cache: {} -> {}", resource.getPath(),
                         cachedResource);
             }
+
+            localCacheIndex_.remove(cacheKey);
+            localCacheEvictor_.recordDelete(cacheKey);
+            localCacheMemoryTier_.invalidate(cacheKey);
         } catch (final Exception e) {
             LOG.warn("Failed to delete cached resource: {}: {}", resource.getPath(),
                     cachedResource, e);
@@ -257,15 +446,13 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
     }
 
     /**
-     * Builds & resolves a resource path into its hashed cache file equivalent.
-     * This method does not check if the resulting {@link Path} exists.
+     * Builds & resolves a resource path into its hashed cache file equivalent, in its
+     * shard of the cache directory. This method does not check if the resulting
+     * {@link Path} exists.
      */
     private Path generateCachedResourcePath(
             final String resourcePath) {
-        final Path localCacheDir = localCacheConfig_.getLocalCacheDirectory();
-
-        final String hashedResourceName = getCacheKey(resourcePath);
-        return localCacheDir.resolve(hashedResourceName);
+        return localCacheIndex_.resolve(getCacheKey(resourcePath));
     }
 
     /**
@@ -275,100 +462,7 @@ public final class LocalCacheManager implements CacheManager, ComponentDestroyab
      */
     private String getCacheKey(
             final String resourcePath) {
-        return DigestUtils.sha256Hex(resourcePath);
-    }
-
-    @Override
-    public void destroy() throws Exception {
-        asyncHttpClient_.close();
-    }
-
-    /**
-     * An {@link AsyncHandler} implementation that streams a file download directly to disk,
-     * buffering very little in memory.
-     */
-    private static final class StreamedFileDownloadAsyncHandler implements AsyncHandler<Path> {
-
-        private static final Logger LOG = LoggerFactory.getLogger(StreamedFileDownloadAsyncHandler.class);
-
-        private final Path filePath_;
-        private final Path tempFilePath_;
-        private final OutputStream os_;
-
-        private volatile boolean failed_ = false;
-
-        private StreamedFileDownloadAsyncHandler(
-                final Path filePath) throws Exception {
-            filePath_ = filePath;
-            tempFilePath_ = filePath.resolveSibling(filePath.getFileName() + "-"
-                    + UUID.randomUUID() + ".tmp");
-            os_ = Files.newOutputStream(tempFilePath_);
-        }
-
-        @Override
-        public State onStatusReceived(
-                final HttpResponseStatus responseStatus) throws Exception {
-            if (responseStatus.getStatusCode() != HttpStatus.SC_OK) {
-                failed_ = true;
-                closeAndCleanup();
-                return State.ABORT;
-            }
-
-            return State.CONTINUE;
-        }
-
-        @Override
-        public State onHeadersReceived(
-                final HttpHeaders headers) throws Exception {
-            return State.CONTINUE;
-        }
-
-        @Override
-        public State onBodyPartReceived(
-                final HttpResponseBodyPart bodyPart) throws Exception {
-            if (failed_) {
-                return State.ABORT;
-            }
-
-            os_.write(bodyPart.getBodyPartBytes());
-            return State.CONTINUE;
-        }
-
-        @Override
-        public void onThrowable(
-                final Throwable t) {
-            failed_ = true;
-            LOG.error("Failed to write local cache file from async stream: {}", filePath_, t);
-            closeAndCleanup();
-        }
-
-        @Override
-        public Path onCompleted() throws Exception {
-            if (failed_) {
-                closeAndCleanup();
-                return null;
-            }
-
-            os_.close();
-            Files.move(tempFilePath_, filePath_, StandardCopyOption.ATOMIC_MOVE,
-                    StandardCopyOption.REPLACE_EXISTING);
-            return filePath_;
-        }
-
-        private void closeAndCleanup() {
-            try {
-                os_.close();
-            } catch (final Exception e) {
-                LOG.warn("Failed to close output stream for cached resource: {}", filePath_, e);
-            }
-
-            try {
-                Files.deleteIfExists(tempFilePath_);
-            } catch (final Exception e) {
-                LOG.warn("Failed to delete partial cache file: {}", tempFilePath_, e);
-            }
-        }
-
+        return cacheKeys_.getUnchecked(resourcePath);
     }
 
 }
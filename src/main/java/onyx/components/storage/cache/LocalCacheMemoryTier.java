@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.math.IntMath;
+import com.google.common.primitives.Ints;
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import onyx.components.config.cache.LocalCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static onyx.util.FileUtils.humanReadableByteCountBin;
+
+/**
+ * An optional in-memory tier in front of the local cache directory. It holds copies of
+ * small, hot cached files off-heap, so they can be served without any filesystem calls
+ * and without churning the heap.
+ *
+ * Memory is carved out of direct {@link ByteBuffer} slabs of a fixed size, allocated on
+ * demand up to the configured budget. Each slab is split into chunks of a single size
+ * class (powers of two, from {@link #MIN_CHUNK_SIZE} up to the largest file admitted), and
+ * a file is held in one chunk of the smallest class it fits in. Once the budget is spent,
+ * room for a file is made by evicting the least recently served file of its size class,
+ * unless the least recently served memory belongs to another class: then that whole slab
+ * is emptied and reassigned, so memory follows demand across size classes over time.
+ * Files that are being served are pinned and never evicted.
+ *
+ * Only files served at least the configured number of times recently are loaded into
+ * memory; hits are counted in a {@link FrequencySketch}, so one-off downloads never push
+ * hot files out.
+ *
+ * Each copy matches its file in the cache directory as of the file's last modified time.
+ * A copy that no longer matches the {@link LocalCacheIndex} is dropped and loaded again.
+ */
+@Component
+public final class LocalCacheMemoryTier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCacheMemoryTier.class);
+
+    private static final int MIN_CHUNK_SIZE = 4 * 1024;
+
+    private final LocalCacheIndex localCacheIndex_;
+
+    private final boolean enabled_;
+    private final int maxFileSize_;
+    private final int slabSize_;
+    private final long maxSlabs_;
+    private final int minHits_;
+
+    /**
+     * Recent hits on candidate files, by cache key, whether they're held in memory or not.
+     */
+    private final FrequencySketch hits_;
+
+    /**
+     * Size classes, by ascending chunk size.
+     */
+    private final List<SizeClass> sizeClasses_;
+
+    /**
+     * Files held in memory, by cache key, in access order from least to most recently
+     * served. Guarded by {@code this}, as are the size classes and the slabs.
+     */
+    private final LinkedHashMap<String, Entry> entries_;
+    private final List<Slab> slabs_;
+
+    @Injectable
+    public LocalCacheMemoryTier(
+            final LocalCacheConfig localCacheConfig,
+            final LocalCacheIndex localCacheIndex) {
+        localCacheIndex_ = localCacheIndex;
+        enabled_ = localCacheConfig.localCacheMemoryTierEnabled();
+        maxFileSize_ = Ints.checkedCast(localCacheConfig.getLocalCacheMemoryTierMaxFileSize());
+        checkArgument(maxFileSize_ > 0, "Memory tier max file size must be > 0.");
+        minHits_ = localCacheConfig.getLocalCacheMemoryTierMinHits();
+
+        // Every slab must hold at least one chunk of the largest size class.
+        final int largestChunkSize = Math.max(MIN_CHUNK_SIZE, IntMath.ceilingPowerOfTwo(maxFileSize_));
+        slabSize_ = Math.max(Ints.checkedCast(localCacheConfig.getLocalCacheMemoryTierSlabSize()),
+                largestChunkSize);
+        final long maxBytes = localCacheConfig.getLocalCacheMemoryTierMaxBytes();
+        maxSlabs_ = maxBytes / slabSize_;
+
+        // Track (at least) as many files as would fit in memory at the smallest size class;
+        // aging every ten increments per expected entry, as suggested by TinyLFU.
+        final int sketchSize = Math.max(1, Ints.saturatedCast(maxBytes / MIN_CHUNK_SIZE));
+        hits_ = new FrequencySketch(sketchSize, Ints.saturatedCast(sketchSize * 10L));
+
+        sizeClasses_ = new ArrayList<>();
+        for (int chunkSize = MIN_CHUNK_SIZE; chunkSize <= largestChunkSize; chunkSize <<= 1) {
+            sizeClasses_.add(new SizeClass(chunkSize));
+        }
+
+        entries_ = new LinkedHashMap<>(16, 0.75f, true);
+        slabs_ = new ArrayList<>();
+
+        if (enabled_) {
+            LOG.info("Local cache memory tier enabled: files up to {} in up to {} slabs of {}.",
+                    humanReadableByteCountBin(maxFileSize_), maxSlabs_, humanReadableByteCountBin(slabSize_));
+        }
+    }
+
+    /**
+     * Returns true if the given cached file is small enough to be held in memory.
+     */
+    public boolean isCandidate(
+            final LocalCacheIndex.CachedFile cachedFile) {
+        checkNotNull(cachedFile, "Cached file cannot be null.");
+
+        return enabled_ && maxSlabs_ > 0L && cachedFile.getSize() <= maxFileSize_;
+    }
+
+    /**
+     * Returns the content of the given cached file, from memory, pinned until the returned
+     * handle is closed. If the file is not in memory yet, and has been served often enough
+     * recently, it is first loaded from the cache directory. Returns {@code null} if the file
+     * is not a candidate, not hot enough yet, or could not be loaded (e.g., no room could be
+     * made for it); the caller serves it from disk instead.
+     */
+    @Nullable
+    public CachedContent acquire(
+            final LocalCacheIndex.CachedFile cachedFile) {
+        checkNotNull(cachedFile, "Cached file cannot be null.");
+
+        if (!isCandidate(cachedFile)) {
+            return null;
+        }
+
+        final String cacheKey = cachedFile.getCacheKey();
+        hits_.increment(cacheKey);
+
+        synchronized (this) {
+            final Entry entry = entries_.get(cacheKey);
+            if (entry != null) {
+                if (entry.matches(cachedFile)) {
+                    return pin(entry);
+                }
+
+                // A stale copy of a file that was since downloaded again.
+                removeEntry(cacheKey);
+            }
+        }
+
+        if (hits_.frequency(cacheKey) < minHits_) {
+            return null;
+        }
+
+        return load(cachedFile);
+    }
+
+    /**
+     * Drops the copy of the cached file with the given key, if any. Its memory is reclaimed
+     * once it is no longer being served.
+     */
+    public synchronized void invalidate(
+            final String cacheKey) {
+        checkNotNull(cacheKey, "Cache key cannot be null.");
+
+        removeEntry(cacheKey);
+    }
+
+    @Nullable
+    private CachedContent load(
+            final LocalCacheIndex.CachedFile cachedFile) {
+        final String cacheKey = cachedFile.getCacheKey();
+        final int length = Ints.checkedCast(cachedFile.getSize());
+        final SizeClass sizeClass = getSizeClass(length);
+
+        final Chunk chunk;
+        synchronized (this) {
+            chunk = allocate(sizeClass);
+        }
+        if (chunk == null) {
+            LOG.debug("No room in memory tier for cached file: {} ({} bytes)", cacheKey, length);
+            return null;
+        }
+
+        // Read the file into its chunk outside of the lock; the chunk is not visible to
+        // anyone else until it is indexed below, and its slab is pinned until then.
+        final Path file = localCacheIndex_.resolve(cacheKey);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer target = chunk.buffer_.duplicate().clear().limit(length);
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new IOException("Cached file shorter than expected: " + channel.size());
+                }
+            }
+        } catch (final Exception e) {
+            LOG.debug("Failed to load cached file into memory tier: {}", file, e);
+            synchronized (this) {
+                chunk.slab_.pins_--;
+                sizeClass.freeChunks_.push(chunk);
+            }
+            return null;
+        }
+
+        synchronized (this) {
+            chunk.slab_.pins_--;
+
+            final Entry existing = entries_.get(cacheKey);
+            if (existing != null && existing.matches(cachedFile)) {
+                // Loaded concurrently by another request; keep theirs.
+                sizeClass.freeChunks_.push(chunk);
+                return pin(existing);
+            }
+            removeEntry(cacheKey);
+
+            final Entry entry = new Entry(cacheKey, sizeClass, chunk, length, cachedFile.getLastModified());
+            entries_.put(cacheKey, entry);
+            chunk.slab_.entries_++;
+            return pin(entry);
+        }
+    }
+
+    private SizeClass getSizeClass(
+            final int length) {
+        for (final SizeClass sizeClass : sizeClasses_) {
+            if (length <= sizeClass.chunkSize_) {
+                return sizeClass;
+            }
+        }
+
+        throw new IllegalArgumentException("No size class for file of length: " + length);
+    }
+
+    /**
+     * Takes a free chunk of the given size class, carving a new slab into chunks if the
+     * budget allows, or else making room (see {@link #makeRoom}). The slab of the chunk is
+     * pinned, so it can't be reassigned while the chunk is being loaded. Returns {@code null}
+     * if no room could be made. Guarded by {@code this}.
+     */
+    @Nullable
+    private Chunk allocate(
+            final SizeClass sizeClass) {
+        if (sizeClass.freeChunks_.isEmpty() && slabs_.size() < maxSlabs_) {
+            final Slab slab = new Slab(ByteBuffer.allocateDirect(slabSize_));
+            slabs_.add(slab);
+            carve(slab, sizeClass);
+        }
+
+        if (sizeClass.freeChunks_.isEmpty()) {
+            makeRoom(sizeClass);
+        }
+
+        final Chunk chunk = sizeClass.freeChunks_.poll();
+        if (chunk != null) {
+            chunk.slab_.pins_++;
+        }
+        return chunk;
+    }
+
+    /**
+     * Frees at least one chunk of the given size class, once the budget is spent. An empty
+     * slab of another class is reassigned as is. Otherwise, the unpinned files held in memory
+     * are walked from least to most recently served: the first one of the given class is
+     * evicted, unless a file of another class comes first whose slab isn't pinned, in which
+     * case every file on that slab is evicted and the slab is reassigned to the given class.
+     * Frees nothing if every candidate is pinned. Guarded by {@code this}.
+     */
+    private void makeRoom(
+            final SizeClass sizeClass) {
+        for (final Slab slab : slabs_) {
+            if (slab.sizeClass_ != sizeClass && slab.entries_ == 0 && slab.pins_ == 0) {
+                reassign(slab, sizeClass);
+                return;
+            }
+        }
+
+        for (final Entry entry : entries_.values()) {
+            if (entry.pins_ > 0) {
+                continue;
+            }
+
+            if (entry.sizeClass_ == sizeClass) {
+                removeEntry(entry.cacheKey_);
+                return;
+            }
+
+            final Slab slab = entry.chunk_.slab_;
+            if (slab.pins_ == 0) {
+                reassign(slab, sizeClass);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evicts every file on the given unpinned slab, and carves it into chunks of the given
+     * size class instead. Guarded by {@code this}.
+     */
+    private void reassign(
+            final Slab slab,
+            final SizeClass sizeClass) {
+        final SizeClass previous = slab.sizeClass_;
+
+        final List<String> evicted = entries_.values().stream()
+                .filter(entry -> entry.chunk_.slab_ == slab)
+                .map(entry -> entry.cacheKey_)
+                .toList();
+        evicted.forEach(this::removeEntry);
+        previous.freeChunks_.removeIf(chunk -> chunk.slab_ == slab);
+
+        carve(slab, sizeClass);
+        LOG.debug("Reassigned memory tier slab from size class {} to {}, evicting {} files.",
+                previous.chunkSize_, sizeClass.chunkSize_, evicted.size());
+    }
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private void carve(
+            final Slab slab,
+            final SizeClass sizeClass) {
+        slab.sizeClass_ = sizeClass;
+        for (int offset = 0; offset + sizeClass.chunkSize_ <= slabSize_; offset += sizeClass.chunkSize_) {
+            sizeClass.freeChunks_.push(new Chunk(slab, slab.buffer_.slice(offset, sizeClass.chunkSize_)));
+        }
+    }
+
+    /**
+     * Removes the entry with the given key, if any; its chunk is freed right away, or once
+     * its last pin is released. Guarded by {@code this}.
+     */
+    private void removeEntry(
+            final String cacheKey) {
+        final Entry entry = entries_.remove(cacheKey);
+        if (entry == null) {
+            return;
+        }
+
+        entry.removed_ = true;
+        entry.chunk_.slab_.entries_--;
+        if (entry.pins_ == 0) {
+            entry.sizeClass_.freeChunks_.push(entry.chunk_);
+        }
+    }
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private CachedContent pin(
+            final Entry entry) {
+        entry.pins_++;
+        entry.chunk_.slab_.pins_++;
+        return new CachedContent(entry);
+    }
+
+    /**
+     * The content of a file held in memory, pinned until closed. Closing the handle more
+     * than once has no further effect.
+     */
+    public final class CachedContent implements Closeable {
+
+        private final Entry entry_;
+        private final AtomicBoolean released_;
+
+        private CachedContent(
+                final Entry entry) {
+            entry_ = entry;
+            released_ = new AtomicBoolean(false);
+        }
+
+        /**
+         * A read-only view of the content of the file; valid until this handle is closed.
+         */
+        public ByteBuffer getContent() {
+            return entry_.chunk_.buffer_.asReadOnlyBuffer().clear().limit(entry_.length_);
+        }
+
+        @Override
+        public void close() {
+            if (released_.compareAndSet(false, true)) {
+                synchronized (LocalCacheMemoryTier.this) {
+                    entry_.pins_--;
+                    entry_.chunk_.slab_.pins_--;
+                    // A pinned slab is never reassigned, so the chunk is still of its class.
+                    if (entry_.pins_ == 0 && entry_.removed_) {
+                        entry_.sizeClass_.freeChunks_.push(entry_.chunk_);
+                    }
+                }
+            }
+        }
+
+    }
+
+    private static final class SizeClass {
+
+        private final int chunkSize_;
+        private final Deque<Chunk> freeChunks_;
+
+        private SizeClass(
+                final int chunkSize) {
+            chunkSize_ = chunkSize;
+            freeChunks_ = new ArrayDeque<>();
+        }
+
+    }
+
+    /**
+     * A slab of memory, carved into chunks of its current size class. Mutable state is
+     * guarded by the enclosing tier.
+     */
+    private static final class Slab {
+
+        private final ByteBuffer buffer_;
+
+        private SizeClass sizeClass_;
+
+        /**
+         * The number of files held on the slab, and of pins on its chunks, being loaded
+         * or served; a slab is only ever reassigned when it has no pins.
+         */
+        private int entries_;
+        private int pins_;
+
+        private Slab(
+                final ByteBuffer buffer) {
+            buffer_ = buffer;
+        }
+
+    }
+
+    private static final class Chunk {
+
+        private final Slab slab_;
+        private final ByteBuffer buffer_;
+
+        private Chunk(
+                final Slab slab,
+                final ByteBuffer buffer) {
+            slab_ = slab;
+            buffer_ = buffer;
+        }
+
+    }
+
+    /**
+     * A file held in memory. Mutable state is guarded by the enclosing tier.
+     */
+    private static final class Entry {
+
+        private final String cacheKey_;
+        private final SizeClass sizeClass_;
+        private final Chunk chunk_;
+        private final int length_;
+        private final Instant lastModified_;
+
+        private int pins_;
+        private boolean removed_;
+
+        private Entry(
+                final String cacheKey,
+                final SizeClass sizeClass,
+                final Chunk chunk,
+                final int length,
+                final Instant lastModified) {
+            cacheKey_ = cacheKey;
+            sizeClass_ = sizeClass;
+            chunk_ = chunk;
+            length_ = length;
+            lastModified_ = lastModified;
+        }
+
+        private boolean matches(
+                final LocalCacheIndex.CachedFile cachedFile) {
+            return length_ == cachedFile.getSize() && lastModified_.equals(cachedFile.getLastModified());
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.collect.ImmutableSet;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.CacheManager;
+import onyx.components.storage.ResourceManager;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static onyx.util.FileUtils.humanReadableByteCountBin;
+
+/**
+ * Walks the {@code favorite-index} of each home directory and prefetches every private
+ * favorite file whose cached file is not on disk into the local cache. Favorites are
+ * otherwise only cached lazily, so this brings a freshly provisioned box (or one whose
+ * cache directory was wiped) back to a warm cache without waiting on downloads.
+ *
+ * The favorites warmed-up, cached or prefetched, are capped at the budget of the
+ * {@link LocalCacheEvictor}: past it, each prefetch would only evict another favorite, to
+ * be prefetched all over again on the next run. Favorites that are already cached are
+ * marked as recently used, so that the evictor evicts other files before any of them.
+ */
+@DisallowConcurrentExecution
+public final class LocalCacheWarmUpJob implements Job {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCacheWarmUpJob.class);
+
+    private static final Set<Resource.Type> FILE_TYPES = ImmutableSet.of(Resource.Type.FILE);
+
+    @Override
+    public void execute(
+            final JobExecutionContext context) throws JobExecutionException {
+        final JobDataMap jobDataMap = context.getJobDetail().getJobDataMap();
+
+        final LocalCacheConfig localCacheConfig =
+                (LocalCacheConfig) jobDataMap.get(LocalCacheConfig.class.getSimpleName());
+        final ResourceManager resourceManager =
+                (ResourceManager) jobDataMap.get(ResourceManager.class.getSimpleName());
+        final CacheManager cacheManager =
+                (CacheManager) jobDataMap.get(CacheManager.class.getSimpleName());
+
+        final int parallelism = localCacheConfig.getLocalCacheWarmUpParallelism();
+
+        // Bounds the number of prefetches in flight at once; on top of the limits of the
+        // cache downloader itself (which also throttles the bytes pulled, as they stream in),
+        // so that a warm-up never starves on-demand downloads.
+        final Semaphore inFlight = new Semaphore(parallelism);
+
+        final long maxBytes = localCacheConfig.getLocalCacheEvictionMaxBytes();
+        final long maxEntries = localCacheConfig.getLocalCacheEvictionMaxEntries();
+        long warmedBytes = 0L;
+        long warmedEntries = 0L;
+
+        final AtomicInteger cached = new AtomicInteger();
+        final AtomicInteger prefetched = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger overBudget = new AtomicInteger();
+        final AtomicLong prefetchedBytes = new AtomicLong();
+
+        final long start = System.currentTimeMillis();
+        try {
+            for (final Resource homeDirectory : resourceManager.listHomeDirectories()) {
+                final List<Resource> favorites;
+                try {
+                    favorites = resourceManager.listFavorites(homeDirectory, FILE_TYPES);
+                } catch (final Exception e) {
+                    LOG.warn("Failed to list favorites to warm-up cache, skipping home directory: {}",
+                            homeDirectory.getPath(), e);
+                    continue;
+                }
+
+                for (final Resource favorite : favorites) {
+                    // Only private favorites are stored in the local cache.
+                    if (!Resource.Visibility.PRIVATE.equals(favorite.getVisibility())) {
+                        continue;
+                    }
+
+                    if (warmedBytes + favorite.getSize() > maxBytes || warmedEntries + 1L > maxEntries) {
+                        overBudget.incrementAndGet();
+                        continue;
+                    }
+                    warmedBytes += favorite.getSize();
+                    warmedEntries++;
+
+                    // Diff against what's on disk, not only against the index; the cache
+                    // directory may have been wiped underneath a running app.
+                    if (cacheManager.hasResourceInCache(favorite)
+                            && Files.exists(cacheManager.getCachedFileForResource(favorite))) {
+                        cacheManager.recordCacheHit(favorite.getPath());
+                        cached.incrementAndGet();
+                        continue;
+                    }
+
+                    inFlight.acquire();
+
+                    cacheManager.prefetchResourceToCache(favorite).whenComplete((downloaded, t) -> {
+                        inFlight.release();
+                        if (downloaded != null) {
+                            prefetched.incrementAndGet();
+                            prefetchedBytes.addAndGet(favorite.getSize());
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    });
+                }
+            }
+
+            // Wait for the last of the prefetches to land.
+            inFlight.acquire(parallelism);
+            inFlight.release(parallelism);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Interrupted while warming-up local cache.", e);
+        } catch (final Exception e) {
+            throw new JobExecutionException("Failed to warm-up local cache.", e);
+        }
+
+        final long end = System.currentTimeMillis();
+        final String duration = DurationFormatUtils.formatDurationHMS(end - start);
+        LOG.info("Successfully warmed-up local cache: prefetched {} favorites ({}), {} already cached, "
+                        + "{} not cached, {} over cache budget, in {}",
+                prefetched.get(),
+                humanReadableByteCountBin(prefetchedBytes.get()),
+                cached.get(),
+                failed.get(),
+                overBudget.get(),
+                duration);
+    }
+
+}
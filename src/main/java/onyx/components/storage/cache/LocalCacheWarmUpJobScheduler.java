@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import curacao.annotations.Component;
+import curacao.annotations.Injectable;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.quartz.QuartzSchedulerFactory;
+import onyx.components.storage.CacheManager;
+import onyx.components.storage.ResourceManager;
+import org.quartz.*;
+
+import static org.quartz.CronScheduleBuilder.cronSchedule;
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+@Component
+public final class LocalCacheWarmUpJobScheduler {
+
+    private final Scheduler quartzScheduler_;
+
+    @Injectable
+    public LocalCacheWarmUpJobScheduler(
+            final QuartzSchedulerFactory quartzSchedulerFactory,
+            final LocalCacheConfig localCacheConfig,
+            final ResourceManager resourceManager,
+            final CacheManager cacheManager) throws Exception {
+        quartzScheduler_ = quartzSchedulerFactory.getScheduler();
+
+        // Nothing to warm-up if the local cache is disabled.
+        if (!localCacheConfig.localCacheEnabled()) {
+            return;
+        }
+
+        final JobDataMap jobDataMap = new JobDataMap();
+        jobDataMap.put(LocalCacheConfig.class.getSimpleName(), localCacheConfig);
+        jobDataMap.put(ResourceManager.class.getSimpleName(), resourceManager);
+        jobDataMap.put(CacheManager.class.getSimpleName(), cacheManager);
+
+        final JobDetail job = newJob(LocalCacheWarmUpJob.class)
+                .withIdentity(LocalCacheWarmUpJob.class.getSimpleName())
+                .storeDurably()
+                .setJobData(jobDataMap)
+                .build();
+
+        // Runs on schedule to catch a cache directory that was wiped (or lost) while the
+        // app is running; cheap when the cache is warm, as nothing is downloaded.
+        final boolean warmUpRunOnSchedule = localCacheConfig.getLocalCacheWarmUpRunOnSchedule();
+        if (warmUpRunOnSchedule) {
+            final Trigger trigger = newTrigger()
+                    .withSchedule(cronSchedule(localCacheConfig.getLocalCacheWarmUpRunCronExpression()))
+                    .build();
+
+            quartzScheduler_.scheduleJob(job, trigger);
+        }
+
+        final boolean warmUpRunOnAppStartup = localCacheConfig.getLocalCacheWarmUpRunOnAppStartup();
+        if (warmUpRunOnAppStartup) {
+            quartzScheduler_.addJob(job, true);
+            quartzScheduler_.triggerJob(JobKey.jobKey(LocalCacheWarmUpJob.class.getSimpleName())); // Fire now!
+        }
+    }
+
+}
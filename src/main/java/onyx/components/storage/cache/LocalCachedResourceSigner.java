@@ -27,6 +27,8 @@
 package onyx.components.storage.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import curacao.annotations.Component;
 import curacao.annotations.Injectable;
 import onyx.components.OnyxJacksonObjectMapper;
@@ -45,16 +47,29 @@ public final class LocalCachedResourceSigner implements CachedResourceSigner {
 
     private static final Logger LOG = LoggerFactory.getLogger(LocalCachedResourceSigner.class);
 
+    private static final long VERIFIED_TOKENS_MAX_SIZE = 10000L;
+
     private final StringSigner stringSigner_;
 
     private final ObjectMapper objectMapper_;
 
+    /**
+     * Tokens whose signature has already been verified, by signed token string. A signed
+     * cache URL is typically requested over and over within its validity window (e.g., a
+     * video player issuing range requests as the user scrubs), and there's no need to
+     * verify its signature again every time. Expiry is still checked on every use.
+     */
+    private final Cache<String, CachedResourceToken> verifiedTokens_;
+
     @Injectable
     public LocalCachedResourceSigner(
             final StringSigner stringSigner,
             final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
         stringSigner_ = stringSigner;
         objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
+        verifiedTokens_ = CacheBuilder.newBuilder()
+                .maximumSize(VERIFIED_TOKENS_MAX_SIZE)
+                .build();
     }
 
     @Nullable
@@ -78,6 +93,17 @@ public final class LocalCachedResourceSigner implements CachedResourceSigner {
             final String signedToken) {
         checkNotNull(signedToken, "Signed cached resource token string cannot be null.");
 
+        final CachedResourceToken verified = verifiedTokens_.getIfPresent(signedToken);
+        if (verified != null) {
+            if (Instant.now().isAfter(verified.getExpiry())) {
+                LOG.debug("Cached resource token expired: {}", verified.getPath());
+                verifiedTokens_.invalidate(signedToken);
+                return null;
+            }
+
+            return verified;
+        }
+
         try {
             final String tokenString = stringSigner_.verifyAndGet(signedToken);
             if (tokenString == null) {
@@ -94,6 +120,8 @@ public final class LocalCachedResourceSigner implements CachedResourceSigner {
                 return null;
             }
 
+            verifiedTokens_.put(signedToken, cachedResource);
+
             return cachedResource;
         } catch (final Exception e) {
             LOG.warn("Failed to get cached resource from signed token: {}", signedToken, e);
@@ -32,7 +32,9 @@ import onyx.components.storage.ResourceManager;
 import onyx.components.storage.filter.ResourceFilter;
 import onyx.entities.authentication.Session;
 import onyx.entities.freemarker.DirectoryListing;
+import onyx.entities.storage.ResourcePage;
 import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.resource.ResourceNotFoundException;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -55,22 +57,32 @@ public abstract class AbstractOnyxResourceFilterAwareController extends Abstract
 
     protected DirectoryListing listDirectory(
             final Resource directory,
+            @Nullable final String cursor,
             @Nullable final Session session) {
         checkNotNull(directory, "Directory resource cannot be null.");
 
         final Set<Resource.Visibility> visibility =
                 getVisibilityForResourceAndSession(directory, session);
 
-        final List<Resource> listing = resourceManager_.listDirectory(
-                directory,
-                visibility,
-                null);
+        final ResourcePage page;
+        try {
+            page = resourceManager_.listDirectory(
+                    directory,
+                    visibility,
+                    ResourceManager.DEFAULT_LISTING_PAGE_LIMIT,
+                    cursor);
+        } catch (final IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Found no directory listing page at cursor: "
+                    + cursor);
+        }
 
-        final List<Resource> filtered = listing.stream()
+        final List<Resource> filtered = page.getResources().stream()
                 .filter(resourceFilter_)
                 .collect(ImmutableList.toImmutableList());
 
-        return new DirectoryListing.Builder(filtered).build();
+        return new DirectoryListing.Builder(filtered)
+                .setCursor(page.getCursor())
+                .build();
     }
 
 }
@@ -30,6 +30,7 @@ import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
 import curacao.annotations.parameters.Path;
+import curacao.annotations.parameters.Query;
 import onyx.components.config.OnyxConfig;
 import onyx.components.storage.ResourceManager;
 import onyx.components.storage.filter.ResourceFilter;
@@ -60,14 +61,16 @@ public final class Browse extends AbstractOnyxResourceFilterAwareController {
     @RequestMapping(value = "^/browse/(?<username>[a-zA-Z0-9]+)$")
     public FreeMarkerContent browseUserHomeDirectory(
             @Path("username") final String username,
+            @Query("cursor") final String cursor,
             final Session session) {
-        return browseDirectory(username, ResourceManager.ROOT_PATH, session);
+        return browseDirectory(username, ResourceManager.ROOT_PATH, cursor, session);
     }
 
     @RequestMapping(value = "^/browse/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$")
     public FreeMarkerContent browseDirectory(
             @Path("username") final String username,
             @Path("path") final String path,
+            @Query("cursor") final String cursor,
             final Session session) {
         final String normalizedPath = normalizePath(username, path);
 
@@ -95,7 +98,7 @@ public final class Browse extends AbstractOnyxResourceFilterAwareController {
             }
         }
 
-        final DirectoryListing listing = listDirectory(resource, session);
+        final DirectoryListing listing = listDirectory(resource, cursor, session);
 
         final boolean userIsOwner = userIsOwner(resource, session);
 
@@ -109,6 +112,8 @@ public final class Browse extends AbstractOnyxResourceFilterAwareController {
                 .withAttr("allChildren", listing.getAll())
                 .withAttr("directoryCount", listing.getDirectoryCount())
                 .withAttr("fileCount", listing.getFileCount())
+                .withAttr("cursor", cursor)
+                .withAttr("nextCursor", listing.getCursor())
                 .withAttr("totalFileDisplaySize", humanReadableByteCountBin(resource.getSize()))
                 .withAttr("userIsOwner", userIsOwner)
                 .build();
@@ -31,6 +31,7 @@ import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
 import curacao.annotations.parameters.Path;
+import curacao.annotations.parameters.Query;
 import curacao.util.http.ContentTypes;
 import onyx.components.config.OnyxConfig;
 import onyx.components.config.cache.LocalCacheConfig;
@@ -75,14 +76,16 @@ public final class Details extends AbstractOnyxResourceFilterAwareController {
     @RequestMapping(value = "^/details/(?<username>[a-zA-Z0-9]+)$")
     public FreeMarkerContent resourceDetailsHomeDirectory(
             @Path("username") final String username,
+            @Query("cursor") final String cursor,
             final Session session) {
-        return resourceDetails(username, ResourceManager.ROOT_PATH, session);
+        return resourceDetails(username, ResourceManager.ROOT_PATH, cursor, session);
     }
 
     @RequestMapping(value = "^/details/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$")
     public FreeMarkerContent resourceDetails(
             @Path("username") final String username,
             @Path("path") final String path,
+            @Query("cursor") final String cursor,
             final Session session) {
         final String normalizedPath = normalizePath(username, path);
 
@@ -113,7 +116,7 @@ public final class Details extends AbstractOnyxResourceFilterAwareController {
         // Only directories have children; any other resource explicitly have none.
         final DirectoryListing listing;
         if (Resource.Type.DIRECTORY.equals(resource.getType())) {
-            listing = listDirectory(resource, session);
+            listing = listDirectory(resource, cursor, session);
         } else {
             listing = DirectoryListing.of();
         }
@@ -135,6 +138,8 @@ public final class Details extends AbstractOnyxResourceFilterAwareController {
                 .withAttr("allChildren", listing.getAll())
                 .withAttr("directoryCount", listing.getDirectoryCount())
                 .withAttr("fileCount", listing.getFileCount())
+                .withAttr("cursor", cursor)
+                .withAttr("nextCursor", listing.getCursor())
                 .withAttr("totalFileDisplaySize", humanReadableByteCountBin(resource.getSize()))
                 .withAttr("contentType", contentType)
                 .withAttr("hasResourceInCache", hasResourceInCache)
@@ -26,14 +26,115 @@
 
 package onyx.controllers.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import curacao.core.servlet.AsyncContext;
+import curacao.core.servlet.HttpResponse;
 import onyx.components.config.OnyxConfig;
 import onyx.controllers.AbstractOnyxController;
+import onyx.entities.api.response.v1.ApiErrorResponse;
+import onyx.exceptions.api.OnyxApiException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static curacao.core.servlet.HttpStatus.SC_BAD_GATEWAY;
+import static curacao.core.servlet.HttpStatus.SC_INTERNAL_SERVER_ERROR;
 
 public abstract class AbstractOnyxApiController extends AbstractOnyxController {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractOnyxApiController.class);
+
     protected AbstractOnyxApiController(
             final OnyxConfig onyxConfig) {
         super(onyxConfig);
     }
 
+    /**
+     * Renders the response once the given future completes, and then completes the async
+     * context, without ever blocking the calling thread. Any exception thrown by the future
+     * or by the responder is rendered as an {@link ApiErrorResponse}, the same way a
+     * synchronous controller's exception would be.
+     */
+    protected final <T> void completeAsync(
+            final CompletableFuture<T> future,
+            final ObjectMapper objectMapper,
+            final HttpResponse response,
+            final AsyncContext context,
+            final AsyncResponder<T> responder) {
+        future.whenComplete((value, t) -> {
+            try {
+                if (t != null) {
+                    renderException(objectMapper, response, unwrap(t));
+                } else {
+                    responder.respond(value);
+                }
+            } catch (final Exception e) {
+                renderException(objectMapper, response, e);
+            } finally {
+                context.complete();
+            }
+        });
+    }
+
+    private void renderException(
+            final ObjectMapper objectMapper,
+            final HttpResponse response,
+            final Throwable t) {
+        final int statusCode;
+        if (t instanceof OnyxApiException e) {
+            statusCode = e.getEntity().getStatus();
+        } else if (t instanceof AwsServiceException) {
+            LOG.warn("AWS service request failed while completing async request.", t);
+            statusCode = SC_BAD_GATEWAY;
+        } else {
+            LOG.error("Failed to complete async request.", t);
+            statusCode = SC_INTERNAL_SERVER_ERROR;
+        }
+
+        final String message = StringUtils.defaultIfBlank(t.getMessage(), null);
+        final String stackTrace = (onyxConfig_.isDevMode())
+                ? ExceptionUtils.getStackTrace(t) : null;
+
+        final ApiErrorResponse errorResponse = new ApiErrorResponse.Builder(objectMapper)
+                .setStatusCode(statusCode)
+                .setMessage(message)
+                .setStackTrace(stackTrace)
+                .build();
+
+        try {
+            response.setStatus(errorResponse.getStatus());
+            response.setContentType(errorResponse.getContentType());
+            errorResponse.write(response.getOutputStream());
+        } catch (final Exception e) {
+            LOG.warn("Failed to render error response of async request.", e);
+        }
+    }
+
+    private static Throwable unwrap(
+            final Throwable t) {
+        if ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            return unwrap(t.getCause());
+        }
+
+        return t;
+    }
+
+    /**
+     * Renders the successful outcome of an async request; may throw any exception,
+     * including an {@link OnyxApiException}, to render an error instead.
+     */
+    @FunctionalInterface
+    protected interface AsyncResponder<T> {
+
+        void respond(
+                final T value) throws Exception;
+
+    }
+
 }
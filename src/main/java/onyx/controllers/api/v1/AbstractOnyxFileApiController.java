@@ -26,6 +26,8 @@
 
 package onyx.controllers.api.v1;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import onyx.components.config.OnyxConfig;
 import onyx.components.config.cache.LocalCacheConfig;
 import onyx.components.storage.AssetManager;
@@ -48,9 +50,14 @@ import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static onyx.util.PathUtils.splitNormalizedPathToElements;
 import static onyx.util.UserUtils.userIsNotOwner;
@@ -107,7 +114,40 @@ public abstract class AbstractOnyxFileApiController extends AbstractOnyxApiContr
     protected void checkAndHandleExistingFile(
             final String normalizedPath,
             final Boolean overwrite) {
-        final Resource file = resourceManager_.getResourceAtPath(normalizedPath);
+        handleExistingFile(normalizedPath, resourceManager_.getResourceAtPath(normalizedPath), overwrite);
+    }
+
+    /**
+     * The batch counterpart of {@link #checkAndHandleExistingFile}, minus the delete: every path
+     * is checked with one batch read. If overwrite is false, any one conflicting path fails the
+     * whole batch. Otherwise, returns the existing resources, keyed by path, for the caller to
+     * hand to {@link #overwriteExistingFiles} once the rest of its batch has been validated.
+     */
+    protected Map<String, Resource> checkExistingFiles(
+            final Collection<String> normalizedPaths,
+            final Boolean overwrite) {
+        final Map<String, Resource> existing = resourceManager_.getResourcesAtPaths(normalizedPaths);
+        if (!existing.isEmpty() && !BooleanUtils.isTrue(overwrite)) {
+            throw new ApiConflictException("File or other resource at path already exists: "
+                    + existing.keySet().iterator().next());
+        }
+
+        return existing;
+    }
+
+    /**
+     * Deletes the given existing resources (and their backing S3 objects) to make way for
+     * new uploads at the same paths; see {@link #checkExistingFiles}.
+     */
+    protected void overwriteExistingFiles(
+            final Collection<Resource> existing) {
+        existing.forEach(file -> handleExistingFile(file.getPath(), file, true));
+    }
+
+    private void handleExistingFile(
+            final String normalizedPath,
+            @Nullable final Resource file,
+            final Boolean overwrite) {
         if (file != null && BooleanUtils.isTrue(overwrite)) {
             LOG.debug("Overwrite is true - skipping existing resource check: {}",
                     file.getPath());
@@ -128,36 +168,88 @@ public abstract class AbstractOnyxFileApiController extends AbstractOnyxApiContr
      * Recursively creates any missing parent directories along the given parent path. Directories
      * that already exist are left untouched. Throws a 400 if a path element exists but is not a
      * directory. Callers are responsible for only invoking this when recursive creation is desired.
+     * All path elements are resolved in one batch read, and all missing directories are created
+     * in one batch write, only after every element has been validated.
      */
     protected void createParentDirectoriesIfNeeded(
             final String parentPath,
             final UploadFileRequest request,
             final Session session) {
-        final List<Triple<String, String, String>> elements =
-                splitNormalizedPathToElements(parentPath);
+        createParentDirectoriesIfNeeded(ImmutableMap.of(parentPath, request.getVisibility()), session);
+    }
+
+    /**
+     * The multi-path counterpart of {@link #createParentDirectoriesIfNeeded(String, UploadFileRequest,
+     * Session)}: missing directories along every one of the given parent paths are created with
+     * the visibility mapped to the first parent path that passes through them. Elements shared
+     * between paths are resolved and created once. Returns every directory along the given
+     * paths, existing or newly created, keyed by path.
+     */
+    protected Map<String, Resource> createParentDirectoriesIfNeeded(
+            final Map<String, Resource.Visibility> parentPaths,
+            final Session session) {
+        final ParentDirectories parentDirectories = resolveParentDirectories(parentPaths, session);
+
+        final List<Resource> toCreate = parentDirectories.getNewDirectories();
+        if (!toCreate.isEmpty()) {
+            resourceManager_.createResources(toCreate);
+        }
+
+        return parentDirectories.getDirectories();
+    }
+
+    /**
+     * Resolves, and validates, every directory along the given parent paths exactly like
+     * {@link #createParentDirectoriesIfNeeded(Map, Session)}, but without writing anything:
+     * the missing directories are returned alongside, for the caller to create.
+     */
+    protected ParentDirectories resolveParentDirectories(
+            final Map<String, Resource.Visibility> parentPaths,
+            final Session session) {
+        // Keyed by element path; each path's elements are top-down, so parents always
+        // precede their children in iteration order.
+        final Map<String, Triple<String, String, String>> elements = new LinkedHashMap<>();
+        final Map<String, Resource.Visibility> elementVisibilities = new HashMap<>();
+        final Map<String, String> elementParentPaths = new HashMap<>();
+        parentPaths.forEach((parentPath, visibility) -> {
+            for (final Triple<String, String, String> element : splitNormalizedPathToElements(parentPath)) {
+                final String elementPath = element.getMiddle();
+                if (elements.putIfAbsent(elementPath, element) == null) {
+                    elementVisibilities.put(elementPath, visibility);
+                    elementParentPaths.put(elementPath, parentPath);
+                }
+            }
+        });
+
+        final Map<String, Resource> directories =
+                new HashMap<>(resourceManager_.getResourcesAtPaths(elements.keySet()));
 
-        for (final Triple<String, String, String> element : elements) {
+        final ImmutableList.Builder<Resource> newDirectories = ImmutableList.builder();
+        for (final Triple<String, String, String> element : elements.values()) {
             final String elementParentPath = element.getLeft();
             final String elementPath = element.getMiddle();
 
-            final Resource elementParent = resourceManager_.getResourceAtPath(elementPath);
+            final Resource elementParent = directories.get(elementPath);
             if (elementParent == null) {
                 final Resource newDirectory = new Resource.Builder()
                         .setPath(elementPath)
                         .setParent(elementParentPath)
                         .setDescription(StringUtils.EMPTY) // intentional
                         .setType(Resource.Type.DIRECTORY)
-                        .setVisibility(request.getVisibility())
+                        .setVisibility(elementVisibilities.get(elementPath))
                         .setOwner(session.getUsername())
                         .setCreatedAt(Instant.now()) // now
                         .build();
 
-                resourceManager_.createResource(newDirectory);
+                newDirectories.add(newDirectory);
+                directories.put(elementPath, newDirectory);
             } else if (!Resource.Type.DIRECTORY.equals(elementParent.getType())) {
                 throw new ApiBadRequestException("Found no parent directory resource at path: "
-                        + parentPath);
+                        + elementParentPaths.get(elementPath));
             }
         }
+
+        return new ParentDirectories(directories, newDirectories.build());
     }
 
     /**
@@ -167,7 +259,17 @@ public abstract class AbstractOnyxFileApiController extends AbstractOnyxApiContr
     protected Resource validateAndGetParentDirectory(
             final String parentPath,
             final Session session) {
-        final Resource parent = resourceManager_.getResourceAtPath(parentPath);
+        return validateParentDirectory(parentPath, resourceManager_.getResourceAtPath(parentPath), session);
+    }
+
+    /**
+     * Validates that the given, already resolved, parent directory exists, is a directory, and
+     * is owned by the authenticated user. Returns the parent {@link Resource} on success.
+     */
+    protected Resource validateParentDirectory(
+            final String parentPath,
+            @Nullable final Resource parent,
+            final Session session) {
         if (parent == null) {
             throw new ApiNotFoundException("No parent directory resource at path: "
                     + parentPath);
@@ -207,4 +309,30 @@ public abstract class AbstractOnyxFileApiController extends AbstractOnyxApiContr
                 .build();
     }
 
+    /**
+     * Every directory along a set of parent paths, keyed by path, and which of them are
+     * missing and yet to be created.
+     */
+    protected static final class ParentDirectories {
+
+        private final Map<String, Resource> directories_;
+        private final List<Resource> newDirectories_;
+
+        private ParentDirectories(
+                final Map<String, Resource> directories,
+                final List<Resource> newDirectories) {
+            directories_ = directories;
+            newDirectories_ = newDirectories;
+        }
+
+        public Map<String, Resource> getDirectories() {
+            return directories_;
+        }
+
+        public List<Resource> getNewDirectories() {
+            return newDirectories_;
+        }
+
+    }
+
 }
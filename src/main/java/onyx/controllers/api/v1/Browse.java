@@ -32,6 +32,7 @@ import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
 import curacao.annotations.parameters.Path;
+import curacao.annotations.parameters.Query;
 import onyx.components.OnyxJacksonObjectMapper;
 import onyx.components.config.OnyxConfig;
 import onyx.components.storage.ResourceManager;
@@ -40,7 +41,9 @@ import onyx.entities.api.response.v1.BrowseResponse;
 import onyx.entities.api.response.v1.HomeResponse;
 import onyx.entities.api.response.v1.ResourceResponse;
 import onyx.entities.authentication.Session;
+import onyx.entities.storage.ResourcePage;
 import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.api.ApiBadRequestException;
 import onyx.exceptions.api.ApiForbiddenException;
 import onyx.exceptions.api.ApiNotFoundException;
 
@@ -89,8 +92,10 @@ public final class Browse extends AbstractOnyxApiController {
             methods = GET)
     public BrowseResponse browseUserHomeDirectory(
             @Path("username") final String username,
+            @Query("limit") final Integer limit,
+            @Query("cursor") final String cursor,
             final Session session) {
-        return browseDirectory(username, ResourceManager.ROOT_PATH, session);
+        return browseDirectory(username, ResourceManager.ROOT_PATH, limit, cursor, session);
     }
 
     @RequestMapping(value = "^/api/v1/browse/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$",
@@ -98,6 +103,8 @@ public final class Browse extends AbstractOnyxApiController {
     public BrowseResponse browseDirectory(
             @Path("username") final String username,
             @Path("path") final String path,
+            @Query("limit") final Integer limit,
+            @Query("cursor") final String cursor,
             final Session session) {
         final String normalizedPath = normalizePath(username, path);
 
@@ -125,16 +132,28 @@ public final class Browse extends AbstractOnyxApiController {
         final Set<Resource.Visibility> visibility =
                 getVisibilityForResourceAndSession(resource, session);
 
-        final List<Resource> listing = resourceManager_.listDirectory(
-                resource,
-                visibility,
-                null);
-        final List<ResourceResponse> children = listing.stream()
+        if (limit != null && limit <= 0) {
+            throw new ApiBadRequestException("Invalid listing limit: " + limit);
+        }
+
+        final ResourcePage page;
+        try {
+            page = resourceManager_.listDirectory(
+                    resource,
+                    visibility,
+                    (limit != null) ? limit : ResourceManager.DEFAULT_LISTING_PAGE_LIMIT,
+                    cursor);
+        } catch (final IllegalArgumentException e) {
+            throw new ApiBadRequestException("Invalid listing cursor: " + cursor, e);
+        }
+
+        final List<ResourceResponse> children = page.getResources().stream()
                 .map(c -> ResourceResponse.Builder.fromResource(objectMapper_, c, session).build())
                 .collect(ImmutableList.toImmutableList());
 
         return BrowseResponse.Builder.fromResource(objectMapper_, resource, session)
                 .setChildren(children)
+                .setCursor(page.getCursor())
                 .build();
     }
 
@@ -27,6 +27,7 @@
 package onyx.controllers.api.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
@@ -36,6 +37,7 @@ import curacao.annotations.parameters.RequestBody;
 import onyx.components.OnyxJacksonObjectMapper;
 import onyx.components.config.OnyxConfig;
 import onyx.components.storage.AssetManager;
+import onyx.components.storage.CacheManager;
 import onyx.components.storage.ResourceManager;
 import onyx.controllers.api.AbstractOnyxApiController;
 import onyx.entities.api.request.v1.CreateDirectoryRequest;
@@ -51,6 +53,7 @@ import org.apache.commons.lang3.tuple.Triple;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static curacao.annotations.RequestMapping.Method.DELETE;
 import static curacao.annotations.RequestMapping.Method.GET;
@@ -65,6 +68,7 @@ public final class Directory extends AbstractOnyxApiController {
 
     private final AssetManager assetManager_;
     private final ResourceManager resourceManager_;
+    private final CacheManager cacheManager_;
 
     private final ObjectMapper objectMapper_;
 
@@ -73,10 +77,12 @@ public final class Directory extends AbstractOnyxApiController {
             final OnyxConfig onyxConfig,
             final AssetManager assetManager,
             final ResourceManager resourceManager,
+            final CacheManager cacheManager,
             final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
         super(onyxConfig);
         assetManager_ = assetManager;
         resourceManager_ = resourceManager;
+        cacheManager_ = cacheManager;
         objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
     }
 
@@ -141,11 +147,18 @@ public final class Directory extends AbstractOnyxApiController {
             final List<Triple<String, String, String>> elements =
                     splitNormalizedPathToElements(parentPath);
 
+            // Resolve every path element in one batch read, and create all of the missing
+            // directories in one batch write once every element has been validated.
+            final Map<String, Resource> existing = resourceManager_.getResourcesAtPaths(elements.stream()
+                    .map(Triple::getMiddle)
+                    .toList());
+
+            final ImmutableList.Builder<Resource> newDirectories = ImmutableList.builder();
             for (final Triple<String, String, String> element : elements) {
                 final String elementParentPath = element.getLeft();
                 final String elementPath = element.getMiddle();
 
-                final Resource elementParent = resourceManager_.getResourceAtPath(elementPath);
+                final Resource elementParent = existing.get(elementPath);
                 if (elementParent == null) {
                     final Resource newDirectory = new Resource.Builder()
                             .setPath(elementPath)
@@ -157,12 +170,17 @@ public final class Directory extends AbstractOnyxApiController {
                             .setCreatedAt(Instant.now()) // now
                             .build();
 
-                    resourceManager_.createResource(newDirectory);
+                    newDirectories.add(newDirectory);
                 } else if (!Resource.Type.DIRECTORY.equals(elementParent.getType())) {
                     throw new ApiBadRequestException("Found no parent directory resource at path: "
                             + parentPath);
                 }
             }
+
+            final List<Resource> toCreate = newDirectories.build();
+            if (!toCreate.isEmpty()) {
+                resourceManager_.createResources(toCreate);
+            }
         }
 
         final Resource parent = resourceManager_.getResourceAtPath(parentPath);
@@ -290,8 +308,14 @@ public final class Directory extends AbstractOnyxApiController {
                     + normalizedPath);
         }
 
-        // Recursively delete the directory and all of its children.
-        resourceManager_.deleteResource(directory);
+        // Recursively delete the directory and all of its children. Every deleted file is
+        // evicted from the local cache too, so a file later re-uploaded at the same path is
+        // never served its old cached bytes.
+        resourceManager_.deleteResource(directory, r -> {
+            if (Resource.Type.FILE.equals(r.getType())) {
+                cacheManager_.deleteResourceFromCacheAsync(r);
+            }
+        });
 
         // Recursively delete all assets under the directory, asynchronously.
         final boolean deletePermanently = BooleanUtils.toBooleanDefaultIfNull(permanent, false);
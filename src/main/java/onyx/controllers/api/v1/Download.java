@@ -26,6 +26,7 @@
 
 package onyx.controllers.api.v1;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
@@ -33,9 +34,12 @@ import curacao.annotations.parameters.Path;
 import curacao.annotations.parameters.Query;
 import curacao.core.servlet.AsyncContext;
 import curacao.core.servlet.HttpResponse;
+import onyx.components.OnyxJacksonObjectMapper;
 import onyx.components.config.OnyxConfig;
 import onyx.components.config.cache.LocalCacheConfig;
 import onyx.components.storage.AssetManager;
+import onyx.components.storage.AsyncResourceManager;
+import onyx.components.storage.CacheAdmissionPolicy;
 import onyx.components.storage.CacheManager;
 import onyx.components.storage.ResourceManager;
 import onyx.components.storage.sizer.cost.CostAnalyzer;
@@ -46,6 +50,7 @@ import onyx.exceptions.api.ApiForbiddenException;
 import onyx.exceptions.api.ApiNotFoundException;
 import org.apache.commons.lang3.BooleanUtils;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.time.Instant;
@@ -60,25 +65,35 @@ public final class Download extends AbstractOnyxApiController {
     private final LocalCacheConfig localCacheConfig_;
 
     private final ResourceManager resourceManager_;
+    private final AsyncResourceManager asyncResourceManager_;
     private final AssetManager assetManager_;
     private final CacheManager cacheManager_;
+    private final CacheAdmissionPolicy cacheAdmissionPolicy_;
 
     private final CostAnalyzer costAnalyzer_;
 
+    private final ObjectMapper objectMapper_;
+
     @Injectable
     public Download(
             final OnyxConfig onyxConfig,
             final LocalCacheConfig localCacheConfig,
             final ResourceManager resourceManager,
+            final AsyncResourceManager asyncResourceManager,
             final AssetManager assetManager,
             final CacheManager cacheManager,
-            final CostAnalyzer costAnalyzer) {
+            final CacheAdmissionPolicy cacheAdmissionPolicy,
+            final CostAnalyzer costAnalyzer,
+            final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
         super(onyxConfig);
         localCacheConfig_ = localCacheConfig;
         resourceManager_ = resourceManager;
+        asyncResourceManager_ = asyncResourceManager;
         assetManager_ = assetManager;
         cacheManager_ = cacheManager;
+        cacheAdmissionPolicy_ = cacheAdmissionPolicy;
         costAnalyzer_ = costAnalyzer;
+        objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
     }
 
     @RequestMapping(value = "^/api/v1/download/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$",
@@ -92,7 +107,18 @@ public final class Download extends AbstractOnyxApiController {
             final AsyncContext context) throws Exception {
         final String normalizedPath = normalizePath(username, path);
 
-        final Resource file = resourceManager_.getResourceAtPath(normalizedPath);
+        // The lookup of the resource doesn't park this thread, and the redirect is sent
+        // (and the async context completed) from whichever thread completes the lookup.
+        completeAsync(asyncResourceManager_.getResourceAtPathAsync(normalizedPath), objectMapper_,
+                response, context, file -> redirectToDownload(normalizedPath, file, noCache, session, response));
+    }
+
+    private void redirectToDownload(
+            final String normalizedPath,
+            @Nullable final Resource file,
+            @Nullable final Boolean noCache,
+            @Nullable final Session session,
+            final HttpResponse response) throws Exception {
         if (file == null) {
             throw new ApiNotFoundException("Found no file resource at path: "
                     + normalizedPath);
@@ -116,11 +142,18 @@ public final class Download extends AbstractOnyxApiController {
         final boolean resourceAccessed;
         {
             final boolean localCacheEnabled = localCacheConfig_.localCacheEnabled();
+            if (localCacheEnabled) {
+                // Every download counts towards the popularity of the file, cached or not.
+                cacheAdmissionPolicy_.recordAccess(file);
+            }
 
             final boolean skipCache = BooleanUtils.toBooleanDefaultIfNull(noCache, false);
 
-            // Only favorite files are stored in the local cache.
-            if (!skipCache && localCacheEnabled && file.getFavorite()) {
+            // Favorite files, and files downloaded often enough to be admitted by the
+            // admission policy, are stored in the local cache.
+            final boolean admitted = !skipCache && localCacheEnabled
+                    && cacheAdmissionPolicy_.shouldAdmit(file);
+            if (!skipCache && localCacheEnabled && (file.getFavorite() || admitted)) {
                 // Attempt to resolve the file from the local cache first; then if the file
                 // is not found in the cache, generate the S3 download URL.
                 final URL cacheUrl = cacheManager_.getCachedDownloadUrlForResource(file);
@@ -130,17 +163,30 @@ public final class Download extends AbstractOnyxApiController {
                     resourceAccessed = false;
                 } else {
                     // File was not found in cache; trigger a download of the file to the cache
-                    // only if the resource has private visibility.
-                    if (Resource.Visibility.PRIVATE.equals(file.getVisibility())) {
-                        cacheManager_.downloadResourceToCacheAsync(file);
+                    // only if the resource is a favorite with private visibility, or is hot
+                    // enough to have been admitted regardless of its visibility.
+                    final boolean privateFavorite = file.getFavorite()
+                            && Resource.Visibility.PRIVATE.equals(file.getVisibility());
+                    final URL readThroughUrl = ((privateFavorite || admitted)
+                            && localCacheConfig_.localCacheReadThroughEnabled())
+                            ? cacheManager_.getReadThroughDownloadUrlForResource(file)
+                            : null;
+                    if (readThroughUrl != null) {
+                        // The file is streamed to the requester as it is downloaded into the
+                        // cache, so it is pulled from the underlying asset repository once.
+                        downloadUrl = readThroughUrl;
+                    } else {
+                        if (privateFavorite || admitted) {
+                            cacheManager_.downloadResourceToCacheAsync(file);
+                        }
+
+                        downloadUrl = assetManager_.getPresignedDownloadUrlForResource(file);
                     }
-
-                    downloadUrl = assetManager_.getPresignedDownloadUrlForResource(file);
                     resourceAccessed = true;
                 }
             } else {
-                // Not a favorite file; would not be in the cache as only favorite files can
-                // be stored locally. Generate the S3 download URL.
+                // Neither a favorite nor an admitted file; would not be in the cache as only
+                // those can be stored locally. Generate the S3 download URL.
                 downloadUrl = assetManager_.getPresignedDownloadUrlForResource(file);
                 resourceAccessed = true;
             }
@@ -150,17 +196,18 @@ public final class Download extends AbstractOnyxApiController {
         // the requester to download the file from the underlying asset repository.
         if (resourceAccessed) {
             // Last accessed time is "now".
-            file.setLastAccessedAt(Instant.now());
+            final Instant accessedAt = Instant.now();
 
             // Compute the new storage cost per month based on the new last accessed time.
-            final BigDecimal computedCost = costAnalyzer_.computeResourceCost(file);
-            file.setCost(computedCost);
+            final BigDecimal computedCost = (file.getSize() > 0L)
+                    ? costAnalyzer_.computeResourceCost(file.getSize(), accessedAt)
+                    : BigDecimal.ZERO;
 
-            resourceManager_.updateResourceAsync(file);
+            // Coalesced and persisted lazily, so downloads aren't bound by write capacity.
+            resourceManager_.recordResourceAccess(file, accessedAt, computedCost);
         }
 
         response.sendRedirect(downloadUrl.toString());
-        context.complete();
     }
 
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.controllers.api.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import curacao.annotations.Controller;
+import curacao.annotations.Injectable;
+import curacao.annotations.RequestMapping;
+import curacao.annotations.parameters.Path;
+import curacao.annotations.parameters.Query;
+import curacao.annotations.parameters.RequestBody;
+import onyx.components.OnyxJacksonObjectMapper;
+import onyx.components.config.OnyxConfig;
+import onyx.components.config.aws.AwsConfig;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.AssetManager;
+import onyx.components.storage.CacheManager;
+import onyx.components.storage.ResourceManager;
+import onyx.components.storage.filter.UploadFilter;
+import onyx.components.storage.sizer.cost.CostAnalyzer;
+import onyx.entities.api.request.v1.BulkUploadFileRequest;
+import onyx.entities.api.response.v1.BulkUploadFileResponse;
+import onyx.entities.authentication.Session;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.api.ApiBadRequestException;
+import onyx.exceptions.api.ApiForbiddenException;
+import onyx.exceptions.api.ApiPreconditionFailedException;
+import onyx.exceptions.api.ApiUnauthorizedException;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static curacao.annotations.RequestMapping.Method.POST;
+import static onyx.util.FileUtils.humanReadableByteCountBin;
+import static onyx.components.storage.ResourceManager.ROOT_PATH;
+import static onyx.util.PathUtils.getParentPath;
+import static onyx.util.PathUtils.normalizePath;
+
+/**
+ * Uploads many files in one round trip: the manifest is validated up front, all of the
+ * new file resources (and any missing parent directories) are created with batched writes,
+ * and a presigned upload URL for every file is returned in a single response.
+ */
+@Controller
+public final class FileBulk extends AbstractOnyxFileApiController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileBulk.class);
+
+    private static final int MAX_BULK_UPLOAD_FILES = 1_000;
+
+    /**
+     * Manifest paths are relative, and use the same (URL-encoded) character set as the
+     * path of any single file upload.
+     */
+    private static final Pattern MANIFEST_PATH_PATTERN =
+            Pattern.compile("^[a-zA-Z0-9\\-._~%!$&'()*+,;=:@]+(/[a-zA-Z0-9\\-._~%!$&'()*+,;=:@]+)*$");
+
+    private final AwsConfig awsConfig_;
+
+    private final ObjectMapper objectMapper_;
+
+    @Injectable
+    public FileBulk(
+            final OnyxConfig onyxConfig,
+            final LocalCacheConfig localCacheConfig,
+            final AwsConfig awsConfig,
+            final AssetManager assetManager,
+            final CacheManager cacheManager,
+            final ResourceManager resourceManager,
+            final CostAnalyzer costAnalyzer,
+            final UploadFilter uploadFilter,
+            final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
+        super(onyxConfig, localCacheConfig, assetManager, cacheManager, resourceManager, costAnalyzer, uploadFilter);
+        awsConfig_ = awsConfig;
+        objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
+    }
+
+    @RequestMapping(value = "^/api/v1/file-bulk/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$",
+            methods = POST)
+    public BulkUploadFileResponse uploadFiles(
+            @Path("username") final String username,
+            @Path("path") final String path,
+            @Query("recursive") final Boolean recursive,
+            @Query("overwrite") final Boolean overwrite,
+            @RequestBody final BulkUploadFileRequest request,
+            final Session session) {
+        if (session == null) {
+            throw new ApiUnauthorizedException("User not authenticated.");
+        } else if (!session.getUsername().equals(username)) {
+            throw new ApiForbiddenException("User session does not match request.");
+        }
+
+        final List<BulkUploadFileRequest.Entry> entries = request.getFiles();
+        if (entries.size() > MAX_BULK_UPLOAD_FILES) {
+            throw new ApiBadRequestException(String.format("Bulk upload manifest exceeds allowed maximum: "
+                    + "%d files > %d files", entries.size(), MAX_BULK_UPLOAD_FILES));
+        }
+
+        // The path is that of the directory the manifest is posted to, not of a file.
+        final String basePath = Strings.CS.removeEnd(path, "/");
+        final long maxUploadRequestSize = awsConfig_.getAwsS3MaxUploadFileSize();
+
+        // Validate the entire manifest before touching anything. Keyed by normalized path,
+        // in manifest order.
+        final Map<String, BulkUploadFileRequest.Entry> files = new LinkedHashMap<>();
+        final Map<String, String> fileParentPaths = new HashMap<>();
+        final Map<String, Resource.Visibility> parentPaths = new LinkedHashMap<>();
+        for (final BulkUploadFileRequest.Entry entry : entries) {
+            final String entryPath = entry.getPath();
+            if (!MANIFEST_PATH_PATTERN.matcher(entryPath).matches()) {
+                throw new ApiBadRequestException("Invalid path in bulk upload manifest: "
+                        + entryPath);
+            }
+
+            final String relativePath = basePath.isEmpty() ? entryPath : basePath + "/" + entryPath;
+            final String normalizedPath = normalizePath(username, relativePath);
+            checkAndHandleFilteredUpload(normalizedPath);
+
+            final long uploadRequestSize = entry.getSize();
+            if (uploadRequestSize > maxUploadRequestSize) {
+                LOG.warn("File upload size exceeds allowed maximum: {}-bytes > {}-bytes ({}): {}",
+                        uploadRequestSize, maxUploadRequestSize,
+                        humanReadableByteCountBin(maxUploadRequestSize),
+                        normalizedPath);
+                throw new ApiPreconditionFailedException(String.format("File upload size exceeds allowed "
+                        + "maximum: %s-bytes (%s): %s", maxUploadRequestSize,
+                        humanReadableByteCountBin(maxUploadRequestSize), entryPath));
+            }
+
+            if (files.putIfAbsent(normalizedPath, entry) != null) {
+                throw new ApiBadRequestException("Duplicate path in bulk upload manifest: "
+                        + entryPath);
+            }
+
+            final String parentPath = normalizePath(username, FilenameUtils.getPathNoEndSeparator(relativePath));
+            fileParentPaths.put(normalizedPath, parentPath);
+            parentPaths.putIfAbsent(parentPath, entry.getVisibility());
+        }
+
+        // A file in the manifest cannot also be a directory that another file is uploaded into.
+        for (final String parentPath : parentPaths.keySet()) {
+            for (String ancestorPath = parentPath; !ROOT_PATH.equals(ancestorPath);
+                    ancestorPath = getParentPath(ancestorPath)) {
+                final BulkUploadFileRequest.Entry conflict = files.get(ancestorPath);
+                if (conflict != null) {
+                    throw new ApiBadRequestException("Path in bulk upload manifest is also a parent "
+                            + "directory of another path: " + conflict.getPath());
+                }
+            }
+        }
+
+        // Resolve, and validate, every existing file and parent directory before anything is
+        // written or deleted, so that a rejected manifest leaves no trace behind.
+        final Map<String, Resource> existing = checkExistingFiles(files.keySet(), overwrite);
+
+        final Map<String, Resource> parents;
+        final List<Resource> newDirectories;
+        if (BooleanUtils.isTrue(recursive)) {
+            final ParentDirectories parentDirectories = resolveParentDirectories(parentPaths, session);
+            parents = parentDirectories.getDirectories();
+            newDirectories = parentDirectories.getNewDirectories();
+        } else {
+            parents = resourceManager_.getResourcesAtPaths(parentPaths.keySet());
+            newDirectories = ImmutableList.of();
+        }
+
+        final ImmutableList.Builder<Resource> newFiles = ImmutableList.builder();
+        for (final Map.Entry<String, BulkUploadFileRequest.Entry> file : files.entrySet()) {
+            final String normalizedPath = file.getKey();
+            final String parentPath = fileParentPaths.get(normalizedPath);
+            final Resource parent = validateParentDirectory(parentPath, parents.get(parentPath), session);
+
+            newFiles.add(buildNewFileResource(normalizedPath, parent,
+                    file.getValue().toUploadFileRequest(), session));
+        }
+
+        final List<Resource> toCreate = newFiles.build();
+
+        if (!newDirectories.isEmpty()) {
+            resourceManager_.createResources(newDirectories);
+        }
+
+        // Only now that the entire manifest is known to be good, make way for the files
+        // being overwritten.
+        overwriteExistingFiles(existing.values());
+
+        // One batched write for every file; indexing and the propagation of sizes and
+        // costs up to the parents happen once, for the whole batch, at the end.
+        resourceManager_.createResources(toCreate);
+
+        final ImmutableList.Builder<BulkUploadFileResponse.Entry> uploads = ImmutableList.builder();
+        for (final Resource newFile : toCreate) {
+            uploads.add(new BulkUploadFileResponse.Entry.Builder()
+                    .setPath(files.get(newFile.getPath()).getPath())
+                    .setPresignedUploadUrl(assetManager_.getPresignedUploadUrlForResource(newFile).toString())
+                    .build());
+        }
+
+        return new BulkUploadFileResponse.Builder(objectMapper_)
+                .setFiles(uploads.build())
+                .build();
+    }
+
+}
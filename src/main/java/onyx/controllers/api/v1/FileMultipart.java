@@ -27,6 +27,9 @@
 package onyx.controllers.api.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.LongMath;
 import curacao.annotations.Controller;
 import curacao.annotations.Injectable;
 import curacao.annotations.RequestMapping;
@@ -46,6 +49,7 @@ import onyx.components.storage.sizer.cost.CostAnalyzer;
 import onyx.entities.api.request.v1.CompleteMultipartUploadRequest;
 import onyx.entities.api.request.v1.UploadFileRequest;
 import onyx.entities.api.response.v1.InitiateMultipartUploadResponse;
+import onyx.entities.api.response.v1.MultipartUploadPartsResponse;
 import onyx.entities.api.response.v1.ResourceResponse;
 import onyx.entities.authentication.Session;
 import onyx.entities.storage.aws.dynamodb.Resource;
@@ -60,12 +64,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.RoundingMode;
 import java.net.URL;
-import com.google.common.collect.ImmutableList;
-
 import java.util.List;
+import java.util.Set;
 
 import static curacao.annotations.RequestMapping.Method.DELETE;
+import static curacao.annotations.RequestMapping.Method.GET;
 import static curacao.annotations.RequestMapping.Method.POST;
 import static curacao.annotations.RequestMapping.Method.PUT;
 import static onyx.util.FileUtils.humanReadableByteCountBin;
@@ -79,6 +84,20 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
 
     private static final int MULTIPART_MAX_PART_COUNT = 10_000;
     private static final long MULTIPART_MIN_PART_SIZE = 5L * 1024L * 1024L; // 5 MiB
+    private static final long MULTIPART_MAX_PART_SIZE = 5L * 1024L * 1024L * 1024L; // 5 GiB
+
+    /**
+     * Part sizes grown to fit a large file into {@link #MULTIPART_MAX_PART_COUNT} parts
+     * are rounded up to a whole multiple of this.
+     */
+    private static final long MULTIPART_PART_SIZE_ALIGNMENT = 1024L * 1024L; // 1 MiB
+
+    /**
+     * Presigned part URLs are handed out in windows of this many parts by default, and of
+     * at most {@link #MULTIPART_MAX_PART_WINDOW} parts (the most S3 lists in one request).
+     */
+    private static final int MULTIPART_DEFAULT_PART_WINDOW = 100;
+    private static final int MULTIPART_MAX_PART_WINDOW = 1_000;
 
     private final AwsConfig awsConfig_;
 
@@ -115,11 +134,11 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
             throw new ApiForbiddenException("User session does not match request.");
         }
 
-        final long partSize = awsConfig_.getAwsS3MultipartUploadPartSize();
-        if (partSize < MULTIPART_MIN_PART_SIZE) {
+        final long configuredPartSize = awsConfig_.getAwsS3MultipartUploadPartSize();
+        if (configuredPartSize < MULTIPART_MIN_PART_SIZE) {
             throw new ApiPreconditionFailedException(String.format(
                     "Configured multipart upload part size %d bytes is below the AWS minimum of %d bytes (%s).",
-                    partSize,
+                    configuredPartSize,
                     MULTIPART_MIN_PART_SIZE,
                     humanReadableByteCountBin(MULTIPART_MIN_PART_SIZE)));
         }
@@ -138,16 +157,17 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
                     humanReadableByteCountBin(maxUploadRequestSize)));
         }
 
-        final int partCount = Math.max(1, (int) Math.ceil((double) uploadRequestSize / partSize));
-        if (partCount > MULTIPART_MAX_PART_COUNT) {
+        final long partSize = getPartSize(uploadRequestSize);
+        if (partSize > MULTIPART_MAX_PART_SIZE) {
             throw new ApiPreconditionFailedException(String.format(
-                    "File size %s requires %d parts at the configured part size of %s, "
-                            + "which exceeds the AWS maximum of %d parts.",
+                    "File size %s requires parts of %s to fit in the AWS maximum of %d parts, "
+                            + "which exceeds the AWS maximum part size of %s.",
                     humanReadableByteCountBin(uploadRequestSize),
-                    partCount,
                     humanReadableByteCountBin(partSize),
-                    MULTIPART_MAX_PART_COUNT));
+                    MULTIPART_MAX_PART_COUNT,
+                    humanReadableByteCountBin(MULTIPART_MAX_PART_SIZE)));
         }
+        final int partCount = getPartCount(uploadRequestSize, partSize);
 
         final String normalizedPath = normalizePath(username, path);
         checkAndHandleFilteredUpload(normalizedPath);
@@ -166,30 +186,90 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
 
         final String uploadId = assetManager_.initiateMultipartUpload(newFile);
 
-        // Build the per-part presigned URLs. For all parts except the last, the part size is the
-        // configured partSize. The final part is whatever bytes remain after the preceding parts.
-        final ImmutableList.Builder<InitiateMultipartUploadResponse.Part> partsBuilder =
-                ImmutableList.builder();
-        for (int i = 0; i < partCount; i++) {
-            final int partNumber = i + 1;
-            final long offset = (long) i * partSize;
-            final long thisPartSize = Math.min(partSize, uploadRequestSize - offset);
-            final URL presignedUrl =
-                    assetManager_.getPresignedUploadUrlForPart(newFile, uploadId, partNumber, thisPartSize);
+        // Only presign the first window of parts up front, so the client can start sending
+        // bytes right away; the rest are fetched on demand, a window at a time.
+        final int lastPartNumber = Math.min(partCount, MULTIPART_DEFAULT_PART_WINDOW);
+        final List<InitiateMultipartUploadResponse.Part> parts = presignParts(newFile, uploadId,
+                partSize, 1, lastPartNumber, ImmutableSet.of());
 
-            final InitiateMultipartUploadResponse.Part part = new InitiateMultipartUploadResponse.Part.Builder()
-                    .setPartNumber(partNumber)
-                    .setPresignedUrl(presignedUrl.toString())
-                    .build();
-            partsBuilder.add(part);
+        return new InitiateMultipartUploadResponse.Builder(objectMapper_)
+                .setUploadId(uploadId)
+                .setPartSize(partSize)
+                .setPartCount(partCount)
+                .setParts(parts)
+                .setNextPartNumber((lastPartNumber < partCount) ? lastPartNumber + 1 : null)
+                .build();
+    }
+
+    /**
+     * Fetches a window of the parts of an in-progress multipart upload, starting at the given
+     * part number. Parts in the window that S3 already has are listed with their ETags, and
+     * the rest are presigned; so a client can also use this to resume an interrupted upload
+     * by walking every window and only sending the parts that didn't land.
+     */
+    @RequestMapping(value = "^/api/v1/file-multipart/(?<username>[a-zA-Z0-9]+)/(?<path>[a-zA-Z0-9\\-._~%!$&'()*+,;=:@/]*)$",
+            methods = GET)
+    public MultipartUploadPartsResponse getMultipartUploadParts(
+            @Path("username") final String username,
+            @Path("path") final String path,
+            @Query("uploadId") final String uploadId,
+            @Query("from") final Integer from,
+            @Query("limit") final Integer limit,
+            final Session session) {
+        if (session == null) {
+            throw new ApiUnauthorizedException("User not authenticated.");
+        } else if (!session.getUsername().equals(username)) {
+            throw new ApiForbiddenException("User session does not match request.");
         }
 
-        final List<InitiateMultipartUploadResponse.Part> parts = partsBuilder.build();
+        if (StringUtils.isBlank(uploadId)) {
+            throw new ApiBadRequestException("uploadId query parameter is required.");
+        }
 
-        return new InitiateMultipartUploadResponse.Builder(objectMapper_)
+        final String normalizedPath = normalizePath(username, path);
+        final Resource file = getMultipartUploadFile(normalizedPath, session);
+
+        // The part size is derived from the declared file size alone, so it's always the
+        // same as it was when the upload was initiated.
+        final long partSize = getPartSize(file.getSize());
+        final int partCount = getPartCount(file.getSize(), partSize);
+
+        final int firstPartNumber = (from != null) ? from : 1;
+        if (firstPartNumber < 1 || firstPartNumber > partCount) {
+            throw new ApiBadRequestException(String.format(
+                    "from query parameter must be between 1 and %d.", partCount));
+        }
+        final int window = (limit != null) ? limit : MULTIPART_DEFAULT_PART_WINDOW;
+        if (window < 1) {
+            throw new ApiBadRequestException("limit query parameter must be > 0.");
+        }
+        final int lastPartNumber = (int) Math.min(partCount,
+                (long) firstPartNumber + Math.min(window, MULTIPART_MAX_PART_WINDOW) - 1);
+
+        final List<CompleteMultipartUploadRequest.Part> listedParts = assetManager_.listUploadedParts(
+                file, uploadId, firstPartNumber - 1, lastPartNumber - firstPartNumber + 1);
+        if (listedParts == null) {
+            throw new ApiNotFoundException("Found no multipart upload in progress for file resource: "
+                    + normalizedPath);
+        }
+        // If there are gaps, S3 happily lists uploaded parts past the end of the window.
+        final List<CompleteMultipartUploadRequest.Part> uploadedParts = listedParts.stream()
+                .filter(part -> part.getPartNumber() <= lastPartNumber)
+                .toList();
+
+        final Set<Integer> uploadedPartNumbers = uploadedParts.stream()
+                .map(CompleteMultipartUploadRequest.Part::getPartNumber)
+                .collect(ImmutableSet.toImmutableSet());
+        final List<InitiateMultipartUploadResponse.Part> parts = presignParts(file, uploadId,
+                partSize, firstPartNumber, lastPartNumber, uploadedPartNumbers);
+
+        return new MultipartUploadPartsResponse.Builder(objectMapper_)
                 .setUploadId(uploadId)
                 .setPartSize(partSize)
+                .setPartCount(partCount)
                 .setParts(parts)
+                .setUploadedParts(uploadedParts)
+                .setNextPartNumber((lastPartNumber < partCount) ? lastPartNumber + 1 : null)
                 .build();
     }
 
@@ -212,15 +292,7 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
         }
 
         final String normalizedPath = normalizePath(username, path);
-        final Resource file = resourceManager_.getResourceAtPath(normalizedPath);
-        if (file == null) {
-            throw new ApiNotFoundException("Found no file resource at path: " + normalizedPath);
-        } else if (!Resource.Type.FILE.equals(file.getType())) {
-            throw new ApiBadRequestException("Found no file resource at path: " + normalizedPath);
-        } else if (userIsNotOwner(file, session)) {
-            throw new ApiForbiddenException("Authenticated user is not the owner of file resource: "
-                    + normalizedPath);
-        }
+        final Resource file = getMultipartUploadFile(normalizedPath, session);
 
         assetManager_.completeMultipartUpload(file, uploadId, request.getParts());
 
@@ -246,7 +318,24 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
         }
 
         final String normalizedPath = normalizePath(username, path);
-        final Resource file = resourceManager_.getResourceAtPath(normalizedPath);
+        final Resource file = getMultipartUploadFile(normalizedPath, session);
+
+        assetManager_.abortMultipartUpload(file, uploadId);
+        resourceManager_.deleteResource(file);
+
+        return noContent();
+    }
+
+    /**
+     * Fetches the file resource of an in-progress multipart upload, and validates that it
+     * is owned by the authenticated user.
+     */
+    private Resource getMultipartUploadFile(
+            final String normalizedPath,
+            final Session session) {
+        // Strongly consistent; the file resource was likely only just created when the
+        // multipart upload was initiated.
+        final Resource file = resourceManager_.getResourceAtPath(normalizedPath, true);
         if (file == null) {
             throw new ApiNotFoundException("Found no file resource at path: " + normalizedPath);
         } else if (!Resource.Type.FILE.equals(file.getType())) {
@@ -256,10 +345,62 @@ public final class FileMultipart extends AbstractOnyxFileApiController {
                     + normalizedPath);
         }
 
-        assetManager_.abortMultipartUpload(file, uploadId);
-        resourceManager_.deleteResource(file);
+        return file;
+    }
 
-        return noContent();
+    /**
+     * Returns the part size for a file of the given size: the configured part size, grown
+     * (in whole MiB) just enough for the file to fit in the AWS maximum number of parts.
+     * Deterministic, so it can be derived again at any point during the upload.
+     */
+    private long getPartSize(
+            final long fileSize) {
+        final long configuredPartSize = awsConfig_.getAwsS3MultipartUploadPartSize();
+        final long minPartSize = LongMath.divide(fileSize, MULTIPART_MAX_PART_COUNT, RoundingMode.CEILING);
+        final long alignedMinPartSize = LongMath.divide(minPartSize, MULTIPART_PART_SIZE_ALIGNMENT,
+                RoundingMode.CEILING) * MULTIPART_PART_SIZE_ALIGNMENT;
+
+        return Math.max(configuredPartSize, alignedMinPartSize);
+    }
+
+    private static int getPartCount(
+            final long fileSize,
+            final long partSize) {
+        return (int) Math.max(1L, LongMath.divide(fileSize, partSize, RoundingMode.CEILING));
+    }
+
+    /**
+     * Presigns the upload URLs of the parts in the given (inclusive) range of part numbers,
+     * skipping those already uploaded. For all parts except the last, the part size is the
+     * given part size. The final part is whatever bytes remain after the preceding parts.
+     */
+    private List<InitiateMultipartUploadResponse.Part> presignParts(
+            final Resource file,
+            final String uploadId,
+            final long partSize,
+            final int firstPartNumber,
+            final int lastPartNumber,
+            final Set<Integer> uploadedPartNumbers) {
+        final ImmutableList.Builder<InitiateMultipartUploadResponse.Part> partsBuilder =
+                ImmutableList.builder();
+        for (int partNumber = firstPartNumber; partNumber <= lastPartNumber; partNumber++) {
+            if (uploadedPartNumbers.contains(partNumber)) {
+                continue;
+            }
+
+            final long offset = (long) (partNumber - 1) * partSize;
+            final long thisPartSize = Math.min(partSize, file.getSize() - offset);
+            final URL presignedUrl =
+                    assetManager_.getPresignedUploadUrlForPart(file, uploadId, partNumber, thisPartSize);
+
+            final InitiateMultipartUploadResponse.Part part = new InitiateMultipartUploadResponse.Part.Builder()
+                    .setPartNumber(partNumber)
+                    .setPresignedUrl(presignedUrl.toString())
+                    .build();
+            partsBuilder.add(part);
+        }
+
+        return partsBuilder.build();
     }
 
 }
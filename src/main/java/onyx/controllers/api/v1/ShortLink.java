@@ -36,15 +36,17 @@ import curacao.core.servlet.HttpResponse;
 import onyx.components.OnyxJacksonObjectMapper;
 import onyx.components.config.OnyxConfig;
 import onyx.components.shortlink.ShortLinkManager;
+import onyx.components.storage.AsyncResourceManager;
 import onyx.components.storage.ResourceManager;
 import onyx.controllers.api.AbstractOnyxApiController;
 import onyx.entities.api.response.v1.CreateShortLinkResponse;
 import onyx.entities.authentication.Session;
-import onyx.entities.shortlink.OnyxShortLink;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import onyx.exceptions.api.*;
 
+import javax.annotation.Nullable;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 import static curacao.annotations.RequestMapping.Method.GET;
 import static curacao.annotations.RequestMapping.Method.POST;
@@ -58,6 +60,7 @@ public final class ShortLink extends AbstractOnyxApiController {
     private static final String DOWNLOAD_RESOURCE_PATH_FORMAT = "%s/api/v1/download%s";
 
     private final ResourceManager resourceManager_;
+    private final AsyncResourceManager asyncResourceManager_;
 
     private final ShortLinkManager shortLinkManager_;
 
@@ -67,10 +70,12 @@ public final class ShortLink extends AbstractOnyxApiController {
     public ShortLink(
             final OnyxConfig onyxConfig,
             final ResourceManager resourceManager,
+            final AsyncResourceManager asyncResourceManager,
             final ShortLinkManager shortLinkManager,
             final OnyxJacksonObjectMapper onyxJacksonObjectMapper) {
         super(onyxConfig);
         resourceManager_ = resourceManager;
+        asyncResourceManager_ = asyncResourceManager;
         shortLinkManager_ = shortLinkManager;
         objectMapper_ = onyxJacksonObjectMapper.getObjectMapper();
     }
@@ -125,12 +130,25 @@ public final class ShortLink extends AbstractOnyxApiController {
             @Path("code") final String code,
             final HttpResponse response,
             final AsyncContext context) throws Exception {
-        final OnyxShortLink shortLink = shortLinkManager_.getShortLinkForCode(code);
-        if (shortLink == null) {
-            throw new ApiNotFoundException("Found no short link for code: " + code);
-        }
+        // Neither lookup parks this thread; the redirect is sent (and the async context
+        // completed) from whichever thread completes the resource lookup.
+        final CompletableFuture<Resource> resourceFuture = shortLinkManager_.getShortLinkForCodeAsync(code)
+                .thenCompose(shortLink -> {
+                    if (shortLink == null) {
+                        throw new ApiNotFoundException("Found no short link for code: " + code);
+                    }
+
+                    return asyncResourceManager_.getResourceAtPathAsync(shortLink.getResourcePath());
+                });
+
+        completeAsync(resourceFuture, objectMapper_, response, context,
+                resource -> redirectToResource(code, resource, response));
+    }
 
-        final Resource resource = resourceManager_.getResourceAtPath(shortLink.getResourcePath());
+    private void redirectToResource(
+            final String code,
+            @Nullable final Resource resource,
+            final HttpResponse response) throws Exception {
         if (resource == null) {
             throw new ApiNotFoundException("Found no resource for short link code: " + code);
         } else if (Resource.Visibility.PRIVATE.equals(resource.getVisibility())) {
@@ -148,7 +166,6 @@ public final class ShortLink extends AbstractOnyxApiController {
         }
 
         response.sendRedirect(targetUrl);
-        context.complete();
     }
 
 }
@@ -41,6 +41,14 @@ public interface BrowseResponse extends ResourceResponse {
     @JsonProperty("children")
     List<ResourceResponse> getChildren();
 
+    /**
+     * Opaque continuation cursor for fetching the next page of children, or
+     * {@code null} when this is the last page.
+     */
+    @Nullable
+    @JsonProperty("cursor")
+    String getCursor();
+
     final class Builder extends AbstractOnyxApiResponseEntityBuilder {
 
         private String path_;
@@ -49,6 +57,7 @@ public interface BrowseResponse extends ResourceResponse {
 
         private MetadataResponse metadata_;
         private List<ResourceResponse> children_;
+        private String cursor_;
 
         public Builder(
                 final ObjectMapper objectMapper) {
@@ -85,6 +94,12 @@ public interface BrowseResponse extends ResourceResponse {
             return this;
         }
 
+        public Builder setCursor(
+                @Nullable final String cursor) {
+            cursor_ = cursor;
+            return this;
+        }
+
         public BrowseResponse build() {
             checkNotNull(path_, "Path cannot be null.");
             checkNotNull(parent_, "Parent cannot be null.");
@@ -118,6 +133,12 @@ public interface BrowseResponse extends ResourceResponse {
                     return children_;
                 }
 
+                @Nullable
+                @Override
+                public String getCursor() {
+                    return cursor_;
+                }
+
                 @Override
                 public ObjectMapper getMapper() {
                     return objectMapper_;
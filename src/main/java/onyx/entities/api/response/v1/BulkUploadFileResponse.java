@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.entities.api.response.v1;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import onyx.entities.api.response.OnyxApiResponseEntity;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static curacao.core.servlet.HttpStatus.SC_CREATED;
+
+public interface BulkUploadFileResponse extends OnyxApiResponseEntity {
+
+    /**
+     * One entry per file in the manifest, in manifest order.
+     */
+    @JsonProperty("files")
+    List<Entry> getFiles();
+
+    @JsonIgnore
+    @Override
+    default int getStatus() {
+        return SC_CREATED;
+    }
+
+    interface Entry {
+
+        /**
+         * The path of the file exactly as given in the manifest.
+         */
+        @JsonProperty("path")
+        String getPath();
+
+        @JsonProperty("presignedUploadUrl")
+        String getPresignedUploadUrl();
+
+        final class Builder {
+
+            private String path_;
+            private String presignedUploadUrl_;
+
+            public Builder setPath(
+                    final String path) {
+                path_ = path;
+                return this;
+            }
+
+            public Builder setPresignedUploadUrl(
+                    final String presignedUploadUrl) {
+                presignedUploadUrl_ = presignedUploadUrl;
+                return this;
+            }
+
+            public Entry build() {
+                checkNotNull(path_, "Path cannot be null.");
+                checkNotNull(presignedUploadUrl_, "Presigned upload URL cannot be null.");
+
+                return new Entry() {
+                    @Override
+                    public String getPath() {
+                        return path_;
+                    }
+
+                    @Override
+                    public String getPresignedUploadUrl() {
+                        return presignedUploadUrl_;
+                    }
+                };
+            }
+
+        }
+
+    }
+
+    final class Builder extends AbstractOnyxApiResponseEntityBuilder {
+
+        private List<Entry> files_;
+
+        public Builder(
+                final ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        public Builder setFiles(
+                final List<Entry> files) {
+            files_ = files;
+            return this;
+        }
+
+        public BulkUploadFileResponse build() {
+            checkNotNull(files_, "Files cannot be null.");
+
+            return new BulkUploadFileResponse() {
+                @Override
+                public List<Entry> getFiles() {
+                    return files_;
+                }
+
+                @Override
+                public ObjectMapper getMapper() {
+                    return objectMapper_;
+                }
+            };
+        }
+
+    }
+
+}
@@ -31,6 +31,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import onyx.entities.api.response.OnyxApiResponseEntity;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -44,9 +45,23 @@ public interface InitiateMultipartUploadResponse extends OnyxApiResponseEntity {
     @JsonProperty("partSize")
     long getPartSize();
 
+    @JsonProperty("partCount")
+    int getPartCount();
+
+    /**
+     * Presigned URLs for the first window of parts only; the rest are fetched on demand.
+     */
     @JsonProperty("parts")
     List<Part> getParts();
 
+    /**
+     * The first part number of the next window, or {@code null} when all parts are
+     * already covered by {@link #getParts()}.
+     */
+    @Nullable
+    @JsonProperty("nextPartNumber")
+    Integer getNextPartNumber();
+
     @JsonIgnore
     @Override
     default int getStatus() {
@@ -102,7 +117,9 @@ public interface InitiateMultipartUploadResponse extends OnyxApiResponseEntity {
 
         private String uploadId_;
         private long partSize_;
+        private int partCount_;
         private List<Part> parts_;
+        private Integer nextPartNumber_;
 
         public Builder(
                 final ObjectMapper objectMapper) {
@@ -121,12 +138,24 @@ public interface InitiateMultipartUploadResponse extends OnyxApiResponseEntity {
             return this;
         }
 
+        public Builder setPartCount(
+                final int partCount) {
+            partCount_ = partCount;
+            return this;
+        }
+
         public Builder setParts(
                 final List<Part> parts) {
             parts_ = parts;
             return this;
         }
 
+        public Builder setNextPartNumber(
+                @Nullable final Integer nextPartNumber) {
+            nextPartNumber_ = nextPartNumber;
+            return this;
+        }
+
         public InitiateMultipartUploadResponse build() {
             checkNotNull(uploadId_, "Upload ID cannot be null.");
             checkNotNull(parts_, "Parts cannot be null.");
@@ -142,11 +171,21 @@ public interface InitiateMultipartUploadResponse extends OnyxApiResponseEntity {
                     return partSize_;
                 }
 
+                @Override
+                public int getPartCount() {
+                    return partCount_;
+                }
+
                 @Override
                 public List<Part> getParts() {
                     return parts_;
                 }
 
+                @Override
+                public Integer getNextPartNumber() {
+                    return nextPartNumber_;
+                }
+
                 @Override
                 public ObjectMapper getMapper() {
                     return objectMapper_;
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.entities.api.response.v1;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import onyx.entities.api.request.v1.CompleteMultipartUploadRequest;
+import onyx.entities.api.response.OnyxApiResponseEntity;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A window of the parts of an in-progress multipart upload: presigned URLs for the parts
+ * in the window that have yet to be uploaded, and the part number and ETag of those that
+ * already landed, ready to be passed back as-is when completing the upload.
+ */
+public interface MultipartUploadPartsResponse extends OnyxApiResponseEntity {
+
+    @JsonProperty("uploadId")
+    String getUploadId();
+
+    @JsonProperty("partSize")
+    long getPartSize();
+
+    @JsonProperty("partCount")
+    int getPartCount();
+
+    @JsonProperty("parts")
+    List<InitiateMultipartUploadResponse.Part> getParts();
+
+    @JsonProperty("uploadedParts")
+    List<CompleteMultipartUploadRequest.Part> getUploadedParts();
+
+    /**
+     * The first part number of the next window, or {@code null} when this is the last window.
+     */
+    @Nullable
+    @JsonProperty("nextPartNumber")
+    Integer getNextPartNumber();
+
+    final class Builder extends AbstractOnyxApiResponseEntityBuilder {
+
+        private String uploadId_;
+        private long partSize_;
+        private int partCount_;
+        private List<InitiateMultipartUploadResponse.Part> parts_;
+        private List<CompleteMultipartUploadRequest.Part> uploadedParts_;
+        private Integer nextPartNumber_;
+
+        public Builder(
+                final ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        public Builder setUploadId(
+                final String uploadId) {
+            uploadId_ = uploadId;
+            return this;
+        }
+
+        public Builder setPartSize(
+                final long partSize) {
+            partSize_ = partSize;
+            return this;
+        }
+
+        public Builder setPartCount(
+                final int partCount) {
+            partCount_ = partCount;
+            return this;
+        }
+
+        public Builder setParts(
+                final List<InitiateMultipartUploadResponse.Part> parts) {
+            parts_ = parts;
+            return this;
+        }
+
+        public Builder setUploadedParts(
+                final List<CompleteMultipartUploadRequest.Part> uploadedParts) {
+            uploadedParts_ = uploadedParts;
+            return this;
+        }
+
+        public Builder setNextPartNumber(
+                @Nullable final Integer nextPartNumber) {
+            nextPartNumber_ = nextPartNumber;
+            return this;
+        }
+
+        public MultipartUploadPartsResponse build() {
+            checkNotNull(uploadId_, "Upload ID cannot be null.");
+            checkNotNull(parts_, "Parts cannot be null.");
+            checkNotNull(uploadedParts_, "Uploaded parts cannot be null.");
+
+            return new MultipartUploadPartsResponse() {
+                @Override
+                public String getUploadId() {
+                    return uploadId_;
+                }
+
+                @Override
+                public long getPartSize() {
+                    return partSize_;
+                }
+
+                @Override
+                public int getPartCount() {
+                    return partCount_;
+                }
+
+                @Override
+                public List<InitiateMultipartUploadResponse.Part> getParts() {
+                    return parts_;
+                }
+
+                @Override
+                public List<CompleteMultipartUploadRequest.Part> getUploadedParts() {
+                    return uploadedParts_;
+                }
+
+                @Override
+                public Integer getNextPartNumber() {
+                    return nextPartNumber_;
+                }
+
+                @Override
+                public ObjectMapper getMapper() {
+                    return objectMapper_;
+                }
+            };
+        }
+
+    }
+
+}
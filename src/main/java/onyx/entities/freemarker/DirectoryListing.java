@@ -30,6 +30,7 @@ import com.google.common.collect.ImmutableList;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import org.apache.commons.collections4.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -50,8 +51,16 @@ public interface DirectoryListing {
 
     long getFileCount();
 
+    /**
+     * Opaque continuation cursor for the next page of this directory listing, or
+     * {@code null} if this listing is the last (or only) page.
+     */
+    @Nullable
+    String getCursor();
+
     default Builder toBuilder() {
-        return new Builder(getAll());
+        return new Builder(getAll())
+                .setCursor(getCursor());
     }
 
     static DirectoryListing of() {
@@ -62,11 +71,19 @@ public interface DirectoryListing {
 
         private final List<Resource> resources_;
 
+        private String cursor_;
+
         public Builder(
                 final List<Resource> resources) {
             resources_ = checkNotNull(resources, "Resources list cannot be null.");
         }
 
+        public Builder setCursor(
+                @Nullable final String cursor) {
+            cursor_ = cursor;
+            return this;
+        }
+
         public DirectoryListing build() {
             return new DirectoryListing() {
                 @Override
@@ -109,6 +126,12 @@ public interface DirectoryListing {
                             .filter(c -> Resource.Type.FILE.equals(c.getType()))
                             .count();
                 }
+
+                @Nullable
+                @Override
+                public String getCursor() {
+                    return cursor_;
+                }
             };
         }
 
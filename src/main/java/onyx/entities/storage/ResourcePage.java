@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.entities.storage;
+
+import com.google.common.collect.ImmutableList;
+import onyx.entities.storage.aws.dynamodb.Resource;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A single page of a directory listing, along with an opaque continuation cursor
+ * that can be handed back to fetch the next page. A {@code null} cursor means
+ * there are no more pages.
+ */
+public interface ResourcePage {
+
+    List<Resource> getResources();
+
+    @Nullable
+    String getCursor();
+
+    default boolean hasMore() {
+        return getCursor() != null;
+    }
+
+    static ResourcePage of() {
+        return new Builder(ImmutableList.of()).build();
+    }
+
+    final class Builder {
+
+        private final List<Resource> resources_;
+
+        private String cursor_;
+
+        public Builder(
+                final List<Resource> resources) {
+            resources_ = checkNotNull(resources, "Resources list cannot be null.");
+        }
+
+        public Builder setCursor(
+                @Nullable final String cursor) {
+            cursor_ = cursor;
+            return this;
+        }
+
+        public ResourcePage build() {
+            return new ResourcePage() {
+                @Override
+                public List<Resource> getResources() {
+                    return resources_;
+                }
+
+                @Nullable
+                @Override
+                public String getCursor() {
+                    return cursor_;
+                }
+            };
+        }
+
+    }
+
+}
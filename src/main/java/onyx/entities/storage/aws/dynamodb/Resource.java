@@ -26,6 +26,7 @@
 
 package onyx.entities.storage.aws.dynamodb;
 
+import com.google.common.collect.ImmutableSet;
 import onyx.components.aws.dynamodb.converters.InstantToStringTypeConverter;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.BooleanUtils;
@@ -33,15 +34,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static onyx.components.aws.dynamodb.DynamoDbManager.FAVORITE_INDEX_NAME;
+import static onyx.components.aws.dynamodb.DynamoDbManager.LISTING_INDEX_NAME;
 import static onyx.components.aws.dynamodb.DynamoDbManager.PARENT_INDEX_NAME;
 import static onyx.util.CurrencyUtils.humanReadableCost;
 import static onyx.util.FileUtils.humanReadableByteCountBin;
@@ -58,6 +64,20 @@ public final class Resource {
         PUBLIC, PRIVATE
     }
 
+    public static final String ATTRIBUTE_PATH = "path";
+    public static final String ATTRIBUTE_PARENT = "parent";
+    public static final String ATTRIBUTE_DESCRIPTION = "description";
+    public static final String ATTRIBUTE_SIZE = "size";
+    public static final String ATTRIBUTE_TYPE = "type";
+    public static final String ATTRIBUTE_VISIBILITY = "visibility";
+    public static final String ATTRIBUTE_OWNER = "owner";
+    public static final String ATTRIBUTE_CREATED = "created";
+    public static final String ATTRIBUTE_LAST_ACCESSED_AT = "lastAccessedAt";
+    public static final String ATTRIBUTE_FAVORITE = "favorite";
+    public static final String ATTRIBUTE_FAVORITE_OWNER = "favoriteOwner";
+    public static final String ATTRIBUTE_LISTING_KEY = "listingKey";
+    public static final String ATTRIBUTE_COST = "cost";
+
     private String path_;
     private String parent_;
     private long size_;
@@ -70,9 +90,16 @@ public final class Resource {
     private Boolean favorite_;
     private BigDecimal cost_;
 
+    /**
+     * The names of the attributes modified since this resource was last marked clean
+     * with {@link #markClean()}, or {@code null} if modifications aren't being tracked
+     * (e.g., a resource that was built or deserialized rather than loaded from DynamoDB).
+     */
+    private Set<String> dirtyAttributes_;
+
     @DynamoDbPartitionKey
     @DynamoDbSecondarySortKey(indexNames = FAVORITE_INDEX_NAME)
-    @DynamoDbAttribute("path")
+    @DynamoDbAttribute(ATTRIBUTE_PATH)
     public String getPath() {
         return path_;
     }
@@ -83,9 +110,9 @@ public final class Resource {
         return this;
     }
 
-    @DynamoDbSecondaryPartitionKey(indexNames = PARENT_INDEX_NAME)
+    @DynamoDbSecondaryPartitionKey(indexNames = {PARENT_INDEX_NAME, LISTING_INDEX_NAME})
     @DynamoDbSortKey
-    @DynamoDbAttribute("parent")
+    @DynamoDbAttribute(ATTRIBUTE_PARENT)
     public String getParent() {
         return parent_;
     }
@@ -96,92 +123,100 @@ public final class Resource {
         return this;
     }
 
-    @DynamoDbAttribute("description")
+    @DynamoDbAttribute(ATTRIBUTE_DESCRIPTION)
     public String getDescription() {
         return description_;
     }
 
     public Resource setDescription(
             final String description) {
+        markDirty(ATTRIBUTE_DESCRIPTION, !Objects.equals(description_, description));
         description_ = description;
         return this;
     }
 
-    @DynamoDbAttribute("size")
+    @DynamoDbAttribute(ATTRIBUTE_SIZE)
     public long getSize() {
         return size_;
     }
 
     public Resource setSize(
             final long size) {
+        markDirty(ATTRIBUTE_SIZE, size_ != size);
         size_ = size;
         return this;
     }
 
-    @DynamoDbAttribute("type")
+    @DynamoDbAttribute(ATTRIBUTE_TYPE)
     public Type getType() {
         return type_;
     }
 
     public Resource setType(
             final Type type) {
+        markDirty(ATTRIBUTE_TYPE, !Objects.equals(type_, type));
         type_ = type;
         return this;
     }
 
-    @DynamoDbAttribute("visibility")
+    @DynamoDbAttribute(ATTRIBUTE_VISIBILITY)
     public Visibility getVisibility() {
         return visibility_;
     }
 
     public Resource setVisibility(
             final Visibility visibility) {
+        markDirty(ATTRIBUTE_VISIBILITY, !Objects.equals(visibility_, visibility));
         visibility_ = visibility;
         return this;
     }
 
-    @DynamoDbAttribute("owner")
+    @DynamoDbAttribute(ATTRIBUTE_OWNER)
     public String getOwner() {
         return owner_;
     }
 
     public Resource setOwner(
             final String owner) {
+        markDirty(ATTRIBUTE_OWNER, !Objects.equals(owner_, owner));
         owner_ = owner;
         return this;
     }
 
     @DynamoDbConvertedBy(InstantToStringTypeConverter.class)
-    @DynamoDbAttribute("created")
+    @DynamoDbAttribute(ATTRIBUTE_CREATED)
     public Instant getCreatedAt() {
         return createdAt_;
     }
 
     public Resource setCreatedAt(
             final Instant createdAt) {
+        markDirty(ATTRIBUTE_CREATED, !Objects.equals(createdAt_, createdAt));
         createdAt_ = createdAt;
         return this;
     }
 
     @DynamoDbConvertedBy(InstantToStringTypeConverter.class)
-    @DynamoDbAttribute("lastAccessedAt")
+    @DynamoDbAttribute(ATTRIBUTE_LAST_ACCESSED_AT)
     public Instant getLastAccessedAt() {
         return lastAccessedAt_;
     }
 
     public Resource setLastAccessedAt(
             final Instant lastAccessedAt) {
+        markDirty(ATTRIBUTE_LAST_ACCESSED_AT, !Objects.equals(lastAccessedAt_, lastAccessedAt));
         lastAccessedAt_ = lastAccessedAt;
         return this;
     }
 
-    @DynamoDbAttribute("favorite")
+    @DynamoDbAttribute(ATTRIBUTE_FAVORITE)
     public Boolean getFavorite() {
         return BooleanUtils.isTrue(favorite_);
     }
 
     public Resource setFavorite(
             final Boolean favorite) {
+        markDirty(ATTRIBUTE_FAVORITE, !Objects.equals(favorite_, favorite));
         favorite_ = favorite;
         return this;
     }
@@ -194,7 +229,7 @@ public final class Resource {
      * resource count).
      */
     @DynamoDbSecondaryPartitionKey(indexNames = FAVORITE_INDEX_NAME)
-    @DynamoDbAttribute("favoriteOwner")
+    @DynamoDbAttribute(ATTRIBUTE_FAVORITE_OWNER)
     public String getFavoriteOwner() {
         return getFavorite() ? getOwner() : null;
     }
@@ -213,17 +248,75 @@ public final class Resource {
         // Deliberately empty — see Javadoc above.
     }
 
-    @DynamoDbAttribute("cost")
+    /**
+     * Derived, read-only attribute backing the sort key of the {@code listing-index}
+     * GSI. Composed of the resource type ordinal followed by the resource name, so
+     * that a query against the index returns the children of a directory already in
+     * listing order: directories first, then files, each sorted alphabetically.
+     */
+    @DynamoDbSecondarySortKey(indexNames = LISTING_INDEX_NAME)
+    @DynamoDbAttribute(ATTRIBUTE_LISTING_KEY)
+    public String getListingKey() {
+        if (type_ == null || path_ == null) {
+            return null;
+        }
+
+        return type_.ordinal() + "#" + getName();
+    }
+
+    /**
+     * Intentionally a no-op — {@code listingKey} is fully derived from
+     * {@code type_}/{@code path_} (see {@link #getListingKey()}); this setter only
+     * exists for the same {@code BeanTableSchema} reason as {@link #setFavoriteOwner(String)}.
+     */
+    public void setListingKey(
+            final String listingKey) {
+        // Deliberately empty — see Javadoc above.
+    }
+
+    @DynamoDbAttribute(ATTRIBUTE_COST)
     public BigDecimal getCost() {
         return cost_ != null ? cost_ : BigDecimal.ZERO;
     }
 
     public Resource setCost(
             final BigDecimal cost) {
+        // Intentionally compareTo() and not equals(), so that a cost of "1.0" is not
+        // considered a change from "1.00".
+        markDirty(ATTRIBUTE_COST, getCost().compareTo(cost != null ? cost : BigDecimal.ZERO) != 0);
         cost_ = cost;
         return this;
     }
 
+    // Dirty attribute tracking
+
+    /**
+     * Returns the names of the attributes modified since this resource was last marked
+     * clean, or {@code null} if modifications of this resource aren't being tracked.
+     */
+    @Nullable
+    @DynamoDbIgnore
+    public Set<String> getDirtyAttributes() {
+        return (dirtyAttributes_ != null) ? ImmutableSet.copyOf(dirtyAttributes_) : null;
+    }
+
+    /**
+     * Marks this resource as clean, i.e., in sync with what's stored in DynamoDB, and
+     * starts tracking any subsequent attribute modifications.
+     */
+    public Resource markClean() {
+        dirtyAttributes_ = new HashSet<>();
+        return this;
+    }
+
+    private void markDirty(
+            final String attribute,
+            final boolean changed) {
+        if (changed && dirtyAttributes_ != null) {
+            dirtyAttributes_.add(attribute);
+        }
+    }
+
     // Derived fields
 
     /**
@@ -63,6 +63,21 @@ public final class PathUtils {
         return normalizedPath;
     }
 
+    /**
+     * Given a normalized path such as "/x/y/z" this method returns the path of its
+     * parent, "/x/y". The parent of a top-level path like "/x", and of the root "/"
+     * itself, is the root "/".
+     */
+    public static String getParentPath(
+            final String normalizedPath) {
+        final int lastSlash = normalizedPath.lastIndexOf('/');
+        if (lastSlash <= 0) {
+            return "/";
+        }
+
+        return normalizedPath.substring(0, lastSlash);
+    }
+
     /**
      * Given a normalized path such as "/x/y/z" this method returns a list of triples
      * representing the unique paths to each element in the path, including the parents. E.g.,
@@ -18,6 +18,13 @@
                           <#if (fileCount > 0)>
                               ${fileCount} file<#if (fileCount > 1)>s</#if>
                           </#if>
+                          <#--
+                            Large directories are listed a page at a time, and the counts
+                            only cover the children on this page.
+                          -->
+                          <#if cursor?has_content || nextCursor?has_content>
+                              on this page
+                          </#if>
                           <#--
                             Only show the user the total size of the resource and all
                             of its children if the authenticated user is the owner.
@@ -72,4 +79,20 @@
     </tbody>
   </#if>
 
-</table>
\ No newline at end of file
+</table>
+<#--
+  Large directories are listed a page at a time; the cursor is an opaque token
+  pointing just past the last child on the current page.
+-->
+<#if cursor?has_content || nextCursor?has_content>
+  <div class="d-flex justify-content-between align-items-center mt-3">
+    <#if cursor?has_content>
+      <a href="${contextPath}/${view}${resource.getPath()}" class="btn btn-sm btn-light"><i class="fas fa-angle-double-left fa-sm fa-fw"></i> First</a>
+    <#else>
+      <span></span>
+    </#if>
+    <#if nextCursor?has_content>
+      <a href="${contextPath}/${view}${resource.getPath()}?cursor=${nextCursor?url}" class="btn btn-sm btn-light">Next <i class="fas fa-angle-right fa-sm fa-fw"></i></a>
+    </#if>
+  </div>
+</#if>
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx;
+
+import com.google.common.collect.ImmutableMap;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LocalCacheAwareDefaultServletTest {
+
+    private static final String ETAG = "\"0123abcd-18bcfe56800\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final long SIZE = 100L;
+
+    private static final String CONTENT_TYPE = "text/plain";
+
+    private static String httpDate(
+            final long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * A request with the given headers; date headers are parsed as the container would.
+     */
+    private static HttpServletRequest newRequest(
+            final Map<String, String> headers) {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getHeader(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> headers.get(invocation.<String>getArgument(0)));
+        Mockito.when(request.getDateHeader(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> {
+                    final String value = headers.get(invocation.<String>getArgument(0));
+                    if (value == null) {
+                        return -1L;
+                    }
+                    try {
+                        return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                                .toInstant().toEpochMilli();
+                    } catch (final DateTimeParseException e) {
+                        throw new IllegalArgumentException(e);
+                    }
+                });
+        return request;
+    }
+
+    private static LocalCacheAwareDefaultServlet.ByteRange getRequestedRange(
+            final Map<String, String> headers) {
+        return LocalCacheAwareDefaultServlet.getRequestedRange(newRequest(headers), ETAG, LAST_MODIFIED, SIZE);
+    }
+
+    private static void assertRange(
+            final long start,
+            final long length,
+            final LocalCacheAwareDefaultServlet.ByteRange range) {
+        assertNotNull(range);
+        assertEquals(start, range.getStart());
+        assertEquals(length, range.getLength());
+    }
+
+    @Test
+    public void noRangeServesEntireFileTest() {
+        assertNull(getRequestedRange(ImmutableMap.of()));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "items=0-9")));
+    }
+
+    @Test
+    public void byteRangeTest() {
+        assertRange(10L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=10-19")));
+        assertRange(90L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=90-")));
+        // Clipped to the end of the file.
+        assertRange(90L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=90-500")));
+    }
+
+    @Test
+    public void suffixByteRangeTest() {
+        assertRange(90L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=-10")));
+        assertRange(0L, SIZE, getRequestedRange(ImmutableMap.of("Range", "bytes=-500")));
+    }
+
+    @Test
+    public void unsatisfiableByteRangeTest() {
+        assertSame(LocalCacheAwareDefaultServlet.ByteRange.UNSATISFIABLE,
+                getRequestedRange(ImmutableMap.of("Range", "bytes=100-")));
+        assertSame(LocalCacheAwareDefaultServlet.ByteRange.UNSATISFIABLE,
+                getRequestedRange(ImmutableMap.of("Range", "bytes=-0")));
+    }
+
+    @Test
+    public void unservedByteRangeServesEntireFileTest() {
+        // Multiple ranges, invalid ranges, and garbage are all ignored.
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=0-9,20-29")));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=19-10")));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=ten-twenty")));
+    }
+
+    @Test
+    public void ifRangeTest() {
+        // A matching strong validator, or the exact last modified date, serves the range.
+        assertRange(10L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", ETAG)));
+        assertRange(10L, 10L, getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", httpDate(LAST_MODIFIED))));
+
+        // Anything else serves the entire file; a weak validator never matches.
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", "\"something-else\"")));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", "W/" + ETAG)));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", httpDate(LAST_MODIFIED - 60_000L))));
+        assertNull(getRequestedRange(ImmutableMap.of("Range", "bytes=10-19",
+                "If-Range", "not a date")));
+    }
+
+    @Test
+    public void isNotModifiedTest() {
+        assertFalse(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of()),
+                ETAG, LAST_MODIFIED));
+
+        // If-None-Match uses the weak comparison.
+        assertTrue(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-None-Match", ETAG)), ETAG, LAST_MODIFIED));
+        assertTrue(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-None-Match", "\"something-else\", W/" + ETAG)), ETAG, LAST_MODIFIED));
+        assertTrue(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-None-Match", "*")), ETAG, LAST_MODIFIED));
+
+        assertTrue(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-Modified-Since", httpDate(LAST_MODIFIED))), ETAG, LAST_MODIFIED));
+        assertFalse(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-Modified-Since", httpDate(LAST_MODIFIED - 60_000L))), ETAG, LAST_MODIFIED));
+
+        // If-None-Match takes precedence over If-Modified-Since.
+        assertFalse(LocalCacheAwareDefaultServlet.isNotModified(newRequest(ImmutableMap.of(
+                "If-None-Match", "\"something-else\"",
+                "If-Modified-Since", httpDate(LAST_MODIFIED))), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    public void notModifiedResponseTest() throws Exception {
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        assertNull(LocalCacheAwareDefaultServlet.writeCachedFileHeaders(
+                newRequest(ImmutableMap.of("If-None-Match", ETAG)), response,
+                CONTENT_TYPE, null, ETAG, LAST_MODIFIED, SIZE));
+
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Mockito.verify(response).setHeader("ETag", ETAG);
+        Mockito.verify(response, Mockito.never()).setContentLengthLong(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    public void entireFileResponseTest() throws Exception {
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        assertRange(0L, SIZE, LocalCacheAwareDefaultServlet.writeCachedFileHeaders(
+                newRequest(ImmutableMap.of()), response,
+                CONTENT_TYPE, "private, max-age=60", ETAG, LAST_MODIFIED, SIZE));
+
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_OK);
+        Mockito.verify(response).setContentType(CONTENT_TYPE);
+        Mockito.verify(response).setHeader("Cache-Control", "private, max-age=60");
+        Mockito.verify(response).setContentLengthLong(SIZE);
+    }
+
+    @Test
+    public void partialContentResponseTest() throws Exception {
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        assertRange(10L, 10L, LocalCacheAwareDefaultServlet.writeCachedFileHeaders(
+                newRequest(ImmutableMap.of("Range", "bytes=10-19", "If-Range", ETAG)), response,
+                CONTENT_TYPE, null, ETAG, LAST_MODIFIED, SIZE));
+
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        Mockito.verify(response).setHeader("Content-Range", "bytes 10-19/100");
+        Mockito.verify(response).setContentLengthLong(10L);
+    }
+
+    @Test
+    public void rangeNotSatisfiableResponseTest() throws Exception {
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        assertNull(LocalCacheAwareDefaultServlet.writeCachedFileHeaders(
+                newRequest(ImmutableMap.of("Range", "bytes=100-199")), response,
+                CONTENT_TYPE, null, ETAG, LAST_MODIFIED, SIZE));
+
+        Mockito.verify(response).setHeader("Content-Range", "bytes */100");
+        Mockito.verify(response).sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        Mockito.verify(response, Mockito.never()).setContentLengthLong(ArgumentMatchers.anyLong());
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class DynamoDbListingCacheTest {
+
+    private static final String DIRECTORY = "/foobar/secret-stuff";
+
+    private static final DynamoDbListingCache.ListingKey KEY =
+            DynamoDbListingCache.ListingKey.ofDirectoryPage(DIRECTORY,
+                    ImmutableSet.of(Resource.Visibility.PRIVATE), 100, null);
+
+    private static List<Resource> newListing(
+            final String description) {
+        return ImmutableList.of(new Resource.Builder()
+                .setPath(DIRECTORY + "/cool.txt")
+                .setParent(DIRECTORY)
+                .setDescription(description)
+                .setType(Resource.Type.FILE)
+                .setVisibility(Resource.Visibility.PRIVATE)
+                .setOwner("foobar")
+                .setCreatedAt(Instant.now())
+                .build());
+    }
+
+    private static DynamoDbListingCache newListingCache() {
+        return new DynamoDbListingCache(true, 100L, Duration.ofMinutes(1L), Duration.ofMinutes(5L),
+                MoreExecutors.newDirectExecutorService());
+    }
+
+    @Test
+    public void invalidatesOnlyListingsOfDirectoryTest() {
+        final DynamoDbListingCache cache = newListingCache();
+
+        final DynamoDbListingCache.ListingKey otherKey =
+                DynamoDbListingCache.ListingKey.ofDirectoryPage("/foobar/other-stuff",
+                        ImmutableSet.of(Resource.Visibility.PRIVATE), 100, null);
+        cache.get(KEY, () -> newListing("cached"));
+        cache.get(otherKey, () -> newListing("other"));
+        assertEquals(2L, cache.size());
+
+        cache.invalidate(DIRECTORY);
+        assertEquals(1L, cache.size());
+
+        final AtomicInteger loads = new AtomicInteger();
+        cache.get(otherKey, () -> {
+            loads.incrementAndGet();
+            return newListing("reloaded");
+        });
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void loadRacingInvalidationIsNotCachedTest() {
+        final DynamoDbListingCache cache = newListingCache();
+
+        // A write lands, and invalidates the directory, while the listing is loading what
+        // it read from before the write.
+        final List<Resource> stale = cache.get(KEY, () -> {
+            cache.invalidate(DIRECTORY);
+            return newListing("stale");
+        });
+        assertEquals("stale", stale.get(0).getDescription());
+
+        final List<Resource> fresh = cache.get(KEY, () -> newListing("fresh"));
+        assertEquals("fresh", fresh.get(0).getDescription());
+    }
+
+    @Test
+    public void invalidatesListingCachedAfterEvictionTest() {
+        final DynamoDbListingCache cache = new DynamoDbListingCache(true, 1L, Duration.ofMinutes(1L),
+                Duration.ofMinutes(5L), MoreExecutors.newDirectExecutorService());
+
+        final DynamoDbListingCache.ListingKey otherKey =
+                DynamoDbListingCache.ListingKey.ofDirectoryPage("/foobar/other-stuff",
+                        ImmutableSet.of(Resource.Visibility.PRIVATE), 100, null);
+        cache.get(KEY, () -> newListing("evicted"));
+        // Evicts the listing of the directory, and with it the tracking of its key.
+        cache.get(otherKey, () -> newListing("other"));
+        cache.get(KEY, () -> newListing("cached"));
+
+        cache.invalidate(DIRECTORY);
+
+        final List<Resource> fresh = cache.get(KEY, () -> newListing("fresh"));
+        assertEquals("fresh", fresh.get(0).getDescription());
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class DynamoDbResourceCacheTest {
+
+    private static final String PATH = "/foobar/secret-stuff/cool.txt";
+
+    private static Resource newResource(
+            final String description) {
+        return new Resource.Builder()
+                .setPath(PATH)
+                .setParent("/foobar/secret-stuff")
+                .setDescription(description)
+                .setType(Resource.Type.FILE)
+                .setVisibility(Resource.Visibility.PRIVATE)
+                .setOwner("foobar")
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+
+    private static DynamoDbResourceCache newResourceCache() {
+        return new DynamoDbResourceCache(true, 100L, Duration.ofMinutes(5L));
+    }
+
+    @Test
+    public void cachesLoadedResourceTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(PATH, path -> {
+            loads.incrementAndGet();
+            return newResource("loaded");
+        });
+        final Resource cached = cache.get(PATH, path -> {
+            loads.incrementAndGet();
+            return newResource("reloaded");
+        });
+
+        assertEquals("loaded", cached.getDescription());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void missIsNotCachedTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+
+        // A miss, as an eventually consistent read right after a create may well return.
+        assertNull(cache.get(PATH, path -> null));
+        final Resource loaded = cache.get(PATH, path -> newResource("created"));
+
+        assertEquals("created", loaded.getDescription());
+        assertEquals(1L, cache.size());
+    }
+
+    @Test
+    public void loadRacingInvalidationIsNotCachedTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+
+        // A write lands, and invalidates the path, while the lookup is loading what it
+        // read from before the write.
+        final Resource stale = cache.get(PATH, path -> {
+            cache.invalidate(path);
+            return newResource("stale");
+        });
+        assertEquals("stale", stale.getDescription());
+
+        final Resource fresh = cache.get(PATH, path -> newResource("fresh"));
+        assertEquals("fresh", fresh.getDescription());
+    }
+
+    @Test
+    public void asyncLoadRacingInvalidationIsNotCachedTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+
+        final CompletableFuture<Resource> load = new CompletableFuture<>();
+        final CompletableFuture<Resource> stale = cache.getAsync(PATH, path -> load);
+        cache.invalidate(PATH);
+        load.complete(newResource("stale"));
+        assertEquals("stale", stale.join().getDescription());
+
+        final Resource fresh = cache.get(PATH, path -> newResource("fresh"));
+        assertEquals("fresh", fresh.getDescription());
+    }
+
+    @Test
+    public void bulkLoadRacingInvalidationIsNotCachedTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+
+        cache.getAll(ImmutableSet.of(PATH), paths -> {
+            cache.invalidate(PATH);
+            return ImmutableMap.of(PATH, newResource("stale"));
+        });
+
+        final Resource fresh = cache.get(PATH, path -> newResource("fresh"));
+        assertEquals("fresh", fresh.getDescription());
+    }
+
+    @Test
+    public void syncLookupSharesPendingAsyncLoadTest() {
+        final DynamoDbResourceCache cache = newResourceCache();
+
+        final CompletableFuture<Resource> load = new CompletableFuture<>();
+        cache.getAsync(PATH, path -> load);
+
+        final CompletableFuture<Resource> shared = CompletableFuture.supplyAsync(() ->
+                cache.get(PATH, path -> newResource("duplicate")));
+        load.complete(newResource("loaded"));
+
+        assertEquals("loaded", shared.join().getDescription());
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the {@code GetItem} fast path of {@link GetResource} against the legacy
+ * partition key {@code Query} path, against a real DynamoDB table. Skipped unless
+ * explicitly enabled, e.g.:
+ *
+ * <pre>
+ * mvn test -Dtest=GetResourceBenchmarkTest \
+ *     -Donyx.benchmark.dynamo-db.table-name=onyx-resources \
+ *     -Donyx.benchmark.dynamo-db.region=us-west-2 \
+ *     -Donyx.benchmark.dynamo-db.path=/foobar/some/file.txt
+ * </pre>
+ *
+ * Credentials are resolved through the AWS default credentials provider chain.
+ */
+@EnabledIfSystemProperty(named = "onyx.benchmark.dynamo-db.table-name", matches = ".+")
+public final class GetResourceBenchmarkTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GetResourceBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 500;
+
+    @Test
+    public void getItemVersusQueryBenchmark() {
+        final String tableName = System.getProperty("onyx.benchmark.dynamo-db.table-name");
+        final String region = System.getProperty("onyx.benchmark.dynamo-db.region", "us-east-1");
+        final String path = System.getProperty("onyx.benchmark.dynamo-db.path");
+        assertNotNull(path, "Benchmark resource path is required.");
+
+        try (DynamoDbClient dynamoDbClient = DynamoDbClient.builder()
+                .region(Region.of(region))
+                .build()) {
+            final DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
+                    .dynamoDbClient(dynamoDbClient)
+                    .build();
+            final DynamoDbTable<Resource> resourceTable =
+                    enhancedClient.table(tableName, TableSchema.fromBean(Resource.class));
+
+            // Sanity check; both paths must agree on what lives at the path.
+            final Resource viaGetItem = new GetResource(path).run(resourceTable);
+            final Resource viaQuery = new GetResource(path).query(resourceTable);
+            assertNotNull(viaGetItem, "Found no resource at benchmark path: " + path);
+            assertEquals(viaQuery.getPath(), viaGetItem.getPath());
+
+            final long[] query = measure(() -> new GetResource(path).query(resourceTable));
+            final long[] getItem = measure(() -> new GetResource(path).run(resourceTable));
+            final long[] getItemConsistent = measure(() -> new GetResource(path, true).run(resourceTable));
+
+            report("Query", query);
+            report("GetItem", getItem);
+            report("GetItem (consistent)", getItemConsistent);
+        }
+    }
+
+    private static long[] measure(
+            final Runnable lookup) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            lookup.run();
+        }
+
+        final long[] latencies = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            lookup.run();
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(
+            final String name,
+            final long[] sortedLatencies) {
+        final double mean = Arrays.stream(sortedLatencies).average().orElse(0d);
+        LOG.info("{}: n={}, mean={}us, p50={}us, p99={}us",
+                name,
+                sortedLatencies.length,
+                TimeUnit.NANOSECONDS.toMicros((long) mean),
+                TimeUnit.NANOSECONDS.toMicros(percentile(sortedLatencies, 0.50d)),
+                TimeUnit.NANOSECONDS.toMicros(percentile(sortedLatencies, 0.99d)));
+    }
+
+    private static long percentile(
+            final long[] sortedLatencies,
+            final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.aws.dynamodb.queries;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import onyx.entities.storage.ResourcePage;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static onyx.components.aws.dynamodb.DynamoDbManager.PARENT_INDEX_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class ListDirectoryPageTest {
+
+    private static final Set<Resource.Visibility> VISIBILITY =
+            ImmutableSet.of(Resource.Visibility.PUBLIC, Resource.Visibility.PRIVATE);
+
+    private static final Resource DIRECTORY = new Resource.Builder()
+            .setPath("/foobar/secret-stuff")
+            .setParent("/foobar")
+            .setDescription("")
+            .setType(Resource.Type.DIRECTORY)
+            .setVisibility(Resource.Visibility.PRIVATE)
+            .setOwner("foobar")
+            .setCreatedAt(Instant.now())
+            .build();
+
+    private static Resource newChild(
+            final String name,
+            final Resource.Type type) {
+        return new Resource.Builder()
+                .setPath(DIRECTORY.getPath() + "/" + name)
+                .setParent(DIRECTORY.getPath())
+                .setDescription("")
+                .setType(type)
+                .setVisibility(Resource.Visibility.PRIVATE)
+                .setOwner("foobar")
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DynamoDbTable<Resource> newResourceTable(
+            final List<Resource> children) {
+        final DynamoDbIndex<Resource> parentIndex = Mockito.mock(DynamoDbIndex.class);
+        final SdkIterable<Page<Resource>> pages = () -> ImmutableList.of(Page.create(children)).iterator();
+        Mockito.when(parentIndex.query(ArgumentMatchers.any(QueryEnhancedRequest.class))).thenReturn(pages);
+
+        final DynamoDbTable<Resource> resourceTable = Mockito.mock(DynamoDbTable.class);
+        Mockito.when(resourceTable.index(PARENT_INDEX_NAME)).thenReturn(parentIndex);
+        return resourceTable;
+    }
+
+    @Test
+    public void pagesThroughParentIndexInListingOrderTest() {
+        final DynamoDbTable<Resource> resourceTable = newResourceTable(ImmutableList.of(
+                newChild("zebra.txt", Resource.Type.FILE),
+                newChild("cool.txt", Resource.Type.FILE),
+                newChild("photos", Resource.Type.DIRECTORY),
+                newChild("apple.txt", Resource.Type.FILE),
+                newChild("archive", Resource.Type.DIRECTORY)));
+
+        final List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            final ResourcePage page = new ListDirectoryPage(DIRECTORY, VISIBILITY, 2, cursor)
+                    .runWithParentIndex(resourceTable);
+            page.getResources().forEach(resource -> listed.add(resource.getName()));
+            cursor = page.getCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(ImmutableList.of("archive", "photos", "apple.txt", "cool.txt", "zebra.txt"), listed);
+    }
+
+    @Test
+    public void lastPageHasNoCursorTest() {
+        final DynamoDbTable<Resource> resourceTable = newResourceTable(ImmutableList.of(
+                newChild("cool.txt", Resource.Type.FILE),
+                newChild("photos", Resource.Type.DIRECTORY)));
+
+        final ResourcePage page = new ListDirectoryPage(DIRECTORY, VISIBILITY, 2, null)
+                .runWithParentIndex(resourceTable);
+
+        assertEquals(2, page.getResources().size());
+        assertNull(page.getCursor());
+    }
+
+}
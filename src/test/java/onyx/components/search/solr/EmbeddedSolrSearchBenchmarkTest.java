@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.search.solr;
+
+import com.google.common.collect.ImmutableList;
+import onyx.components.search.SearchConfig;
+import onyx.components.search.SearchManager;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the latency of substring searches as n-gram term lookups, as built by
+ * {@link EmbeddedSolrSearchManager}, against the leading-wildcard queries they replaced,
+ * on an embedded Solr index of synthetic resources; and checks that both match the very
+ * same documents. Skipped unless explicitly enabled, e.g.:
+ *
+ * <pre>
+ * mvn test -Dtest=EmbeddedSolrSearchBenchmarkTest \
+ *     -Donyx.benchmark.solr.documents=1000000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "onyx.benchmark.solr.documents", matches = "\\d+")
+public final class EmbeddedSolrSearchBenchmarkTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSolrSearchBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private static final int INDEX_BATCH_SIZE = 10000;
+    private static final int MAX_RESULTS_PER_SEARCH = 100;
+
+    private static final String OWNER = "foobar";
+
+    private static final List<String> WORDS = ImmutableList.of("receipt", "invoice", "taxes",
+            "xmas-2026", "vacation", "notes", "scan", "photo", "contract", "budget", "report",
+            "draft", "kewl", "secret-stuff", "summer", "2025", "mortgage", "insurance");
+    private static final List<String> EXTENSIONS = ImmutableList.of(".pdf", ".txt", ".jpg", ".png", ".docx");
+
+    private static final List<String> QUERIES = ImmutableList.of("rec", "2026", "oice", "xmas-20",
+            "photo 2025", ":tax", "/vacation", "insurance-summer-receipt");
+
+    @TempDir
+    Path solrHomeDir_;
+
+    @Test
+    public void ngramVersusWildcardBenchmark() throws Exception {
+        final int documents = Integer.getInteger("onyx.benchmark.solr.documents");
+
+        final SearchConfig searchConfig = Mockito.mock(SearchConfig.class);
+        Mockito.when(searchConfig.getSolrHomeDirectory()).thenReturn(solrHomeDir_);
+        Mockito.when(searchConfig.getSolrConfigDirectory()).thenReturn(Path.of("solr", "config"));
+        Mockito.when(searchConfig.getSolrCoreName()).thenReturn("onyx");
+        Mockito.when(searchConfig.getSolrNodeName()).thenReturn("onyx-benchmark");
+        Mockito.when(searchConfig.getMaxResultsPerSearch()).thenReturn(MAX_RESULTS_PER_SEARCH);
+
+        final EmbeddedSolrServerManager solrServerManager = new EmbeddedSolrServerManager(searchConfig);
+        try {
+            solrServerManager.initialize();
+            final SolrClient solrClient = solrServerManager.getSolrClient();
+
+            final long start = System.currentTimeMillis();
+            index(new EmbeddedSolrSearchManager(searchConfig, solrServerManager), documents);
+            solrClient.commit();
+            LOG.info("Indexed {} documents in {}ms", documents, System.currentTimeMillis() - start);
+
+            for (final String query : QUERIES) {
+                final String ngramQuery = EmbeddedSolrSearchManager.buildSearchQuery(OWNER, query, false);
+                final String wildcardQuery = toWildcardQuery(ngramQuery);
+
+                // Both must match the very same documents.
+                final long ngramMatches = countMatches(solrClient, ngramQuery);
+                assertEquals(countMatches(solrClient, wildcardQuery), ngramMatches,
+                        "Mismatched results for query: " + query);
+
+                report(query, "wildcard", ngramMatches, measure(solrClient, wildcardQuery));
+                report(query, "n-gram", ngramMatches, measure(solrClient, ngramQuery));
+            }
+        } finally {
+            solrServerManager.destroy();
+        }
+    }
+
+    private static void index(
+            final EmbeddedSolrSearchManager searchManager,
+            final int documents) {
+        final Random random = new Random(42L);
+        final Instant now = Instant.now();
+
+        final List<Resource> batch = new ArrayList<>(INDEX_BATCH_SIZE);
+        for (int i = 0; i < documents; i++) {
+            final String parent = String.format("/%s/%s-%d", OWNER, randomWord(random), i % 1000);
+            final boolean directory = (i % 100) == 0;
+            final String name = directory
+                    ? String.format("%s-%d", randomWord(random), i)
+                    : String.format("%s-%s-%d%s", randomWord(random), randomWord(random), i,
+                    EXTENSIONS.get(random.nextInt(EXTENSIONS.size())));
+
+            batch.add(new Resource.Builder()
+                    .setPath(parent + "/" + name)
+                    .setParent(parent)
+                    .setDescription(String.format("%s %s %s", randomWord(random), randomWord(random),
+                            randomWord(random)))
+                    .setSize(directory ? 0L : random.nextInt(Integer.MAX_VALUE))
+                    .setType(directory ? Resource.Type.DIRECTORY : Resource.Type.FILE)
+                    .setVisibility(Resource.Visibility.PRIVATE)
+                    .setOwner(OWNER)
+                    .setCreatedAt(now.minusSeconds(i))
+                    .setFavorite(random.nextInt(10) == 0)
+                    .setCost(BigDecimal.ZERO)
+                    .build());
+
+            if (batch.size() == INDEX_BATCH_SIZE) {
+                searchManager.addResourcesToIndex(batch);
+                batch.clear();
+            }
+        }
+
+        searchManager.addResourcesToIndex(batch);
+    }
+
+    private static String randomWord(
+            final Random random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    /**
+     * The leading-wildcard equivalent of the given n-gram query, as searches were built
+     * before the n-gram fields were introduced.
+     */
+    private static String toWildcardQuery(
+            final String ngramQuery) {
+        return ngramQuery.replaceAll("(\\w+)NGram:(\\S+?)\\^=1", "$1Lower:*$2*");
+    }
+
+    private static long countMatches(
+            final SolrClient solrClient,
+            final String query) throws Exception {
+        return solrClient.query(new SolrQuery(query).setRows(0)).getResults().getNumFound();
+    }
+
+    private static long[] measure(
+            final SolrClient solrClient,
+            final String query) throws Exception {
+        final SolrQuery solrQuery = new SolrQuery(query)
+                .addSort(SearchManager.QUERY_FIELD_SCORE, SolrQuery.ORDER.desc)
+                .addSort(SearchManager.INDEX_FIELD_CREATED, SolrQuery.ORDER.desc)
+                .setRows(MAX_RESULTS_PER_SEARCH);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            solrClient.query(solrQuery);
+        }
+
+        final long[] latencies = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            solrClient.query(solrQuery);
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(
+            final String query,
+            final String name,
+            final long matches,
+            final long[] sortedLatencies) {
+        final double mean = Arrays.stream(sortedLatencies).average().orElse(0d);
+        LOG.info("[{}] {}: matches={}, n={}, mean={}us, p50={}us, p99={}us",
+                query,
+                name,
+                matches,
+                sortedLatencies.length,
+                TimeUnit.NANOSECONDS.toMicros((long) mean),
+                TimeUnit.NANOSECONDS.toMicros(percentile(sortedLatencies, 0.50d)),
+                TimeUnit.NANOSECONDS.toMicros(percentile(sortedLatencies, 0.99d)));
+    }
+
+    private static long percentile(
+            final long[] sortedLatencies,
+            final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class FrequencySketchTest {
+
+    @Test
+    public void unseenKeyHasZeroFrequencyTest() {
+        final FrequencySketch sketch = new FrequencySketch(1000, 10000);
+
+        assertEquals(0, sketch.frequency("/foobar/never-downloaded.txt"));
+    }
+
+    @Test
+    public void frequencyCountsIncrementsTest() {
+        final FrequencySketch sketch = new FrequencySketch(1000, 10000);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("/foobar/hot.txt");
+        }
+        sketch.increment("/foobar/cold.txt");
+
+        assertEquals(5, sketch.frequency("/foobar/hot.txt"));
+        assertEquals(1, sketch.frequency("/foobar/cold.txt"));
+    }
+
+    @Test
+    public void frequencySaturatesAtFifteenTest() {
+        final FrequencySketch sketch = new FrequencySketch(1000, 10000);
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("/foobar/hot.txt");
+        }
+
+        assertEquals(15, sketch.frequency("/foobar/hot.txt"));
+    }
+
+    @Test
+    public void resetHalvesFrequencyTest() {
+        final FrequencySketch sketch = new FrequencySketch(1000, 10000);
+
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("/foobar/hot.txt");
+        }
+        sketch.reset();
+
+        assertEquals(4, sketch.frequency("/foobar/hot.txt"));
+    }
+
+    @Test
+    public void frequencyAgesOutAfterSampleSizeTest() {
+        final FrequencySketch sketch = new FrequencySketch(100, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("/foobar/once-popular.txt");
+        }
+
+        // A long tail of one-off downloads ages the once popular key out of the sketch.
+        for (int i = 0; i < 10000; i++) {
+            sketch.increment("/foobar/one-off-" + i + ".txt");
+        }
+
+        assertTrue(sketch.frequency("/foobar/once-popular.txt") < 10);
+    }
+
+}
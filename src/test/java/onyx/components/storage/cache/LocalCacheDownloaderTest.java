@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import onyx.components.config.OnyxConfig;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.AssetManager;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LocalCacheDownloaderTest {
+
+    private static final int OBJECT_SIZE = 10_000;
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @TempDir
+    Path localCacheDir_;
+
+    /**
+     * Stands in for S3: serves the object, whole or in ranges, with an ETag.
+     */
+    private HttpServer server_;
+    private URL url_;
+
+    private final AtomicInteger requests_ = new AtomicInteger();
+
+    private volatile byte[] object_;
+
+    /**
+     * If set, every response claims a new version of the object.
+     */
+    private volatile boolean changing_;
+
+    /**
+     * Responses are held until this is counted down.
+     */
+    private volatile CountDownLatch release_ = new CountDownLatch(0);
+
+    private ExecutorService serverExecutorService_;
+    private ExecutorService asyncCacheExecutorService_;
+
+    private LocalCacheDownloader localCacheDownloader_;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        object_ = new byte[OBJECT_SIZE];
+        ThreadLocalRandom.current().nextBytes(object_);
+
+        serverExecutorService_ = Executors.newCachedThreadPool();
+        asyncCacheExecutorService_ = Executors.newCachedThreadPool();
+
+        server_ = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server_.createContext("/object", this::serveObject);
+        server_.setExecutor(serverExecutorService_);
+        server_.start();
+        url_ = new URL(String.format("http://%s:%d/object",
+                server_.getAddress().getHostString(), server_.getAddress().getPort()));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release_.countDown();
+        if (localCacheDownloader_ != null) {
+            localCacheDownloader_.destroy();
+        }
+        server_.stop(0);
+        serverExecutorService_.shutdownNow();
+        asyncCacheExecutorService_.shutdownNow();
+    }
+
+    private void serveObject(
+            final HttpExchange exchange) throws IOException {
+        final int request = requests_.incrementAndGet();
+        try {
+            release_.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+
+        final byte[] object = object_;
+        exchange.getResponseHeaders().set("ETag", changing_ ? "\"v" + request + "\"" : "\"v1\"");
+
+        final int start;
+        final int end;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            start = 0;
+            end = object.length - 1;
+            exchange.sendResponseHeaders(200, object.length);
+        } else {
+            // Only ever "bytes=<first>-<last>", as requested by the downloader.
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(bounds[0]);
+            end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+            if (start >= object.length) {
+                exchange.sendResponseHeaders(416, -1L);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Range",
+                    String.format("bytes %d-%d/%d", start, end, object.length));
+            exchange.sendResponseHeaders(206, end - start + 1);
+        }
+
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(object, start, end - start + 1);
+        }
+    }
+
+    private LocalCacheConfig newLocalCacheConfig(
+            final long rangeThreshold,
+            final long rangeSize) {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.getLocalCacheDirectory()).thenReturn(localCacheDir_);
+        Mockito.when(localCacheConfig.getLocalCacheDownloaderRangeThreshold()).thenReturn(rangeThreshold);
+        Mockito.when(localCacheConfig.getLocalCacheDownloaderRangeSize()).thenReturn(rangeSize);
+        Mockito.when(localCacheConfig.getLocalCacheDownloaderMaxConcurrentRequests()).thenReturn(4);
+        Mockito.when(localCacheConfig.getLocalCacheDownloaderReadTimeout(ArgumentMatchers.any()))
+                .thenReturn(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        Mockito.when(localCacheConfig.getLocalCacheDownloaderRequestTimeout(ArgumentMatchers.any()))
+                .thenReturn(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        Mockito.when(localCacheConfig.getLocalCacheEvictionMaxBytes()).thenReturn(Long.MAX_VALUE);
+        Mockito.when(localCacheConfig.getLocalCacheEvictionMaxEntries()).thenReturn(1_000L);
+        return localCacheConfig;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(localCacheDir_)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    public void downloadsObjectInRangesTest() throws Exception {
+        localCacheDownloader_ = new LocalCacheDownloader(newLocalCacheConfig(1_000L, 3_000L),
+                new AsyncCacheThreadPool(asyncCacheExecutorService_));
+
+        final Path file = localCacheDir_.resolve("object");
+        final LocalCacheDownloader.Transfer transfer = localCacheDownloader_.download(url_, OBJECT_SIZE, file);
+
+        assertEquals(file, transfer.getFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // Four ranges, the last of them partial, assembled in order.
+        assertEquals(4, requests_.get());
+        assertArrayEquals(object_, Files.readAllBytes(file));
+        assertEquals(List.of(file), listFiles());
+    }
+
+    @Test
+    public void downloadsObjectOfSizeReportedByS3Test() throws Exception {
+        localCacheDownloader_ = new LocalCacheDownloader(newLocalCacheConfig(Long.MAX_VALUE, 3_000L),
+                new AsyncCacheThreadPool(asyncCacheExecutorService_));
+
+        // The object is larger than it was expected to be (e.g., a stale size in DynamoDB).
+        final Path file = localCacheDir_.resolve("object");
+        final LocalCacheDownloader.Transfer transfer =
+                localCacheDownloader_.download(url_, OBJECT_SIZE - 1_000L, file);
+
+        assertEquals(OBJECT_SIZE, transfer.getStarted().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getSize());
+        assertEquals(file, transfer.getFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, requests_.get());
+        assertArrayEquals(object_, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void rejectsObjectChangedDuringRangedDownloadTest() throws Exception {
+        localCacheDownloader_ = new LocalCacheDownloader(newLocalCacheConfig(1_000L, 3_000L),
+                new AsyncCacheThreadPool(asyncCacheExecutorService_));
+        changing_ = true;
+
+        final Path file = localCacheDir_.resolve("object");
+        final LocalCacheDownloader.Transfer transfer = localCacheDownloader_.download(url_, OBJECT_SIZE, file);
+
+        assertThrows(ExecutionException.class,
+                () -> transfer.getFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // Nothing is left behind, not even the temp file.
+        assertTrue(listFiles().isEmpty());
+    }
+
+    @Test
+    public void rejectsRangedObjectOfUnexpectedSizeTest() throws Exception {
+        localCacheDownloader_ = new LocalCacheDownloader(newLocalCacheConfig(1_000L, 3_000L),
+                new AsyncCacheThreadPool(asyncCacheExecutorService_));
+        object_ = Arrays.copyOf(object_, OBJECT_SIZE - 1_000);
+
+        final Path file = localCacheDir_.resolve("object");
+        final LocalCacheDownloader.Transfer transfer = localCacheDownloader_.download(url_, OBJECT_SIZE, file);
+
+        assertThrows(ExecutionException.class,
+                () -> transfer.getFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(listFiles().isEmpty());
+    }
+
+    private LocalCacheManager newLocalCacheManager() throws Exception {
+        final LocalCacheConfig localCacheConfig = newLocalCacheConfig(Long.MAX_VALUE, 3_000L);
+        final AsyncCacheThreadPool asyncCacheThreadPool = new AsyncCacheThreadPool(asyncCacheExecutorService_);
+        localCacheDownloader_ = new LocalCacheDownloader(localCacheConfig, asyncCacheThreadPool);
+
+        final AssetManager assetManager = Mockito.mock(AssetManager.class);
+        Mockito.when(assetManager.getPresignedDownloadUrlForResource(ArgumentMatchers.any())).thenReturn(url_);
+
+        final LocalCacheIndex localCacheIndex = new LocalCacheIndex(localCacheConfig, asyncCacheThreadPool);
+        final LocalCacheMemoryTier localCacheMemoryTier = Mockito.mock(LocalCacheMemoryTier.class);
+        return new LocalCacheManager(Mockito.mock(OnyxConfig.class),
+                localCacheConfig, assetManager, Mockito.mock(CachedResourceSigner.class), localCacheIndex,
+                new LocalCacheEvictor(localCacheConfig, localCacheIndex, localCacheMemoryTier, asyncCacheThreadPool),
+                localCacheDownloader_, localCacheMemoryTier, asyncCacheThreadPool);
+    }
+
+    private static Resource newResource() {
+        return new Resource.Builder()
+                .setPath("/foobar/cool.txt")
+                .setParent("/foobar")
+                .setSize(OBJECT_SIZE)
+                .setDescription("")
+                .setType(Resource.Type.FILE)
+                .setVisibility(Resource.Visibility.PRIVATE)
+                .setOwner("foobar")
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    public void sharesDownloadInFlightTest() throws Exception {
+        final LocalCacheManager localCacheManager = newLocalCacheManager();
+        final Resource resource = newResource();
+
+        // Hold the one response, so the second prefetch finds the first still in flight.
+        release_ = new CountDownLatch(1);
+        final CompletableFuture<Path> first = localCacheManager.prefetchResourceToCache(resource);
+        final CompletableFuture<Path> second = localCacheManager.prefetchResourceToCache(resource);
+        assertSame(first, second);
+        assertNotNull(localCacheManager.getInFlightDownload(resource.getPath()));
+        release_.countDown();
+
+        final Path cachedFile = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(cachedFile);
+        assertEquals(1, requests_.get());
+        assertArrayEquals(object_, Files.readAllBytes(cachedFile));
+        assertTrue(localCacheManager.hasResourceInCache(resource));
+    }
+
+    @Test
+    public void discardsDownloadOfResourceDeletedInFlightTest() throws Exception {
+        final LocalCacheManager localCacheManager = newLocalCacheManager();
+        final Resource resource = newResource();
+
+        // Delete the resource while its download is held in flight.
+        release_ = new CountDownLatch(1);
+        final CompletableFuture<Path> download = localCacheManager.prefetchResourceToCache(resource);
+        localCacheManager.deleteResourceFromCache(resource);
+        assertNull(localCacheManager.getInFlightDownload(resource.getPath()));
+        release_.countDown();
+
+        assertNull(download.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(localCacheManager.hasResourceInCache(resource));
+        assertFalse(Files.exists(localCacheManager.getCachedFileForResource(resource)));
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LocalCacheEvictorTest {
+
+    @TempDir
+    Path localCacheDir_;
+
+    private LocalCacheIndex localCacheIndex_;
+    private LocalCacheMemoryTier localCacheMemoryTier_;
+
+    private LocalCacheEvictor newLocalCacheEvictor(
+            final long maxBytes,
+            final long maxEntries) {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.getLocalCacheDirectory()).thenReturn(localCacheDir_);
+        Mockito.when(localCacheConfig.getLocalCacheEvictionMaxBytes()).thenReturn(maxBytes);
+        Mockito.when(localCacheConfig.getLocalCacheEvictionMaxEntries()).thenReturn(maxEntries);
+
+        // Evict on the calling thread, so eviction is done by the time recordWrite returns.
+        final AsyncCacheThreadPool asyncCacheThreadPool =
+                new AsyncCacheThreadPool(MoreExecutors.newDirectExecutorService());
+
+        localCacheIndex_ = new LocalCacheIndex(localCacheConfig, asyncCacheThreadPool);
+        localCacheMemoryTier_ = Mockito.mock(LocalCacheMemoryTier.class);
+
+        return new LocalCacheEvictor(localCacheConfig, localCacheIndex_, localCacheMemoryTier_,
+                asyncCacheThreadPool);
+    }
+
+    private Path writeCachedFile(
+            final LocalCacheEvictor evictor,
+            final String name,
+            final int size) throws Exception {
+        final String cacheKey = DigestUtils.sha256Hex(name);
+        final Path cachedFile = localCacheIndex_.resolve(cacheKey);
+        Files.createDirectories(cachedFile.getParent());
+        Files.write(cachedFile, new byte[size]);
+        localCacheIndex_.refresh(cacheKey);
+        evictor.recordWrite(cacheKey, size);
+        return cachedFile;
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverMaxBytesTest() throws Exception {
+        final LocalCacheEvictor evictor = newLocalCacheEvictor(300L, 100L);
+
+        final Path first = writeCachedFile(evictor, "first", 100);
+        final Path second = writeCachedFile(evictor, "second", 100);
+        final Path third = writeCachedFile(evictor, "third", 100);
+
+        // A hit on the first file makes the second the least recently used.
+        evictor.recordAccess(DigestUtils.sha256Hex("first"));
+
+        final Path fourth = writeCachedFile(evictor, "fourth", 100);
+
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third));
+        assertTrue(Files.exists(fourth));
+        // Evicted files are dropped from the index, and from memory, too.
+        assertFalse(localCacheIndex_.contains(DigestUtils.sha256Hex("second")));
+        Mockito.verify(localCacheMemoryTier_).invalidate(DigestUtils.sha256Hex("second"));
+        Mockito.verifyNoMoreInteractions(localCacheMemoryTier_);
+    }
+
+    @Test
+    public void evictsWhenOverMaxEntriesTest() throws Exception {
+        final LocalCacheEvictor evictor = newLocalCacheEvictor(1000L, 2L);
+
+        final Path first = writeCachedFile(evictor, "first", 1);
+        final Path second = writeCachedFile(evictor, "second", 1);
+        final Path third = writeCachedFile(evictor, "third", 1);
+
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+        assertTrue(Files.exists(third));
+    }
+
+    @Test
+    public void neverEvictsPinnedFileTest() throws Exception {
+        final LocalCacheEvictor evictor = newLocalCacheEvictor(200L, 100L);
+
+        final Path first = writeCachedFile(evictor, "first", 100);
+        final Path second = writeCachedFile(evictor, "second", 100);
+
+        // The least recently used file is being streamed, so the next one is evicted instead.
+        try (Closeable ignored = evictor.pin(DigestUtils.sha256Hex("first"))) {
+            final Path third = writeCachedFile(evictor, "third", 100);
+
+            assertTrue(Files.exists(first));
+            assertFalse(Files.exists(second));
+            assertTrue(Files.exists(third));
+        }
+
+        // Once unpinned, the file is evictable again.
+        writeCachedFile(evictor, "fourth", 100);
+        assertFalse(Files.exists(first));
+    }
+
+    @Test
+    public void tracksExistingFilesOnStartupTest() throws Exception {
+        final String olderKey = DigestUtils.sha256Hex("older");
+        final Path older = Files.write(localCacheDir_.resolve(olderKey), new byte[100]);
+        Files.setLastModifiedTime(older, FileTime.fromMillis(1_000L));
+        final String newerKey = DigestUtils.sha256Hex("newer");
+        final Path newer = Files.write(localCacheDir_.resolve(newerKey), new byte[100]);
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(2_000L));
+
+        final LocalCacheEvictor evictor = newLocalCacheEvictor(200L, 100L);
+        final Path latest = writeCachedFile(evictor, "latest", 100);
+
+        assertFalse(Files.exists(localCacheIndex_.resolve(olderKey)));
+        assertTrue(Files.exists(localCacheIndex_.resolve(newerKey)));
+        assertTrue(Files.exists(latest));
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LocalCacheIndexTest {
+
+    @TempDir
+    Path localCacheDir_;
+
+    private LocalCacheIndex newLocalCacheIndex() {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.getLocalCacheDirectory()).thenReturn(localCacheDir_);
+
+        final AsyncCacheThreadPool asyncCacheThreadPool =
+                new AsyncCacheThreadPool(MoreExecutors.newDirectExecutorService());
+
+        return new LocalCacheIndex(localCacheConfig, asyncCacheThreadPool);
+    }
+
+    @Test
+    public void resolvesIntoHashPrefixShardTest() {
+        final LocalCacheIndex index = newLocalCacheIndex();
+
+        final String cacheKey = DigestUtils.sha256Hex("/foobar/secret-stuff/cool.txt");
+        final Path cachedFile = index.resolve(cacheKey);
+
+        assertEquals(localCacheDir_.resolve(cacheKey.substring(0, 2)).resolve(cacheKey), cachedFile);
+    }
+
+    @Test
+    public void rebuildsFromShardedLayoutTest() throws Exception {
+        final String cacheKey = DigestUtils.sha256Hex("/foobar/secret-stuff/cool.txt");
+        final Path shardDir = Files.createDirectories(localCacheDir_.resolve(cacheKey.substring(0, 2)));
+        Files.write(shardDir.resolve(cacheKey), new byte[771]);
+        // A partial download left behind by a previous run.
+        final Path tempFile = Files.write(shardDir.resolve(cacheKey + "-partial.tmp"), new byte[10]);
+
+        final LocalCacheIndex index = newLocalCacheIndex();
+
+        final LocalCacheIndex.CachedFile cachedFile = index.get(cacheKey);
+        assertNotNull(cachedFile);
+        assertEquals(771L, cachedFile.getSize());
+        assertEquals(1, index.getEntries().size());
+        assertFalse(Files.exists(tempFile));
+    }
+
+    @Test
+    public void migratesFlatLayoutIntoShardsTest() throws Exception {
+        final String cacheKey = DigestUtils.sha256Hex("/foobar/secret-stuff/kewl.txt");
+        final Path flatFile = Files.write(localCacheDir_.resolve(cacheKey), new byte[9914]);
+
+        final LocalCacheIndex index = newLocalCacheIndex();
+
+        assertTrue(index.contains(cacheKey));
+        assertFalse(Files.exists(flatFile));
+        assertTrue(Files.exists(index.resolve(cacheKey)));
+    }
+
+    @Test
+    public void refreshAndRemoveTest() throws Exception {
+        final LocalCacheIndex index = newLocalCacheIndex();
+
+        final String cacheKey = DigestUtils.sha256Hex("/foobar/secret-stuff/cool.txt");
+        assertFalse(index.contains(cacheKey));
+
+        final Path cachedFile = index.resolve(cacheKey);
+        Files.createDirectories(cachedFile.getParent());
+        Files.write(cachedFile, new byte[42]);
+
+        final LocalCacheIndex.CachedFile refreshed = index.refresh(cacheKey);
+        assertNotNull(refreshed);
+        assertEquals(42L, refreshed.getSize());
+        assertTrue(index.contains(cacheKey));
+
+        index.remove(cacheKey);
+        assertFalse(index.contains(cacheKey));
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.components.storage.cache;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.async.AsyncCacheThreadPool;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LocalCacheMemoryTierTest {
+
+    private static final long KB = 1024L;
+
+    @TempDir
+    Path localCacheDir_;
+
+    private LocalCacheIndex localCacheIndex_;
+
+    private LocalCacheMemoryTier newLocalCacheMemoryTier(
+            final long maxBytes) {
+        return newLocalCacheMemoryTier(maxBytes, 0);
+    }
+
+    private LocalCacheMemoryTier newLocalCacheMemoryTier(
+            final long maxBytes,
+            final int minHits) {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.getLocalCacheDirectory()).thenReturn(localCacheDir_);
+        Mockito.when(localCacheConfig.localCacheMemoryTierEnabled()).thenReturn(true);
+        Mockito.when(localCacheConfig.getLocalCacheMemoryTierMaxBytes()).thenReturn(maxBytes);
+        Mockito.when(localCacheConfig.getLocalCacheMemoryTierMaxFileSize()).thenReturn(16L * KB);
+        Mockito.when(localCacheConfig.getLocalCacheMemoryTierSlabSize()).thenReturn(16L * KB);
+        Mockito.when(localCacheConfig.getLocalCacheMemoryTierMinHits()).thenReturn(minHits);
+
+        final AsyncCacheThreadPool asyncCacheThreadPool =
+                new AsyncCacheThreadPool(MoreExecutors.newDirectExecutorService());
+        localCacheIndex_ = new LocalCacheIndex(localCacheConfig, asyncCacheThreadPool);
+
+        return new LocalCacheMemoryTier(localCacheConfig, localCacheIndex_);
+    }
+
+    private LocalCacheIndex.CachedFile writeCachedFile(
+            final String resourcePath,
+            final byte[] content) throws Exception {
+        final String cacheKey = DigestUtils.sha256Hex(resourcePath);
+        final Path cachedFile = localCacheIndex_.resolve(cacheKey);
+        Files.createDirectories(cachedFile.getParent());
+        Files.write(cachedFile, content);
+
+        return localCacheIndex_.refresh(cacheKey);
+    }
+
+    private static byte[] toByteArray(
+            final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void servesFromMemoryTest() throws Exception {
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(64L * KB);
+
+        final byte[] content = "dogs and cats".getBytes();
+        final LocalCacheIndex.CachedFile cachedFile = writeCachedFile("/foobar/receipt.txt", content);
+        assertNotNull(cachedFile);
+        assertTrue(memoryTier.isCandidate(cachedFile));
+
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(cachedFile)) {
+            assertNotNull(loaded);
+            assertEquals(new String(content), new String(toByteArray(loaded.getContent())));
+        }
+
+        // Once loaded, the file is served from memory even if gone from disk.
+        Files.delete(localCacheIndex_.resolve(cachedFile.getCacheKey()));
+        try (LocalCacheMemoryTier.CachedContent cached = memoryTier.acquire(cachedFile)) {
+            assertNotNull(cached);
+            assertEquals(new String(content), new String(toByteArray(cached.getContent())));
+        }
+    }
+
+    @Test
+    public void skipsLargeFilesTest() throws Exception {
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(64L * KB);
+
+        final LocalCacheIndex.CachedFile cachedFile =
+                writeCachedFile("/foobar/movie.mp4", new byte[(int) (16L * KB) + 1]);
+        assertNotNull(cachedFile);
+
+        assertFalse(memoryTier.isCandidate(cachedFile));
+        assertNull(memoryTier.acquire(cachedFile));
+    }
+
+    @Test
+    public void reloadsStaleCopyTest() throws Exception {
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(64L * KB);
+
+        final LocalCacheIndex.CachedFile original = writeCachedFile("/foobar/notes.txt", "v1".getBytes());
+        assertNotNull(original);
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(original)) {
+            assertNotNull(loaded);
+        }
+
+        // The file is downloaded again, with new content.
+        final Path file = localCacheIndex_.resolve(original.getCacheKey());
+        Files.write(file, "v2!".getBytes());
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60L)));
+        final LocalCacheIndex.CachedFile updated = localCacheIndex_.refresh(original.getCacheKey());
+        assertNotNull(updated);
+
+        try (LocalCacheMemoryTier.CachedContent reloaded = memoryTier.acquire(updated)) {
+            assertNotNull(reloaded);
+            assertEquals("v2!", new String(toByteArray(reloaded.getContent())));
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyServedTest() throws Exception {
+        // Room for exactly one slab, of one 16KB chunk.
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(16L * KB);
+
+        final LocalCacheIndex.CachedFile first = writeCachedFile("/foobar/a.pdf", new byte[10000]);
+        final LocalCacheIndex.CachedFile second = writeCachedFile("/foobar/b.pdf", new byte[12000]);
+        assertNotNull(first);
+        assertNotNull(second);
+
+        final LocalCacheMemoryTier.CachedContent pinned = memoryTier.acquire(first);
+        assertNotNull(pinned);
+        // The only chunk is pinned, so there is no room for the second file.
+        assertNull(memoryTier.acquire(second));
+        pinned.close();
+
+        // Once released, the first file is evicted to make room for the second.
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(second)) {
+            assertNotNull(loaded);
+            assertEquals(12000, loaded.getContent().remaining());
+        }
+    }
+
+    @Test
+    public void invalidateWhilePinnedTest() throws Exception {
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(16L * KB);
+
+        final LocalCacheIndex.CachedFile first = writeCachedFile("/foobar/a.pdf", new byte[10000]);
+        final LocalCacheIndex.CachedFile second = writeCachedFile("/foobar/b.pdf", new byte[12000]);
+        assertNotNull(first);
+        assertNotNull(second);
+
+        final LocalCacheMemoryTier.CachedContent pinned = memoryTier.acquire(first);
+        assertNotNull(pinned);
+        memoryTier.invalidate(first.getCacheKey());
+        // Still being served; its chunk is not reclaimed yet.
+        assertNull(memoryTier.acquire(second));
+        assertEquals(10000, pinned.getContent().remaining());
+
+        pinned.close();
+        pinned.close();
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(second)) {
+            assertNotNull(loaded);
+            assertEquals(12000, loaded.getContent().remaining());
+        }
+    }
+
+    @Test
+    public void loadsOnlyHotFilesTest() throws Exception {
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(64L * KB, 2);
+
+        final LocalCacheIndex.CachedFile cachedFile = writeCachedFile("/foobar/once.txt", "hi".getBytes());
+        assertNotNull(cachedFile);
+
+        // Served once, it's left on disk; served again, it's worth holding in memory.
+        assertNull(memoryTier.acquire(cachedFile));
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(cachedFile)) {
+            assertNotNull(loaded);
+            assertEquals("hi", new String(toByteArray(loaded.getContent())));
+        }
+    }
+
+    @Test
+    public void reassignsSlabAcrossSizeClassesTest() throws Exception {
+        // Room for exactly one slab, first carved into 4KB chunks for the small file.
+        final LocalCacheMemoryTier memoryTier = newLocalCacheMemoryTier(16L * KB);
+
+        final LocalCacheIndex.CachedFile small = writeCachedFile("/foobar/small.txt", new byte[3000]);
+        final LocalCacheIndex.CachedFile large = writeCachedFile("/foobar/large.pdf", new byte[12000]);
+        assertNotNull(small);
+        assertNotNull(large);
+
+        final LocalCacheMemoryTier.CachedContent pinned = memoryTier.acquire(small);
+        assertNotNull(pinned);
+        // The only slab is pinned, so it can't be reassigned to the large file's class.
+        assertNull(memoryTier.acquire(large));
+        pinned.close();
+
+        try (LocalCacheMemoryTier.CachedContent loaded = memoryTier.acquire(large)) {
+            assertNotNull(loaded);
+            assertEquals(12000, loaded.getContent().remaining());
+        }
+
+        // The small file was evicted along with its slab; with nothing on disk to reload
+        // it from, it can't be served from memory anymore.
+        Files.delete(localCacheIndex_.resolve(small.getCacheKey()));
+        assertNull(memoryTier.acquire(small));
+    }
+
+}
@@ -34,6 +34,7 @@ import onyx.components.storage.filter.OnyxResourceFilter;
 import onyx.components.storage.filter.ResourceFilter;
 import onyx.entities.authentication.Session;
 import onyx.entities.freemarker.FreeMarkerContent;
+import onyx.entities.storage.ResourcePage;
 import onyx.entities.storage.aws.dynamodb.Resource;
 import onyx.exceptions.resource.ResourceForbiddenException;
 import org.apache.commons.lang3.StringUtils;
@@ -76,12 +77,14 @@ public final class BrowseTest extends AbstractOnyxControllerTest {
         final List<Resource> directoryList =
                 resourceJsonToObject("mock/browse/foobar-dir-list.json", new TypeReference<>() {});
         Mockito.when(resourceManager.listDirectory(ArgumentMatchers.eq(homeDirectory),
-                visibilityCaptor.capture(), ArgumentMatchers.any())).thenReturn(directoryList);
+                visibilityCaptor.capture(), ArgumentMatchers.anyInt(), ArgumentMatchers.any()))
+                .thenReturn(new ResourcePage.Builder(directoryList).build());
 
         final Browse controller = new Browse(onyxConfig_, resourceManager, resourceFilter);
 
         final Session session = generateNewSession("foobar");
-        final FreeMarkerContent responseEntity = controller.browseUserHomeDirectory(session.getUsername(), session);
+        final FreeMarkerContent responseEntity =
+                controller.browseUserHomeDirectory(session.getUsername(), null, session);
         assertNotNull(responseEntity);
 
         assertEquals(ImmutableSet.of(Resource.Visibility.PUBLIC, Resource.Visibility.PRIVATE),
@@ -106,22 +109,23 @@ public final class BrowseTest extends AbstractOnyxControllerTest {
 
         final ArgumentCaptor<Set<Resource.Visibility>> visibilityCaptor =
                 ArgumentCaptor.forClass(Set.class);
-        final ArgumentCaptor<ResourceManager.Extensions.Sort> sortCapture =
-                ArgumentCaptor.forClass(ResourceManager.Extensions.Sort.class);
+        final ArgumentCaptor<String> cursorCapture =
+                ArgumentCaptor.forClass(String.class);
 
         final List<Resource> directoryList =
                 resourceJsonToObject("mock/browse/foobar-dir-list.json", new TypeReference<>() {});
         Mockito.when(resourceManager.listDirectory(ArgumentMatchers.eq(homeDirectory),
-                visibilityCaptor.capture(), sortCapture.capture())).thenReturn(directoryList);
+                visibilityCaptor.capture(), ArgumentMatchers.anyInt(), cursorCapture.capture()))
+                .thenReturn(new ResourcePage.Builder(directoryList).build());
 
         final Browse controller = new Browse(onyxConfig_, resourceManager, resourceFilter);
 
-        final FreeMarkerContent responseEntity = controller.browseUserHomeDirectory("foobar", null);
+        final FreeMarkerContent responseEntity = controller.browseUserHomeDirectory("foobar", null, null);
         assertNotNull(responseEntity);
 
         assertEquals(ImmutableSet.of(Resource.Visibility.PUBLIC),
                 visibilityCaptor.getValue());
-        assertNull(sortCapture.getValue());
+        assertNull(cursorCapture.getValue());
 
         final String renderedHtml = fmcRenderer_.contentToString(responseEntity);
         assertTrue(StringUtils.isNotBlank(renderedHtml));
@@ -142,22 +146,23 @@ public final class BrowseTest extends AbstractOnyxControllerTest {
 
         final ArgumentCaptor<Set<Resource.Visibility>> visibilityCaptor =
                 ArgumentCaptor.forClass(Set.class);
-        final ArgumentCaptor<ResourceManager.Extensions.Sort> sortCapture =
-                ArgumentCaptor.forClass(ResourceManager.Extensions.Sort.class);
+        final ArgumentCaptor<String> cursorCapture =
+                ArgumentCaptor.forClass(String.class);
 
         final List<Resource> directoryList =
                 resourceJsonToObject("mock/browse/foobar-dir-list.json", new TypeReference<>() {});
         Mockito.when(resourceManager.listDirectory(ArgumentMatchers.eq(homeDirectory),
-                visibilityCaptor.capture(), sortCapture.capture())).thenReturn(directoryList);
+                visibilityCaptor.capture(), ArgumentMatchers.anyInt(), cursorCapture.capture()))
+                .thenReturn(new ResourcePage.Builder(directoryList).build());
 
         final Browse controller = new Browse(onyxConfig_, resourceManager, resourceFilter);
 
-        final FreeMarkerContent responseEntity = controller.browseUserHomeDirectory("foobar", null);
+        final FreeMarkerContent responseEntity = controller.browseUserHomeDirectory("foobar", null, null);
         assertNotNull(responseEntity);
 
         assertEquals(ImmutableSet.of(Resource.Visibility.PUBLIC),
                 visibilityCaptor.getValue());
-        assertNull(sortCapture.getValue());
+        assertNull(cursorCapture.getValue());
 
         final String renderedHtml = fmcRenderer_.contentToString(responseEntity);
         assertTrue(StringUtils.isNotBlank(renderedHtml));
@@ -181,7 +186,7 @@ public final class BrowseTest extends AbstractOnyxControllerTest {
 
         final Session session = generateNewSession("baz");
         assertThrows(ResourceForbiddenException.class,
-                () -> controller.browseDirectory("foobar", "secret-stuff", session));
+                () -> controller.browseDirectory("foobar", "secret-stuff", null, session));
     }
 
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.controllers.api.v1;
+
+import onyx.components.OnyxJacksonObjectMapper;
+import onyx.components.storage.AssetManager;
+import onyx.components.storage.CacheManager;
+import onyx.components.storage.ResourceManager;
+import onyx.controllers.AbstractOnyxControllerTest;
+import onyx.entities.authentication.Session;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.function.Consumer;
+
+public final class DirectoryTest extends AbstractOnyxControllerTest {
+
+    public DirectoryTest() throws Exception {
+    }
+
+    @Test
+    public void deleteDirectoryEvictsEveryDeletedFileFromCacheTest() throws Exception {
+        final Resource directory = resourceJsonToObject("mock/browse/foobar-private-dir.json", Resource.class);
+        directory.setFavorite(false);
+        final Resource file = resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
+
+        // The directory is deleted first, then its subtree.
+        final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        Mockito.when(resourceManager.getResourceAtPath("/foobar/secret-stuff")).thenReturn(directory);
+        Mockito.doAnswer(invocation -> {
+            final Consumer<Resource> onDeleted = invocation.getArgument(1);
+            onDeleted.accept(directory);
+            onDeleted.accept(file);
+            return null;
+        }).when(resourceManager).deleteResource(ArgumentMatchers.eq(directory), ArgumentMatchers.any());
+
+        final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+
+        final Directory controller = new Directory(onyxConfig_, Mockito.mock(AssetManager.class),
+                resourceManager, cacheManager, new OnyxJacksonObjectMapper());
+
+        final Session session = generateNewSession("foobar");
+        controller.deleteDirectory(session.getUsername(), "secret-stuff", false, session);
+
+        Mockito.verify(cacheManager).deleteResourceFromCacheAsync(file);
+        Mockito.verify(cacheManager, Mockito.never()).deleteResourceFromCacheAsync(directory);
+    }
+
+}
@@ -28,8 +28,11 @@ package onyx.controllers.api.v1;
 
 import curacao.core.servlet.AsyncContext;
 import curacao.core.servlet.HttpResponse;
+import onyx.components.OnyxJacksonObjectMapper;
 import onyx.components.config.cache.LocalCacheConfig;
 import onyx.components.storage.AssetManager;
+import onyx.components.storage.AsyncResourceManager;
+import onyx.components.storage.CacheAdmissionPolicy;
 import onyx.components.storage.CacheManager;
 import onyx.components.storage.ResourceManager;
 import onyx.components.storage.sizer.cost.CostAnalyzer;
@@ -43,6 +46,7 @@ import org.mockito.Mockito;
 
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -58,14 +62,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String privateFileName = "/foobar/secret-stuff/cool.txt";
         final Resource privateFile =
                 resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(privateFileName)))
-                .thenReturn(privateFile);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFile));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + privateFileName).toURL();
         Mockito.when(cacheManager.getCachedDownloadUrlForResource(ArgumentMatchers.eq(privateFile)))
@@ -77,8 +83,9 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/cool.txt", null,
@@ -95,14 +102,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String privateFileName = "/foobar/secret-stuff/cool.txt";
         final Resource privateFile =
                 resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(privateFileName)))
-                .thenReturn(privateFile);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFile));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + privateFileName).toURL();
         Mockito.when(assetManager.getPresignedDownloadUrlForResource(privateFile))
@@ -120,8 +129,9 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/cool.txt", null,
@@ -139,14 +149,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String privateFileName = "/foobar/secret-stuff/cool.txt";
         final Resource privateFile =
                 resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(privateFileName)))
-                .thenReturn(privateFile);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFile));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + privateFileName).toURL();
         Mockito.when(assetManager.getPresignedDownloadUrlForResource(privateFile))
@@ -158,8 +170,9 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/cool.txt", true,
@@ -177,14 +190,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String privateFileName = "/foobar/secret-stuff/cool.txt";
         final Resource privateFile =
                 resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(privateFileName)))
-                .thenReturn(privateFile);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFile));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + privateFileName).toURL();
         Mockito.when(assetManager.getPresignedDownloadUrlForResource(privateFile))
@@ -196,8 +211,9 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/cool.txt", false,
@@ -215,14 +231,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String privateFileName = "/foobar/secret-stuff/awesome.txt";
         final Resource privateFileNotFavorite =
                 resourceJsonToObject("mock/browse/foobar-private-file-not-favorite.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(privateFileName)))
-                .thenReturn(privateFileNotFavorite);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFileNotFavorite));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + privateFileName).toURL();
         Mockito.when(assetManager.getPresignedDownloadUrlForResource(privateFileNotFavorite))
@@ -234,14 +252,15 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/awesome.txt", null,
                 session, httpResponse, asyncContext);
 
-        // Non-favorite files are never downloaded to the local cache.
+        // Non-favorite files are never downloaded to the local cache, unless admitted.
         Mockito.verifyNoInteractions(cacheManager);
         assertEquals(redirectUrl.toString(), redirectLocation.getValue());
         Mockito.verify(asyncContext).complete();
@@ -254,14 +273,16 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
 
         final AssetManager assetManager = Mockito.mock(AssetManager.class);
         final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
         final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
         final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
 
         final String publicFileName = "/foobar/secret-stuff/kewl.txt";
         final Resource publicFile =
                 resourceJsonToObject("mock/browse/foobar-public-file.json", Resource.class);
-        Mockito.when(resourceManager.getResourceAtPath(ArgumentMatchers.eq(publicFileName)))
-                .thenReturn(publicFile);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(publicFileName)))
+                .thenReturn(CompletableFuture.completedFuture(publicFile));
 
         final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + publicFileName).toURL();
         Mockito.when(assetManager.getPresignedDownloadUrlForResource(publicFile))
@@ -273,18 +294,116 @@ public final class DownloadTest extends AbstractOnyxControllerTest {
         final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
         Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
 
-        final Download controller = new Download(onyxConfig_, localCacheConfig,
-                resourceManager, assetManager, cacheManager, costAnalyzer);
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
 
         final Session session = generateNewSession("foobar");
         controller.downloadFile("foobar", "secret-stuff/kewl.txt", null,
                 session, httpResponse, asyncContext);
 
-        // Public files are never downloaded to the local cache.
+        // Public files are never downloaded to the local cache, unless admitted.
         Mockito.verify(cacheManager, Mockito.never())
                 .downloadResourceToCacheAsync(ArgumentMatchers.any());
         assertEquals(redirectUrl.toString(), redirectLocation.getValue());
         Mockito.verify(asyncContext).complete();
     }
 
+    @Test
+    public void redirectToFileDownloadAdmittedPublicFileTest() throws Exception {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.localCacheEnabled()).thenReturn(true);
+
+        final AssetManager assetManager = Mockito.mock(AssetManager.class);
+        final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
+        final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
+        final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
+
+        final String publicFileName = "/foobar/secret-stuff/kewl.txt";
+        final Resource publicFile =
+                resourceJsonToObject("mock/browse/foobar-public-file.json", Resource.class);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(publicFileName)))
+                .thenReturn(CompletableFuture.completedFuture(publicFile));
+
+        final URL redirectUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH + publicFileName).toURL();
+        Mockito.when(assetManager.getPresignedDownloadUrlForResource(publicFile))
+                .thenReturn(redirectUrl);
+
+        // The file has been downloaded often enough to be admitted, but is not in cache yet.
+        Mockito.when(cacheAdmissionPolicy.shouldAdmit(ArgumentMatchers.eq(publicFile)))
+                .thenReturn(true);
+        Mockito.when(cacheManager.getCachedDownloadUrlForResource(ArgumentMatchers.eq(publicFile)))
+                .thenReturn(null);
+
+        final HttpResponse httpResponse = Mockito.mock(HttpResponse.class);
+        final AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+
+        final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
+        Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
+
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
+
+        final Session session = generateNewSession("foobar");
+        controller.downloadFile("foobar", "secret-stuff/kewl.txt", null,
+                session, httpResponse, asyncContext);
+
+        // Admitted files are downloaded to the local cache, whatever their visibility.
+        Mockito.verify(cacheAdmissionPolicy).recordAccess(publicFile);
+        Mockito.verify(cacheManager).downloadResourceToCacheAsync(publicFile);
+        assertEquals(redirectUrl.toString(), redirectLocation.getValue());
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void redirectToFileDownloadReadThroughPrivateFileTest() throws Exception {
+        final LocalCacheConfig localCacheConfig = Mockito.mock(LocalCacheConfig.class);
+        Mockito.when(localCacheConfig.localCacheEnabled()).thenReturn(true);
+        Mockito.when(localCacheConfig.localCacheReadThroughEnabled()).thenReturn(true);
+
+        final AssetManager assetManager = Mockito.mock(AssetManager.class);
+        final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final AsyncResourceManager asyncResourceManager = Mockito.mock(AsyncResourceManager.class);
+        final CacheManager cacheManager = Mockito.mock(CacheManager.class);
+        final CacheAdmissionPolicy cacheAdmissionPolicy = Mockito.mock(CacheAdmissionPolicy.class);
+        final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
+
+        final String privateFileName = "/foobar/secret-stuff/cool.txt";
+        final Resource privateFile =
+                resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
+        Mockito.when(asyncResourceManager.getResourceAtPathAsync(ArgumentMatchers.eq(privateFileName)))
+                .thenReturn(CompletableFuture.completedFuture(privateFile));
+
+        final URL readThroughUrl = URI.create(UNIT_TEST_BASE_URI + UNIT_TEST_CONTEXT_PATH
+                + "/static/cache/token/cool.txt").toURL();
+        Mockito.when(cacheManager.getCachedDownloadUrlForResource(ArgumentMatchers.eq(privateFile)))
+                .thenReturn(null); // File is not in cache
+        Mockito.when(cacheManager.getReadThroughDownloadUrlForResource(ArgumentMatchers.eq(privateFile)))
+                .thenReturn(readThroughUrl);
+
+        final HttpResponse httpResponse = Mockito.mock(HttpResponse.class);
+        final AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+
+        final ArgumentCaptor<String> redirectLocation = ArgumentCaptor.forClass(String.class);
+        Mockito.doNothing().when(httpResponse).sendRedirect(redirectLocation.capture());
+
+        final Download controller = new Download(onyxConfig_, localCacheConfig, resourceManager,
+                asyncResourceManager, assetManager, cacheManager, cacheAdmissionPolicy, costAnalyzer,
+                new OnyxJacksonObjectMapper());
+
+        final Session session = generateNewSession("foobar");
+        controller.downloadFile("foobar", "secret-stuff/cool.txt", null,
+                session, httpResponse, asyncContext);
+
+        // The file is streamed through the cache; it is never fetched from S3 a second time.
+        Mockito.verify(assetManager, Mockito.never()).getPresignedDownloadUrlForResource(ArgumentMatchers.any());
+        Mockito.verify(cacheManager, Mockito.never())
+                .downloadResourceToCacheAsync(ArgumentMatchers.any());
+        assertEquals(readThroughUrl.toString(), redirectLocation.getValue());
+        Mockito.verify(asyncContext).complete();
+    }
+
 }
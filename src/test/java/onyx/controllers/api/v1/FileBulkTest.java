@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Mark S. Kolich
+ * https://mark.koli.ch
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package onyx.controllers.api.v1;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import onyx.components.OnyxJacksonObjectMapper;
+import onyx.components.config.aws.AwsConfig;
+import onyx.components.config.cache.LocalCacheConfig;
+import onyx.components.storage.AssetManager;
+import onyx.components.storage.CacheManager;
+import onyx.components.storage.ResourceManager;
+import onyx.components.storage.filter.UploadFilter;
+import onyx.components.storage.sizer.cost.CostAnalyzer;
+import onyx.controllers.AbstractOnyxControllerTest;
+import onyx.entities.api.request.v1.BulkUploadFileRequest;
+import onyx.entities.api.response.v1.BulkUploadFileResponse;
+import onyx.entities.authentication.Session;
+import onyx.entities.storage.aws.dynamodb.Resource;
+import onyx.exceptions.api.ApiNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class FileBulkTest extends AbstractOnyxControllerTest {
+
+    public FileBulkTest() throws Exception {
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void uploadsIntoNestedDirectoryTest() throws Exception {
+        final AwsConfig awsConfig = Mockito.mock(AwsConfig.class);
+        Mockito.when(awsConfig.getAwsS3MaxUploadFileSize()).thenReturn(Long.MAX_VALUE);
+
+        final AssetManager assetManager = Mockito.mock(AssetManager.class);
+        Mockito.when(assetManager.getPresignedUploadUrlForResource(ArgumentMatchers.any()))
+                .thenReturn(new URL("https://s3.example.com/upload"));
+
+        final CostAnalyzer costAnalyzer = Mockito.mock(CostAnalyzer.class);
+        Mockito.when(costAnalyzer.computeResourceCost(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(BigDecimal.ZERO);
+
+        // The home directory and /foobar/secret-stuff exist; /foobar/secret-stuff/2024 does not.
+        final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        final Map<String, Resource> existing = ImmutableMap.of(
+                "/foobar", resourceJsonToObject("mock/browse/foobar.json", Resource.class),
+                "/foobar/secret-stuff", resourceJsonToObject("mock/browse/foobar-private-dir.json", Resource.class));
+        Mockito.when(resourceManager.getResourcesAtPaths(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    final Collection<String> paths = invocation.getArgument(0);
+                    return existing.entrySet().stream()
+                            .filter(entry -> paths.contains(entry.getKey()))
+                            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                });
+
+        final FileBulk controller = new FileBulk(onyxConfig_, Mockito.mock(LocalCacheConfig.class),
+                awsConfig, assetManager, Mockito.mock(CacheManager.class), resourceManager,
+                costAnalyzer, Mockito.mock(UploadFilter.class), new OnyxJacksonObjectMapper());
+
+        final BulkUploadFileRequest request = new BulkUploadFileRequest.Builder()
+                .setFiles(ImmutableList.of(
+                        new BulkUploadFileRequest.Entry.Builder()
+                                .setPath("a/cool.txt")
+                                .setSize(1L)
+                                .setDescription("")
+                                .setVisibility(Resource.Visibility.PRIVATE)
+                                .build(),
+                        new BulkUploadFileRequest.Entry.Builder()
+                                .setPath("b.txt")
+                                .setSize(1L)
+                                .setDescription("")
+                                .setVisibility(Resource.Visibility.PRIVATE)
+                                .build()))
+                .build();
+
+        // Posted to the directory itself, without a trailing slash, as the bulk uploader does.
+        final Session session = generateNewSession("foobar");
+        final BulkUploadFileResponse response = controller.uploadFiles(session.getUsername(),
+                "secret-stuff/2024", true, false, request, session);
+
+        assertEquals(List.of("a/cool.txt", "b.txt"), response.getFiles().stream()
+                .map(BulkUploadFileResponse.Entry::getPath)
+                .toList());
+
+        final ArgumentCaptor<List<Resource>> created = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(resourceManager, Mockito.times(2)).createResources(created.capture());
+
+        final List<Resource> directories = created.getAllValues().get(0);
+        assertEquals(List.of("/foobar/secret-stuff/2024", "/foobar/secret-stuff/2024/a"),
+                directories.stream().map(Resource::getPath).toList());
+        assertEquals(List.of("/foobar/secret-stuff", "/foobar/secret-stuff/2024"),
+                directories.stream().map(Resource::getParent).toList());
+
+        final List<Resource> files = created.getAllValues().get(1);
+        assertEquals(List.of("/foobar/secret-stuff/2024/a/cool.txt", "/foobar/secret-stuff/2024/b.txt"),
+                files.stream().map(Resource::getPath).toList());
+        assertEquals(List.of("/foobar/secret-stuff/2024/a", "/foobar/secret-stuff/2024"),
+                files.stream().map(Resource::getParent).toList());
+    }
+
+    @Test
+    public void rejectedManifestOverwritesNothingTest() throws Exception {
+        final AwsConfig awsConfig = Mockito.mock(AwsConfig.class);
+        Mockito.when(awsConfig.getAwsS3MaxUploadFileSize()).thenReturn(Long.MAX_VALUE);
+
+        final AssetManager assetManager = Mockito.mock(AssetManager.class);
+        final ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+
+        // The first file exists, and is to be overwritten; the parent directory of the
+        // second file does not exist, so the manifest as a whole is rejected.
+        final Resource existingFile =
+                resourceJsonToObject("mock/browse/foobar-private-file.json", Resource.class);
+        Mockito.when(resourceManager.getResourcesAtPaths(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    final Collection<String> paths = invocation.getArgument(0);
+                    return paths.contains(existingFile.getPath())
+                            ? ImmutableMap.of(existingFile.getPath(), existingFile)
+                            : ImmutableMap.of();
+                });
+
+        final FileBulk controller = new FileBulk(onyxConfig_, Mockito.mock(LocalCacheConfig.class),
+                awsConfig, assetManager, Mockito.mock(CacheManager.class), resourceManager,
+                Mockito.mock(CostAnalyzer.class), Mockito.mock(UploadFilter.class),
+                new OnyxJacksonObjectMapper());
+
+        final BulkUploadFileRequest request = new BulkUploadFileRequest.Builder()
+                .setFiles(ImmutableList.of(
+                        new BulkUploadFileRequest.Entry.Builder()
+                                .setPath("secret-stuff/cool.txt")
+                                .setSize(1L)
+                                .setDescription("")
+                                .setVisibility(Resource.Visibility.PRIVATE)
+                                .build(),
+                        new BulkUploadFileRequest.Entry.Builder()
+                                .setPath("missing/new.txt")
+                                .setSize(1L)
+                                .setDescription("")
+                                .setVisibility(Resource.Visibility.PRIVATE)
+                                .build()))
+                .build();
+
+        final Session session = generateNewSession("foobar");
+        assertThrows(ApiNotFoundException.class,
+                () -> controller.uploadFiles(session.getUsername(), "", false, true, request, session));
+
+        Mockito.verify(assetManager, Mockito.never())
+                .deleteResource(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+        Mockito.verify(resourceManager, Mockito.never()).createResources(ArgumentMatchers.any());
+    }
+
+}
@@ -31,6 +31,7 @@ import onyx.AbstractOnyxTest;
 import org.apache.commons.lang3.tuple.Triple;
 import org.junit.jupiter.api.Test;
 
+import static onyx.util.PathUtils.getParentPath;
 import static onyx.util.PathUtils.normalizePath;
 import static onyx.util.PathUtils.splitNormalizedPathToElements;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -51,6 +52,15 @@ public final class PathUtilsTest extends AbstractOnyxTest {
         assertEquals("/foobar/baz/cat", normalizePath("foobar", "baz/cat"));
     }
 
+    @Test
+    public void getParentPathTest() {
+        assertEquals("/", getParentPath("/"));
+        assertEquals("/", getParentPath("/foo"));
+
+        assertEquals("/foo", getParentPath("/foo/bar"));
+        assertEquals("/foo/bar", getParentPath("/foo/bar/baz.txt"));
+    }
+
     @Test
     public void splitNormalizedPathToElementsTest() {
         assertEquals(ImmutableList.of(), splitNormalizedPathToElements("/"));
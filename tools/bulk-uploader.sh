@@ -0,0 +1,81 @@
+#!/bin/bash
+#set -x
+
+ONYX_USERNAME="[username here]"
+ONYX_API_KEY="[api key here]"
+
+BASE_API_URL="https://onyx.koli.ch/api/v1"
+
+# Requires: bash, curl, jq, perl (URI::Escape)
+
+# Usage: bulk-uploader.sh <local directory> [remote directory]
+# Uploads every file under the local directory, relative to the remote directory (the home
+# directory by default), with a single manifest request followed by one PUT per file.
+LOCAL_DIR="${1%/}"
+REMOTE_DIR="$(perl -MURI::Escape -e 'print uri_escape($ARGV[0],"^A-Za-z0-9\-\._~\/");' "${2:-}")"
+
+# The server accepts at most this many files per manifest.
+MANIFEST_BATCH_SIZE=1000
+
+upload_manifest() {
+  local MANIFEST_JSON="$1"
+
+  # Step 1: Post the manifest. The server validates every file, creates all of the resources
+  # (and any missing parent directories) in batches, and returns a presigned URL per file.
+  local RESPONSE
+  RESPONSE=$(
+    curl -s -X POST \
+      -H "Content-Type: application/json" \
+      -H "Authorization: Onyx $ONYX_API_KEY" \
+      --data "$MANIFEST_JSON" \
+      "$BASE_API_URL/file-bulk/$ONYX_USERNAME/$REMOTE_DIR?recursive=true"
+  )
+
+  local COUNT
+  COUNT="$(echo "$RESPONSE" | jq '.files | length' 2>/dev/null)"
+  if [ -z "$COUNT" ] || [ "$COUNT" = "0" ]; then
+    echo "Error uploading manifest, skipping batch: $RESPONSE"
+    return
+  fi
+
+  # Step 2: PUT each file to its presigned URL. Manifest paths are URL-encoded, so the
+  # local path is recovered from the manifest entry at the same index.
+  for (( i=0; i<COUNT; i++ )); do
+    local FILEPATH PRESIGNED_UPLOAD_URL
+    FILEPATH="$(echo "$MANIFEST_JSON" | jq -r ".files[$i].localPath")"
+    PRESIGNED_UPLOAD_URL="$(echo "$RESPONSE" | jq -r ".files[$i].presignedUploadUrl")"
+
+    echo "$FILEPATH"
+
+    curl -# -X PUT -T "$FILEPATH" \
+      --connect-timeout 120 \
+      "$PRESIGNED_UPLOAD_URL" > /dev/null
+  done
+}
+
+MANIFEST_JSON='{"files":[]}'
+MANIFEST_COUNT=0
+
+while IFS= read -r -d '' FILEPATH; do
+  RELATIVE_PATH="${FILEPATH#"$LOCAL_DIR"/}"
+  FILE="$(perl -MURI::Escape -e 'print uri_escape($ARGV[0],"^A-Za-z0-9\-\._~\/");' "$RELATIVE_PATH")"
+  FILESIZE=$(wc -c < "$FILEPATH")
+
+  # The server ignores the extra localPath property; it's only used to find the file again.
+  MANIFEST_JSON="$(echo "$MANIFEST_JSON" | jq \
+    --arg p "$FILE" \
+    --arg lp "$FILEPATH" \
+    --argjson s "$FILESIZE" \
+    '.files += [{"path": $p, "localPath": $lp, "size": $s, "description": "", "visibility": "PRIVATE"}]')"
+  MANIFEST_COUNT=$((MANIFEST_COUNT + 1))
+
+  if [ "$MANIFEST_COUNT" -ge "$MANIFEST_BATCH_SIZE" ]; then
+    upload_manifest "$MANIFEST_JSON"
+    MANIFEST_JSON='{"files":[]}'
+    MANIFEST_COUNT=0
+  fi
+done < <(find "$LOCAL_DIR" -type f -print0)
+
+if [ "$MANIFEST_COUNT" -gt 0 ]; then
+  upload_manifest "$MANIFEST_JSON"
+fi
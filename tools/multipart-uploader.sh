@@ -13,7 +13,8 @@ find "$@" -type f -print0 | while IFS= read -r -d '' FILEPATH; do
   FILESIZE=$(wc -c < "$FILEPATH")
 
   # Step 1: Initiate the multipart upload. The server creates the DynamoDB resource record,
-  # calls S3 CreateMultipartUpload, and returns the uploadId plus a presigned URL per part.
+  # calls S3 CreateMultipartUpload, and returns the uploadId, the part count and presigned URLs
+  # for the first window of parts. URLs for later windows are fetched on demand in step 2.
   INITIATE_RESPONSE=$(
     curl -s -X POST \
       -H "Content-Type: application/json" \
@@ -24,7 +25,8 @@ find "$@" -type f -print0 | while IFS= read -r -d '' FILEPATH; do
 
   UPLOAD_ID="$(echo "$INITIATE_RESPONSE" | jq -r '.uploadId')"
   PART_SIZE="$(echo "$INITIATE_RESPONSE" | jq -r '.partSize')"
-  PART_COUNT="$(echo "$INITIATE_RESPONSE" | jq '.parts | length')"
+  PART_COUNT="$(echo "$INITIATE_RESPONSE" | jq -r '.partCount')"
+  WINDOW_RESPONSE="$INITIATE_RESPONSE"
 
   if [ -z "$UPLOAD_ID" ] || [ "$UPLOAD_ID" = "null" ]; then
     echo "Error initiating multipart upload, skipping: $FILEPATH"
@@ -47,8 +49,27 @@ find "$@" -type f -print0 | while IFS= read -r -d '' FILEPATH; do
   # so part i (zero-based) starts at byte offset i*PART_SIZE. The last part is naturally
   # truncated to however many bytes remain.
   for (( i=0; i<PART_COUNT; i++ )); do
-    PART_NUMBER="$(echo "$INITIATE_RESPONSE" | jq -r ".parts[$i].partNumber")"
-    PRESIGNED_URL="$(echo "$INITIATE_RESPONSE" | jq -r ".parts[$i].presignedUrl")"
+    PART_NUMBER=$((i + 1))
+    PRESIGNED_URL="$(echo "$WINDOW_RESPONSE" | jq -r --argjson pn "$PART_NUMBER" \
+      '.parts[] | select(.partNumber == $pn) | .presignedUrl')"
+
+    # Past the end of the current window: fetch presigned URLs for the next window of parts.
+    if [ -z "$PRESIGNED_URL" ]; then
+      WINDOW_RESPONSE=$(
+        curl -s \
+          -H "Authorization: Onyx $ONYX_API_KEY" \
+          "$BASE_API_URL/file-multipart/$ONYX_USERNAME/$FILE?uploadId=$UPLOAD_ID_ENCODED&from=$PART_NUMBER"
+      )
+      PRESIGNED_URL="$(echo "$WINDOW_RESPONSE" | jq -r --argjson pn "$PART_NUMBER" \
+        '.parts[]? | select(.partNumber == $pn) | .presignedUrl')"
+    fi
+
+    if [ -z "$PRESIGNED_URL" ]; then
+      echo "  Error fetching presigned URL for part $PART_NUMBER, aborting."
+      UPLOAD_FAILED=1
+      break
+    fi
+
     PART_FILE="$WORK_DIR/part-$PART_NUMBER"
 
     dd if="$FILEPATH" bs="$PART_SIZE" skip="$i" count=1 of="$PART_FILE" 2>/dev/null